@@ -0,0 +1,34 @@
+package com.wifimanager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Congestion analysis of one scan, from a quiet home to a dense site survey. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChannelAnalyzerBenchmark {
+    @Param({"20", "500", "2000"})
+    public int accessPoints;
+
+    private List<ScanRecord> scan;
+
+    @Setup
+    public void setUp() {
+        scan = new SyntheticEnvironment(42, accessPoints).scan();
+    }
+
+    @Benchmark
+    public List<ChannelAnalyzer.BandStats> analyze() {
+        return ChannelAnalyzer.analyze(scan);
+    }
+}
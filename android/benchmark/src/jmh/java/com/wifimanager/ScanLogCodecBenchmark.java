@@ -0,0 +1,73 @@
+package com.wifimanager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Scan log codec throughput on a survey of drifting scans. Encoding runs in steady state,
+ * with every string already defined in the file; decoding reads a whole file of
+ * {@link #SCANS} scans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScanLogCodecBenchmark {
+    private static final int SCANS = 10;
+
+    @Param({"500"})
+    public int accessPoints;
+
+    private final List<List<ScanRecord>> scans = new ArrayList<>();
+    private final ScanLogCodec.Encoder encoder = new ScanLogCodec.Encoder();
+    private byte[] file;
+    private int next;
+    private long timestampMillis;
+
+    @Setup
+    public void setUp() {
+        SyntheticEnvironment environment = new SyntheticEnvironment(42, accessPoints);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.startFile();
+        out.write(encoder.buffer(), 0, encoder.size());
+        for (int i = 0; i < SCANS; i++) {
+            List<ScanRecord> scan = environment.scan();
+            scans.add(scan);
+            timestampMillis += 5000;
+            encoder.encode(scan, timestampMillis);
+            out.write(encoder.buffer(), 0, encoder.size());
+        }
+        file = out.toByteArray();
+    }
+
+    @Benchmark
+    public int encodeScan() {
+        List<ScanRecord> scan = scans.get(next);
+        next = next + 1 == SCANS ? 0 : next + 1;
+        timestampMillis += 5000;
+        encoder.encode(scan, timestampMillis);
+        return encoder.size();
+    }
+
+    @Benchmark
+    public int decodeFile() throws IOException {
+        ScanLogCodec.Decoder decoder = new ScanLogCodec.Decoder(new ByteArrayInputStream(file));
+        int records = 0;
+        for (ScanSnapshot scan = decoder.next(); scan != null; scan = decoder.next()) {
+            records += scan.size();
+        }
+        return records;
+    }
+}
@@ -0,0 +1,98 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Encoding one scan for the bridge in each payload format. The bridge containers are modelled
+ * with HashMap and ArrayList, as in React Native's JavaOnlyMap and JavaOnlyArray, so the
+ * numbers cover building the payload but not crossing JNI.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScanPayloadBenchmark {
+    @Param({"500"})
+    public int accessPoints;
+
+    private List<ScanRecord> scan;
+
+    @Setup
+    public void setUp() {
+        scan = new SyntheticEnvironment(42, accessPoints).scan();
+    }
+
+    /** One map per network, as convertScanResultsToArray builds them. */
+    @Benchmark
+    public List<Map<String, Object>> maps() {
+        List<Map<String, Object>> networks = new ArrayList<>(scan.size());
+        for (ScanRecord record : scan) {
+            Map<String, Object> network = new HashMap<>();
+            network.put("ssid", record.ssid);
+            network.put("bssid", record.bssid);
+            network.put("signalStrength", (double) record.level);
+            network.put("capabilities", record.capabilities);
+            network.put("frequency", (double) record.frequency);
+            network.put("channel", (double) record.channel);
+            network.put("band", record.band != null ? record.band.label : null);
+            network.put("centerChannel", (double) record.centerChannel);
+            network.put("channelWidth", (double) record.channelWidth);
+            network.put("security", record.security.label);
+            network.put("securityFlags", (double) record.security.flags);
+            networks.add(network);
+        }
+        return networks;
+    }
+
+    /** Columns plus the string table, as convertScanResultsToColumns builds them. */
+    @Benchmark
+    public Map<String, Object> columnar() {
+        ScanPayloadEncoder.Columns columns = ScanPayloadEncoder.encodeColumns(scan);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("count", (double) columns.count);
+        List<Object> strings = new ArrayList<>(columns.strings.length);
+        for (String value : columns.strings) {
+            strings.add(value);
+        }
+        payload.put("strings", strings);
+        payload.put("ssid", toList(columns.ssid));
+        payload.put("bssid", toList(columns.bssid));
+        payload.put("capabilities", toList(columns.capabilities));
+        payload.put("signalStrength", toList(columns.signalStrength));
+        payload.put("frequency", toList(columns.frequency));
+        payload.put("channel", toList(columns.channel));
+        payload.put("band", toList(columns.band));
+        payload.put("centerChannel", toList(columns.centerChannel));
+        payload.put("channelWidth", toList(columns.channelWidth));
+        payload.put("security", toList(columns.security));
+        payload.put("securityFlags", toList(columns.securityFlags));
+        return payload;
+    }
+
+    /** The packed binary form as the single base64 string sent over the bridge. */
+    @Benchmark
+    public String binaryBase64() {
+        return Base64.getEncoder().encodeToString(ScanPayloadEncoder.encodeBinary(scan));
+    }
+
+    private static List<Object> toList(int[] values) {
+        List<Object> list = new ArrayList<>(values.length);
+        for (int value : values) {
+            list.add((double) value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,98 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Everything the WiFi thread does with one fresh scan, minus the bridge: RSSI history, scan
+ * log encoding, roaming, the diff event and a filtered binary payload for the waiting promise.
+ * Scans come from a drifting {@link SyntheticEnvironment}, one second apart, so the diff and
+ * roaming state see realistic changes instead of the same scan again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScanPipelineBenchmark {
+    // Generated up front so the environment's random walk stays out of the measurement
+    private static final int SCANS = 64;
+
+    @Param({"300"})
+    public int accessPoints;
+
+    private final List<List<ScanRecord>> scans = new ArrayList<>();
+    private final FakeClock clock = new FakeClock(0);
+    private final ScanLogCodec.Encoder logEncoder = new ScanLogCodec.Encoder();
+    private SignalHistory history;
+    private RoamingSelector roaming;
+    private ScanDiffEngine diffEngine;
+    private ScanQuery query;
+    private String currentBssid;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticEnvironment environment = new SyntheticEnvironment(42, accessPoints);
+        for (int i = 0; i < SCANS; i++) {
+            scans.add(environment.scan());
+        }
+        Set<String> ssids = new HashSet<>();
+        for (ScanRecord record : scans.get(0)) {
+            if (record.ssid != null && !record.ssid.isEmpty()) {
+                ssids.add(record.ssid);
+            }
+        }
+        currentBssid = scans.get(0).get(0).bssid;
+        history = SignalHistory.withDefaults();
+        roaming = new RoamingSelector(clock, ssids, RoamingSelector.DEFAULT_HYSTERESIS_DB,
+                RoamingSelector.DEFAULT_DWELL_MS, RoamingSelector.DEFAULT_MIN_RSSI,
+                RoamingSelector.DEFAULT_FAILURE_WINDOW_MS);
+        diffEngine = new ScanDiffEngine(ScanDiffEngine.DEFAULT_RSSI_HYSTERESIS_DB,
+                ScanDiffEngine.DEFAULT_KEYFRAME_INTERVAL);
+        query = new ScanQuery.Builder()
+                .minRssi(-80)
+                .band(ChannelResolver.Band.GHZ_5)
+                .excludeHidden(true)
+                .sortBy(ScanQuery.SortKey.SIGNAL_STRENGTH)
+                .build();
+        logEncoder.startFile();
+        // Warms the history, selector and diff state with one pass over the scans
+        for (int i = 0; i < SCANS; i++) {
+            deliver();
+        }
+    }
+
+    @Benchmark
+    public int deliverFreshScan() {
+        return deliver();
+    }
+
+    private int deliver() {
+        clock.advance(1000);
+        List<ScanRecord> scan = scans.get(next);
+        next = (next + 1) % SCANS;
+
+        ScanSnapshot snapshot = new ScanSnapshot(scan, clock.nowMillis());
+        history.ingest(snapshot.records, snapshot.timestampMillis);
+        logEncoder.encode(snapshot.records, snapshot.timestampMillis);
+        RoamingSelector.Recommendation recommendation =
+                roaming.evaluate(snapshot.records, currentBssid, history);
+        ScanDiffEngine.Diff diff = diffEngine.diff(snapshot.records);
+        String payload = Base64.getEncoder().encodeToString(
+                ScanPayloadEncoder.encodeBinary(query.apply(snapshot.records)));
+        return logEncoder.size() + diff.added.size() + diff.changed.size() + diff.removed.size()
+                + payload.length() + (recommendation != null ? 1 : 0);
+    }
+}
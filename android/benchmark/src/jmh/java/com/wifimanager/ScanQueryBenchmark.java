@@ -0,0 +1,75 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Native scan queries over a dense scan, against sorting everything and truncating. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScanQueryBenchmark {
+    @Param({"500"})
+    public int accessPoints;
+
+    private List<ScanRecord> scan;
+    private ScanQuery filter;
+    private ScanQuery top10;
+    private ScanQuery dedupe;
+
+    private static final Comparator<ScanRecord> STRONGEST_FIRST = new Comparator<ScanRecord>() {
+        @Override
+        public int compare(ScanRecord a, ScanRecord b) {
+            return Integer.compare(b.level, a.level);
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        scan = new SyntheticEnvironment(42, accessPoints).scan();
+        filter = new ScanQuery.Builder()
+                .minRssi(-75)
+                .band(ChannelResolver.Band.GHZ_5)
+                .band(ChannelResolver.Band.GHZ_6)
+                .security(ScanQuery.Security.WPA2)
+                .security(ScanQuery.Security.WPA3)
+                .build();
+        top10 = new ScanQuery.Builder().limit(10).build();
+        dedupe = new ScanQuery.Builder().excludeHidden(true).dedupeBySsid(true)
+                .sortBy(ScanQuery.SortKey.SIGNAL_STRENGTH).build();
+    }
+
+    @Benchmark
+    public List<ScanRecord> filterBandSecurityRssi() {
+        return filter.apply(scan);
+    }
+
+    @Benchmark
+    public List<ScanRecord> top10BySignal() {
+        return top10.apply(scan);
+    }
+
+    /** What the bounded heap in top10BySignal avoids. */
+    @Benchmark
+    public List<ScanRecord> top10BySortingAll() {
+        List<ScanRecord> sorted = new ArrayList<>(scan);
+        Collections.sort(sorted, STRONGEST_FIRST);
+        return new ArrayList<>(sorted.subList(0, Math.min(10, sorted.size())));
+    }
+
+    @Benchmark
+    public List<ScanRecord> dedupeBySsidSorted() {
+        return dedupe.apply(scan);
+    }
+}
@@ -0,0 +1,91 @@
+package com.wifimanager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Classifying the capabilities of every network in a scan: interned lookups against parsing
+ * each result again, and against the per-result regex matching JS consumers used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SecurityCapabilitiesBenchmark {
+    private static final Pattern EAP = Pattern.compile("EAP");
+    private static final Pattern SAE = Pattern.compile("SAE");
+    private static final Pattern OWE = Pattern.compile("OWE");
+    private static final Pattern WPA2 = Pattern.compile("WPA2|RSN");
+    private static final Pattern WPA = Pattern.compile("WPA");
+    private static final Pattern WEP = Pattern.compile("WEP");
+    private static final Pattern WPS = Pattern.compile("\\[WPS\\]");
+
+    @Param({"500"})
+    public int accessPoints;
+
+    private String[] capabilities;
+
+    @Setup
+    public void setUp() {
+        List<ScanRecord> scan = new SyntheticEnvironment(42, accessPoints).scan();
+        capabilities = new String[scan.size()];
+        for (int i = 0; i < capabilities.length; i++) {
+            // Copies, as each ScanResult carries its own string
+            capabilities[i] = new String(scan.get(i).capabilities);
+        }
+    }
+
+    @Benchmark
+    public int interned() {
+        int hash = 0;
+        for (String value : capabilities) {
+            SecurityCapabilities parsed = SecurityCapabilities.of(value);
+            hash += parsed.flags + parsed.security.ordinal();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int parsePerResult() {
+        int hash = 0;
+        for (String value : capabilities) {
+            int flags = SecurityCapabilities.parse(value);
+            hash += flags + SecurityCapabilities.securityOf(flags).ordinal();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int regexPerResult() {
+        int hash = 0;
+        for (String value : capabilities) {
+            ScanQuery.Security security;
+            if (EAP.matcher(value).find()) {
+                security = ScanQuery.Security.ENTERPRISE;
+            } else if (SAE.matcher(value).find()) {
+                security = ScanQuery.Security.WPA3;
+            } else if (OWE.matcher(value).find()) {
+                security = ScanQuery.Security.OWE;
+            } else if (WPA2.matcher(value).find()) {
+                security = ScanQuery.Security.WPA2;
+            } else if (WPA.matcher(value).find()) {
+                security = ScanQuery.Security.WPA;
+            } else if (WEP.matcher(value).find()) {
+                security = ScanQuery.Security.WEP;
+            } else {
+                security = ScanQuery.Security.OPEN;
+            }
+            hash += security.ordinal() + (WPS.matcher(value).find() ? 1 : 0);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,43 @@
+package com.wifimanager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Ingesting one scan into the RSSI history once its access points are tracked, one second
+ * after the previous scan. jmhCheckBaseline also bounds the bytes allocated per ingest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SignalHistoryBenchmark {
+    @Param({"300"})
+    public int accessPoints;
+
+    private List<ScanRecord> scan;
+    private SignalHistory history;
+    private long timestampMillis;
+
+    @Setup
+    public void setUp() {
+        scan = new SyntheticEnvironment(42, accessPoints).scan();
+        history = SignalHistory.withDefaults();
+        history.ingest(scan, timestampMillis);
+    }
+
+    @Benchmark
+    public SignalHistory ingestKnownAccessPoints() {
+        timestampMillis += 1000;
+        history.ingest(scan, timestampMillis);
+        return history;
+    }
+}
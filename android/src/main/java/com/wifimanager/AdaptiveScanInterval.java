@@ -0,0 +1,55 @@
+package com.wifimanager;
+
+/**
+ * Interval policy for the continuous scan stream.
+ *
+ * Each scan outcome is reported with a fingerprint of the environment. Unchanged results
+ * stretch the interval by {@link #BACKOFF_FACTOR} up to the maximum; a changed environment
+ * halves it down to the minimum. Failures back off like unchanged results.
+ */
+final class AdaptiveScanInterval {
+    static final double BACKOFF_FACTOR = 1.5;
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private long currentIntervalMs;
+    private long lastFingerprint;
+    private boolean hasFingerprint = false;
+
+    AdaptiveScanInterval(long intervalMs, long minIntervalMs, long maxIntervalMs) {
+        if (minIntervalMs <= 0 || minIntervalMs > maxIntervalMs) {
+            throw new IllegalArgumentException("Expected 0 < minIntervalMs <= maxIntervalMs");
+        }
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.currentIntervalMs = clamp(intervalMs);
+    }
+
+    /**
+     * Records a scan result and returns the delay before the next scan.
+     *
+     * @param fingerprint order-independent digest of the networks seen
+     */
+    long onScanResults(long fingerprint) {
+        boolean changed = !hasFingerprint || fingerprint != lastFingerprint;
+        lastFingerprint = fingerprint;
+        hasFingerprint = true;
+        currentIntervalMs = changed
+                ? clamp(currentIntervalMs / 2)
+                : clamp((long) (currentIntervalMs * BACKOFF_FACTOR));
+        return currentIntervalMs;
+    }
+
+    long onScanFailed() {
+        currentIntervalMs = clamp((long) (currentIntervalMs * BACKOFF_FACTOR));
+        return currentIntervalMs;
+    }
+
+    long getCurrentIntervalMs() {
+        return currentIntervalMs;
+    }
+
+    private long clamp(long intervalMs) {
+        return Math.max(minIntervalMs, Math.min(maxIntervalMs, intervalMs));
+    }
+}
@@ -0,0 +1,113 @@
+package com.wifimanager;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.wifi.ScanResult;
+import android.net.wifi.WifiManager;
+import android.os.Build;
+import android.os.Handler;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** {@link WifiBackend} backed by the system {@link WifiManager}. */
+final class AndroidWifiBackend implements WifiBackend {
+    private static final String TAG = "WifiManagerModule";
+
+    private final Context context;
+    private final WifiManager wifiManager;
+    private BroadcastReceiver receiver;
+
+    AndroidWifiBackend(Context context, WifiManager wifiManager) {
+        this.context = context;
+        this.wifiManager = wifiManager;
+    }
+
+    @Override
+    public boolean isWifiEnabled() {
+        return wifiManager.isWifiEnabled();
+    }
+
+    @Override
+    public boolean setWifiEnabled(boolean enabled) {
+        return wifiManager.setWifiEnabled(enabled);
+    }
+
+    @Override
+    public boolean isScanThrottleActive() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.P) {
+            return false;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return wifiManager.isScanThrottleEnabled();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean startScan() {
+        return wifiManager.startScan();
+    }
+
+    @Override
+    public List<ScanRecord> getScanResults() {
+        List<ScanResult> results = wifiManager.getScanResults();
+        if (results == null) {
+            return null;
+        }
+        boolean hasChannelWidth = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+        List<ScanRecord> records = new ArrayList<>(results.size());
+        for (ScanResult result : results) {
+            records.add(ScanRecord.create(result.SSID, result.BSSID, result.level, result.capabilities,
+                    result.frequency,
+                    hasChannelWidth ? result.channelWidth : ChannelResolver.CHANNEL_WIDTH_20MHZ,
+                    hasChannelWidth ? result.centerFreq0 : 0));
+        }
+        return records;
+    }
+
+    @Override
+    public boolean registerScanListener(final ScanResultsReceiver.Listener listener, Handler handler) {
+        BroadcastReceiver broadcastReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (intent == null || !WifiManager.SCAN_RESULTS_AVAILABLE_ACTION.equals(intent.getAction())) {
+                    Log.w(TAG, "Received unexpected broadcast: " + (intent != null ? intent.getAction() : null));
+                    return;
+                }
+                try {
+                    listener.onScanResultsAvailable(
+                            intent.getBooleanExtra(WifiManager.EXTRA_RESULTS_UPDATED, false));
+                } catch (Exception e) {
+                    Log.e(TAG, "Error in scan receiver", e);
+                }
+            }
+        };
+        try {
+            IntentFilter intentFilter = new IntentFilter();
+            intentFilter.addAction(WifiManager.SCAN_RESULTS_AVAILABLE_ACTION);
+            context.registerReceiver(broadcastReceiver, intentFilter, null, handler);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to register scan receiver", e);
+            return false;
+        }
+        receiver = broadcastReceiver;
+        return true;
+    }
+
+    @Override
+    public void unregisterScanListener() {
+        if (receiver == null) {
+            return;
+        }
+        try {
+            context.unregisterReceiver(receiver);
+        } catch (Exception e) {
+            Log.e(TAG, "Error unregistering scan receiver", e);
+        }
+        receiver = null;
+    }
+}
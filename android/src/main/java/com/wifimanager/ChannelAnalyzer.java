@@ -0,0 +1,176 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Per-band and per-channel congestion analysis of a scan.
+ *
+ * Every access point occupies a slice of spectrum given by its center channel and width.
+ * For each candidate 20 MHz channel the analyzer sums the received power (in mW) of all
+ * access points whose slice overlaps it, weighted by the fraction of the candidate that is
+ * covered. Cost is O(candidates x networks) per band, with no pairwise network comparison.
+ */
+final class ChannelAnalyzer {
+    // 2.4 GHz DSSS/OFDM spectral masks spill over 22 MHz rather than 20
+    private static final int WIDTH_2_4_GHZ_SPREAD_MHZ = 2;
+    private static final int CANDIDATE_WIDTH_MHZ = 20;
+
+    // Candidate lists must stay sorted for the binary search in analyzeBand
+    private static final int[] CANDIDATES_2_4_GHZ = {1, 6, 11};
+    private static final int[] CANDIDATES_5_GHZ = {
+            36, 40, 44, 48, 52, 56, 60, 64, 100, 104, 108, 112, 116, 120, 124, 128,
+            132, 136, 140, 144, 149, 153, 157, 161, 165};
+    // Preferred scanning channels
+    private static final int[] CANDIDATES_6_GHZ = {
+            5, 21, 37, 53, 69, 85, 101, 117, 133, 149, 165, 181, 197, 213, 229};
+    private static final int[] CANDIDATES_60_GHZ = {1, 2, 3, 4, 5, 6};
+
+    static final class ChannelStats {
+        final int channel;
+        /** Access points whose primary channel is this one */
+        final int apCount;
+        /** Access points whose occupied spectrum overlaps this channel */
+        final int overlappingCount;
+        /** Overlap-weighted received power from all overlapping access points, in mW */
+        final double interferenceMw;
+        /** Whether this channel is considered for the recommendation */
+        final boolean candidate;
+
+        ChannelStats(int channel, int apCount, int overlappingCount, double interferenceMw,
+                     boolean candidate) {
+            this.channel = channel;
+            this.apCount = apCount;
+            this.overlappingCount = overlappingCount;
+            this.interferenceMw = interferenceMw;
+            this.candidate = candidate;
+        }
+
+        /** Interference in dBm, or {@code Double.NEGATIVE_INFINITY} for a clear channel. */
+        double interferenceDbm() {
+            return interferenceMw > 0 ? 10 * Math.log10(interferenceMw) : Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    static final class BandStats {
+        final ChannelResolver.Band band;
+        final int apCount;
+        final List<ChannelStats> channels;
+        /** Least congested candidate channel, or 0 if the band has no candidates */
+        final int recommendedChannel;
+
+        BandStats(ChannelResolver.Band band, int apCount, List<ChannelStats> channels,
+                  int recommendedChannel) {
+            this.band = band;
+            this.apCount = apCount;
+            this.channels = channels;
+            this.recommendedChannel = recommendedChannel;
+        }
+    }
+
+    private ChannelAnalyzer() {
+    }
+
+    static List<BandStats> analyze(List<ScanRecord> records) {
+        Map<ChannelResolver.Band, List<ScanRecord>> byBand = new EnumMap<>(ChannelResolver.Band.class);
+        for (ScanRecord record : records) {
+            if (record.band == null || record.channel == 0) {
+                continue;
+            }
+            List<ScanRecord> bandRecords = byBand.get(record.band);
+            if (bandRecords == null) {
+                bandRecords = new ArrayList<>();
+                byBand.put(record.band, bandRecords);
+            }
+            bandRecords.add(record);
+        }
+
+        List<BandStats> result = new ArrayList<>(byBand.size());
+        for (Map.Entry<ChannelResolver.Band, List<ScanRecord>> entry : byBand.entrySet()) {
+            result.add(analyzeBand(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    private static BandStats analyzeBand(ChannelResolver.Band band, List<ScanRecord> records) {
+        int count = records.size();
+        // Occupied spectrum per access point, computed once
+        int[] low = new int[count];
+        int[] high = new int[count];
+        double[] powerMw = new double[count];
+        int spread = band == ChannelResolver.Band.GHZ_2_4 ? WIDTH_2_4_GHZ_SPREAD_MHZ : 0;
+        for (int i = 0; i < count; i++) {
+            ScanRecord record = records.get(i);
+            int center = ChannelResolver.centerFrequencyOf(band, record.centerChannel);
+            if (center == 0) {
+                center = record.frequency;
+            }
+            int halfWidth = (record.channelWidth + spread) / 2;
+            low[i] = center - halfWidth;
+            high[i] = center + halfWidth;
+            powerMw[i] = Math.pow(10, record.level / 10.0);
+        }
+
+        // Report every candidate plus every channel actually in use, in channel order
+        int[] candidates = candidatesFor(band);
+        TreeSet<Integer> reported = new TreeSet<>();
+        for (int channel : candidates) {
+            reported.add(channel);
+        }
+        for (ScanRecord record : records) {
+            reported.add(record.channel);
+        }
+
+        int candidateWidth = band == ChannelResolver.Band.GHZ_60
+                ? ChannelResolver.widthMhz(band, 0) : CANDIDATE_WIDTH_MHZ + spread;
+        List<ChannelStats> channels = new ArrayList<>(reported.size());
+        int recommended = 0;
+        double bestInterference = Double.MAX_VALUE;
+        int bestApCount = Integer.MAX_VALUE;
+        for (int channel : reported) {
+            int center = ChannelResolver.frequencyOf(band, channel);
+            int candidateLow = center - candidateWidth / 2;
+            int candidateHigh = center + candidateWidth / 2;
+            int apCount = 0;
+            int overlapping = 0;
+            double interference = 0;
+            for (int i = 0; i < count; i++) {
+                if (records.get(i).channel == channel) {
+                    apCount++;
+                }
+                int overlap = Math.min(high[i], candidateHigh) - Math.max(low[i], candidateLow);
+                if (overlap > 0) {
+                    overlapping++;
+                    interference += powerMw[i] * overlap / candidateWidth;
+                }
+            }
+            boolean candidate = Arrays.binarySearch(candidates, channel) >= 0;
+            channels.add(new ChannelStats(channel, apCount, overlapping, interference, candidate));
+            if (candidate && (interference < bestInterference
+                    || (interference == bestInterference && apCount < bestApCount))) {
+                bestInterference = interference;
+                bestApCount = apCount;
+                recommended = channel;
+            }
+        }
+        return new BandStats(band, count, channels, recommended);
+    }
+
+    private static int[] candidatesFor(ChannelResolver.Band band) {
+        switch (band) {
+            case GHZ_2_4:
+                return CANDIDATES_2_4_GHZ;
+            case GHZ_5:
+                return CANDIDATES_5_GHZ;
+            case GHZ_6:
+                return CANDIDATES_6_GHZ;
+            case GHZ_60:
+            default:
+                return CANDIDATES_60_GHZ;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.wifimanager;
+
+/**
+ * Frequency to 802.11 band/channel mapping for 2.4, 5 (including 4.9 GHz), 6 and 60 GHz.
+ *
+ * Sub-7 GHz lookups go through a table with one entry per MHz from 2400 to 7125, built once,
+ * so resolving a scan is a bounds check and an array read per network.
+ *
+ * 6 GHz primaries are channel 2 and channels 1, 5, ..., 233 (channel = 1 mod 4). The other odd
+ * 6 GHz channels only exist as centers of 40 MHz and wider channels, so they resolve through
+ * {@link #centerChannel} and {@link #centerFrequencyOf} but not as a primary channel.
+ */
+final class ChannelResolver {
+
+    enum Band {
+        GHZ_2_4("2.4GHz"), GHZ_5("5GHz"), GHZ_6("6GHz"), GHZ_60("60GHz");
+
+        final String label;
+
+        Band(String label) {
+            this.label = label;
+        }
+
+        static Band fromLabel(String label) {
+            for (Band band : values()) {
+                if (band.label.equals(label)) {
+                    return band;
+                }
+            }
+            throw new IllegalArgumentException("Unknown band: " + label);
+        }
+    }
+
+    // ScanResult.CHANNEL_WIDTH_* values
+    static final int CHANNEL_WIDTH_20MHZ = 0;
+    static final int CHANNEL_WIDTH_40MHZ = 1;
+    static final int CHANNEL_WIDTH_80MHZ = 2;
+    static final int CHANNEL_WIDTH_160MHZ = 3;
+    static final int CHANNEL_WIDTH_80MHZ_PLUS_MHZ = 4;
+    static final int CHANNEL_WIDTH_320MHZ = 5;
+
+    private static final int TABLE_START_MHZ = 2400;
+    private static final int TABLE_END_MHZ = 7125;
+    private static final int BAND_SHIFT = 16;
+    private static final int CHANNEL_MASK = 0xFFFF;
+    private static final int BAND_MASK = 0xFF;
+    private static final int CENTER_ONLY = 1 << 24;
+    private static final Band[] BANDS = Band.values();
+
+    private static final int DMG_CHANNEL_1_MHZ = 58320;
+    private static final int DMG_CHANNEL_SPACING_MHZ = 2160;
+    private static final int DMG_MAX_CHANNEL = 6;
+
+    // (ordinal + 1) << BAND_SHIFT | channel, plus CENTER_ONLY for 6 GHz channels that can only
+    // be the center of a wide channel; 0 when the frequency is not a channel center
+    private static final int[] TABLE = buildTable();
+
+    private ChannelResolver() {
+    }
+
+    private static int[] buildTable() {
+        int[] table = new int[TABLE_END_MHZ - TABLE_START_MHZ + 1];
+        // 2.4 GHz: channels 1-13 every 5 MHz from 2412, channel 14 at 2484
+        for (int channel = 1; channel <= 13; channel++) {
+            put(table, 2407 + 5 * channel, Band.GHZ_2_4, channel);
+        }
+        put(table, 2484, Band.GHZ_2_4, 14);
+        // 4.9 GHz public safety / Japan: channels 182-196
+        for (int channel = 182; channel <= 196; channel++) {
+            put(table, 4000 + 5 * channel, Band.GHZ_5, channel);
+        }
+        // 5 GHz: channels 1-177 (5005-5885 MHz)
+        for (int channel = 1; channel <= 177; channel++) {
+            put(table, 5000 + 5 * channel, Band.GHZ_5, channel);
+        }
+        // 6 GHz: channel 2 at 5935, then odd channels 1-233 every 10 MHz from 5955
+        put(table, 5935, Band.GHZ_6, 2);
+        for (int channel = 1; channel <= 233; channel += 2) {
+            put(table, 5950 + 5 * channel, Band.GHZ_6, channel);
+            if (!is6GhzPrimary(channel)) {
+                table[5950 + 5 * channel - TABLE_START_MHZ] |= CENTER_ONLY;
+            }
+        }
+        return table;
+    }
+
+    private static void put(int[] table, int frequency, Band band, int channel) {
+        table[frequency - TABLE_START_MHZ] = ((band.ordinal() + 1) << BAND_SHIFT) | channel;
+    }
+
+    private static boolean is6GhzPrimary(int channel) {
+        return channel == 2 || (channel >= 1 && channel <= 233 && channel % 4 == 1);
+    }
+
+    private static int lookupPrimary(int frequency) {
+        int entry = lookup(frequency);
+        return (entry & CENTER_ONLY) != 0 ? 0 : entry;
+    }
+
+    private static int lookup(int frequency) {
+        if (frequency >= TABLE_START_MHZ && frequency <= TABLE_END_MHZ) {
+            return TABLE[frequency - TABLE_START_MHZ];
+        }
+        if (frequency >= DMG_CHANNEL_1_MHZ
+                && (frequency - DMG_CHANNEL_1_MHZ) % DMG_CHANNEL_SPACING_MHZ == 0) {
+            int channel = (frequency - DMG_CHANNEL_1_MHZ) / DMG_CHANNEL_SPACING_MHZ + 1;
+            if (channel <= DMG_MAX_CHANNEL) {
+                return ((Band.GHZ_60.ordinal() + 1) << BAND_SHIFT) | channel;
+            }
+        }
+        return 0;
+    }
+
+    /** Channel number for a primary channel center frequency, or 0 if unknown. */
+    static int channelOf(int frequency) {
+        return lookupPrimary(frequency) & CHANNEL_MASK;
+    }
+
+    /** Band of a primary channel center frequency, or null if unknown. */
+    static Band bandOf(int frequency) {
+        int entry = (lookupPrimary(frequency) >>> BAND_SHIFT) & BAND_MASK;
+        return entry == 0 ? null : BANDS[entry - 1];
+    }
+
+    /** Center frequency of a primary channel in a band, or 0 if there is no such primary. */
+    static int frequencyOf(Band band, int channel) {
+        if (band == Band.GHZ_6 && !is6GhzPrimary(channel)) {
+            return 0;
+        }
+        return centerFrequencyOf(band, channel);
+    }
+
+    /**
+     * Center frequency of a channel number as reported by {@link #centerChannel}, which in
+     * 6 GHz may be the center of a wide channel rather than a primary; 0 if unknown.
+     */
+    static int centerFrequencyOf(Band band, int channel) {
+        switch (band) {
+            case GHZ_2_4:
+                if (channel == 14) {
+                    return 2484;
+                }
+                return channel >= 1 && channel <= 13 ? 2407 + 5 * channel : 0;
+            case GHZ_5:
+                if (channel >= 182 && channel <= 196) {
+                    return 4000 + 5 * channel;
+                }
+                return channel >= 1 && channel <= 177 ? 5000 + 5 * channel : 0;
+            case GHZ_6:
+                if (channel == 2) {
+                    return 5935;
+                }
+                return channel >= 1 && channel <= 233 && channel % 2 == 1 ? 5950 + 5 * channel : 0;
+            case GHZ_60:
+                return channel >= 1 && channel <= DMG_MAX_CHANNEL
+                        ? DMG_CHANNEL_1_MHZ + DMG_CHANNEL_SPACING_MHZ * (channel - 1) : 0;
+            default:
+                return 0;
+        }
+    }
+
+    /** Width in MHz for a {@code ScanResult.channelWidth} value. */
+    static int widthMhz(Band band, int channelWidth) {
+        if (band == Band.GHZ_60) {
+            return DMG_CHANNEL_SPACING_MHZ;
+        }
+        switch (channelWidth) {
+            case CHANNEL_WIDTH_40MHZ:
+                return 40;
+            case CHANNEL_WIDTH_80MHZ:
+                return 80;
+            case CHANNEL_WIDTH_160MHZ:
+            case CHANNEL_WIDTH_80MHZ_PLUS_MHZ:
+                return 160;
+            case CHANNEL_WIDTH_320MHZ:
+                return 320;
+            case CHANNEL_WIDTH_20MHZ:
+            default:
+                return 20;
+        }
+    }
+
+    /**
+     * Channel number of the center of the occupied channel. For 40 MHz and wider channels the
+     * center comes from {@code ScanResult.centerFreq0}; it falls back to the primary channel
+     * when that is missing or lies outside the primary's band.
+     */
+    static int centerChannel(int frequency, int centerFreq0, int widthMhz) {
+        int primary = lookupPrimary(frequency);
+        if (widthMhz > 20 && centerFreq0 > 0) {
+            int center = lookup(centerFreq0);
+            if (center != 0 && ((center >>> BAND_SHIFT) & BAND_MASK) == (primary >>> BAND_SHIFT)) {
+                return center & CHANNEL_MASK;
+            }
+        }
+        return primary & CHANNEL_MASK;
+    }
+}
@@ -0,0 +1,26 @@
+package com.wifimanager;
+
+/**
+ * Millisecond time source used by the scan bookkeeping classes,
+ * so they can be driven by a fake clock when exercised on the JVM.
+ *
+ * {@link #SYSTEM} is monotonic and only good for intervals; {@link #WALL} gives the epoch
+ * times that are reported to JS.
+ */
+interface Clock {
+    long nowMillis();
+
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long nowMillis() {
+            return System.nanoTime() / 1_000_000L;
+        }
+    };
+
+    Clock WALL = new Clock() {
+        @Override
+        public long nowMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+}
@@ -0,0 +1,65 @@
+package com.wifimanager;
+
+/**
+ * Decides which link samples are worth reporting and when.
+ *
+ * A sample is meaningful if the connection or access point changed, the RSSI moved by at least
+ * the threshold since the last reported sample, or the link speed or frequency changed.
+ * Connection changes are reported at once; metric changes at most once per interval, with
+ * the newest sample replacing any that is still waiting (trailing emit). A waiting sample is
+ * dropped if the link returns to the reported state before it is due.
+ */
+final class ConnectionChangeCoalescer {
+    /** Returned by {@link #offer} when nothing needs to be reported. */
+    static final long NOTHING_PENDING = -1;
+
+    private final Clock clock;
+    private final int rssiDeltaThreshold;
+    private final long minIntervalMs;
+    private LinkSample lastEmitted;
+    private long lastEmittedAt;
+    private LinkSample pending;
+
+    ConnectionChangeCoalescer(Clock clock, int rssiDeltaThreshold, long minIntervalMs) {
+        if (rssiDeltaThreshold < 1 || minIntervalMs < 0) {
+            throw new IllegalArgumentException("rssiDeltaThreshold must be >= 1 and minIntervalMs >= 0");
+        }
+        this.clock = clock;
+        this.rssiDeltaThreshold = rssiDeltaThreshold;
+        this.minIntervalMs = minIntervalMs;
+    }
+
+    /**
+     * @return milliseconds until the pending sample is due (0 for now), or
+     * {@link #NOTHING_PENDING}
+     */
+    long offer(LinkSample sample) {
+        if (lastEmitted == null || !sample.sameConnection(lastEmitted)) {
+            pending = sample;
+            return 0;
+        }
+        if (!metricsChanged(sample, lastEmitted)) {
+            pending = null;
+            return NOTHING_PENDING;
+        }
+        pending = sample;
+        return Math.max(0, lastEmittedAt + minIntervalMs - clock.nowMillis());
+    }
+
+    /** Takes the pending sample for reporting, or returns null if there is none. */
+    LinkSample takePending() {
+        LinkSample sample = pending;
+        if (sample != null) {
+            pending = null;
+            lastEmitted = sample;
+            lastEmittedAt = clock.nowMillis();
+        }
+        return sample;
+    }
+
+    private boolean metricsChanged(LinkSample sample, LinkSample reference) {
+        return Math.abs(sample.rssi - reference.rssi) >= rssiDeltaThreshold
+                || sample.linkSpeedMbps != reference.linkSpeedMbps
+                || sample.frequency != reference.frequency;
+    }
+}
@@ -0,0 +1,15 @@
+package com.wifimanager;
+
+/**
+ * Feeds platform connectivity events for one connection attempt into a
+ * {@link ConnectionStateMachine}.
+ */
+interface ConnectionEventSource {
+    void start(ConnectionStateMachine machine);
+
+    /** Stops listening. Sources that own the connection (network requests) keep it up. */
+    void stop();
+
+    /** Drops the connection if this source owns it, e.g. a network request. */
+    void release();
+}
@@ -0,0 +1,246 @@
+package com.wifimanager;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.net.wifi.WifiInfo;
+import android.net.wifi.WifiManager;
+import android.os.Build;
+import android.os.Handler;
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Follows the WiFi link through a {@link ConnectivityManager.NetworkCallback} and reports a
+ * {@link LinkSample} whenever the OS signals a change, so nothing needs to poll.
+ *
+ * Capability changes carry signal strength from API 29; before that
+ * {@link WifiManager#RSSI_CHANGED_ACTION} is used as well. Like {@link ScanResultsReceiver}
+ * it is registered while at least one consumer holds a reference, and callbacks run on the
+ * given handler's thread, which is the only thread allowed to call into this class.
+ *
+ * The WifiInfo, capabilities and link properties delivered with each change are kept, so
+ * reads between changes cost no binder calls. The latest sample is also published through a
+ * volatile field for synchronous reads from the JS thread.
+ */
+final class ConnectionMonitor {
+    private static final String TAG = "WifiManagerModule";
+
+    interface Listener {
+        void onLinkChanged(LinkSample sample);
+    }
+
+    private final Context context;
+    private final Handler handler;
+    private final WifiManager wifiManager;
+    private final ConnectivityManager connectivityManager;
+    private final Listener listener;
+    private final Set<Network> networks = new HashSet<>();
+    private int refCount = 0;
+    private ConnectivityManager.NetworkCallback callback;
+    private BroadcastReceiver rssiReceiver;
+    private LinkSample current = LinkSample.DISCONNECTED;
+    private volatile LinkSample published;
+    private WifiInfo info;
+    private Network primary;
+    private NetworkCapabilities capabilities;
+    private LinkProperties linkProperties;
+
+    ConnectionMonitor(Context context, Handler handler, WifiManager wifiManager,
+                      ConnectivityManager connectivityManager, Listener listener) {
+        this.context = context;
+        this.handler = handler;
+        this.wifiManager = wifiManager;
+        this.connectivityManager = connectivityManager;
+        this.listener = listener;
+    }
+
+    /** The latest sample. Only current while registered. */
+    LinkSample getCurrent() {
+        return current;
+    }
+
+    /** The latest sample while registered, or null. May be called from any thread. */
+    LinkSample getPublished() {
+        return published;
+    }
+
+    boolean isRegistered() {
+        return callback != null;
+    }
+
+    /** WifiInfo read at the latest change, or null while disconnected. */
+    WifiInfo getWifiInfo() {
+        return info;
+    }
+
+    /** Capabilities of the most recent WiFi network, or null if none were delivered yet. */
+    NetworkCapabilities getCapabilities() {
+        return capabilities;
+    }
+
+    /** Link properties of the most recent WiFi network, or null if none were delivered yet. */
+    LinkProperties getLinkProperties() {
+        return linkProperties;
+    }
+
+    /**
+     * Adds a consumer, registering the callback if it is the first one.
+     *
+     * @return false if registration failed; the reference is not taken in that case
+     */
+    boolean acquire() {
+        if (refCount == 0 && callback == null) {
+            try {
+                register();
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to register connection monitor", e);
+                unregister();
+                return false;
+            }
+        }
+        refCount++;
+        return true;
+    }
+
+    void release() {
+        if (refCount == 0) {
+            return;
+        }
+        refCount--;
+        if (refCount == 0) {
+            unregister();
+        }
+    }
+
+    void releaseAll() {
+        refCount = 0;
+        unregister();
+    }
+
+    private void register() {
+        WifiInfo initial = wifiManager.getConnectionInfo();
+        boolean connected = initial != null && initial.getNetworkId() != -1;
+        info = connected ? initial : null;
+        current = toSample(connected, info);
+        published = current;
+
+        callback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                onNetwork(network);
+                update(true);
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities networkCapabilities) {
+                onNetwork(network);
+                capabilities = networkCapabilities;
+                update(true);
+            }
+
+            @Override
+            public void onLinkPropertiesChanged(Network network, LinkProperties properties) {
+                onNetwork(network);
+                linkProperties = properties;
+            }
+
+            @Override
+            public void onLost(Network network) {
+                networks.remove(network);
+                if (network.equals(primary)) {
+                    primary = null;
+                    capabilities = null;
+                    linkProperties = null;
+                }
+                update(!networks.isEmpty());
+            }
+        };
+        NetworkRequest request = new NetworkRequest.Builder()
+                .addTransportType(NetworkCapabilities.TRANSPORT_WIFI)
+                .build();
+        connectivityManager.registerNetworkCallback(request, callback, handler);
+
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            rssiReceiver = new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    if (current.connected) {
+                        update(true);
+                    }
+                }
+            };
+            context.registerReceiver(rssiReceiver, new IntentFilter(WifiManager.RSSI_CHANGED_ACTION), null, handler);
+        }
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Connection monitor registered");
+        }
+    }
+
+    private void unregister() {
+        if (callback != null) {
+            try {
+                connectivityManager.unregisterNetworkCallback(callback);
+            } catch (Exception e) {
+                Log.e(TAG, "Error unregistering connection monitor", e);
+            }
+            callback = null;
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Connection monitor unregistered");
+            }
+        }
+        if (rssiReceiver != null) {
+            try {
+                context.unregisterReceiver(rssiReceiver);
+            } catch (Exception e) {
+                Log.e(TAG, "Error unregistering RSSI receiver", e);
+            }
+            rssiReceiver = null;
+        }
+        networks.clear();
+        primary = null;
+        capabilities = null;
+        linkProperties = null;
+        info = null;
+        published = null;
+    }
+
+    private void onNetwork(Network network) {
+        networks.add(network);
+        if (!network.equals(primary)) {
+            primary = network;
+            capabilities = null;
+            linkProperties = null;
+        }
+    }
+
+    private void update(boolean connected) {
+        try {
+            info = connected ? wifiManager.getConnectionInfo() : null;
+            current = toSample(connected, info);
+            published = current;
+            listener.onLinkChanged(current);
+        } catch (Exception e) {
+            Log.e(TAG, "Error in connection monitor", e);
+        }
+    }
+
+    private static LinkSample toSample(boolean connected, WifiInfo info) {
+        if (!connected) {
+            return LinkSample.DISCONNECTED;
+        }
+        if (info == null) {
+            return new LinkSample(true, null, null, 0, 0, 0);
+        }
+        return new LinkSample(true, WifiSsid.unquote(info.getSSID()), info.getBSSID(), info.getRssi(),
+                info.getLinkSpeed(), info.getFrequency());
+    }
+}
@@ -0,0 +1,151 @@
+package com.wifimanager;
+
+/**
+ * Tracks one connection attempt from request to a definite outcome.
+ *
+ * Platform events are fed in by a {@link ConnectionEventSource}; the machine only moves
+ * forward, ignores events once it has reached {@link State#CONNECTED} or {@link State#FAILED},
+ * and reports the outcome exactly once. It has no Android dependencies so attempts can be
+ * replayed on the JVM with a fake event source.
+ */
+final class ConnectionStateMachine {
+
+    enum State { IDLE, CONNECTING, AUTHENTICATING, OBTAINING_IP, LINK_UP, CONNECTED, FAILED }
+
+    enum Failure {
+        AUTH_FAILED("Authentication failed. Please check the password."),
+        NETWORK_NOT_FOUND("The network was not found"),
+        NETWORK_UNAVAILABLE("The system could not provide the requested network"),
+        CONNECTION_TIMEOUT("Timed out waiting for the connection to complete"),
+        CONNECTION_CANCELLED("The connection attempt was cancelled");
+
+        final String message;
+
+        Failure(String message) {
+            this.message = message;
+        }
+    }
+
+    interface Listener {
+        void onStateChanged(State state);
+
+        void onConnected();
+
+        void onFailed(Failure failure);
+    }
+
+    private final String ssid;
+    private final boolean requireValidation;
+    private final Listener listener;
+    private State state = State.IDLE;
+    private boolean validated = false;
+    private boolean associated = false;
+
+    /**
+     * @param ssid              target SSID without quotes
+     * @param requireValidation if true the attempt only succeeds once the network is validated,
+     *                          not as soon as the link is up
+     */
+    ConnectionStateMachine(String ssid, boolean requireValidation, Listener listener) {
+        this.ssid = ssid;
+        this.requireValidation = requireValidation;
+        this.listener = listener;
+    }
+
+    String getSsid() {
+        return ssid;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    boolean isFinished() {
+        return state == State.CONNECTED || state == State.FAILED;
+    }
+
+    void start() {
+        if (state == State.IDLE) {
+            moveTo(State.CONNECTING);
+        }
+    }
+
+    void onAuthenticating() {
+        associated = true;
+        advanceTo(State.AUTHENTICATING);
+    }
+
+    void onObtainingIp() {
+        associated = true;
+        advanceTo(State.OBTAINING_IP);
+    }
+
+    void onAuthenticationFailed() {
+        fail(Failure.AUTH_FAILED);
+    }
+
+    /**
+     * The link to a network came up.
+     *
+     * @param connectedSsid SSID of the connected network without quotes, or null if unknown.
+     *                      Links to other networks are ignored.
+     */
+    void onLinkUp(String connectedSsid) {
+        if (connectedSsid != null && !connectedSsid.equals(ssid)) {
+            return;
+        }
+        associated = true;
+        advanceTo(State.LINK_UP);
+        if (!requireValidation || validated) {
+            succeed();
+        }
+    }
+
+    void onValidated() {
+        validated = true;
+        if (state == State.LINK_UP) {
+            succeed();
+        }
+    }
+
+    /** The platform gave up on the request, e.g. no matching network or the user declined. */
+    void onUnavailable() {
+        fail(Failure.NETWORK_UNAVAILABLE);
+    }
+
+    /** Deadline expired. Never having associated with anything is reported as not found. */
+    void onTimeout() {
+        fail(associated ? Failure.CONNECTION_TIMEOUT : Failure.NETWORK_NOT_FOUND);
+    }
+
+    void cancel() {
+        fail(Failure.CONNECTION_CANCELLED);
+    }
+
+    private void advanceTo(State next) {
+        if (!isFinished() && next.ordinal() > state.ordinal()) {
+            moveTo(next);
+        }
+    }
+
+    private void succeed() {
+        if (isFinished()) {
+            return;
+        }
+        moveTo(State.CONNECTED);
+        listener.onConnected();
+    }
+
+    private void fail(Failure failure) {
+        if (isFinished()) {
+            return;
+        }
+        moveTo(State.FAILED);
+        listener.onFailed(failure);
+    }
+
+    private void moveTo(State next) {
+        state = next;
+        listener.onStateChanged(next);
+    }
+}
@@ -0,0 +1,150 @@
+package com.wifimanager;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+import android.net.wifi.WifiInfo;
+import android.net.wifi.WifiManager;
+import android.os.Build;
+import android.os.Handler;
+import android.util.Log;
+
+/**
+ * Drives a connection attempt from {@link WifiManager#NETWORK_STATE_CHANGED_ACTION} and
+ * {@link WifiManager#SUPPLICANT_STATE_CHANGED_ACTION} broadcasts, for networks added with
+ * {@code addNetwork}/{@code enableNetwork} before API 29.
+ *
+ * On API 23+ a wifi network callback additionally reports validation. Broadcasts and
+ * callbacks are delivered on the given handler's thread, which is also the only thread
+ * allowed to call into this class.
+ */
+final class LegacyConnectionEventSource extends BroadcastReceiver implements ConnectionEventSource {
+    private static final String TAG = "WifiManagerModule";
+
+    private final Context context;
+    private final Handler handler;
+    private final WifiManager wifiManager;
+    private final ConnectivityManager connectivityManager;
+    private ConnectionStateMachine machine;
+    private ConnectivityManager.NetworkCallback validationCallback;
+    private boolean registered = false;
+
+    LegacyConnectionEventSource(Context context, Handler handler, WifiManager wifiManager,
+                                ConnectivityManager connectivityManager) {
+        this.context = context;
+        this.handler = handler;
+        this.wifiManager = wifiManager;
+        this.connectivityManager = connectivityManager;
+    }
+
+    /** Whether this source can report validation, i.e. whether success should wait for it. */
+    static boolean supportsValidation() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+    }
+
+    @Override
+    public void start(ConnectionStateMachine machine) {
+        this.machine = machine;
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(WifiManager.NETWORK_STATE_CHANGED_ACTION);
+        filter.addAction(WifiManager.SUPPLICANT_STATE_CHANGED_ACTION);
+        context.registerReceiver(this, filter, null, handler);
+        registered = true;
+
+        if (supportsValidation() && connectivityManager != null) {
+            validationCallback = new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                    if (capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED)
+                            && ssidMatches(wifiManager.getConnectionInfo())) {
+                        LegacyConnectionEventSource.this.machine.onValidated();
+                    }
+                }
+            };
+            NetworkRequest request = new NetworkRequest.Builder()
+                    .addTransportType(NetworkCapabilities.TRANSPORT_WIFI)
+                    .build();
+            connectivityManager.registerNetworkCallback(request, validationCallback, handler);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (registered) {
+            try {
+                context.unregisterReceiver(this);
+            } catch (Exception e) {
+                Log.e(TAG, "Error unregistering connection receiver", e);
+            }
+            registered = false;
+        }
+        if (validationCallback != null) {
+            try {
+                connectivityManager.unregisterNetworkCallback(validationCallback);
+            } catch (Exception e) {
+                Log.e(TAG, "Error unregistering validation callback", e);
+            }
+            validationCallback = null;
+        }
+    }
+
+    @Override
+    public void release() {
+        // The saved configuration stays with the system, as it always has
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (intent == null || machine == null) {
+            return;
+        }
+        try {
+            String action = intent.getAction();
+            if (WifiManager.SUPPLICANT_STATE_CHANGED_ACTION.equals(action)) {
+                if (intent.getIntExtra(WifiManager.EXTRA_SUPPLICANT_ERROR, 0)
+                        == WifiManager.ERROR_AUTHENTICATING) {
+                    machine.onAuthenticationFailed();
+                }
+            } else if (WifiManager.NETWORK_STATE_CHANGED_ACTION.equals(action)) {
+                NetworkInfo info = intent.getParcelableExtra(WifiManager.EXTRA_NETWORK_INFO);
+                if (info != null) {
+                    onDetailedState(info.getDetailedState());
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error in connection receiver", e);
+        }
+    }
+
+    private void onDetailedState(NetworkInfo.DetailedState state) {
+        if (state == null) {
+            return;
+        }
+        switch (state) {
+            case AUTHENTICATING:
+                machine.onAuthenticating();
+                break;
+            case OBTAINING_IPADDR:
+                machine.onObtainingIp();
+                break;
+            case CONNECTED:
+                WifiInfo wifiInfo = wifiManager.getConnectionInfo();
+                machine.onLinkUp(wifiInfo != null ? WifiSsid.unquote(wifiInfo.getSSID()) : null);
+                break;
+            default:
+                // DISCONNECTED and FAILED also occur between supplicant retries; only an
+                // authentication error or the deadline ends the attempt
+                break;
+        }
+    }
+
+    private boolean ssidMatches(WifiInfo wifiInfo) {
+        return wifiInfo != null && machine.getSsid().equals(WifiSsid.unquote(wifiInfo.getSSID()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.wifimanager;
+
+/** Immutable view of the WiFi link at one point in time. */
+final class LinkSample {
+    static final LinkSample DISCONNECTED = new LinkSample(false, null, null, 0, 0, 0);
+
+    final boolean connected;
+    final String ssid;
+    final String bssid;
+    final int rssi;
+    final int linkSpeedMbps;
+    final int frequency;
+
+    LinkSample(boolean connected, String ssid, String bssid, int rssi, int linkSpeedMbps, int frequency) {
+        this.connected = connected;
+        this.ssid = ssid;
+        this.bssid = bssid;
+        this.rssi = rssi;
+        this.linkSpeedMbps = linkSpeedMbps;
+        this.frequency = frequency;
+    }
+
+    /** Same connected state and access point, ignoring link metrics. */
+    boolean sameConnection(LinkSample other) {
+        return connected == other.connected && equal(ssid, other.ssid) && equal(bssid, other.bssid);
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,90 @@
+package com.wifimanager;
+
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.net.wifi.WifiNetworkSpecifier;
+import android.os.Handler;
+import android.util.Log;
+
+import androidx.annotation.RequiresApi;
+
+/**
+ * Connects through {@link ConnectivityManager#requestNetwork} with a
+ * {@link WifiNetworkSpecifier}, the only way apps can join a specific network on API 29+.
+ *
+ * The system shows its own confirmation dialog and brings the network up for this app only.
+ * The request, and with it the network, stays active after the attempt completes until
+ * {@link #release()} is called.
+ */
+@RequiresApi(29)
+final class NetworkRequestConnectionEventSource implements ConnectionEventSource {
+    private static final String TAG = "WifiManagerModule";
+
+    private final ConnectivityManager connectivityManager;
+    private final Handler handler;
+    private final String password;
+    private final boolean wpa3;
+    private ConnectionStateMachine machine;
+    private ConnectivityManager.NetworkCallback callback;
+
+    NetworkRequestConnectionEventSource(ConnectivityManager connectivityManager, Handler handler,
+                                        String password, boolean wpa3) {
+        this.connectivityManager = connectivityManager;
+        this.handler = handler;
+        this.password = password;
+        this.wpa3 = wpa3;
+    }
+
+    @Override
+    public void start(ConnectionStateMachine machine) {
+        this.machine = machine;
+        WifiNetworkSpecifier.Builder specifier = new WifiNetworkSpecifier.Builder()
+                .setSsid(machine.getSsid());
+        if (password != null && !password.isEmpty()) {
+            if (wpa3) {
+                specifier.setWpa3Passphrase(password);
+            } else {
+                specifier.setWpa2Passphrase(password);
+            }
+        }
+        // Specifier networks are local-only and never offer INTERNET, so they never validate
+        NetworkRequest request = new NetworkRequest.Builder()
+                .addTransportType(NetworkCapabilities.TRANSPORT_WIFI)
+                .removeCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                .setNetworkSpecifier(specifier.build())
+                .build();
+
+        callback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network available) {
+                NetworkRequestConnectionEventSource.this.machine.onLinkUp(null);
+            }
+
+            @Override
+            public void onUnavailable() {
+                NetworkRequestConnectionEventSource.this.machine.onUnavailable();
+            }
+        };
+        connectivityManager.requestNetwork(request, callback, handler);
+    }
+
+    @Override
+    public void stop() {
+        // The callback is the network request; keep it until release()
+    }
+
+    @Override
+    public void release() {
+        if (callback == null) {
+            return;
+        }
+        try {
+            connectivityManager.unregisterNetworkCallback(callback);
+        } catch (Exception e) {
+            Log.e(TAG, "Error releasing network request", e);
+        }
+        callback = null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.wifimanager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import javax.crypto.Mac;
+
+/**
+ * One network to provision, as requested from JS.
+ *
+ * Instances may be invalid; {@link #validate()} reports why, so a bad entry fails on its own
+ * instead of rejecting the whole batch.
+ */
+final class NetworkSuggestion {
+    private static final int MAX_SSID_BYTES = 32;
+    private static final int MIN_PASSPHRASE_LENGTH = 8;
+    private static final int MAX_PASSPHRASE_LENGTH = 63;
+    private static final int PSK_HEX_LENGTH = 64;
+
+    enum Security { OPEN, WPA2, WPA3 }
+
+    final String ssid;
+    final String password;
+    /** Null if the requested security type is not supported. */
+    final Security security;
+    final boolean hidden;
+
+    NetworkSuggestion(String ssid, String password, Security security, boolean hidden) {
+        this.ssid = ssid;
+        this.password = password;
+        this.security = security;
+        this.hidden = hidden;
+    }
+
+    /**
+     * Parses a security label, defaulting to open without a password and WPA2 with one.
+     *
+     * @return the type, or null if the label is unknown
+     */
+    static Security parseSecurity(String value, String password) {
+        if (value == null) {
+            return password == null || password.isEmpty() ? Security.OPEN : Security.WPA2;
+        }
+        try {
+            return Security.valueOf(value.toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** @return why this entry cannot be installed, or null if it is valid */
+    String validate() {
+        if (ssid == null || ssid.isEmpty()) {
+            return "ssid is required";
+        }
+        if (ssid.getBytes(StandardCharsets.UTF_8).length > MAX_SSID_BYTES) {
+            return "ssid must be at most " + MAX_SSID_BYTES + " bytes";
+        }
+        if (security == null) {
+            return "security must be one of open, wpa2, wpa3";
+        }
+        boolean hasPassword = password != null && !password.isEmpty();
+        if (security == Security.OPEN) {
+            return hasPassword ? "open networks take no password" : null;
+        }
+        if (!hasPassword) {
+            return "password is required for " + security.name().toLowerCase(Locale.US);
+        }
+        if (security == Security.WPA2 && password.length() == PSK_HEX_LENGTH && isHex(password)) {
+            return null;
+        }
+        if (password.length() < MIN_PASSPHRASE_LENGTH || password.length() > MAX_PASSPHRASE_LENGTH) {
+            return "password must be " + MIN_PASSPHRASE_LENGTH + " to " + MAX_PASSPHRASE_LENGTH + " characters";
+        }
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c < 0x20 || c > 0x7e) {
+                return "password must be printable ASCII";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keyed digest of everything that defines the installed network, so unchanged entries can
+     * be detected without storing the password. The key is a per-install secret kept apart from
+     * the stored digests; an unkeyed hash next to the SSID could be brute-forced offline.
+     *
+     * @param mac HMAC initialised with that secret; reset before use
+     */
+    String fingerprint(Mac mac) {
+        mac.reset();
+        mac.update(ssid.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        mac.update(security.name().getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        if (password != null) {
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+        }
+        mac.update((byte) (hidden ? 1 : 0));
+        byte[] hash = mac.doFinal();
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
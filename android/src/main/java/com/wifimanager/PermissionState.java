@@ -0,0 +1,284 @@
+package com.wifimanager;
+
+import android.Manifest;
+import android.app.Activity;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Handler;
+import android.util.Log;
+
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.modules.core.PermissionAwareActivity;
+import com.facebook.react.modules.core.PermissionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cached grant state of the permissions this module uses.
+ *
+ * All permissions are checked together on first use and the result is kept until
+ * {@link #invalidate()}, which the module calls when the host activity resumes (the
+ * permission dialog and the settings screen both pause it) and when permission results
+ * arrive. Reads are a volatile load and may come from any thread.
+ *
+ * Permission requests go through {@link #request(Activity, RequestCallback)}, which shows at
+ * most one dialog at a time and completes every waiter when its result arrives: from the
+ * {@link PermissionListener} on a {@link PermissionAwareActivity}, or when the host resumes
+ * after the dialog, whichever comes first. A request whose last waiter gave up is dropped, so
+ * a lost result cannot block later requests. Requests and their callbacks are confined to the
+ * given handler's thread.
+ */
+final class PermissionState {
+    private static final String TAG = "WifiManagerModule";
+    static final int REQUEST_CODE = 1001;
+
+    interface RequestCallback {
+        /** @param canScan whether scanning is allowed now that the request completed */
+        void onPermissionResult(boolean canScan);
+    }
+
+    private static final String[] TRACKED = {
+            Manifest.permission.ACCESS_WIFI_STATE,
+            Manifest.permission.CHANGE_WIFI_STATE,
+            Manifest.permission.ACCESS_FINE_LOCATION,
+            Manifest.permission.ACCESS_COARSE_LOCATION,
+            Manifest.permission.ACCESS_NETWORK_STATE,
+            Manifest.permission.CHANGE_NETWORK_STATE,
+            Manifest.permission.NEARBY_WIFI_DEVICES,
+    };
+    private static final int FINE_LOCATION = 2;
+    private static final int COARSE_LOCATION = 3;
+    private static final int NEARBY_WIFI_DEVICES = 6;
+    private static final int UNKNOWN = -1;
+
+    private final Context context;
+    private final Handler handler;
+    private volatile int granted = UNKNOWN;
+    private long generation = 0;
+
+    // Confined to the handler's thread
+    private final List<RequestCallback> waiters = new ArrayList<>();
+    private boolean requestInFlight = false;
+    private int requestId = 0;
+    // Id of the latest request whose dialog was asked for; written on the UI thread
+    private volatile int shownRequestId = 0;
+
+    PermissionState(Context context, Handler handler) {
+        this.context = context;
+        this.handler = handler;
+    }
+
+    void invalidate() {
+        synchronized (this) {
+            generation++;
+            granted = UNKNOWN;
+        }
+    }
+
+    boolean isGranted(String permission) {
+        for (int i = 0; i < TRACKED.length; i++) {
+            if (TRACKED[i].equals(permission)) {
+                return isGranted(i);
+            }
+        }
+        return ContextCompat.checkSelfPermission(context, permission) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    /** Whether scan results can be read: location, or NEARBY_WIFI_DEVICES on API 33+. */
+    boolean canScan() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return true;
+        }
+        if (isGranted(FINE_LOCATION)) {
+            return true;
+        }
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU && isGranted(NEARBY_WIFI_DEVICES);
+    }
+
+    /** Space-separated names of the missing scan permissions, for error messages. */
+    String describeMissingScanPermissions() {
+        StringBuilder missing = new StringBuilder();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            if (!isGranted(FINE_LOCATION)) {
+                missing.append("ACCESS_FINE_LOCATION ");
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU && !isGranted(NEARBY_WIFI_DEVICES)) {
+                missing.append("NEARBY_WIFI_DEVICES ");
+            }
+        }
+        return missing.toString().trim();
+    }
+
+    /** Runtime permissions still needed for scanning and connecting. */
+    String[] getPermissionsToRequest() {
+        List<String> permissions = new ArrayList<>();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            if (!isGranted(FINE_LOCATION)) {
+                permissions.add(TRACKED[FINE_LOCATION]);
+            }
+            if (!isGranted(COARSE_LOCATION)) {
+                permissions.add(TRACKED[COARSE_LOCATION]);
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU && !isGranted(NEARBY_WIFI_DEVICES)) {
+                permissions.add(TRACKED[NEARBY_WIFI_DEVICES]);
+            }
+        }
+        return permissions.toArray(new String[0]);
+    }
+
+    /**
+     * Completes the callback once scan permissions are settled, showing the system dialog for
+     * the missing ones unless a request is already showing, in which case the callback joins it.
+     *
+     * @throws IllegalStateException if a dialog is needed but there is no activity
+     */
+    void request(Activity activity, RequestCallback callback) {
+        if (canScan()) {
+            callback.onPermissionResult(true);
+            return;
+        }
+        if (!startRequest(activity)) {
+            callback.onPermissionResult(false);
+            return;
+        }
+        waiters.add(callback);
+    }
+
+    /**
+     * Shows the system dialog for the missing scan permissions unless a request is already
+     * showing. Without waiters the result is only picked up through the refreshed grant state.
+     *
+     * @return whether a request is in flight, false if nothing is left to request
+     * @throws IllegalStateException if a dialog is needed but there is no activity
+     */
+    boolean startRequest(final Activity activity) {
+        if (requestInFlight) {
+            return true;
+        }
+        final String[] permissions = getPermissionsToRequest();
+        if (permissions.length == 0) {
+            return false;
+        }
+        if (activity == null) {
+            throw new IllegalStateException("No current activity to request permissions from");
+        }
+        requestInFlight = true;
+        final int id = ++requestId;
+
+        if (activity instanceof PermissionAwareActivity) {
+            final PermissionAwareActivity permissionAware = (PermissionAwareActivity) activity;
+            final PermissionListener listener = new PermissionListener() {
+                @Override
+                public boolean onRequestPermissionsResult(int requestCode, String[] requested, int[] grantResults) {
+                    if (requestCode != REQUEST_CODE) {
+                        return false;
+                    }
+                    completeRequestOnHandler(id);
+                    return true;
+                }
+            };
+            UiThreadUtil.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        permissionAware.requestPermissions(permissions, REQUEST_CODE, listener);
+                        shownRequestId = id;
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error requesting permissions", e);
+                        completeRequestOnHandler(id);
+                    }
+                }
+            });
+        } else {
+            // Without a listener the result is only visible once the dialog closes and the host resumes
+            UiThreadUtil.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    ActivityCompat.requestPermissions(activity, permissions, REQUEST_CODE);
+                    shownRequestId = id;
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Drops a waiter, e.g. after its own timeout. When the last waiter is gone the request is
+     * dropped too, so the next one shows a new dialog instead of waiting on a lost result.
+     */
+    void cancel(RequestCallback callback) {
+        if (waiters.remove(callback) && waiters.isEmpty()) {
+            requestInFlight = false;
+        }
+    }
+
+    /** Called from the host's onResume on the UI thread, which the dialog requests also run on. */
+    void onHostResume() {
+        invalidate();
+        // The dialog pauses the host, so resuming after it was shown means it closed
+        final int shown = shownRequestId;
+        if (shown != 0) {
+            completeRequestOnHandler(shown);
+        }
+    }
+
+    private void completeRequestOnHandler(final int id) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                completeRequest(id);
+            }
+        });
+    }
+
+    private void completeRequest(int id) {
+        if (!requestInFlight || id != requestId) {
+            return;
+        }
+        requestInFlight = false;
+        invalidate();
+        boolean canScan = canScan();
+        List<RequestCallback> completed = new ArrayList<>(waiters);
+        waiters.clear();
+        for (RequestCallback callback : completed) {
+            try {
+                callback.onPermissionResult(canScan);
+            } catch (Exception e) {
+                Log.e(TAG, "Error in permission callback", e);
+            }
+        }
+    }
+
+    private boolean isGranted(int index) {
+        return (grants() & (1 << index)) != 0;
+    }
+
+    private int grants() {
+        int current = granted;
+        if (current != UNKNOWN) {
+            return current;
+        }
+        long readGeneration;
+        synchronized (this) {
+            readGeneration = generation;
+        }
+        current = 0;
+        for (int i = 0; i < TRACKED.length; i++) {
+            if (ContextCompat.checkSelfPermission(context, TRACKED[i]) == PackageManager.PERMISSION_GRANTED) {
+                current |= 1 << i;
+            }
+        }
+        synchronized (this) {
+            // An invalidation during the read may have made it stale; use it once without caching
+            if (generation == readGeneration) {
+                granted = current;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,275 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Picks the best access point among known networks from successive scans.
+ *
+ * Scores are in dB so they compare directly with RSSI: the signal (smoothed when a
+ * {@link SignalHistory} is available) plus a band bonus (6 GHz over 5 GHz over 2.4 GHz) and a
+ * security bonus, minus a co-channel congestion penalty and a penalty for each recent
+ * connection failure to the SSID. Access points below {@code minRssi} are not considered.
+ *
+ * A switch away from the current access point is only recommended once a candidate beats it
+ * by {@code hysteresisDb} and stays the leader for {@code dwellMs}, so short fades and noisy
+ * scans do not cause flapping. While disconnected the best candidate is recommended at once,
+ * and the last recommendation is only replaced by one that beats it by {@code hysteresisDb}.
+ * Each recommendation is reported once until the leader or the access point in use changes.
+ *
+ * Deterministic for a given clock and input. Not thread-safe; the module confines it to the
+ * WiFi thread.
+ */
+final class RoamingSelector {
+    static final int DEFAULT_HYSTERESIS_DB = 8;
+    static final long DEFAULT_DWELL_MS = 15000;
+    static final int DEFAULT_MIN_RSSI = -80;
+    static final long DEFAULT_FAILURE_WINDOW_MS = 5 * 60 * 1000;
+
+    static final double BAND_6_GHZ_BONUS_DB = 10;
+    static final double BAND_5_GHZ_BONUS_DB = 6;
+    static final double WPA3_BONUS_DB = 3;
+    static final double WEAK_SECURITY_PENALTY_DB = 5;
+    static final double CONGESTION_PENALTY_DB = 1;
+    static final double MAX_CONGESTION_PENALTY_DB = 10;
+    static final double FAILURE_PENALTY_DB = 15;
+
+    static final class Score {
+        final ScanRecord network;
+        final double score;
+        final double signal;
+
+        Score(ScanRecord network, double score, double signal) {
+            this.network = network;
+            this.score = score;
+            this.signal = signal;
+        }
+    }
+
+    static final class Recommendation {
+        final Score best;
+        /** Score of the access point in use, or null if disconnected or it was not in the scan */
+        final Score current;
+
+        Recommendation(Score best, Score current) {
+            this.best = best;
+            this.current = current;
+        }
+    }
+
+    private static final Comparator<Score> BY_SCORE = new Comparator<Score>() {
+        @Override
+        public int compare(Score a, Score b) {
+            int byScore = Double.compare(b.score, a.score);
+            // Ties go to the lower BSSID so the choice does not depend on scan order
+            return byScore != 0 ? byScore : a.network.bssid.compareTo(b.network.bssid);
+        }
+    };
+
+    private final Clock clock;
+    private final Set<String> candidates;
+    private final int hysteresisDb;
+    private final long dwellMs;
+    private final int minRssi;
+    private final long failureWindowMs;
+    private final Map<String, List<Long>> failures = new HashMap<>();
+    private String lastCurrentBssid;
+    private String leader;
+    private long leaderSince;
+    private String recommended;
+
+    RoamingSelector(Clock clock, Set<String> candidates, int hysteresisDb, long dwellMs, int minRssi,
+                    long failureWindowMs) {
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("At least one network is required");
+        }
+        if (hysteresisDb < 0) {
+            throw new IllegalArgumentException("hysteresisDb must not be negative");
+        }
+        if (dwellMs < 0) {
+            throw new IllegalArgumentException("dwellMs must not be negative");
+        }
+        if (failureWindowMs < 0) {
+            throw new IllegalArgumentException("failureWindowMs must not be negative");
+        }
+        this.clock = clock;
+        this.candidates = new HashSet<>(candidates);
+        this.hysteresisDb = hysteresisDb;
+        this.dwellMs = dwellMs;
+        this.minRssi = minRssi;
+        this.failureWindowMs = failureWindowMs;
+    }
+
+    boolean isCandidate(String ssid) {
+        return ssid != null && candidates.contains(ssid);
+    }
+
+    void recordFailure(String ssid) {
+        if (!isCandidate(ssid)) {
+            return;
+        }
+        List<Long> times = failures.get(ssid);
+        if (times == null) {
+            times = new ArrayList<>();
+            failures.put(ssid, times);
+        }
+        times.add(clock.nowMillis());
+    }
+
+    void recordSuccess(String ssid) {
+        failures.remove(ssid);
+    }
+
+    /**
+     * Scores every candidate access point in the scan, best first.
+     *
+     * @param history smoothed signal source, or null to use the scan's RSSI as is
+     */
+    List<Score> score(List<ScanRecord> records, SignalHistory history) {
+        return score(records, countByFrequency(records), history);
+    }
+
+    /**
+     * Evaluates a scan against the access point in use.
+     *
+     * @param currentBssid BSSID of the connected access point, or null while disconnected
+     * @return a recommendation not reported before, or null if staying put is best
+     */
+    Recommendation evaluate(List<ScanRecord> records, String currentBssid, SignalHistory history) {
+        if (!Objects.equals(currentBssid, lastCurrentBssid)) {
+            // Earlier recommendations were made against a different access point
+            lastCurrentBssid = currentBssid;
+            leader = null;
+            recommended = null;
+        }
+        Map<Integer, Integer> perFrequency = countByFrequency(records);
+        List<Score> scores = score(records, perFrequency, history);
+        Score best = scores.isEmpty() ? null : scores.get(0);
+        if (best == null || best.network.bssid.equals(currentBssid)) {
+            leader = null;
+            recommended = null;
+            return null;
+        }
+
+        Score current = null;
+        if (currentBssid != null) {
+            for (ScanRecord record : records) {
+                if (currentBssid.equals(record.bssid)) {
+                    current = scoreOf(record, perFrequency.get(record.frequency) - 1, history);
+                    break;
+                }
+            }
+        }
+        // While disconnected the last recommendation is the incumbent, so it does not flap either
+        Score incumbent = current;
+        if (currentBssid == null && recommended != null) {
+            for (Score score : scores) {
+                if (score.network.bssid.equals(recommended)) {
+                    incumbent = score;
+                    break;
+                }
+            }
+        }
+        if (incumbent != null && (incumbent == best || best.score < incumbent.score + hysteresisDb)) {
+            leader = null;
+            return null;
+        }
+
+        long now = clock.nowMillis();
+        if (!best.network.bssid.equals(leader)) {
+            leader = best.network.bssid;
+            leaderSince = now;
+        }
+        // A connected device only moves after the leader has held its margin for the dwell time
+        if (currentBssid != null && now - leaderSince < dwellMs) {
+            return null;
+        }
+        if (leader.equals(recommended)) {
+            return null;
+        }
+        recommended = leader;
+        return new Recommendation(best, current);
+    }
+
+    private List<Score> score(List<ScanRecord> records, Map<Integer, Integer> perFrequency,
+                              SignalHistory history) {
+        expireFailures();
+        List<Score> scores = new ArrayList<>();
+        for (ScanRecord record : records) {
+            if (record.bssid == null || !isCandidate(record.ssid)) {
+                continue;
+            }
+            Score score = scoreOf(record, perFrequency.get(record.frequency) - 1, history);
+            if (score.signal >= minRssi) {
+                scores.add(score);
+            }
+        }
+        Collections.sort(scores, BY_SCORE);
+        return scores;
+    }
+
+    private static Map<Integer, Integer> countByFrequency(List<ScanRecord> records) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (ScanRecord record : records) {
+            Integer count = counts.get(record.frequency);
+            counts.put(record.frequency, count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    private Score scoreOf(ScanRecord record, int coChannel, SignalHistory history) {
+        double signal = record.level;
+        if (history != null) {
+            SignalHistory.Series series = history.get(record.bssid);
+            if (series != null && series.size() > 0) {
+                signal = series.getEwma();
+            }
+        }
+        double score = signal;
+        if (record.band == ChannelResolver.Band.GHZ_6) {
+            score += BAND_6_GHZ_BONUS_DB;
+        } else if (record.band == ChannelResolver.Band.GHZ_5) {
+            score += BAND_5_GHZ_BONUS_DB;
+        }
+        switch (record.security.security) {
+            case WPA3:
+                score += WPA3_BONUS_DB;
+                break;
+            case OPEN:
+            case WEP:
+            case WPA:
+                score -= WEAK_SECURITY_PENALTY_DB;
+                break;
+            default:
+                break;
+        }
+        score -= Math.min(MAX_CONGESTION_PENALTY_DB, coChannel * CONGESTION_PENALTY_DB);
+        List<Long> times = record.ssid != null ? failures.get(record.ssid) : null;
+        if (times != null) {
+            score -= times.size() * FAILURE_PENALTY_DB;
+        }
+        return new Score(record, score, signal);
+    }
+
+    private void expireFailures() {
+        long cutoff = clock.nowMillis() - failureWindowMs;
+        Iterator<List<Long>> iterator = failures.values().iterator();
+        while (iterator.hasNext()) {
+            List<Long> times = iterator.next();
+            while (!times.isEmpty() && times.get(0) <= cutoff) {
+                times.remove(0);
+            }
+            if (times.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+}
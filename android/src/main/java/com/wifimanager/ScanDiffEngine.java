@@ -0,0 +1,116 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns successive scans into added/changed/removed deltas keyed by BSSID.
+ *
+ * The engine remembers what it last emitted for each BSSID. A network only counts as changed
+ * when its RSSI moved by at least the hysteresis threshold from that emitted value (so slow
+ * drift still surfaces) or another field changed. Every {@code keyframeInterval} emissions a
+ * keyframe carrying the full list is produced so consumers can resync.
+ */
+final class ScanDiffEngine {
+    static final int DEFAULT_RSSI_HYSTERESIS_DB = 3;
+    static final int DEFAULT_KEYFRAME_INTERVAL = 10;
+
+    static final class Diff {
+        final long sequence;
+        final boolean keyframe;
+        final List<ScanRecord> added;
+        final List<ScanRecord> changed;
+        final List<String> removed;
+
+        Diff(long sequence, boolean keyframe, List<ScanRecord> added, List<ScanRecord> changed,
+             List<String> removed) {
+            this.sequence = sequence;
+            this.keyframe = keyframe;
+            this.added = added;
+            this.changed = changed;
+            this.removed = removed;
+        }
+
+        boolean isEmpty() {
+            return !keyframe && added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    private final int rssiHysteresisDb;
+    private final int keyframeInterval;
+    private final Map<String, ScanRecord> emitted = new HashMap<>();
+    private long sequence = 0;
+    private int sinceKeyframe = 0;
+    private boolean forceKeyframe = true;
+
+    ScanDiffEngine(int rssiHysteresisDb, int keyframeInterval) {
+        if (rssiHysteresisDb < 0 || keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Expected rssiHysteresisDb >= 0 and keyframeInterval > 0");
+        }
+        this.rssiHysteresisDb = rssiHysteresisDb;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Diffs a scan against the last emitted state. Sequence numbers only advance for diffs
+     * that carry something, so consumers can detect missed events.
+     */
+    Diff diff(List<ScanRecord> scan) {
+        if (forceKeyframe || ++sinceKeyframe >= keyframeInterval) {
+            return keyframe(scan);
+        }
+
+        List<ScanRecord> added = new ArrayList<>();
+        List<ScanRecord> changed = new ArrayList<>();
+        Map<String, ScanRecord> seen = new HashMap<>(scan.size() * 2);
+        for (ScanRecord record : scan) {
+            if (record.bssid == null || seen.put(record.bssid, record) != null) {
+                continue;
+            }
+            ScanRecord previous = emitted.get(record.bssid);
+            if (previous == null) {
+                added.add(record);
+                emitted.put(record.bssid, record);
+            } else if (Math.abs(record.level - previous.level) >= Math.max(1, rssiHysteresisDb)
+                    || record.differsIgnoringLevel(previous)) {
+                changed.add(record);
+                emitted.put(record.bssid, record);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        Iterator<String> iterator = emitted.keySet().iterator();
+        while (iterator.hasNext()) {
+            String bssid = iterator.next();
+            if (!seen.containsKey(bssid)) {
+                removed.add(bssid);
+                iterator.remove();
+            }
+        }
+        boolean empty = added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        return new Diff(empty ? sequence : ++sequence, false, added, changed, removed);
+    }
+
+    /** Makes the next diff a keyframe, e.g. after the consumer lost state. */
+    void reset() {
+        forceKeyframe = true;
+    }
+
+    private Diff keyframe(List<ScanRecord> scan) {
+        forceKeyframe = false;
+        sinceKeyframe = 0;
+        emitted.clear();
+        List<ScanRecord> all = new ArrayList<>(scan.size());
+        for (ScanRecord record : scan) {
+            if (record.bssid != null && emitted.put(record.bssid, record) == null) {
+                all.add(record);
+            }
+        }
+        return new Diff(++sequence, true, all, Collections.<ScanRecord>emptyList(),
+                Collections.<String>emptyList());
+    }
+}
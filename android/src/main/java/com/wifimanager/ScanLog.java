@@ -0,0 +1,284 @@
+package com.wifimanager;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Rotating on-disk log of scans in the {@link ScanLogCodec} format.
+ *
+ * Encoded scans are staged in a buffer and written to the current file through its
+ * {@link FileChannel} when the buffer fills, on the first append {@code flushIntervalMs} after
+ * the previous write, and on {@link #flush()}, so a crash loses at most that window. A file is
+ * closed and a new one started when it would exceed {@code maxFileBytes}, and the oldest files
+ * are deleted while the log as a whole is over {@code maxTotalBytes}. Each {@link #open()}
+ * starts a new file, since the codec's dictionaries cannot be resumed. For the same reason a
+ * failed write abandons the current file and continues in a new one.
+ *
+ * Not thread-safe; the module confines it to its scan log executor so disk I/O never runs on
+ * the WiFi thread.
+ */
+final class ScanLog {
+    static final long DEFAULT_MAX_FILE_BYTES = 1024 * 1024;
+    static final long DEFAULT_MAX_TOTAL_BYTES = 16 * 1024 * 1024;
+    static final long DEFAULT_FLUSH_INTERVAL_MS = 10000;
+    private static final String FILE_PREFIX = "scans-";
+    private static final String FILE_SUFFIX = ".wl";
+    private static final int BUFFER_BYTES = 16 * 1024;
+
+    private final Clock clock;
+    private final File directory;
+    private final long maxFileBytes;
+    private final long maxTotalBytes;
+    private final long flushIntervalMs;
+    private final ScanLogCodec.Encoder encoder = new ScanLogCodec.Encoder();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private FileChannel channel;
+    private long fileBytes;
+    private long nextSequence;
+    private long lastFlushAt;
+    private int scansWritten = 0;
+
+    ScanLog(Clock clock, File directory, long maxFileBytes, long maxTotalBytes, long flushIntervalMs) {
+        if (maxFileBytes < 1024) {
+            throw new IllegalArgumentException("maxFileBytes must be at least 1024");
+        }
+        if (maxTotalBytes < maxFileBytes) {
+            throw new IllegalArgumentException("maxTotalBytes must be at least maxFileBytes");
+        }
+        this.clock = clock;
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.maxTotalBytes = maxTotalBytes;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    boolean isOpen() {
+        return channel != null;
+    }
+
+    int getScansWritten() {
+        return scansWritten;
+    }
+
+    void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        List<File> files = listFiles(directory);
+        nextSequence = files.isEmpty() ? 0 : sequenceOf(files.get(files.size() - 1)) + 1;
+        startFile();
+    }
+
+    void append(List<ScanRecord> records, long timestampMillis) throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            encoder.encode(records, timestampMillis);
+            int size = encoder.size();
+            if (fileBytes + size > maxFileBytes && fileBytes > ScanLogCodec.HEADER_BYTES) {
+                closeFile();
+                startFile();
+                encoder.encode(records, timestampMillis);
+                size = encoder.size();
+            }
+            write(encoder.buffer(), size);
+            scansWritten++;
+            if (clock.nowMillis() - lastFlushAt >= flushIntervalMs) {
+                writeBuffer();
+            }
+        } catch (IOException e) {
+            restartAfterFailure(e);
+            throw e;
+        }
+    }
+
+    void flush() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            restartAfterFailure(e);
+            throw e;
+        }
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            closeFile();
+        }
+    }
+
+    /** Deletes every log file; the log keeps recording into a new file if it was open. */
+    void clear() throws IOException {
+        boolean reopen = channel != null;
+        if (reopen) {
+            channel.close();
+            channel = null;
+            buffer.clear();
+        }
+        deleteFiles(directory);
+        scansWritten = 0;
+        if (reopen) {
+            startFile();
+        }
+    }
+
+    /** Total size of the log files on disk, excluding scans still buffered. */
+    static long sizeOf(File directory) {
+        long total = 0;
+        for (File file : listFiles(directory)) {
+            total += file.length();
+        }
+        return total;
+    }
+
+    /** Log files oldest first. Flush before reading them while the log is open. */
+    static List<File> listFiles(File directory) {
+        File[] files = directory.listFiles();
+        List<File> result = new ArrayList<>();
+        if (files == null) {
+            return result;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX) && sequenceOf(file) >= 0) {
+                result.add(file);
+            }
+        }
+        File[] sorted = result.toArray(new File[0]);
+        Arrays.sort(sorted, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(sequenceOf(a), sequenceOf(b));
+            }
+        });
+        return Arrays.asList(sorted);
+    }
+
+    static void deleteFiles(File directory) throws IOException {
+        for (File file : listFiles(directory)) {
+            if (!file.delete()) {
+                throw new IOException("Cannot delete " + file);
+            }
+        }
+    }
+
+    static InputStream openForReading(File file) throws IOException {
+        return new BufferedInputStream(new FileInputStream(file), BUFFER_BYTES);
+    }
+
+    private void startFile() throws IOException {
+        File file = new File(directory, FILE_PREFIX + nextSequence++ + FILE_SUFFIX);
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        channel.truncate(0);
+        fileBytes = 0;
+        lastFlushAt = clock.nowMillis();
+        encoder.startFile();
+        write(encoder.buffer(), encoder.size());
+        trimToSize();
+    }
+
+    private void closeFile() throws IOException {
+        try {
+            writeBuffer();
+        } finally {
+            channel.close();
+            channel = null;
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Abandons the current file after a failed write and starts a new one. The encoder already
+     * counts the failed scan's strings as written, so later scans in the same file could refer
+     * to strings it never received; starting a file resets the encoder. Scans still buffered
+     * are lost, and the abandoned file ends at the last complete record.
+     */
+    private void restartAfterFailure(IOException failure) {
+        discardChannel(failure);
+        try {
+            startFile();
+        } catch (IOException e) {
+            // Stays closed; append is a no-op until the log is opened again
+            failure.addSuppressed(e);
+            discardChannel(failure);
+        }
+    }
+
+    private void discardChannel(IOException failure) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+            channel = null;
+        }
+        buffer.clear();
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        lastFlushAt = clock.nowMillis();
+    }
+
+    private void write(byte[] bytes, int length) throws IOException {
+        if (length > buffer.remaining()) {
+            writeBuffer();
+        }
+        if (length > buffer.capacity()) {
+            ByteBuffer large = ByteBuffer.wrap(bytes, 0, length);
+            while (large.hasRemaining()) {
+                channel.write(large);
+            }
+        } else {
+            buffer.put(bytes, 0, length);
+        }
+        fileBytes += length;
+    }
+
+    /** Deletes the oldest closed files while the log is over its total size. */
+    private void trimToSize() {
+        List<File> files = listFiles(directory);
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        // The last file is the one just started
+        for (int i = 0; i < files.size() - 1 && total > maxTotalBytes - maxFileBytes; i++) {
+            long length = files.get(i).length();
+            if (files.get(i).delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    private static long sequenceOf(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+}
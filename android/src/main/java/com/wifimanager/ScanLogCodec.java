@@ -0,0 +1,273 @@
+package com.wifimanager;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only binary format of the scan log.
+ *
+ * A file starts with 'W' 'L' and a version byte, followed by records that each start with a
+ * tag byte:
+ * <ul>
+ *   <li>{@code STRING}: varint length and UTF-8 bytes; defines the next dictionary id (0, 1, ...).
+ *   Each SSID, BSSID and capabilities string is written once per file.</li>
+ *   <li>{@code SCAN}: zigzag varint timestamp delta from the previous scan in ms, varint count,
+ *   then per network: bssid id, ssid id + 1, capabilities id + 1 (0 for null), zigzag varint
+ *   RSSI delta from the previous sample of the same BSSID, frequency, center channel and
+ *   channel width (varints).</li>
+ * </ul>
+ * Every file is self-contained. A record cut short by a crash ends the file when decoding.
+ */
+final class ScanLogCodec {
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 3;
+    private static final int MAGIC_0 = 'W';
+    private static final int MAGIC_1 = 'L';
+    private static final int TAG_STRING = 1;
+    private static final int TAG_SCAN = 2;
+
+    private ScanLogCodec() {
+    }
+
+    /** Encodes scans into a reusable buffer. Start each file with {@link #startFile()}. */
+    static final class Encoder {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private int[] lastLevels = new int[256];
+        private long lastTimestamp;
+        private byte[] buffer = new byte[8192];
+        private int size;
+
+        /** Resets the dictionary and deltas and encodes the file header. */
+        void startFile() {
+            dictionary.clear();
+            Arrays.fill(lastLevels, 0);
+            lastTimestamp = 0;
+            size = 0;
+            writeByte(MAGIC_0);
+            writeByte(MAGIC_1);
+            writeByte(VERSION);
+        }
+
+        /** Encodes one scan, replacing the buffer contents. */
+        void encode(List<ScanRecord> records, long timestampMillis) {
+            size = 0;
+            // Dictionary entries go first so the scan record only holds ids
+            for (int i = 0, n = records.size(); i < n; i++) {
+                ScanRecord record = records.get(i);
+                define(record.bssid);
+                define(record.ssid);
+                define(record.capabilities);
+            }
+            writeByte(TAG_SCAN);
+            writeVarLong(zigzag(timestampMillis - lastTimestamp));
+            lastTimestamp = timestampMillis;
+            int count = 0;
+            for (int i = 0, n = records.size(); i < n; i++) {
+                if (records.get(i).bssid != null) {
+                    count++;
+                }
+            }
+            writeVarint(count);
+            for (int i = 0, n = records.size(); i < n; i++) {
+                ScanRecord record = records.get(i);
+                if (record.bssid == null) {
+                    continue;
+                }
+                int bssidId = dictionary.get(record.bssid);
+                writeVarint(bssidId);
+                writeVarint(idOf(record.ssid) + 1);
+                writeVarint(idOf(record.capabilities) + 1);
+                writeVarint(zigzag(record.level - lastLevels[bssidId]));
+                lastLevels[bssidId] = record.level;
+                writeVarint(record.frequency);
+                writeVarint(record.centerChannel);
+                writeVarint(record.channelWidth);
+            }
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void define(String value) {
+            if (value == null || dictionary.containsKey(value)) {
+                return;
+            }
+            int id = dictionary.size();
+            dictionary.put(value, id);
+            if (id >= lastLevels.length) {
+                lastLevels = Arrays.copyOf(lastLevels, lastLevels.length * 2);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeByte(TAG_STRING);
+            writeVarint(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private int idOf(String value) {
+            return value == null ? -1 : dictionary.get(value);
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    /** Reads scans back one at a time from a single file. */
+    static final class Decoder {
+        private final InputStream in;
+        private final List<String> dictionary = new ArrayList<>();
+        private int[] lastLevels = new int[256];
+        private long lastTimestamp;
+
+        /** @throws IOException if the stream is not a scan log of a supported version */
+        Decoder(InputStream in) throws IOException {
+            this.in = in;
+            if (in.read() != MAGIC_0 || in.read() != MAGIC_1) {
+                throw new IOException("Not a scan log");
+            }
+            int version = in.read();
+            if (version != VERSION) {
+                throw new IOException("Unsupported scan log version " + version);
+            }
+        }
+
+        /** @return the next scan, or null at the end of the file or at a truncated record */
+        ScanSnapshot next() throws IOException {
+            try {
+                while (true) {
+                    int tag = in.read();
+                    if (tag == -1) {
+                        return null;
+                    }
+                    if (tag == TAG_STRING) {
+                        byte[] bytes = new byte[readVarint()];
+                        readFully(bytes);
+                        dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+                        if (dictionary.size() > lastLevels.length) {
+                            lastLevels = Arrays.copyOf(lastLevels, lastLevels.length * 2);
+                        }
+                    } else if (tag == TAG_SCAN) {
+                        return readScan();
+                    } else {
+                        throw new IOException("Corrupt scan log: unknown record tag " + tag);
+                    }
+                }
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        private ScanSnapshot readScan() throws IOException {
+            lastTimestamp += unzigzag(readVarLong());
+            int count = readVarint();
+            List<ScanRecord> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int bssidId = readVarint();
+                String bssid = lookup(bssidId + 1);
+                String ssid = lookup(readVarint());
+                String capabilities = lookup(readVarint());
+                int level = lastLevels[bssidId] + (int) unzigzag(readVarint() & 0xFFFFFFFFL);
+                lastLevels[bssidId] = level;
+                int frequency = readVarint();
+                int centerChannel = readVarint();
+                int channelWidth = readVarint();
+                records.add(new ScanRecord(ssid, bssid, level, capabilities, frequency,
+                        ChannelResolver.channelOf(frequency), ChannelResolver.bandOf(frequency),
+                        centerChannel, channelWidth));
+            }
+            return new ScanSnapshot(records, lastTimestamp);
+        }
+
+        /** @param idPlusOne dictionary id + 1, 0 for null */
+        private String lookup(int idPlusOne) throws IOException {
+            if (idPlusOne == 0) {
+                return null;
+            }
+            if (idPlusOne > dictionary.size()) {
+                throw new IOException("Corrupt scan log: undefined string " + (idPlusOne - 1));
+            }
+            return dictionary.get(idPlusOne - 1);
+        }
+
+        private int readVarint() throws IOException {
+            return (int) readVarLong();
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.read();
+                if (b == -1) {
+                    throw new EOFException();
+                }
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt scan log: varint too long");
+        }
+
+        private void readFully(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    throw new EOFException();
+                }
+                offset += read;
+            }
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,192 @@
+package com.wifimanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Streams a scan log out as CSV (one row per network sighting) or as a JSON array of scans.
+ *
+ * Files are decoded one scan at a time, so memory use does not grow with the size of the log.
+ * Files that are not readable scan logs are skipped.
+ */
+final class ScanLogExporter {
+    enum Format { CSV, JSON }
+
+    static final class Summary {
+        final int files;
+        final int scans;
+        final int rows;
+
+        Summary(int files, int scans, int rows) {
+            this.files = files;
+            this.scans = scans;
+            this.rows = rows;
+        }
+    }
+
+    private static final String CSV_HEADER =
+            "timestamp,bssid,ssid,signalStrength,frequency,channel,band,centerChannel,channelWidth,capabilities\n";
+
+    private ScanLogExporter() {
+    }
+
+    static Format parseFormat(String value) {
+        switch (value) {
+            case "csv":
+                return Format.CSV;
+            case "json":
+                return Format.JSON;
+            default:
+                throw new IllegalArgumentException("Unknown export format: " + value);
+        }
+    }
+
+    static Summary export(List<File> files, Format format, Writer out) throws IOException {
+        int exportedFiles = 0;
+        int scans = 0;
+        int rows = 0;
+        out.write(format == Format.CSV ? CSV_HEADER : "[");
+        for (File file : files) {
+            try (InputStream in = ScanLog.openForReading(file)) {
+                ScanLogCodec.Decoder decoder;
+                try {
+                    decoder = new ScanLogCodec.Decoder(in);
+                } catch (IOException e) {
+                    continue;
+                }
+                exportedFiles++;
+                ScanSnapshot scan;
+                while ((scan = decoder.next()) != null) {
+                    if (format == Format.CSV) {
+                        writeCsv(scan, out);
+                    } else {
+                        if (scans > 0) {
+                            out.write(',');
+                        }
+                        writeJson(scan, out);
+                    }
+                    scans++;
+                    rows += scan.records.size();
+                }
+            }
+        }
+        if (format == Format.JSON) {
+            out.write("]");
+        }
+        out.flush();
+        return new Summary(exportedFiles, scans, rows);
+    }
+
+    private static void writeCsv(ScanSnapshot scan, Writer out) throws IOException {
+        for (ScanRecord record : scan.records) {
+            out.write(Long.toString(scan.timestampMillis));
+            out.write(',');
+            writeCsvField(record.bssid, out);
+            out.write(',');
+            writeCsvField(record.ssid, out);
+            out.write(',');
+            out.write(Integer.toString(record.level));
+            out.write(',');
+            out.write(Integer.toString(record.frequency));
+            out.write(',');
+            out.write(Integer.toString(record.channel));
+            out.write(',');
+            out.write(record.band != null ? record.band.label : "");
+            out.write(',');
+            out.write(Integer.toString(record.centerChannel));
+            out.write(',');
+            out.write(Integer.toString(record.channelWidth));
+            out.write(',');
+            writeCsvField(record.capabilities, out);
+            out.write('\n');
+        }
+    }
+
+    private static void writeCsvField(String value, Writer out) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static void writeJson(ScanSnapshot scan, Writer out) throws IOException {
+        out.write("{\"timestamp\":");
+        out.write(Long.toString(scan.timestampMillis));
+        out.write(",\"networks\":[");
+        for (int i = 0; i < scan.records.size(); i++) {
+            ScanRecord record = scan.records.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"bssid\":");
+            writeJsonString(record.bssid, out);
+            out.write(",\"ssid\":");
+            writeJsonString(record.ssid, out);
+            out.write(",\"signalStrength\":");
+            out.write(Integer.toString(record.level));
+            out.write(",\"frequency\":");
+            out.write(Integer.toString(record.frequency));
+            out.write(",\"channel\":");
+            out.write(Integer.toString(record.channel));
+            out.write(",\"band\":");
+            writeJsonString(record.band != null ? record.band.label : null, out);
+            out.write(",\"centerChannel\":");
+            out.write(Integer.toString(record.centerChannel));
+            out.write(",\"channelWidth\":");
+            out.write(Integer.toString(record.channelWidth));
+            out.write(",\"capabilities\":");
+            writeJsonString(record.capabilities, out);
+            out.write('}');
+        }
+        out.write("]}");
+    }
+
+    private static void writeJsonString(String value, Writer out) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,247 @@
+package com.wifimanager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact alternatives to one map per network.
+ *
+ * Both formats share a string table, so repeated SSIDs, capability strings and security
+ * labels are sent once.
+ * The columnar form holds parallel int columns that index into that table (-1 for null).
+ * The binary form packs the same columns into varints (layout documented on
+ * {@link #encodeBinary(List)}) for transport as a single base64 string.
+ */
+final class ScanPayloadEncoder {
+    static final int BINARY_VERSION = 3;
+    // JSON keys, punctuation and numbers of one network map, excluding its strings
+    private static final int MAP_FIXED_BYTES = 180;
+    // Eleven numeric columns of about four characters plus a separator each
+    private static final int COLUMN_ROW_BYTES = 60;
+
+    enum Format { MAPS, COLUMNAR, BINARY }
+
+    static final class Columns {
+        final int count;
+        final String[] strings;
+        final int[] ssid;
+        final int[] bssid;
+        final int[] capabilities;
+        final int[] signalStrength;
+        final int[] frequency;
+        final int[] channel;
+        final int[] band;
+        final int[] centerChannel;
+        final int[] channelWidth;
+        final int[] security;
+        final int[] securityFlags;
+
+        Columns(int count, String[] strings, int[] ssid, int[] bssid, int[] capabilities,
+                int[] signalStrength, int[] frequency, int[] channel, int[] band,
+                int[] centerChannel, int[] channelWidth, int[] security, int[] securityFlags) {
+            this.count = count;
+            this.strings = strings;
+            this.ssid = ssid;
+            this.bssid = bssid;
+            this.capabilities = capabilities;
+            this.signalStrength = signalStrength;
+            this.frequency = frequency;
+            this.channel = channel;
+            this.band = band;
+            this.centerChannel = centerChannel;
+            this.channelWidth = channelWidth;
+            this.security = security;
+            this.securityFlags = securityFlags;
+        }
+    }
+
+    private ScanPayloadEncoder() {
+    }
+
+    static Format parseFormat(String value) {
+        switch (value) {
+            case "maps":
+                return Format.MAPS;
+            case "columnar":
+                return Format.COLUMNAR;
+            case "binary":
+                return Format.BINARY;
+            default:
+                throw new IllegalArgumentException("Unknown result format: " + value);
+        }
+    }
+
+    static Columns encodeColumns(List<ScanRecord> records) {
+        int count = records.size();
+        StringTable table = new StringTable();
+        int[] ssid = new int[count];
+        int[] bssid = new int[count];
+        int[] capabilities = new int[count];
+        int[] signalStrength = new int[count];
+        int[] frequency = new int[count];
+        int[] channel = new int[count];
+        int[] band = new int[count];
+        int[] centerChannel = new int[count];
+        int[] channelWidth = new int[count];
+        int[] security = new int[count];
+        int[] securityFlags = new int[count];
+        for (int i = 0; i < count; i++) {
+            ScanRecord record = records.get(i);
+            ssid[i] = table.indexOf(record.ssid);
+            bssid[i] = table.indexOf(record.bssid);
+            capabilities[i] = table.indexOf(record.capabilities);
+            signalStrength[i] = record.level;
+            frequency[i] = record.frequency;
+            channel[i] = record.channel;
+            band[i] = table.indexOf(record.band != null ? record.band.label : null);
+            centerChannel[i] = record.centerChannel;
+            channelWidth[i] = record.channelWidth;
+            security[i] = table.indexOf(record.security.label);
+            securityFlags[i] = record.security.flags;
+        }
+        return new Columns(count, table.toArray(), ssid, bssid, capabilities, signalStrength,
+                frequency, channel, band, centerChannel, channelWidth, security, securityFlags);
+    }
+
+    /** Approximate serialized size of the records sent as one map per network. */
+    static long estimateMapBytes(List<ScanRecord> records) {
+        long bytes = 2;
+        for (int i = 0, n = records.size(); i < n; i++) {
+            ScanRecord record = records.get(i);
+            bytes += MAP_FIXED_BYTES + lengthOf(record.ssid) + lengthOf(record.bssid)
+                    + lengthOf(record.capabilities) + record.security.label.length();
+        }
+        return bytes;
+    }
+
+    /** Approximate serialized size of columns sent as a map of arrays. */
+    static long estimateColumnBytes(Columns columns) {
+        long bytes = 150;
+        for (String value : columns.strings) {
+            bytes += value.length() + 3;
+        }
+        return bytes + (long) columns.count * COLUMN_ROW_BYTES;
+    }
+
+    private static int lengthOf(String value) {
+        return value != null ? value.length() : 4;
+    }
+
+    /**
+     * Layout: magic {@code 'W' 'S'}, version byte, varint count, varint string count, then each
+     * string as varint byte length + UTF-8. Columns follow, {@code count} entries each, in order
+     * ssid, bssid, capabilities (string index + 1, 0 for null), signalStrength (zigzag varint),
+     * frequency, channel (varints), band (string index + 1), centerChannel, channelWidth (varints),
+     * security (string index + 1), securityFlags (varint).
+     */
+    static byte[] encodeBinary(List<ScanRecord> records) {
+        Columns columns = encodeColumns(records);
+        ByteSink sink = new ByteSink(32 + columns.count * 16);
+        sink.writeByte('W');
+        sink.writeByte('S');
+        sink.writeByte(BINARY_VERSION);
+        sink.writeVarint(columns.count);
+        sink.writeVarint(columns.strings.length);
+        for (String value : columns.strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            sink.writeVarint(bytes.length);
+            sink.writeBytes(bytes);
+        }
+        writeIndexColumn(sink, columns.ssid);
+        writeIndexColumn(sink, columns.bssid);
+        writeIndexColumn(sink, columns.capabilities);
+        for (int value : columns.signalStrength) {
+            sink.writeVarint((value << 1) ^ (value >> 31));
+        }
+        for (int value : columns.frequency) {
+            sink.writeVarint(value);
+        }
+        for (int value : columns.channel) {
+            sink.writeVarint(value);
+        }
+        writeIndexColumn(sink, columns.band);
+        for (int value : columns.centerChannel) {
+            sink.writeVarint(value);
+        }
+        for (int value : columns.channelWidth) {
+            sink.writeVarint(value);
+        }
+        writeIndexColumn(sink, columns.security);
+        for (int value : columns.securityFlags) {
+            sink.writeVarint(value);
+        }
+        return sink.toByteArray();
+    }
+
+    private static void writeIndexColumn(ByteSink sink, int[] column) {
+        for (int index : column) {
+            sink.writeVarint(index + 1);
+        }
+    }
+
+    private static final class StringTable {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int indexOf(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer index = indices.get(value);
+            if (index == null) {
+                index = values.size();
+                indices.put(value, index);
+                values.add(value);
+            }
+            return index;
+        }
+
+        String[] toArray() {
+            return values.toArray(new String[0]);
+        }
+    }
+
+    private static final class ByteSink {
+        private byte[] buffer;
+        private int size;
+
+        ByteSink(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        /** Unsigned LEB128; negative ints take five bytes. */
+        void writeVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+}
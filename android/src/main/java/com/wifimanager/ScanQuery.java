@@ -0,0 +1,255 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Filter, dedup, sort and limit applied to a scan before it is marshalled to JS.
+ *
+ * A limit is applied with a bounded heap, so selecting the top N of a large scan costs
+ * O(n log N) and never sorts networks that are dropped anyway.
+ */
+final class ScanQuery {
+
+    enum Security { OPEN, WEP, WPA, WPA2, WPA3, OWE, ENTERPRISE }
+
+    enum SortKey { SIGNAL_STRENGTH, SSID, FREQUENCY, CHANNEL }
+
+    static final ScanQuery ALL = new Builder().build();
+
+    private final Integer minRssi;
+    private final Set<ChannelResolver.Band> bands;
+    private final Set<Security> security;
+    private final String ssidPrefix;
+    private final Pattern ssidPattern;
+    private final boolean excludeHidden;
+    private final boolean dedupeBySsid;
+    private final Comparator<ScanRecord> order;
+    private final int limit;
+
+    private ScanQuery(Builder builder) {
+        this.minRssi = builder.minRssi;
+        this.bands = builder.bands;
+        this.security = builder.security;
+        this.ssidPrefix = builder.ssidPrefix;
+        this.ssidPattern = builder.ssidPattern;
+        this.excludeHidden = builder.excludeHidden;
+        this.dedupeBySsid = builder.dedupeBySsid;
+        // A limit without an explicit sort keeps the strongest networks
+        SortKey sortKey = builder.sortKey != null || builder.limit <= 0
+                ? builder.sortKey : SortKey.SIGNAL_STRENGTH;
+        boolean descending = builder.descending != null
+                ? builder.descending : sortKey == SortKey.SIGNAL_STRENGTH;
+        this.order = sortKey == null ? null : comparator(sortKey, descending);
+        this.limit = builder.limit;
+    }
+
+    boolean isPassThrough() {
+        return minRssi == null && bands == null && security == null && ssidPrefix == null
+                && ssidPattern == null && !excludeHidden && !dedupeBySsid && order == null && limit <= 0;
+    }
+
+    List<ScanRecord> apply(List<ScanRecord> records) {
+        if (isPassThrough()) {
+            return records;
+        }
+
+        List<ScanRecord> selected = new ArrayList<>();
+        Map<String, Integer> indexBySsid = dedupeBySsid ? new HashMap<String, Integer>() : null;
+        for (ScanRecord record : records) {
+            if (!matches(record)) {
+                continue;
+            }
+            if (indexBySsid != null && !isHidden(record)) {
+                Integer index = indexBySsid.get(record.ssid);
+                if (index != null) {
+                    if (record.level > selected.get(index).level) {
+                        selected.set(index, record);
+                    }
+                    continue;
+                }
+                indexBySsid.put(record.ssid, selected.size());
+            }
+            selected.add(record);
+        }
+
+        if (limit > 0 && selected.size() > limit) {
+            // Head of the heap is the worst of the current top N
+            PriorityQueue<ScanRecord> heap = new PriorityQueue<>(limit + 1, Collections.reverseOrder(order));
+            for (ScanRecord record : selected) {
+                heap.add(record);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            selected = new ArrayList<>(heap);
+        }
+        if (order != null) {
+            Collections.sort(selected, order);
+        }
+        return selected;
+    }
+
+    private boolean matches(ScanRecord record) {
+        if (minRssi != null && record.level < minRssi) {
+            return false;
+        }
+        if (excludeHidden && isHidden(record)) {
+            return false;
+        }
+        if (bands != null && (record.band == null || !bands.contains(record.band))) {
+            return false;
+        }
+        if (security != null && !security.contains(record.security.security)) {
+            return false;
+        }
+        if (ssidPrefix != null && (record.ssid == null || !record.ssid.startsWith(ssidPrefix))) {
+            return false;
+        }
+        return ssidPattern == null || (record.ssid != null && ssidPattern.matcher(record.ssid).find());
+    }
+
+    private static boolean isHidden(ScanRecord record) {
+        return record.ssid == null || record.ssid.isEmpty();
+    }
+
+    private static Comparator<ScanRecord> comparator(final SortKey key, boolean descending) {
+        Comparator<ScanRecord> ascending = new Comparator<ScanRecord>() {
+            @Override
+            public int compare(ScanRecord a, ScanRecord b) {
+                switch (key) {
+                    case SSID:
+                        String left = a.ssid != null ? a.ssid : "";
+                        String right = b.ssid != null ? b.ssid : "";
+                        return left.compareToIgnoreCase(right);
+                    case FREQUENCY:
+                        return Integer.compare(a.frequency, b.frequency);
+                    case CHANNEL:
+                        return Integer.compare(a.channel, b.channel);
+                    case SIGNAL_STRENGTH:
+                    default:
+                        return Integer.compare(a.level, b.level);
+                }
+            }
+        };
+        return descending ? Collections.reverseOrder(ascending) : ascending;
+    }
+
+    static Security parseSecurity(String value) {
+        try {
+            return Security.valueOf(value.toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown security type: " + value);
+        }
+    }
+
+    static SortKey parseSortKey(String value) {
+        switch (value) {
+            case "signalStrength":
+                return SortKey.SIGNAL_STRENGTH;
+            case "ssid":
+                return SortKey.SSID;
+            case "frequency":
+                return SortKey.FREQUENCY;
+            case "channel":
+                return SortKey.CHANNEL;
+            default:
+                throw new IllegalArgumentException("Unknown sort key: " + value);
+        }
+    }
+
+    /** @return whether the order is descending */
+    static boolean parseSortOrder(String value) {
+        switch (value) {
+            case "asc":
+                return false;
+            case "desc":
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown sort order: " + value);
+        }
+    }
+
+    static final class Builder {
+        private Integer minRssi;
+        private Set<ChannelResolver.Band> bands;
+        private Set<Security> security;
+        private String ssidPrefix;
+        private Pattern ssidPattern;
+        private boolean excludeHidden;
+        private boolean dedupeBySsid;
+        private SortKey sortKey;
+        private Boolean descending;
+        private int limit;
+
+        Builder minRssi(int minRssi) {
+            this.minRssi = minRssi;
+            return this;
+        }
+
+        Builder band(ChannelResolver.Band band) {
+            if (bands == null) {
+                bands = EnumSet.noneOf(ChannelResolver.Band.class);
+            }
+            bands.add(band);
+            return this;
+        }
+
+        Builder security(Security type) {
+            if (security == null) {
+                security = EnumSet.noneOf(Security.class);
+            }
+            security.add(type);
+            return this;
+        }
+
+        Builder ssidPrefix(String ssidPrefix) {
+            this.ssidPrefix = ssidPrefix;
+            return this;
+        }
+
+        /** @throws java.util.regex.PatternSyntaxException if the pattern is invalid */
+        Builder ssidPattern(String regex) {
+            this.ssidPattern = Pattern.compile(regex);
+            return this;
+        }
+
+        Builder excludeHidden(boolean excludeHidden) {
+            this.excludeHidden = excludeHidden;
+            return this;
+        }
+
+        Builder dedupeBySsid(boolean dedupeBySsid) {
+            this.dedupeBySsid = dedupeBySsid;
+            return this;
+        }
+
+        Builder sortBy(SortKey sortKey) {
+            this.sortKey = sortKey;
+            return this;
+        }
+
+        Builder descending(boolean descending) {
+            this.descending = descending;
+            return this;
+        }
+
+        Builder limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        ScanQuery build() {
+            return new ScanQuery(this);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.wifimanager;
+
+/**
+ * Immutable, Android-free copy of the fields we expose from a {@code ScanResult}.
+ */
+final class ScanRecord {
+    final String ssid;
+    final String bssid;
+    final int level;
+    final String capabilities;
+    /** Parsed {@link #capabilities}; shared by every record with the same string */
+    final SecurityCapabilities security;
+    final int frequency;
+    final int channel;
+    /** Null for frequencies outside the known 802.11 bands */
+    final ChannelResolver.Band band;
+    final int centerChannel;
+    final int channelWidth;
+
+    ScanRecord(String ssid, String bssid, int level, String capabilities, int frequency,
+               int channel, ChannelResolver.Band band, int centerChannel, int channelWidth) {
+        this.ssid = ssid;
+        this.bssid = bssid;
+        this.level = level;
+        this.capabilities = capabilities;
+        this.security = SecurityCapabilities.of(capabilities);
+        this.frequency = frequency;
+        this.channel = channel;
+        this.band = band;
+        this.centerChannel = centerChannel;
+        this.channelWidth = channelWidth;
+    }
+
+    /** Resolves channel, band and width; {@code channelWidth} is a ScanResult.CHANNEL_WIDTH_* value. */
+    static ScanRecord create(String ssid, String bssid, int level, String capabilities,
+                             int frequency, int channelWidth, int centerFreq0) {
+        ChannelResolver.Band band = ChannelResolver.bandOf(frequency);
+        int widthMhz = ChannelResolver.widthMhz(band, channelWidth);
+        return new ScanRecord(ssid, bssid, level, capabilities, frequency,
+                ChannelResolver.channelOf(frequency), band,
+                ChannelResolver.centerChannel(frequency, centerFreq0, widthMhz), widthMhz);
+    }
+
+    /** True if anything other than the signal level differs. */
+    boolean differsIgnoringLevel(ScanRecord other) {
+        return frequency != other.frequency
+                || channelWidth != other.channelWidth
+                || centerChannel != other.centerChannel
+                || !equalStrings(ssid, other.ssid)
+                || !equalStrings(capabilities, other.capabilities);
+    }
+
+    private static boolean equalStrings(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
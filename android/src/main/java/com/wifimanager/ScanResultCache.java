@@ -0,0 +1,115 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the most recent scan snapshot and coalesces concurrent scan requests.
+ *
+ * Callers first ask for a fresh-enough snapshot with {@link #getIfFresh(long)}. If there is
+ * none they {@link #enqueue(Callback)} themselves; only the first caller of a round is told to
+ * start a scan, everyone else waits for that scan's outcome. This class has no Android
+ * dependencies so it can be unit-tested on the JVM.
+ */
+final class ScanResultCache<T> {
+
+    interface Callback<T> {
+        void onResult(T result);
+
+        void onError(String code, String message);
+    }
+
+    private final Clock clock;
+    private final List<Callback<T>> waiters = new ArrayList<>();
+    private T latest;
+    private long latestAt;
+    private boolean inFlight;
+
+    ScanResultCache(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached snapshot if it is at most {@code maxAgeMs} old, otherwise null.
+     * A non-positive age never matches, so callers that pass 0 always get a new scan.
+     */
+    synchronized T getIfFresh(long maxAgeMs) {
+        if (latest == null || maxAgeMs <= 0) {
+            return null;
+        }
+        return clock.nowMillis() - latestAt <= maxAgeMs ? latest : null;
+    }
+
+    /**
+     * Registers a waiter for the next scan outcome.
+     *
+     * @return true if no scan was in flight and the caller is responsible for starting one
+     */
+    synchronized boolean enqueue(Callback<T> callback) {
+        waiters.add(callback);
+        if (inFlight) {
+            return false;
+        }
+        inFlight = true;
+        return true;
+    }
+
+    synchronized boolean isInFlight() {
+        return inFlight;
+    }
+
+    synchronized long getAgeMillis() {
+        return latest == null ? -1 : clock.nowMillis() - latestAt;
+    }
+
+    /** Stores a new snapshot and hands it to every waiter of the current round. */
+    void complete(T result) {
+        List<Callback<T>> toNotify;
+        synchronized (this) {
+            latest = result;
+            latestAt = clock.nowMillis();
+            toNotify = drainWaiters();
+        }
+        for (Callback<T> callback : toNotify) {
+            callback.onResult(result);
+        }
+    }
+
+    /**
+     * Hands a result to every waiter of the current round without caching it, for results that
+     * are not from a new scan. The cached snapshot and its age are left as they were, so
+     * {@link #getIfFresh(long)} never passes old results off as fresh.
+     */
+    void serve(T result) {
+        List<Callback<T>> toNotify;
+        synchronized (this) {
+            toNotify = drainWaiters();
+        }
+        for (Callback<T> callback : toNotify) {
+            callback.onResult(result);
+        }
+    }
+
+    /** Fails every waiter of the current round; the previous snapshot is kept. */
+    void fail(String code, String message) {
+        List<Callback<T>> toNotify;
+        synchronized (this) {
+            toNotify = drainWaiters();
+        }
+        for (Callback<T> callback : toNotify) {
+            callback.onError(code, message);
+        }
+    }
+
+    synchronized void clear() {
+        latest = null;
+        latestAt = 0;
+    }
+
+    private List<Callback<T>> drainWaiters() {
+        List<Callback<T>> drained = new ArrayList<>(waiters);
+        waiters.clear();
+        inFlight = false;
+        return drained;
+    }
+}
@@ -0,0 +1,78 @@
+package com.wifimanager;
+
+import android.os.Handler;
+import android.util.Log;
+
+/**
+ * Reference-counted subscription to scan broadcasts from a {@link WifiBackend}.
+ *
+ * It is registered while at least one consumer holds a reference (a pending scan or a JS
+ * listener) and unregistered when the last one releases it, so results from scans started
+ * by other apps or the system reach our consumers too. Broadcasts are delivered on the given
+ * handler's thread, which is also the only thread allowed to call into this class.
+ */
+final class ScanResultsReceiver {
+    private static final String TAG = "WifiManagerModule";
+
+    interface Listener {
+        void onScanResultsAvailable(boolean updated);
+    }
+
+    private final WifiBackend backend;
+    private final Handler handler;
+    private final Listener listener;
+    private int refCount = 0;
+    private boolean registered = false;
+
+    ScanResultsReceiver(WifiBackend backend, Handler handler, Listener listener) {
+        this.backend = backend;
+        this.handler = handler;
+        this.listener = listener;
+    }
+
+    /**
+     * Adds a consumer, registering the receiver if it is the first one.
+     *
+     * @return false if registration failed; the reference is not taken in that case
+     */
+    boolean acquire() {
+        if (refCount == 0 && !registered) {
+            if (!backend.registerScanListener(listener, handler)) {
+                return false;
+            }
+            registered = true;
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Scan receiver registered");
+            }
+        }
+        refCount++;
+        return true;
+    }
+
+    /** Drops a consumer, unregistering the receiver when none are left. */
+    void release() {
+        if (refCount == 0) {
+            return;
+        }
+        refCount--;
+        if (refCount == 0) {
+            unregister();
+        }
+    }
+
+    void releaseAll() {
+        refCount = 0;
+        unregister();
+    }
+
+    private void unregister() {
+        if (!registered) {
+            return;
+        }
+        backend.unregisterScanListener();
+        registered = false;
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Scan receiver unregistered");
+        }
+    }
+}
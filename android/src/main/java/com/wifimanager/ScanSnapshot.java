@@ -0,0 +1,22 @@
+package com.wifimanager;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One scan, converted once from {@code ScanResult}s and shared read-only by every consumer
+ * (cache, promises, events, stream). Bridge payloads are built from it on demand.
+ */
+final class ScanSnapshot {
+    final List<ScanRecord> records;
+    final long timestampMillis;
+
+    ScanSnapshot(List<ScanRecord> records, long timestampMillis) {
+        this.records = Collections.unmodifiableList(records);
+        this.timestampMillis = timestampMillis;
+    }
+
+    int size() {
+        return records.size();
+    }
+}
@@ -0,0 +1,110 @@
+package com.wifimanager;
+
+/**
+ * Sliding-window budget for {@code WifiManager.startScan()}.
+ *
+ * Android 9+ lets a foreground app start 4 scans every 2 minutes; further requests fail and
+ * only deliver stale results. Tracking the budget locally lets the module serve the last
+ * results straight away instead of asking for a scan that is known to fail.
+ */
+final class ScanThrottle {
+    static final int DEFAULT_MAX_SCANS = 4;
+    static final long DEFAULT_WINDOW_MS = 120_000;
+
+    private final Clock clock;
+    private final int maxScans;
+    private final long windowMs;
+    // Start times of the scans in the current window, oldest at head
+    private final long[] scanTimes;
+    private int head;
+    private int count;
+    private long blockedUntil;
+    private boolean enabled = true;
+
+    ScanThrottle(Clock clock) {
+        this(clock, DEFAULT_MAX_SCANS, DEFAULT_WINDOW_MS);
+    }
+
+    ScanThrottle(Clock clock, int maxScans, long windowMs) {
+        if (maxScans <= 0 || windowMs <= 0) {
+            throw new IllegalArgumentException("maxScans and windowMs must be positive");
+        }
+        this.clock = clock;
+        this.maxScans = maxScans;
+        this.windowMs = windowMs;
+        this.scanTimes = new long[maxScans];
+    }
+
+    /** Disables budgeting when the OS does not throttle (old releases or developer option). */
+    synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Consumes one scan from the budget.
+     *
+     * @return false if the budget is exhausted and a scan would be throttled
+     */
+    synchronized boolean tryAcquire() {
+        long now = clock.nowMillis();
+        if (!enabled) {
+            return true;
+        }
+        prune(now);
+        if (count >= maxScans || now < blockedUntil) {
+            return false;
+        }
+        scanTimes[(head + count) % maxScans] = now;
+        count++;
+        return true;
+    }
+
+    /**
+     * Records that the OS rejected a scan we thought was in budget, for example because
+     * another part of the app scanned too. Blocks further scans until the window frees up.
+     */
+    synchronized void onThrottled() {
+        long now = clock.nowMillis();
+        prune(now);
+        blockedUntil = count > 0 ? scanTimes[head] + windowMs : now + windowMs;
+    }
+
+    synchronized int getRemaining() {
+        if (!enabled) {
+            return maxScans;
+        }
+        long now = clock.nowMillis();
+        prune(now);
+        return now < blockedUntil ? 0 : maxScans - count;
+    }
+
+    /** Monotonic time at which the next scan fits in the budget; now if one is available. */
+    synchronized long getNextAllowedAt() {
+        long now = clock.nowMillis();
+        if (!enabled) {
+            return now;
+        }
+        prune(now);
+        long next = count < maxScans ? now : scanTimes[head] + windowMs;
+        return Math.max(next, blockedUntil);
+    }
+
+    int getMaxScans() {
+        return maxScans;
+    }
+
+    long getWindowMs() {
+        return windowMs;
+    }
+
+    private void prune(long now) {
+        while (count > 0 && now - scanTimes[head] >= windowMs) {
+            head = (head + 1) % maxScans;
+            count--;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.wifimanager;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parsed form of a {@code ScanResult.capabilities} string, such as
+ * {@code [WPA2-PSK-CCMP][RSN-PSK+SAE-CCMP][ESS][MFPC]}.
+ *
+ * Each bracketed token is read once into a bitmask of protocols, key management suites,
+ * ciphers and flags, and the strongest advertised security is derived from it. A scan repeats
+ * the same handful of capability strings across many access points, so instances are immutable
+ * and interned: {@link #of(String)} returns the cached instance for a string it has seen
+ * recently and only parses on a miss. The cache is bounded and evicts the least recently used
+ * string. Thread-safe.
+ */
+final class SecurityCapabilities {
+    // Protocols
+    static final int WEP = 1;
+    static final int WPA = 1 << 1;
+    static final int RSN = 1 << 2;
+    static final int WAPI = 1 << 3;
+    // Key management
+    static final int PSK = 1 << 4;
+    static final int SAE = 1 << 5;
+    static final int OWE = 1 << 6;
+    static final int EAP = 1 << 7;
+    static final int EAP_SUITE_B = 1 << 8;
+    static final int FT = 1 << 9;
+    // Pairwise ciphers
+    static final int TKIP = 1 << 10;
+    static final int CCMP = 1 << 11;
+    static final int GCMP = 1 << 12;
+    // Management frame protection, required and capable
+    static final int MFPR = 1 << 13;
+    static final int MFPC = 1 << 14;
+    // Other flags
+    static final int WPS = 1 << 15;
+    static final int ESS = 1 << 16;
+    static final int IBSS = 1 << 17;
+
+    private static final int CACHE_SIZE = 64;
+
+    static final SecurityCapabilities NONE = new SecurityCapabilities(0);
+
+    private static final Map<String, SecurityCapabilities> CACHE =
+            new LinkedHashMap<String, SecurityCapabilities>(CACHE_SIZE * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SecurityCapabilities> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    final int flags;
+    final ScanQuery.Security security;
+    /** Lower-case name of {@link #security}, the value the security filter accepts. */
+    final String label;
+
+    private SecurityCapabilities(int flags) {
+        this.flags = flags;
+        this.security = securityOf(flags);
+        this.label = security.name().toLowerCase(Locale.US);
+    }
+
+    /** Interned capabilities of a {@code ScanResult.capabilities} string; {@link #NONE} for null. */
+    static SecurityCapabilities of(String capabilities) {
+        if (capabilities == null || capabilities.isEmpty()) {
+            return NONE;
+        }
+        synchronized (CACHE) {
+            SecurityCapabilities cached = CACHE.get(capabilities);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Parsing outside the lock; two threads missing on the same string build equal instances
+        SecurityCapabilities parsed = new SecurityCapabilities(parse(capabilities));
+        synchronized (CACHE) {
+            SecurityCapabilities raced = CACHE.get(capabilities);
+            if (raced != null) {
+                return raced;
+            }
+            CACHE.put(capabilities, parsed);
+        }
+        return parsed;
+    }
+
+    static int parse(String capabilities) {
+        int flags = 0;
+        int length = capabilities.length();
+        int start = capabilities.indexOf('[');
+        if (start < 0) {
+            // Unbracketed single token
+            return parseToken(capabilities, 0, length);
+        }
+        while (start >= 0) {
+            int end = capabilities.indexOf(']', start + 1);
+            if (end < 0) {
+                end = length;
+            }
+            flags |= parseToken(capabilities, start + 1, end);
+            start = end < length ? capabilities.indexOf('[', end + 1) : -1;
+        }
+        return flags;
+    }
+
+    /** Flags of one token between {@code start} (inclusive) and {@code end} (exclusive). */
+    private static int parseToken(String s, int start, int end) {
+        int protocol;
+        int suitesAt;
+        if (startsWith(s, start, end, "WPA2-")) {
+            protocol = RSN;
+            suitesAt = start + 5;
+        } else if (startsWith(s, start, end, "RSN-")) {
+            protocol = RSN;
+            suitesAt = start + 4;
+        } else if (startsWith(s, start, end, "WPA-")) {
+            protocol = WPA;
+            suitesAt = start + 4;
+        } else if (startsWith(s, start, end, "WAPI")) {
+            return WAPI | (contains(s, start, end, "PSK") ? PSK : 0);
+        } else if (startsWith(s, start, end, "WEP")) {
+            return WEP;
+        } else if (equals(s, start, end, "ESS")) {
+            return ESS;
+        } else if (equals(s, start, end, "IBSS")) {
+            return IBSS;
+        } else if (equals(s, start, end, "WPS")) {
+            return WPS;
+        } else if (equals(s, start, end, "MFPR")) {
+            return MFPR;
+        } else if (equals(s, start, end, "MFPC")) {
+            return MFPC;
+        } else {
+            // [WPA2] without suites on some vendor builds, or a token we do not model
+            return equals(s, start, end, "WPA2") ? RSN : equals(s, start, end, "WPA") ? WPA : 0;
+        }
+        int flags = protocol;
+        // Key management suites are '+'-separated (PSK+SAE, FT/PSK, EAP_SUITE_B_192), ciphers follow
+        if (contains(s, suitesAt, end, "EAP_SUITE_B")) {
+            flags |= EAP_SUITE_B | EAP;
+        } else if (contains(s, suitesAt, end, "EAP")) {
+            flags |= EAP;
+        }
+        if (contains(s, suitesAt, end, "PSK")) {
+            flags |= PSK;
+        }
+        if (contains(s, suitesAt, end, "SAE")) {
+            flags |= SAE;
+        }
+        if (contains(s, suitesAt, end, "OWE")) {
+            flags |= OWE;
+        }
+        if (contains(s, suitesAt, end, "FT/")) {
+            flags |= FT;
+        }
+        if (contains(s, suitesAt, end, "CCMP")) {
+            flags |= CCMP;
+        }
+        if (contains(s, suitesAt, end, "TKIP")) {
+            flags |= TKIP;
+        }
+        if (contains(s, suitesAt, end, "GCMP")) {
+            flags |= GCMP;
+        }
+        return flags;
+    }
+
+    /** Strongest advertised security; enterprise outranks everything, as the filter always did. */
+    static ScanQuery.Security securityOf(int flags) {
+        if ((flags & EAP) != 0) {
+            return ScanQuery.Security.ENTERPRISE;
+        }
+        if ((flags & SAE) != 0) {
+            return ScanQuery.Security.WPA3;
+        }
+        if ((flags & OWE) != 0) {
+            return ScanQuery.Security.OWE;
+        }
+        if ((flags & RSN) != 0) {
+            return ScanQuery.Security.WPA2;
+        }
+        if ((flags & WPA) != 0) {
+            return ScanQuery.Security.WPA;
+        }
+        if ((flags & WEP) != 0) {
+            return ScanQuery.Security.WEP;
+        }
+        return ScanQuery.Security.OPEN;
+    }
+
+    private static boolean startsWith(String s, int start, int end, String prefix) {
+        return end - start >= prefix.length() && s.regionMatches(start, prefix, 0, prefix.length());
+    }
+
+    private static boolean equals(String s, int start, int end, String token) {
+        return end - start == token.length() && s.regionMatches(start, token, 0, token.length());
+    }
+
+    private static boolean contains(String s, int start, int end, String needle) {
+        int last = end - needle.length();
+        for (int i = start; i <= last; i++) {
+            if (s.regionMatches(i, needle, 0, needle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,236 @@
+package com.wifimanager;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded per-BSSID RSSI history of recent scans.
+ *
+ * Each access point keeps its last {@code depth} samples in primitive ring buffers and a
+ * running EWMA, so ingesting a scan of already-known access points allocates nothing; only a
+ * newly seen BSSID creates its buffers. Access points not seen for {@code staleAfterMs} are
+ * evicted, and the number of tracked access points is capped so the estimated footprint stays
+ * under {@code maxMemoryBytes}, evicting the least recently seen one when full.
+ *
+ * Timestamps are those of the ingested scans. Not thread-safe; the module confines it to the
+ * WiFi thread.
+ */
+final class SignalHistory {
+    static final int DEFAULT_DEPTH = 32;
+    static final long DEFAULT_MAX_MEMORY_BYTES = 256 * 1024;
+    static final long DEFAULT_STALE_AFTER_MS = 10 * 60 * 1000;
+    static final double DEFAULT_EWMA_ALPHA = 0.3;
+    // Rough per-series cost beyond the ring buffers: object headers, map entry, BSSID string
+    private static final int SERIES_OVERHEAD_BYTES = 160;
+
+    /** Summary of one access point's retained samples. */
+    static final class Stats {
+        final int samples;
+        final double ewma;
+        final int min;
+        final int max;
+        final double mean;
+        final double variance;
+        final long lastSeen;
+
+        Stats(int samples, double ewma, int min, int max, double mean, double variance, long lastSeen) {
+            this.samples = samples;
+            this.ewma = ewma;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.variance = variance;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    static final class Series {
+        private final byte[] levels;
+        private final long[] times;
+        private int head = 0;
+        private int size = 0;
+        private double ewma;
+        private long lastSeen;
+
+        private Series(int depth) {
+            levels = new byte[depth];
+            times = new long[depth];
+        }
+
+        private void add(int level, long timestampMillis, double alpha) {
+            // RSSI is reported in dBm between about -127 and 0
+            int clamped = Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, level));
+            levels[head] = (byte) clamped;
+            times[head] = timestampMillis;
+            head = head + 1 == levels.length ? 0 : head + 1;
+            ewma = size == 0 ? clamped : alpha * clamped + (1 - alpha) * ewma;
+            if (size < levels.length) {
+                size++;
+            }
+            lastSeen = timestampMillis;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long getLastSeen() {
+            return lastSeen;
+        }
+
+        double getEwma() {
+            return ewma;
+        }
+
+        /** Copies the retained samples oldest first; both arrays need at least {@link #size()} slots. */
+        void copySamples(int[] levelsOut, long[] timesOut) {
+            int start = head - size;
+            if (start < 0) {
+                start += levels.length;
+            }
+            for (int i = 0; i < size; i++) {
+                int index = start + i;
+                if (index >= levels.length) {
+                    index -= levels.length;
+                }
+                levelsOut[i] = levels[index];
+                timesOut[i] = times[index];
+            }
+        }
+
+        Stats stats() {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                int level = levels[i];
+                min = Math.min(min, level);
+                max = Math.max(max, level);
+                sum += level;
+            }
+            double mean = (double) sum / size;
+            double squares = 0;
+            for (int i = 0; i < size; i++) {
+                double delta = levels[i] - mean;
+                squares += delta * delta;
+            }
+            return new Stats(size, ewma, min, max, mean, squares / size, lastSeen);
+        }
+    }
+
+    private final int depth;
+    private final int maxSeries;
+    private final long staleAfterMs;
+    private final double ewmaAlpha;
+    private final Map<String, Series> series = new HashMap<>();
+    private long lastSweepAt = 0;
+
+    SignalHistory(int depth, long maxMemoryBytes, long staleAfterMs, double ewmaAlpha) {
+        if (depth < 1 || depth > 4096) {
+            throw new IllegalArgumentException("depth must be between 1 and 4096");
+        }
+        if (maxMemoryBytes < bytesPerSeries(depth)) {
+            throw new IllegalArgumentException("maxMemoryBytes must fit at least one access point ("
+                    + bytesPerSeries(depth) + " bytes at this depth)");
+        }
+        if (staleAfterMs <= 0) {
+            throw new IllegalArgumentException("staleAfterMs must be positive");
+        }
+        if (!(ewmaAlpha > 0 && ewmaAlpha <= 1)) {
+            throw new IllegalArgumentException("ewmaAlpha must be in (0, 1]");
+        }
+        this.depth = depth;
+        this.maxSeries = (int) Math.min(Integer.MAX_VALUE, maxMemoryBytes / bytesPerSeries(depth));
+        this.staleAfterMs = staleAfterMs;
+        this.ewmaAlpha = ewmaAlpha;
+    }
+
+    static SignalHistory withDefaults() {
+        return new SignalHistory(DEFAULT_DEPTH, DEFAULT_MAX_MEMORY_BYTES, DEFAULT_STALE_AFTER_MS, DEFAULT_EWMA_ALPHA);
+    }
+
+    static long bytesPerSeries(int depth) {
+        return (long) depth * (Byte.BYTES + Long.BYTES) + SERIES_OVERHEAD_BYTES;
+    }
+
+    void ingest(List<ScanRecord> records, long timestampMillis) {
+        if (timestampMillis - lastSweepAt >= staleAfterMs / 4) {
+            evictStale(timestampMillis);
+        }
+        // Indexed loop: no iterator allocation per scan
+        for (int i = 0, n = records.size(); i < n; i++) {
+            ScanRecord record = records.get(i);
+            if (record.bssid == null) {
+                continue;
+            }
+            Series entry = series.get(record.bssid);
+            if (entry == null) {
+                entry = track(record.bssid, timestampMillis);
+            }
+            entry.add(record.level, timestampMillis, ewmaAlpha);
+        }
+    }
+
+    /** The history of one access point, or null if it is not tracked. */
+    Series get(String bssid) {
+        return series.get(bssid);
+    }
+
+    int size() {
+        return series.size();
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    int getMaxAccessPoints() {
+        return maxSeries;
+    }
+
+    long estimatedBytes() {
+        return series.size() * bytesPerSeries(depth);
+    }
+
+    void clear() {
+        series.clear();
+    }
+
+    private Series track(String bssid, long timestampMillis) {
+        if (series.size() >= maxSeries) {
+            evictStale(timestampMillis);
+        }
+        if (series.size() >= maxSeries) {
+            evictLeastRecentlySeen();
+        }
+        Series entry = new Series(depth);
+        series.put(bssid, entry);
+        return entry;
+    }
+
+    private void evictStale(long now) {
+        lastSweepAt = now;
+        Iterator<Series> it = series.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().lastSeen > staleAfterMs) {
+                it.remove();
+            }
+        }
+    }
+
+    private void evictLeastRecentlySeen() {
+        String oldest = null;
+        long oldestSeen = Long.MAX_VALUE;
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            if (entry.getValue().lastSeen < oldestSeen) {
+                oldestSeen = entry.getValue().lastSeen;
+                oldest = entry.getKey();
+            }
+        }
+        if (oldest != null) {
+            series.remove(oldest);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.crypto.Mac;
+
+/**
+ * Works out what a batch of suggestion changes needs to do against what is already installed.
+ *
+ * Entries are validated, in-batch duplicates (by SSID) are dropped, and entries matching the
+ * installed state are reported as no-ops, so only real changes reach the platform. Every
+ * input entry yields exactly one {@link Entry} in input order; the caller applies the pending
+ * ones and records their outcome.
+ */
+final class SuggestionPlanner {
+
+    enum Status {
+        ADDED, UPDATED, UNCHANGED, REMOVED, NOT_INSTALLED, INVALID, DUPLICATE, FAILED;
+
+        String label() {
+            switch (this) {
+                case NOT_INSTALLED:
+                    return "notInstalled";
+                default:
+                    return name().toLowerCase(Locale.US);
+            }
+        }
+    }
+
+    /** A network this module installed earlier. */
+    static final class Installed {
+        final String ssid;
+        final NetworkSuggestion.Security security;
+        final String fingerprint;
+        /** Configuration id on releases without suggestions, -1 otherwise. */
+        final int networkId;
+
+        Installed(String ssid, NetworkSuggestion.Security security, String fingerprint, int networkId) {
+            this.ssid = ssid;
+            this.security = security;
+            this.fingerprint = fingerprint;
+            this.networkId = networkId;
+        }
+    }
+
+    static final class Entry {
+        final int index;
+        final String ssid;
+        /** The requested network, for additions. */
+        final NetworkSuggestion suggestion;
+        /** Fingerprint of {@link #suggestion} to store once it is installed; null if invalid. */
+        final String fingerprint;
+        /** The installed network this entry replaces or removes, if any. */
+        final Installed installed;
+        private Status status;
+        private String errorCode;
+        private String message;
+
+        Entry(int index, String ssid, NetworkSuggestion suggestion, String fingerprint, Installed installed,
+              Status status) {
+            this.index = index;
+            this.ssid = ssid;
+            this.suggestion = suggestion;
+            this.fingerprint = fingerprint;
+            this.installed = installed;
+            this.status = status;
+        }
+
+        Status getStatus() {
+            return status;
+        }
+
+        String getErrorCode() {
+            return errorCode;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        /** Whether the platform still has to apply this entry. */
+        boolean isPending() {
+            return status == Status.ADDED || status == Status.UPDATED || status == Status.REMOVED;
+        }
+
+        /**
+         * Whether this update installs the network under another security type. The platform
+         * only replaces a suggestion with the same SSID and security, so the old one has to be
+         * removed explicitly.
+         */
+        boolean changesSecurity() {
+            return status == Status.UPDATED && installed.security != suggestion.security;
+        }
+
+        void fail(String errorCode, String message) {
+            this.status = Status.FAILED;
+            this.errorCode = errorCode;
+            this.message = message;
+        }
+
+        private Entry reject(String message) {
+            this.errorCode = status.name();
+            this.message = message;
+            return this;
+        }
+    }
+
+    private SuggestionPlanner() {
+    }
+
+    /** @param mac keyed HMAC for {@link NetworkSuggestion#fingerprint(Mac)} */
+    static List<Entry> planAdd(List<NetworkSuggestion> requested, Map<String, Installed> installed, Mac mac) {
+        List<Entry> entries = new ArrayList<>(requested.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < requested.size(); i++) {
+            NetworkSuggestion suggestion = requested.get(i);
+            String error = suggestion.validate();
+            if (error != null) {
+                entries.add(new Entry(i, suggestion.ssid, suggestion, null, null, Status.INVALID)
+                        .reject(error));
+                continue;
+            }
+            if (!seen.add(suggestion.ssid)) {
+                entries.add(new Entry(i, suggestion.ssid, suggestion, null, null, Status.DUPLICATE)
+                        .reject("ssid appears earlier in this batch"));
+                continue;
+            }
+            Installed existing = installed.get(suggestion.ssid);
+            String fingerprint = suggestion.fingerprint(mac);
+            Status status;
+            if (existing == null) {
+                status = Status.ADDED;
+            } else if (existing.fingerprint.equals(fingerprint)) {
+                status = Status.UNCHANGED;
+            } else {
+                status = Status.UPDATED;
+            }
+            entries.add(new Entry(i, suggestion.ssid, suggestion, fingerprint, existing, status));
+        }
+        return entries;
+    }
+
+    static List<Entry> planRemove(List<String> ssids, Map<String, Installed> installed) {
+        List<Entry> entries = new ArrayList<>(ssids.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < ssids.size(); i++) {
+            String ssid = ssids.get(i);
+            if (ssid == null || ssid.isEmpty()) {
+                entries.add(new Entry(i, ssid, null, null, null, Status.INVALID)
+                        .reject("ssid is required"));
+                continue;
+            }
+            if (!seen.add(ssid)) {
+                entries.add(new Entry(i, ssid, null, null, null, Status.DUPLICATE)
+                        .reject("ssid appears earlier in this batch"));
+                continue;
+            }
+            Installed existing = installed.get(ssid);
+            entries.add(new Entry(i, ssid, null, null, existing,
+                    existing != null ? Status.REMOVED : Status.NOT_INSTALLED));
+        }
+        return entries;
+    }
+
+    /** The entries the platform still has to apply. */
+    static List<Entry> pending(List<Entry> entries) {
+        List<Entry> pending = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.isPending()) {
+                pending.add(entry);
+            }
+        }
+        return pending.isEmpty() ? Collections.<Entry>emptyList() : pending;
+    }
+}
@@ -0,0 +1,136 @@
+package com.wifimanager;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Base64;
+import android.util.Log;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Persists the networks this module installed, keyed by SSID.
+ *
+ * The platform keeps suggestions across restarts but cannot list them before API 30, and never
+ * exposes what they were installed with, so a fingerprint of each network is kept here instead
+ * of the password. Fingerprints are HMACs under a per-install key: in the Android Keystore from
+ * API 23, otherwise a random secret in its own preferences file, never next to the digests.
+ */
+final class SuggestionStore {
+    private static final String TAG = "WifiManagerModule";
+    private static final String PREFS_NAME = "WifiManagerSuggestions";
+    private static final String KEY_PREFS_NAME = "WifiManagerSuggestionKey";
+    private static final String KEY_PREF = "secret";
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String KEY_ALIAS = "com.wifimanager.suggestion-fingerprint";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SECRET_BYTES = 32;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private SecretKey fingerprintKey;
+
+    SuggestionStore(Context context) {
+        this.context = context;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /** A new HMAC under this install's fingerprint key, created on first use. */
+    Mac newFingerprintMac() throws GeneralSecurityException {
+        if (fingerprintKey == null) {
+            fingerprintKey = loadFingerprintKey();
+        }
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(fingerprintKey);
+        return mac;
+    }
+
+    private SecretKey loadFingerprintKey() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            try {
+                return loadKeystoreKey();
+            } catch (GeneralSecurityException | IOException | RuntimeException e) {
+                // Some vendor keystores are broken; stored fingerprints then read as changed once
+                Log.w(TAG, "Android Keystore unavailable for suggestion fingerprints", e);
+            }
+        }
+        return loadStoredSecret();
+    }
+
+    private static SecretKey loadKeystoreKey() throws GeneralSecurityException, IOException {
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+        keyStore.load(null);
+        Key key = keyStore.getKey(KEY_ALIAS, null);
+        if (key instanceof SecretKey) {
+            return (SecretKey) key;
+        }
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_HMAC_SHA256, KEYSTORE);
+        generator.init(new KeyGenParameterSpec.Builder(KEY_ALIAS, KeyProperties.PURPOSE_SIGN).build());
+        return generator.generateKey();
+    }
+
+    private SecretKey loadStoredSecret() {
+        SharedPreferences keyPrefs = context.getSharedPreferences(KEY_PREFS_NAME, Context.MODE_PRIVATE);
+        byte[] secret = null;
+        String encoded = keyPrefs.getString(KEY_PREF, null);
+        if (encoded != null) {
+            try {
+                secret = Base64.decode(encoded, Base64.NO_WRAP);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Replacing unreadable suggestion fingerprint key");
+            }
+        }
+        if (secret == null || secret.length != SECRET_BYTES) {
+            secret = new byte[SECRET_BYTES];
+            new SecureRandom().nextBytes(secret);
+            keyPrefs.edit().putString(KEY_PREF, Base64.encodeToString(secret, Base64.NO_WRAP)).commit();
+        }
+        return new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    Map<String, SuggestionPlanner.Installed> load() {
+        Map<String, SuggestionPlanner.Installed> installed = new HashMap<>();
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            SuggestionPlanner.Installed network = decode(entry.getKey(), String.valueOf(entry.getValue()));
+            if (network != null) {
+                installed.put(network.ssid, network);
+            }
+        }
+        return installed;
+    }
+
+    /** Applies a batch of changes in one write. */
+    void update(Map<String, SuggestionPlanner.Installed> put, Iterable<String> removed) {
+        SharedPreferences.Editor editor = prefs.edit();
+        for (String ssid : removed) {
+            editor.remove(ssid);
+        }
+        for (SuggestionPlanner.Installed network : put.values()) {
+            editor.putString(network.ssid, network.security.name() + "|" + network.networkId + "|" + network.fingerprint);
+        }
+        editor.apply();
+    }
+
+    private static SuggestionPlanner.Installed decode(String ssid, String value) {
+        String[] parts = value.split("\\|", 3);
+        try {
+            return new SuggestionPlanner.Installed(ssid, NetworkSuggestion.Security.valueOf(parts[0]),
+                    parts[2], Integer.parseInt(parts[1]));
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Dropping unreadable suggestion record for " + ssid);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.wifimanager;
+
+import android.os.Handler;
+
+import java.util.List;
+
+/**
+ * The platform calls the scan path depends on.
+ *
+ * {@link AndroidWifiBackend} forwards to {@code android.net.wifi.WifiManager} and the scan
+ * results broadcast. The tests' {@code SimulatedWifiBackend} generates a deterministic synthetic
+ * environment instead, so the module's scan pipeline can be exercised off-device. All methods
+ * are called on the module's WiFi thread.
+ */
+interface WifiBackend {
+    boolean isWifiEnabled();
+
+    boolean setWifiEnabled(boolean enabled);
+
+    /** Whether the OS rate-limits foreground scans (Android 9+, unless disabled in developer options). */
+    boolean isScanThrottleActive();
+
+    /** @return false if the scan was not started, e.g. because the OS throttled it */
+    boolean startScan();
+
+    /** Results of the most recent completed scan; null if they are unavailable. */
+    List<ScanRecord> getScanResults();
+
+    /**
+     * Starts delivering scan broadcasts, including scans started by other apps, to the
+     * listener on the handler's thread.
+     *
+     * @return false if registration failed
+     */
+    boolean registerScanListener(ScanResultsReceiver.Listener listener, Handler handler);
+
+    void unregisterScanListener();
+}
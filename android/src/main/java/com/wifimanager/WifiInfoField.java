@@ -0,0 +1,47 @@
+package com.wifimanager;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/** Fields that {@code getCurrentWifiInfo} can return. Only requested fields are gathered. */
+enum WifiInfoField {
+    SSID("ssid"),
+    BSSID("bssid"),
+    SIGNAL_STRENGTH("signalStrength"),
+    NETWORK_ID("networkId"),
+    LINK_SPEED("linkSpeed"),
+    TX_LINK_SPEED("txLinkSpeed"),
+    RX_LINK_SPEED("rxLinkSpeed"),
+    FREQUENCY("frequency"),
+    BAND("band"),
+    CHANNEL("channel"),
+    WIFI_STANDARD("wifiStandard"),
+    IP_ADDRESS("ipAddress"),
+    DNS_SERVERS("dnsServers"),
+    THROUGHPUT_ESTIMATE("throughputEstimate");
+
+    /** What getCurrentWifiInfo returned before fields could be selected. */
+    static final Set<WifiInfoField> DEFAULTS = EnumSet.of(SSID, SIGNAL_STRENGTH, NETWORK_ID);
+
+    private static final WifiInfoField[] VALUES = values();
+
+    final String label;
+
+    WifiInfoField(String label) {
+        this.label = label;
+    }
+
+    static WifiInfoField fromLabel(String label) {
+        for (WifiInfoField field : VALUES) {
+            if (field.label.equals(label)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown WiFi info field: " + label);
+    }
+
+    /** Whether the field comes from LinkProperties rather than WifiInfo. */
+    boolean needsLinkProperties() {
+        return this == IP_ADDRESS || this == DNS_SERVERS;
+    }
+}
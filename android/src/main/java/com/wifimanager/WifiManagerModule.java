@@ -1,593 +1,2456 @@
 package com.wifimanager;
 
 import android.Manifest;
-import android.content.BroadcastReceiver;
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
-import android.content.pm.PackageManager;
 import android.net.ConnectivityManager;
+import android.net.LinkAddress;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
 import android.net.NetworkInfo;
 import android.net.wifi.ScanResult;
 import android.net.wifi.WifiConfiguration;
 import android.net.wifi.WifiInfo;
 import android.net.wifi.WifiManager;
+import android.net.wifi.WifiNetworkSuggestion;
 import android.os.Build;
 import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Base64;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
-import androidx.core.app.ActivityCompat;
 
 import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.PromiseImpl;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
-public class WifiManagerModule extends ReactContextBaseJavaModule {
+public class WifiManagerModule extends WifiManagerSpec implements LifecycleEventListener {
     private static final String TAG = "WifiManagerModule";
-    private static final String MODULE_NAME = "WifiManager";
-    
+    static final String NAME = "WifiManager";
+    private static final long SCAN_TIMEOUT_MS = 10000;
+    // 4 scans per 2 minutes sustains one scan every 30 seconds
+    private static final long DEFAULT_STREAM_MIN_INTERVAL_MS = 30000;
+    private static final long DEFAULT_STREAM_MAX_INTERVAL_MS = 240000;
+    private static final int STREAM_RSSI_BUCKET_DB = 5;
+    private static final long DEFAULT_CONNECT_TIMEOUT_MS = 30000;
+    private static final long DEFAULT_PERMISSION_TIMEOUT_MS = 60000;
+    private static final String EVENT_SCAN_RESULTS = "wifiScanResults";
+    private static final String EVENT_SCAN_DIFF = "wifiScanDiff";
+    private static final String EVENT_CONNECTED = "wifiConnected";
+    private static final String EVENT_DISCONNECTED = "wifiDisconnected";
+    private static final String EVENT_CONNECTION_CHANGED = "wifiConnectionChanged";
+    private static final String EVENT_RECOMMENDED_NETWORK = "recommendedNetwork";
+    private static final int DEFAULT_MONITOR_RSSI_DELTA_DB = 5;
+    private static final long DEFAULT_MONITOR_MIN_INTERVAL_MS = 1000;
+    // getCurrentWifiInfo() keeps the monitor this long after its last read
+    private static final long WIFI_INFO_IDLE_RELEASE_MS = 60000;
+    private static final double THROUGHPUT_EFFICIENCY = 0.6;
+    private static final String SCAN_LOG_DIRECTORY = "wifi-scan-log";
+
     private final ReactApplicationContext reactContext;
-    private WifiManager wifiManager;
-    private BroadcastReceiver wifiScanReceiver;
-    private boolean isScanning = false;
-    private boolean isReceiverRegistered = false;
-    private Promise currentScanPromise = null;
+    private final Clock clock;
+    private final Clock wallClock;
+    private final ScanResultCache<ScanSnapshot> scanCache;
+    private final ScanThrottle scanThrottle;
+    private final WifiManager wifiManager;
+    // Scan path and adapter state; connections still talk to wifiManager directly
+    private final WifiBackend backend;
+    private final ConnectivityManager connectivityManager;
+    private final ScanResultsReceiver scanReceiver;
+    private final ConnectionMonitor connectionMonitor;
+    private final SuggestionStore suggestionStore;
+    private final PermissionState permissionState;
+    private final WifiMetrics metrics;
+    private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor();
+    // Owns all scan log disk I/O; the log instance is only touched from tasks on this executor
+    private final ExecutorService scanLogExecutor = Executors.newSingleThreadExecutor();
+
+    // All WifiManager IPC, broadcasts, timeouts and the fields below run on this thread
+    private final HandlerThread wifiThread;
+    private final Handler wifiHandler;
+    private boolean scanHoldsReceiver = false;
+    private boolean scanTimeoutPending = false;
+    // Event names of the active JS subscriptions, oldest first
+    private final List<String> jsListeners = new ArrayList<>();
+    // False until JS subscribes through addListener; apps that listen on DeviceEventEmitter
+    // directly never do, and keep receiving every event
+    private boolean listenersTracked = false;
+    private boolean listenersHoldReceiver = false;
+    private boolean listenersHoldMonitor = false;
+    private boolean wifiInfoHoldsMonitor = false;
+    private long scanStartedAt;
+    private AdaptiveScanInterval scanStream;
+    private ScanDiffEngine scanDiffEngine;
+    private SignalHistory signalHistory = SignalHistory.withDefaults();
+    // Latest delivered scan, published for synchronous reads from the JS thread
+    private volatile ScanSnapshot lastScan;
+    private ScanLog scanLog;
+    private RoamingSelector roamingSelector;
+    private Map<String, String> roamingPasswords;
+    private boolean roamingAutoConnect = false;
+    private boolean roamingHoldsReceiver = false;
+    private ConnectionAttempt connectionAttempt;
+    private ConnectionEventSource connectedSource;
+    private ConnectionChangeCoalescer connectionCoalescer;
+    private LinkSample reportedLink = LinkSample.DISCONNECTED;
 
     public WifiManagerModule(ReactApplicationContext reactContext) {
+        this(reactContext, null, Clock.SYSTEM, Clock.WALL);
+    }
+
+    /**
+     * @param backend scan backend, e.g. a simulated one in tests; null for the system one
+     * @param clock time source for scan caching, throttling and roaming; tests pass one that
+     *              follows the WiFi thread's looper
+     * @param wallClock epoch time source for the timestamps reported to JS and written to the scan log
+     */
+    WifiManagerModule(ReactApplicationContext reactContext, WifiBackend backend, Clock clock, Clock wallClock) {
         super(reactContext);
         this.reactContext = reactContext;
+        this.clock = clock;
+        this.wallClock = wallClock;
+        this.metrics = new WifiMetrics(wallClock);
+        this.scanCache = new ScanResultCache<>(clock);
+        this.scanThrottle = new ScanThrottle(clock);
         this.wifiManager = (WifiManager) reactContext.getApplicationContext()
                 .getSystemService(Context.WIFI_SERVICE);
+        this.backend = backend != null
+                ? backend : new AndroidWifiBackend(reactContext.getApplicationContext(), wifiManager);
+        this.connectivityManager = (ConnectivityManager) reactContext.getApplicationContext()
+                .getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.suggestionStore = new SuggestionStore(reactContext);
+        this.wifiThread = new HandlerThread("WifiManagerModule");
+        this.wifiThread.start();
+        this.wifiHandler = new Handler(wifiThread.getLooper());
+        this.permissionState = new PermissionState(reactContext, wifiHandler);
+        this.scanReceiver = new ScanResultsReceiver(this.backend, wifiHandler, new ScanResultsReceiver.Listener() {
+            @Override
+            public void onScanResultsAvailable(boolean updated) {
+                WifiManagerModule.this.onScanResultsAvailable(updated);
+            }
+        });
+        this.connectionMonitor = new ConnectionMonitor(reactContext, wifiHandler, wifiManager, connectivityManager,
+                new ConnectionMonitor.Listener() {
+                    @Override
+                    public void onLinkChanged(LinkSample sample) {
+                        WifiManagerModule.this.onLinkChanged(sample);
+                    }
+                });
+        reactContext.addLifecycleEventListener(this);
     }
 
     @Override
     @NonNull
     public String getName() {
-        return MODULE_NAME;
+        return NAME;
+    }
+
+    @Override
+    public void onHostResume() {
+        // Permissions may have changed in the permission dialog or the settings screen
+        permissionState.onHostResume();
+    }
+
+    @Override
+    public void onHostPause() {
+    }
+
+    @Override
+    public void onHostDestroy() {
+    }
+
+    /**
+     * Runs a task on the WiFi thread, so slow binder calls never block the shared native
+     * modules thread and module state needs no locking.
+     */
+    private void runOnWifiThread(Runnable task) {
+        if (!wifiHandler.post(task)) {
+            Log.w(TAG, "WiFi thread has quit, dropping task");
+        }
     }
 
     @ReactMethod
-    public void scanWifiNetworks(Promise promise) {
-        Log.d(TAG, "Starting WiFi scan...");
-        
+    public void scanWifiNetworks(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (BuildConfig.DEBUG) {
+                    Log.d(TAG, "Starting WiFi scan...");
+                }
+                if (!checkScanPreconditions(promise)) {
+                    return;
+                }
+
+                ScanQuery query;
+                ScanPayloadEncoder.Format format;
+                try {
+                    query = parseScanQuery(options);
+                    format = options != null && options.hasKey("format") && !options.isNull("format")
+                            ? ScanPayloadEncoder.parseFormat(options.getString("format"))
+                            : ScanPayloadEncoder.Format.MAPS;
+                } catch (IllegalArgumentException e) {
+                    promise.reject("INVALID_OPTIONS", e.getMessage());
+                    return;
+                }
+
+                long maxAgeMs = getLongOption(options, "maxAgeMs", 0);
+                ScanSnapshot cached = scanCache.getIfFresh(maxAgeMs);
+                if (cached != null) {
+                    if (BuildConfig.DEBUG) {
+                        Log.d(TAG, "Serving cached scan results (" + scanCache.getAgeMillis() + " ms old)");
+                    }
+                    promise.resolve(buildScanPayload(query.apply(cached.records), format));
+                    return;
+                }
+
+                requestScan(new PromiseScanCallback(promise, query, format));
+            }
+        });
+    }
+
+    /** Rejects the promise and returns false if WiFi is off or scan permissions are missing. */
+    private boolean checkScanPreconditions(Promise promise) {
         // Check if WiFi is enabled first
-        if (!wifiManager.isWifiEnabled()) {
+        if (!backend.isWifiEnabled()) {
             Log.e(TAG, "WiFi is not enabled");
             promise.reject("WIFI_DISABLED", "WiFi is not enabled. Please enable WiFi first.");
-            return;
+            return false;
         }
 
-        if (!checkPermissions()) {
-            String missingPermissions = getMissingPermissions();
+        if (!permissionState.canScan()) {
+            String missingPermissions = permissionState.describeMissingScanPermissions();
             Log.e(TAG, "Permission denied. Missing: " + missingPermissions);
             promise.reject("PERMISSION_DENIED", "Required permissions not granted: " + missingPermissions);
+            return false;
+        }
+        return true;
+    }
+
+    /** Joins the in-flight scan, or starts one if none is running. */
+    private void requestScan(ScanResultCache.Callback<ScanSnapshot> callback) {
+        if (!scanCache.enqueue(callback)) {
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Scan already in progress, joining it");
+            }
             return;
         }
 
-        if (isScanning) {
-            Log.w(TAG, "Scan already in progress");
-            promise.reject("ALREADY_SCANNING", "WiFi scan is already in progress");
+        scanThrottle.setEnabled(backend.isScanThrottleActive());
+        if (!scanThrottle.tryAcquire()) {
+            Log.w(TAG, "Scan budget exhausted, serving last scan results");
+            metrics.scanBudgetExhausted.incrementAndGet();
+            deliverLatestScanResults(false);
             return;
         }
 
         try {
-            isScanning = true;
-            currentScanPromise = promise;
-            
-            Log.d(TAG, "Setting up scan receiver...");
-            
-            // Unregister any existing receiver first
-            unregisterScanReceiver();
-            
-            wifiScanReceiver = new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    try {
-                        Log.d(TAG, "Received broadcast: " + intent.getAction());
-                        
-                        // Check if context and intent are valid
-                        if (context == null || intent == null) {
-                            Log.e(TAG, "Invalid context or intent in broadcast receiver");
-                            handleScanFailure("Invalid broadcast data");
-                            return;
-                        }
-
-                        // Check if the action matches
-                        if (!WifiManager.SCAN_RESULTS_AVAILABLE_ACTION.equals(intent.getAction())) {
-                            Log.w(TAG, "Received unexpected broadcast action: " + intent.getAction());
-                            return;
-                        }
-
-                        boolean success = intent.getBooleanExtra(WifiManager.EXTRA_RESULTS_UPDATED, false);
-                        Log.d(TAG, "Scan success: " + success);
-                        
-                        if (success) {
-                            handleScanSuccess();
-                        } else {
-                            handleScanFailure("WiFi scan failed - no results updated");
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error in broadcast receiver", e);
-                        handleScanFailure("Broadcast receiver error: " + e.getMessage());
-                    }
-                }
-            };
-
-            IntentFilter intentFilter = new IntentFilter();
-            intentFilter.addAction(WifiManager.SCAN_RESULTS_AVAILABLE_ACTION);
-            
-            try {
-                reactContext.registerReceiver(wifiScanReceiver, intentFilter);
-                isReceiverRegistered = true;
-                Log.d(TAG, "Broadcast receiver registered successfully");
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to register broadcast receiver", e);
-                isScanning = false;
-                currentScanPromise = null;
-                promise.reject("RECEIVER_ERROR", "Failed to register broadcast receiver: " + e.getMessage());
+            if (!scanReceiver.acquire()) {
+                failScan("RECEIVER_ERROR", "Failed to register broadcast receiver");
                 return;
             }
+            scanHoldsReceiver = true;
 
             // Start the scan
-            Log.d(TAG, "Starting WiFi scan...");
-            boolean scanStarted = wifiManager.startScan();
-            Log.d(TAG, "Scan started: " + scanStarted);
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Starting WiFi scan...");
+            }
+            boolean scanStarted = backend.startScan();
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Scan started: " + scanStarted);
+            }
             
             if (!scanStarted) {
-                Log.e(TAG, "Failed to start WiFi scan");
-                unregisterScanReceiver();
-                isScanning = false;
-                currentScanPromise = null;
-                promise.reject("SCAN_FAILED", "Failed to start WiFi scan. Please check if WiFi is enabled and try again.");
+                Log.w(TAG, "Failed to start WiFi scan, serving last scan results");
+                metrics.scansThrottled.incrementAndGet();
+                scanThrottle.onThrottled();
+                cleanupScan();
+                deliverLatestScanResults(false);
+                return;
             }
             
+            metrics.scansStarted.incrementAndGet();
+            scanStartedAt = clock.nowMillis();
+
             // Set a timeout to prevent hanging
-            new Handler().postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    if (isScanning && currentScanPromise != null) {
-                        Log.w(TAG, "Scan timeout - no results received");
-                        handleScanFailure("Scan timeout - no results received within 10 seconds");
-                    }
-                }
-            }, 10000); // 10 second timeout
+            scanTimeoutPending = true;
+            wifiHandler.postDelayed(scanTimeout, SCAN_TIMEOUT_MS);
             
         } catch (Exception e) {
             Log.e(TAG, "Error starting WiFi scan", e);
-            unregisterScanReceiver();
-            isScanning = false;
-            currentScanPromise = null;
-            promise.reject("SCAN_ERROR", "Error starting WiFi scan: " + e.getMessage());
+            failScan("SCAN_ERROR", "Error starting WiFi scan: " + e.getMessage());
         }
     }
 
-    private void handleScanSuccess() {
-        try {
-            if (currentScanPromise == null) {
-                Log.w(TAG, "Scan promise is null, ignoring scan results");
-                return;
+    private final Runnable scanTimeout = new Runnable() {
+        @Override
+        public void run() {
+            if (scanCache.isInFlight()) {
+                Log.w(TAG, "Scan timeout - no results received");
+                metrics.scanTimeouts.incrementAndGet();
+                handleScanFailure("Scan timeout - no results received within 10 seconds");
+            }
+        }
+    };
+
+    /**
+     * Called for every scan broadcast while the receiver is held, including scans started by
+     * other apps or the system.
+     */
+    private void onScanResultsAvailable(boolean updated) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Scan results available, updated: " + updated);
+        }
+        if (updated) {
+            if (scanTimeoutPending) {
+                metrics.scanLatencyMs.record(clock.nowMillis() - scanStartedAt);
             }
+            cleanupScan();
+            deliverLatestScanResults(true);
+        } else if (scanCache.isInFlight()) {
+            // Usually means the OS throttled us; the previous results are still readable
+            Log.w(TAG, "Scan results were not updated, serving last scan results");
+            metrics.scansThrottled.incrementAndGet();
+            scanThrottle.onThrottled();
+            cleanupScan();
+            deliverLatestScanResults(false);
+        }
+    }
 
-            List<ScanResult> results = wifiManager.getScanResults();
-            Log.d(TAG, "Scan results count: " + (results != null ? results.size() : 0));
+    /** @param fresh whether the OS updated the results; only fresh scans enter the history, log and roaming */
+    private void deliverLatestScanResults(boolean fresh) {
+        try {
+            List<ScanRecord> results = backend.getScanResults();
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Scan results count: " + (results != null ? results.size() : 0));
+            }
             
             if (results == null) {
                 Log.w(TAG, "Scan results are null");
-                currentScanPromise.reject("SCAN_FAILED", "No scan results available");
+                failScan("SCAN_FAILED", "No scan results available");
             } else if (results.isEmpty()) {
                 Log.w(TAG, "Scan results are empty - no networks found");
-                currentScanPromise.reject("SCAN_FAILED", "No WiFi networks found. Please check if WiFi is enabled and try again.");
+                failScan("SCAN_FAILED", "No WiFi networks found. Please check if WiFi is enabled and try again.");
             } else {
-                Log.d(TAG, "Found " + results.size() + " networks");
-                
-                // Create separate arrays for event and promise to avoid ObjectAlreadyConsumedException
-                WritableArray networksForEvent = convertScanResultsToArray(results);
-                WritableArray networksForPromise = convertScanResultsToArray(results);
-                
-                Log.d(TAG, "Sending scan results: " + networksForPromise.size() + " networks");
-                sendEvent("wifiScanResults", networksForEvent);
-                currentScanPromise.resolve(networksForPromise);
+                if (BuildConfig.DEBUG) {
+                    Log.d(TAG, "Found " + results.size() + " networks");
+                }
+                metrics.scanResults.record(results.size());
+                // Results the OS did not update keep the time of the scan that produced them
+                ScanSnapshot previous = lastScan;
+                long timestampMillis = fresh || previous == null
+                        ? wallClock.nowMillis() : previous.timestampMillis;
+                ScanSnapshot snapshot = new ScanSnapshot(results, timestampMillis);
+                if (fresh) {
+                    signalHistory.ingest(snapshot.records, snapshot.timestampMillis);
+                    appendToScanLog(snapshot);
+                    evaluateRoaming(snapshot);
+                }
+                sendScanEvent(snapshot);
+                lastScan = snapshot;
+                if (fresh) {
+                    scanCache.complete(snapshot);
+                } else {
+                    // Not cached, so a later maxAgeMs read cannot mistake these for a new scan
+                    scanCache.serve(snapshot);
+                }
             }
         } catch (Exception e) {
             Log.e(TAG, "Error handling scan success", e);
-            if (currentScanPromise != null) {
-                currentScanPromise.reject("SCAN_ERROR", "Error processing scan results: " + e.getMessage());
-            }
-        } finally {
-            cleanupScan();
+            failScan("SCAN_ERROR", "Error processing scan results: " + e.getMessage());
         }
     }
 
-    private void handleScanFailure(String error) {
-        try {
-            if (currentScanPromise != null) {
-                currentScanPromise.reject("SCAN_FAILED", error);
+    @ReactMethod
+    public void configureScanEvents(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    String mode = options != null && options.hasKey("mode") && !options.isNull("mode")
+                            ? options.getString("mode") : "full";
+                    if ("diff".equals(mode)) {
+                        scanDiffEngine = new ScanDiffEngine(
+                                (int) getLongOption(options, "rssiHysteresisDb", ScanDiffEngine.DEFAULT_RSSI_HYSTERESIS_DB),
+                                (int) getLongOption(options, "keyframeInterval", ScanDiffEngine.DEFAULT_KEYFRAME_INTERVAL));
+                    } else if ("full".equals(mode)) {
+                        scanDiffEngine = null;
+                    } else {
+                        promise.reject("INVALID_OPTIONS", "Unknown scan event mode: " + mode);
+                        return;
+                    }
+                    promise.resolve(true);
+                } catch (IllegalArgumentException e) {
+                    promise.reject("INVALID_OPTIONS", e.getMessage());
+                } catch (Exception e) {
+                    promise.reject("CONFIGURE_ERROR", e.getMessage());
+                }
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error handling scan failure", e);
-        } finally {
-            cleanupScan();
-        }
-    }
-
-    private void cleanupScan() {
-        isScanning = false;
-        currentScanPromise = null;
-        unregisterScanReceiver();
+        });
     }
 
-    private void unregisterScanReceiver() {
-        if (wifiScanReceiver != null && isReceiverRegistered) {
-            try {
-                reactContext.unregisterReceiver(wifiScanReceiver);
-                isReceiverRegistered = false;
-            } catch (Exception e) {
-                Log.e(TAG, "Error unregistering scan receiver", e);
+    @ReactMethod
+    public void configureSignalHistory(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // Reconfiguring starts a new history
+                    signalHistory = new SignalHistory(
+                            (int) getLongOption(options, "depth", SignalHistory.DEFAULT_DEPTH),
+                            getLongOption(options, "maxMemoryBytes", SignalHistory.DEFAULT_MAX_MEMORY_BYTES),
+                            getLongOption(options, "staleAfterMs", SignalHistory.DEFAULT_STALE_AFTER_MS),
+                            options != null && options.hasKey("ewmaAlpha") && !options.isNull("ewmaAlpha")
+                                    ? options.getDouble("ewmaAlpha") : SignalHistory.DEFAULT_EWMA_ALPHA);
+                    WritableMap result = Arguments.createMap();
+                    result.putInt("depth", signalHistory.getDepth());
+                    result.putInt("maxAccessPoints", signalHistory.getMaxAccessPoints());
+                    promise.resolve(result);
+                } catch (IllegalArgumentException e) {
+                    promise.reject("INVALID_OPTIONS", e.getMessage());
+                }
             }
-        }
-        wifiScanReceiver = null;
+        });
     }
 
     @ReactMethod
-    public void connectToWifi(String ssid, String password, Promise promise) {
-        if (!checkPermissions()) {
-            promise.reject("PERMISSION_DENIED", "Location permission is required for WiFi connection");
-            return;
-        }
-
-        try {
-            WifiConfiguration wifiConfig = new WifiConfiguration();
-            wifiConfig.SSID = "\"" + ssid + "\"";
-            wifiConfig.preSharedKey = "\"" + password + "\"";
+    public void getSignalHistory(String bssid, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                SignalHistory.Series series = bssid != null ? signalHistory.get(bssid) : null;
+                if (series == null || series.size() == 0) {
+                    promise.resolve(null);
+                    return;
+                }
+                int[] levels = new int[series.size()];
+                long[] times = new long[series.size()];
+                series.copySamples(levels, times);
+                SignalHistory.Stats stats = series.stats();
 
-            int networkId = wifiManager.addNetwork(wifiConfig);
-            if (networkId == -1) {
-                promise.reject("CONNECTION_FAILED", "Failed to add network configuration");
-                return;
+                WritableMap history = Arguments.createMap();
+                history.putString("bssid", bssid);
+                WritableArray signalStrength = Arguments.createArray();
+                WritableArray timestamps = Arguments.createArray();
+                for (int i = 0; i < levels.length; i++) {
+                    signalStrength.pushInt(levels[i]);
+                    timestamps.pushDouble(times[i]);
+                }
+                history.putArray("signalStrength", signalStrength);
+                history.putArray("timestamps", timestamps);
+                history.putInt("samples", stats.samples);
+                history.putDouble("ewma", stats.ewma);
+                history.putInt("min", stats.min);
+                history.putInt("max", stats.max);
+                history.putDouble("mean", stats.mean);
+                history.putDouble("variance", stats.variance);
+                history.putDouble("lastSeen", stats.lastSeen);
+                promise.resolve(history);
             }
+        });
+    }
 
-            boolean connected = wifiManager.enableNetwork(networkId, true);
-            if (connected) {
-                promise.resolve(true);
-                sendEvent("wifiConnected", ssid);
-            } else {
-                promise.reject("CONNECTION_FAILED", "Failed to connect to WiFi network");
+    @ReactMethod
+    public void startScanLog(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                final ScanLog previous = scanLog;
+                final ScanLog log;
+                try {
+                    log = new ScanLog(clock, getScanLogDirectory(),
+                            getLongOption(options, "maxFileBytes", ScanLog.DEFAULT_MAX_FILE_BYTES),
+                            getLongOption(options, "maxTotalBytes", ScanLog.DEFAULT_MAX_TOTAL_BYTES),
+                            getLongOption(options, "flushIntervalMs", ScanLog.DEFAULT_FLUSH_INTERVAL_MS));
+                } catch (IllegalArgumentException e) {
+                    promise.reject("INVALID_OPTIONS", e.getMessage());
+                    return;
+                }
+                // Restarting applies the new options to a new file
+                scanLog = log;
+                runOnScanLogExecutor(promise, new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (previous != null) {
+                                previous.close();
+                            }
+                            log.open();
+                            WritableMap result = Arguments.createMap();
+                            result.putString("directory", getScanLogDirectory().getAbsolutePath());
+                            result.putDouble("bytes", ScanLog.sizeOf(getScanLogDirectory()));
+                            promise.resolve(result);
+                        } catch (IOException e) {
+                            Log.e(TAG, "Failed to start scan log", e);
+                            promise.reject("SCAN_LOG_ERROR", e.getMessage());
+                        }
+                    }
+                });
             }
-        } catch (Exception e) {
-            promise.reject("CONNECTION_ERROR", e.getMessage());
-        }
+        });
     }
 
     @ReactMethod
-    public void disconnectFromWifi(Promise promise) {
-        try {
-            boolean disconnected = wifiManager.disconnect();
-            if (disconnected) {
-                promise.resolve(true);
-                sendEvent("wifiDisconnected", null);
-            } else {
-                promise.reject("DISCONNECTION_FAILED", "Failed to disconnect from WiFi");
+    public void stopScanLog(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                final ScanLog log = scanLog;
+                scanLog = null;
+                runOnScanLogExecutor(promise, new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            WritableMap result = Arguments.createMap();
+                            if (log != null) {
+                                log.close();
+                                result.putInt("scans", log.getScansWritten());
+                            } else {
+                                result.putInt("scans", 0);
+                            }
+                            result.putDouble("bytes", ScanLog.sizeOf(getScanLogDirectory()));
+                            promise.resolve(result);
+                        } catch (IOException e) {
+                            Log.e(TAG, "Failed to stop scan log", e);
+                            promise.reject("SCAN_LOG_ERROR", e.getMessage());
+                        }
+                    }
+                });
             }
-        } catch (Exception e) {
-            promise.reject("DISCONNECTION_ERROR", e.getMessage());
-        }
+        });
     }
 
     @ReactMethod
-    public void getCurrentWifiInfo(Promise promise) {
-        try {
-            WifiInfo wifiInfo = wifiManager.getConnectionInfo();
-            if (wifiInfo != null && wifiInfo.getNetworkId() != -1) {
-                WritableMap info = Arguments.createMap();
-                info.putString("ssid", wifiInfo.getSSID().replace("\"", ""));
-                info.putInt("signalStrength", wifiInfo.getRssi());
-                info.putInt("networkId", wifiInfo.getNetworkId());
-                promise.resolve(info);
-            } else {
-                promise.resolve(null);
+    public void exportScanLog(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                final ScanLogExporter.Format format;
+                try {
+                    String value = getStringOption(options, "format");
+                    format = ScanLogExporter.parseFormat(value != null ? value : "csv");
+                } catch (IllegalArgumentException e) {
+                    promise.reject("INVALID_OPTIONS", e.getMessage());
+                    return;
+                }
+                final ScanLog log = scanLog;
+                runOnScanLogExecutor(promise, new Runnable() {
+                    @Override
+                    public void run() {
+                        File output = new File(reactContext.getCacheDir(),
+                                SCAN_LOG_DIRECTORY + (format == ScanLogExporter.Format.CSV ? ".csv" : ".json"));
+                        try {
+                            if (log != null) {
+                                log.flush();
+                            }
+                            ScanLogExporter.Summary summary;
+                            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                                    new FileOutputStream(output), StandardCharsets.UTF_8))) {
+                                summary = ScanLogExporter.export(
+                                        ScanLog.listFiles(getScanLogDirectory()), format, out);
+                            }
+                            WritableMap result = Arguments.createMap();
+                            result.putString("path", output.getAbsolutePath());
+                            result.putInt("files", summary.files);
+                            result.putInt("scans", summary.scans);
+                            result.putInt("rows", summary.rows);
+                            result.putDouble("bytes", output.length());
+                            promise.resolve(result);
+                        } catch (IOException e) {
+                            Log.e(TAG, "Failed to export scan log", e);
+                            promise.reject("SCAN_LOG_ERROR", e.getMessage());
+                        }
+                    }
+                });
             }
-        } catch (Exception e) {
-            promise.reject("INFO_ERROR", e.getMessage());
-        }
+        });
     }
 
     @ReactMethod
-    public void isWifiEnabled(Promise promise) {
-        try {
-            boolean enabled = wifiManager.isWifiEnabled();
-            promise.resolve(enabled);
-        } catch (Exception e) {
-            promise.reject("ENABLED_CHECK_ERROR", e.getMessage());
-        }
+    public void clearScanLog(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                final ScanLog log = scanLog;
+                runOnScanLogExecutor(promise, new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (log != null) {
+                                log.clear();
+                            } else {
+                                ScanLog.deleteFiles(getScanLogDirectory());
+                            }
+                            promise.resolve(true);
+                        } catch (IOException e) {
+                            Log.e(TAG, "Failed to clear scan log", e);
+                            promise.reject("SCAN_LOG_ERROR", e.getMessage());
+                        }
+                    }
+                });
+            }
+        });
     }
 
-    @ReactMethod
-    public void setWifiEnabled(boolean enabled, Promise promise) {
+    /** Hands a fresh scan to the log's executor. Runs on the WiFi thread. */
+    private void appendToScanLog(final ScanSnapshot snapshot) {
+        final ScanLog log = scanLog;
+        if (log == null) {
+            return;
+        }
         try {
-            boolean success = wifiManager.setWifiEnabled(enabled);
-            promise.resolve(success);
-        } catch (Exception e) {
-            promise.reject("ENABLE_ERROR", e.getMessage());
+            scanLogExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        log.append(snapshot.records, snapshot.timestampMillis);
+                    } catch (IOException e) {
+                        Log.e(TAG, "Failed to append to scan log", e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Scan log executor is shut down");
         }
     }
 
-    @ReactMethod
-    public void checkPermissions(Promise promise) {
+    private void runOnScanLogExecutor(Promise promise, Runnable task) {
         try {
-            WritableMap permissionStatus = Arguments.createMap();
-            
-            // Check WiFi permissions
-            boolean hasWifiState = ActivityCompat.checkSelfPermission(reactContext, 
-                    Manifest.permission.ACCESS_WIFI_STATE) == PackageManager.PERMISSION_GRANTED;
-            boolean hasChangeWifiState = ActivityCompat.checkSelfPermission(reactContext, 
-                    Manifest.permission.CHANGE_WIFI_STATE) == PackageManager.PERMISSION_GRANTED;
-            
-            // Check location permissions
-            boolean hasFineLocation = ActivityCompat.checkSelfPermission(reactContext, 
-                    Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
-            boolean hasCoarseLocation = ActivityCompat.checkSelfPermission(reactContext, 
-                    Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED;
-            
-            // Check network permissions
-            boolean hasNetworkState = ActivityCompat.checkSelfPermission(reactContext, 
-                    Manifest.permission.ACCESS_NETWORK_STATE) == PackageManager.PERMISSION_GRANTED;
-            boolean hasChangeNetworkState = ActivityCompat.checkSelfPermission(reactContext, 
-                    Manifest.permission.CHANGE_NETWORK_STATE) == PackageManager.PERMISSION_GRANTED;
-            
-            // Check Android 13+ permissions
-            boolean hasNearbyWifiDevices = false;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                hasNearbyWifiDevices = ActivityCompat.checkSelfPermission(reactContext,
-                        Manifest.permission.NEARBY_WIFI_DEVICES) == PackageManager.PERMISSION_GRANTED;
-            }
-            
-            // Check WiFi state
-            boolean isWifiEnabled = wifiManager.isWifiEnabled();
-            
-            permissionStatus.putBoolean("hasWifiState", hasWifiState);
-            permissionStatus.putBoolean("hasChangeWifiState", hasChangeWifiState);
-            permissionStatus.putBoolean("hasFineLocation", hasFineLocation);
-            permissionStatus.putBoolean("hasCoarseLocation", hasCoarseLocation);
-            permissionStatus.putBoolean("hasNetworkState", hasNetworkState);
-            permissionStatus.putBoolean("hasChangeNetworkState", hasChangeNetworkState);
-            permissionStatus.putBoolean("hasNearbyWifiDevices", hasNearbyWifiDevices);
-            permissionStatus.putBoolean("isWifiEnabled", isWifiEnabled);
-            permissionStatus.putBoolean("canScan", checkPermissions());
-            
-            promise.resolve(permissionStatus);
-        } catch (Exception e) {
-            promise.reject("PERMISSION_CHECK_ERROR", e.getMessage());
+            scanLogExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            promise.reject("SCAN_LOG_ERROR", "WiFi manager is shutting down");
         }
     }
 
-    @ReactMethod
-    public void requestPermissions(Promise promise) {
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                // Check what permissions are missing
-                String missingPermissions = getMissingPermissions();
-                
-                if (missingPermissions.isEmpty()) {
-                    // All permissions are already granted
-                    promise.resolve(true);
-                    return;
-                }
-                
-                // Create a list of permissions to request
-                List<String> permissionsToRequest = new ArrayList<>();
-                
-                if (ActivityCompat.checkSelfPermission(reactContext, 
-                        Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
-                    permissionsToRequest.add(Manifest.permission.ACCESS_FINE_LOCATION);
-                }
-                
-                if (ActivityCompat.checkSelfPermission(reactContext, 
-                        Manifest.permission.ACCESS_COARSE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
-                    permissionsToRequest.add(Manifest.permission.ACCESS_COARSE_LOCATION);
-                }
-                
-                // For Android 13+ (API 33+), also request NEARBY_WIFI_DEVICES
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                    if (ActivityCompat.checkSelfPermission(reactContext,
-                            Manifest.permission.NEARBY_WIFI_DEVICES) != PackageManager.PERMISSION_GRANTED) {
-                        permissionsToRequest.add(Manifest.permission.NEARBY_WIFI_DEVICES);
-                    }
-                }
-                
-                if (!permissionsToRequest.isEmpty()) {
-                    // Request permissions using ActivityCompat
-                    ActivityCompat.requestPermissions(
-                        reactContext.getCurrentActivity(),
-                        permissionsToRequest.toArray(new String[0]),
-                        1001 // Request code
-                    );
-                    
-                    // Note: We can't directly handle the result here due to React Native bridge limitations
-                    // The app should handle the permission result in the main activity
-                    promise.resolve(false); // Indicates permissions were requested
-                } else {
-                    promise.resolve(true); // All permissions already granted
-                }
-            } else {
-                // For older Android versions, no runtime permissions needed
-                promise.resolve(true);
+    private File getScanLogDirectory() {
+        return new File(reactContext.getFilesDir(), SCAN_LOG_DIRECTORY);
+    }
+
+    /** Emits the snapshot in the configured event mode, skipping all work if nobody listens. */
+    private void sendScanEvent(ScanSnapshot snapshot) {
+        String eventName = scanDiffEngine != null ? EVENT_SCAN_DIFF : EVENT_SCAN_RESULTS;
+        if (!hasListener(eventName)) {
+            if (scanDiffEngine != null) {
+                // Listeners that subscribe later have no state to apply deltas to
+                scanDiffEngine.reset();
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting permissions", e);
-            promise.reject("PERMISSION_REQUEST_ERROR", e.getMessage());
+            return;
+        }
+        if (scanDiffEngine != null) {
+            sendScanDiff(scanDiffEngine.diff(snapshot.records));
+        } else {
+            sendEvent(EVENT_SCAN_RESULTS, convertScanResultsToArray(snapshot.records));
         }
     }
 
-    @ReactMethod
-    public void scanWifiNetworksWithPermissionRequest(Promise promise) {
-        Log.d(TAG, "Starting WiFi scan with permission request...");
-        
-        // Check if WiFi is enabled first
-        if (!wifiManager.isWifiEnabled()) {
-            Log.e(TAG, "WiFi is not enabled");
-            promise.reject("WIFI_DISABLED", "WiFi is not enabled. Please enable WiFi first.");
+    private void sendScanDiff(ScanDiffEngine.Diff diff) {
+        if (diff.isEmpty()) {
             return;
         }
+        WritableMap payload = Arguments.createMap();
+        payload.putDouble("sequence", diff.sequence);
+        payload.putBoolean("keyframe", diff.keyframe);
+        payload.putArray("added", convertScanResultsToArray(diff.added));
+        payload.putArray("changed", convertScanResultsToArray(diff.changed));
+        WritableArray removed = Arguments.createArray();
+        for (String bssid : diff.removed) {
+            removed.pushString(bssid);
+        }
+        payload.putArray("removed", removed);
+        sendEvent(EVENT_SCAN_DIFF, payload);
+    }
 
-        // Check permissions and request if needed
-        if (!checkPermissions()) {
-            Log.d(TAG, "Permissions not granted, requesting permissions...");
-            
-            try {
-                // Request permissions directly
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                    List<String> permissionsToRequest = new ArrayList<>();
-                    
-                    if (ActivityCompat.checkSelfPermission(reactContext, 
-                            Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
-                        permissionsToRequest.add(Manifest.permission.ACCESS_FINE_LOCATION);
-                    }
-                    
-                    if (ActivityCompat.checkSelfPermission(reactContext, 
-                            Manifest.permission.ACCESS_COARSE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
-                        permissionsToRequest.add(Manifest.permission.ACCESS_COARSE_LOCATION);
-                    }
-                    
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                        if (ActivityCompat.checkSelfPermission(reactContext,
-                                Manifest.permission.NEARBY_WIFI_DEVICES) != PackageManager.PERMISSION_GRANTED) {
-                            permissionsToRequest.add(Manifest.permission.NEARBY_WIFI_DEVICES);
-                        }
+    @ReactMethod
+    public void analyzeChannels(ReadableMap options, final Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (!checkScanPreconditions(promise)) {
+                    return;
+                }
+                ScanSnapshot cached = scanCache.getIfFresh(getLongOption(options, "maxAgeMs", 0));
+                if (cached != null) {
+                    analyzeChannelsInBackground(cached, promise);
+                    return;
+                }
+                requestScan(new ScanResultCache.Callback<ScanSnapshot>() {
+                    @Override
+                    public void onResult(ScanSnapshot snapshot) {
+                        analyzeChannelsInBackground(snapshot, promise);
                     }
-                    
-                    if (!permissionsToRequest.isEmpty()) {
-                        ActivityCompat.requestPermissions(
-                            reactContext.getCurrentActivity(),
-                            permissionsToRequest.toArray(new String[0]),
-                            1001
-                        );
-                        
-                        // Give a delay for permission dialog to complete
-                        new Handler().postDelayed(new Runnable() {
-                            @Override
-                            public void run() {
-                                if (checkPermissions()) {
-                                    Log.d(TAG, "Permissions granted, proceeding with scan...");
-                                    scanWifiNetworks(promise);
-                                } else {
-                                    Log.e(TAG, "Permissions still not granted after request");
-                                    promise.reject("PERMISSION_DENIED", "Required permissions not granted after request. Please grant location permissions manually.");
-                                }
-                            }
-                        }, 1000);
-                        return;
+
+                    @Override
+                    public void onError(String code, String message) {
+                        promise.reject(code, message);
                     }
-                }
-                
-                // If we get here, permissions are already granted
-                scanWifiNetworks(promise);
-                
-            } catch (Exception e) {
-                Log.e(TAG, "Error requesting permissions", e);
-                promise.reject("PERMISSION_REQUEST_ERROR", e.getMessage());
+                });
             }
-            return;
-        }
-
-        // If permissions are already granted, proceed with normal scan
-        scanWifiNetworks(promise);
+        });
     }
 
-    private boolean checkPermissions() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            boolean hasLocationPermission = ActivityCompat.checkSelfPermission(reactContext, 
-                    Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
-            
-            // For Android 13+ (API 33+), also check for NEARBY_WIFI_DEVICES permission
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                boolean hasNearbyWifiPermission = ActivityCompat.checkSelfPermission(reactContext,
-                        Manifest.permission.NEARBY_WIFI_DEVICES) == PackageManager.PERMISSION_GRANTED;
-                // For backward compatibility, only require location permission if NEARBY_WIFI_DEVICES is not available
-                return hasLocationPermission || hasNearbyWifiPermission;
-            }
-            
-            return hasLocationPermission;
+    private void analyzeChannelsInBackground(final ScanSnapshot snapshot, final Promise promise) {
+        try {
+            analysisExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        promise.resolve(convertChannelAnalysis(ChannelAnalyzer.analyze(snapshot.records),
+                                snapshot.timestampMillis));
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error analyzing channels", e);
+                        promise.reject("ANALYSIS_ERROR", e.getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            promise.reject("ANALYSIS_ERROR", "WiFi manager is shutting down");
         }
-        return true;
     }
 
-    private String getMissingPermissions() {
-        StringBuilder missingPermissions = new StringBuilder();
-        
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            if (ActivityCompat.checkSelfPermission(reactContext, 
-                    Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
-                missingPermissions.append("ACCESS_FINE_LOCATION ");
-            }
-            
-            // For Android 13+ (API 33+), also check for NEARBY_WIFI_DEVICES permission
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                if (ActivityCompat.checkSelfPermission(reactContext,
-                        Manifest.permission.NEARBY_WIFI_DEVICES) != PackageManager.PERMISSION_GRANTED) {
-                    missingPermissions.append("NEARBY_WIFI_DEVICES ");
+    private WritableMap convertChannelAnalysis(List<ChannelAnalyzer.BandStats> bands, long timestampMillis) {
+        WritableArray bandArray = Arguments.createArray();
+        for (ChannelAnalyzer.BandStats band : bands) {
+            WritableArray channels = Arguments.createArray();
+            for (ChannelAnalyzer.ChannelStats channel : band.channels) {
+                WritableMap channelMap = Arguments.createMap();
+                channelMap.putInt("channel", channel.channel);
+                channelMap.putInt("apCount", channel.apCount);
+                channelMap.putInt("overlappingCount", channel.overlappingCount);
+                double interferenceDbm = channel.interferenceDbm();
+                if (Double.isInfinite(interferenceDbm)) {
+                    channelMap.putNull("interferenceDbm");
+                } else {
+                    channelMap.putDouble("interferenceDbm", interferenceDbm);
                 }
+                channelMap.putBoolean("candidate", channel.candidate);
+                channels.pushMap(channelMap);
             }
+            WritableMap bandMap = Arguments.createMap();
+            bandMap.putString("band", band.band.label);
+            bandMap.putInt("apCount", band.apCount);
+            bandMap.putInt("recommendedChannel", band.recommendedChannel);
+            bandMap.putArray("channels", channels);
+            bandArray.pushMap(bandMap);
         }
-        
-        return missingPermissions.toString().trim();
+        WritableMap analysis = Arguments.createMap();
+        analysis.putDouble("timestamp", timestampMillis);
+        analysis.putArray("bands", bandArray);
+        return analysis;
     }
 
-    private WritableArray convertScanResultsToArray(List<ScanResult> results) {
-        WritableArray networks = Arguments.createArray();
-        
-        for (ScanResult result : results) {
-            WritableMap network = Arguments.createMap();
-            network.putString("ssid", result.SSID);
-            network.putString("bssid", result.BSSID);
-            network.putInt("signalStrength", result.level);
-            network.putString("capabilities", result.capabilities);
-            network.putInt("frequency", result.frequency);
-            network.putInt("channel", getChannelFromFrequency(result.frequency));
-            networks.pushMap(network);
-        }
-        
-        return networks;
+    @ReactMethod
+    public void getWifiMetrics(Promise promise) {
+        // Metrics are lock-free, so there is no need to queue behind WiFi work
+        WritableMap scans = Arguments.createMap();
+        scans.putDouble("started", metrics.scansStarted.get());
+        scans.putDouble("budgetExhausted", metrics.scanBudgetExhausted.get());
+        scans.putDouble("throttled", metrics.scansThrottled.get());
+        scans.putDouble("timeouts", metrics.scanTimeouts.get());
+        scans.putMap("latencyMs", convertHistogram(metrics.scanLatencyMs.snapshot()));
+        scans.putMap("results", convertHistogram(metrics.scanResults.snapshot()));
+
+        WritableMap bridge = Arguments.createMap();
+        bridge.putMap("conversionMicros", convertHistogram(metrics.conversionMicros.snapshot()));
+        bridge.putMap("payloadBytes", convertHistogram(metrics.payloadBytes.snapshot()));
+
+        WritableMap connects = Arguments.createMap();
+        connects.putDouble("succeeded", metrics.connectsSucceeded.get());
+        connects.putDouble("failed", metrics.connectsFailed.get());
+        connects.putMap("latencyMs", convertHistogram(metrics.connectLatencyMs.snapshot()));
+
+        WritableMap result = Arguments.createMap();
+        result.putMap("scans", scans);
+        result.putMap("bridge", bridge);
+        result.putMap("connects", connects);
+        result.putDouble("since", metrics.getResetAt());
+        promise.resolve(result);
     }
 
-    private int getChannelFromFrequency(int frequency) {
-        if (frequency >= 2412 && frequency <= 2484) {
-            return (frequency - 2412) / 5 + 1;
-        } else if (frequency >= 5170 && frequency <= 5825) {
-            return (frequency - 5170) / 5 + 34;
-        }
-        return 0;
+    @ReactMethod
+    public void resetWifiMetrics(Promise promise) {
+        metrics.reset();
+        promise.resolve(null);
     }
 
-    private void sendEvent(String eventName, Object data) {
-        reactContext
-                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                .emit(eventName, data);
+    private static WritableMap convertHistogram(WifiMetrics.Snapshot snapshot) {
+        WritableMap map = Arguments.createMap();
+        map.putDouble("count", snapshot.count);
+        map.putDouble("mean", snapshot.mean);
+        map.putDouble("p50", snapshot.p50);
+        map.putDouble("p90", snapshot.p90);
+        map.putDouble("p99", snapshot.p99);
+        map.putDouble("max", snapshot.max);
+        return map;
     }
 
-    @Override
-    public void onCatalystInstanceDestroy() {
-        super.onCatalystInstanceDestroy();
-        try {
-            // Clean up any ongoing scan
-            if (isScanning) {
-                Log.w(TAG, "Module destroyed while scan was in progress");
-                cleanupScan();
+    @ReactMethod
+    public void getScanBudget(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    scanThrottle.setEnabled(backend.isScanThrottleActive());
+                    long waitMs = Math.max(0, scanThrottle.getNextAllowedAt() - clock.nowMillis());
+                    WritableMap budget = Arguments.createMap();
+                    budget.putBoolean("throttled", scanThrottle.isEnabled());
+                    budget.putInt("remaining", scanThrottle.getRemaining());
+                    budget.putInt("maxScans", scanThrottle.getMaxScans());
+                    budget.putDouble("windowMs", scanThrottle.getWindowMs());
+                    budget.putDouble("nextScanAllowedInMs", waitMs);
+                    budget.putDouble("nextScanAllowedAt", wallClock.nowMillis() + waitMs);
+                    promise.resolve(budget);
+                } catch (Exception e) {
+                    promise.reject("SCAN_BUDGET_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void startScanStream(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!checkScanPreconditions(promise)) {
+                        return;
+                    }
+
+                    long minIntervalMs = getLongOption(options, "minIntervalMs", DEFAULT_STREAM_MIN_INTERVAL_MS);
+                    long maxIntervalMs = getLongOption(options, "maxIntervalMs", DEFAULT_STREAM_MAX_INTERVAL_MS);
+                    long intervalMs = getLongOption(options, "intervalMs", minIntervalMs);
+                    if (minIntervalMs <= 0 || minIntervalMs > maxIntervalMs) {
+                        promise.reject("INVALID_OPTIONS", "Expected 0 < minIntervalMs <= maxIntervalMs");
+                        return;
+                    }
+
+                    stopStream();
+                    scanStream = new AdaptiveScanInterval(intervalMs, minIntervalMs, maxIntervalMs);
+                    wifiHandler.post(streamTick);
+                    if (BuildConfig.DEBUG) {
+                        Log.d(TAG, "Scan stream started, interval " + scanStream.getCurrentIntervalMs() + " ms");
+                    }
+                    promise.resolve(true);
+                } catch (Exception e) {
+                    promise.reject("SCAN_STREAM_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void stopScanStream(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    stopStream();
+                    promise.resolve(true);
+                } catch (Exception e) {
+                    promise.reject("SCAN_STREAM_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void stopStream() {
+        wifiHandler.removeCallbacks(streamTick);
+        scanStream = null;
+    }
+
+    private final Runnable streamTick = new Runnable() {
+        @Override
+        public void run() {
+            final AdaptiveScanInterval stream = scanStream;
+            if (stream == null) {
+                return;
+            }
+            if (!backend.isWifiEnabled()) {
+                scheduleStreamTick(stream, stream.onScanFailed());
+                return;
+            }
+            // Results reach JS through the wifiScanResults event sent for every scan
+            requestScan(new ScanResultCache.Callback<ScanSnapshot>() {
+                @Override
+                public void onResult(ScanSnapshot snapshot) {
+                    scheduleStreamTick(stream, stream.onScanResults(scanFingerprint(snapshot.records)));
+                }
+
+                @Override
+                public void onError(String code, String message) {
+                    Log.w(TAG, "Scan stream tick failed: " + message);
+                    scheduleStreamTick(stream, stream.onScanFailed());
+                }
+            });
+        }
+    };
+
+    private void scheduleStreamTick(AdaptiveScanInterval stream, long intervalMs) {
+        if (stream != scanStream) {
+            // Stream was stopped or restarted while this scan was running
+            return;
+        }
+        // Never schedule a scan the OS throttle would reject
+        long throttleWaitMs = scanThrottle.getNextAllowedAt() - clock.nowMillis();
+        wifiHandler.postDelayed(streamTick, Math.max(intervalMs, throttleWaitMs));
+    }
+
+    /** Order-independent digest of the visible networks, with RSSI bucketed to ignore noise. */
+    private static long scanFingerprint(List<ScanRecord> records) {
+        long fingerprint = records.size();
+        for (ScanRecord record : records) {
+            long hash = (record.bssid != null ? record.bssid.hashCode() : 0) * 31L
+                    + record.level / STREAM_RSSI_BUCKET_DB;
+            fingerprint += hash * 0x9E3779B97F4A7C15L ^ (hash >>> 29);
+        }
+        return fingerprint;
+    }
+
+    private void handleScanFailure(String error) {
+        failScan("SCAN_FAILED", error);
+    }
+
+    private void failScan(String code, String error) {
+        cleanupScan();
+        try {
+            scanCache.fail(code, error);
+        } catch (Exception e) {
+            Log.e(TAG, "Error handling scan failure", e);
+        }
+    }
+
+    private void cleanupScan() {
+        if (scanTimeoutPending) {
+            scanTimeoutPending = false;
+            wifiHandler.removeCallbacks(scanTimeout);
+        }
+        if (scanHoldsReceiver) {
+            scanHoldsReceiver = false;
+            scanReceiver.release();
+        }
+    }
+
+    @ReactMethod
+    public void addListener(String eventName) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                // Diffs sent while nobody listened were dropped, so the first subscriber needs a keyframe
+                if (EVENT_SCAN_DIFF.equals(eventName) && !jsListeners.contains(EVENT_SCAN_DIFF)
+                        && scanDiffEngine != null) {
+                    scanDiffEngine.reset();
+                }
+                listenersTracked = true;
+                jsListeners.add(eventName);
+                updateListenerResources();
+            }
+        });
+    }
+
+    /** Called by emitters that do not report event names; drops the newest subscriptions. */
+    @ReactMethod
+    public void removeListeners(double count) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count && !jsListeners.isEmpty(); i++) {
+                    jsListeners.remove(jsListeners.size() - 1);
+                }
+                updateListenerResources();
+            }
+        });
+    }
+
+    @ReactMethod
+    public void removeEventListeners(String eventName, double count) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    int index = jsListeners.lastIndexOf(eventName);
+                    if (index < 0) {
+                        break;
+                    }
+                    jsListeners.remove(index);
+                }
+                updateListenerResources();
+            }
+        });
+    }
+
+    @ReactMethod
+    public void startConnectionMonitor(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                ConnectionChangeCoalescer coalescer;
+                try {
+                    coalescer = new ConnectionChangeCoalescer(clock,
+                            (int) getLongOption(options, "rssiDeltaThreshold", DEFAULT_MONITOR_RSSI_DELTA_DB),
+                            getLongOption(options, "minIntervalMs", DEFAULT_MONITOR_MIN_INTERVAL_MS));
+                } catch (IllegalArgumentException e) {
+                    promise.reject("INVALID_OPTIONS", e.getMessage());
+                    return;
+                }
+                if (connectionCoalescer == null && !connectionMonitor.acquire()) {
+                    promise.reject("MONITOR_FAILED", "Failed to register the connection monitor");
+                    return;
+                }
+                // Restarting applies the new options; the current state is returned, not emitted
+                wifiHandler.removeCallbacks(connectionEmit);
+                connectionCoalescer = coalescer;
+                LinkSample current = connectionMonitor.getCurrent();
+                coalescer.offer(current);
+                coalescer.takePending();
+                promise.resolve(convertLinkSample(current));
+            }
+        });
+    }
+
+    /**
+     * Holds the scan receiver only while a scan event is subscribed, so passive results are
+     * delivered, and the connection monitor only while wifiConnected/wifiDisconnected are, so
+     * they follow the OS. A failed registration is retried on the next subscription change.
+     */
+    private void updateListenerResources() {
+        boolean needsReceiver = jsListeners.contains(EVENT_SCAN_RESULTS) || jsListeners.contains(EVENT_SCAN_DIFF);
+        if (needsReceiver && !listenersHoldReceiver) {
+            listenersHoldReceiver = scanReceiver.acquire();
+        } else if (!needsReceiver && listenersHoldReceiver) {
+            listenersHoldReceiver = false;
+            scanReceiver.release();
+        }
+
+        boolean needsMonitor = jsListeners.contains(EVENT_CONNECTED) || jsListeners.contains(EVENT_DISCONNECTED);
+        if (needsMonitor && !listenersHoldMonitor) {
+            listenersHoldMonitor = connectionMonitor.acquire();
+            if (listenersHoldMonitor) {
+                reportedLink = connectionMonitor.getCurrent();
+            }
+        } else if (!needsMonitor && listenersHoldMonitor) {
+            listenersHoldMonitor = false;
+            connectionMonitor.release();
+        }
+    }
+
+    /** Whether an event should be built and sent; always true until JS subscribes through addListener. */
+    private boolean hasListener(String eventName) {
+        return !listenersTracked || jsListeners.contains(eventName);
+    }
+
+    @ReactMethod
+    public void stopConnectionMonitor(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                stopConnectionMonitor();
+                promise.resolve(null);
+            }
+        });
+    }
+
+    private void stopConnectionMonitor() {
+        if (connectionCoalescer == null) {
+            return;
+        }
+        wifiHandler.removeCallbacks(connectionEmit);
+        connectionCoalescer = null;
+        connectionMonitor.release();
+    }
+
+    private void onLinkChanged(LinkSample sample) {
+        if (listenersHoldMonitor) {
+            reportConnectionTransition(sample);
+        }
+        if (connectionCoalescer == null) {
+            return;
+        }
+        long delayMs = connectionCoalescer.offer(sample);
+        wifiHandler.removeCallbacks(connectionEmit);
+        if (delayMs == 0) {
+            connectionEmit.run();
+        } else if (delayMs > 0) {
+            wifiHandler.postDelayed(connectionEmit, delayMs);
+        }
+    }
+
+    /** Emits wifiConnected / wifiDisconnected when the OS connection state changes. */
+    private void reportConnectionTransition(LinkSample sample) {
+        LinkSample previous = reportedLink;
+        reportedLink = sample;
+        if (sample.connected && (!previous.connected || !Objects.equals(previous.ssid, sample.ssid))) {
+            if (hasListener(EVENT_CONNECTED)) {
+                sendEvent(EVENT_CONNECTED, sample.ssid);
+            }
+        } else if (!sample.connected && previous.connected) {
+            if (hasListener(EVENT_DISCONNECTED)) {
+                sendEvent(EVENT_DISCONNECTED, null);
+            }
+        }
+    }
+
+    private final Runnable connectionEmit = new Runnable() {
+        @Override
+        public void run() {
+            if (connectionCoalescer == null) {
+                return;
+            }
+            LinkSample sample = connectionCoalescer.takePending();
+            if (sample != null && hasListener(EVENT_CONNECTION_CHANGED)) {
+                sendEvent(EVENT_CONNECTION_CHANGED, convertLinkSample(sample));
+            }
+        }
+    };
+
+    private WritableMap convertLinkSample(LinkSample sample) {
+        WritableMap map = Arguments.createMap();
+        map.putBoolean("connected", sample.connected);
+        map.putString("ssid", sample.ssid);
+        map.putString("bssid", sample.bssid);
+        if (sample.connected) {
+            map.putInt("signalStrength", sample.rssi);
+            map.putInt("linkSpeed", sample.linkSpeedMbps);
+            map.putInt("frequency", sample.frequency);
+            ChannelResolver.Band band = ChannelResolver.bandOf(sample.frequency);
+            map.putString("band", band != null ? band.label : null);
+            map.putInt("channel", ChannelResolver.channelOf(sample.frequency));
+        }
+        map.putDouble("timestamp", wallClock.nowMillis());
+        return map;
+    }
+
+    @ReactMethod
+    public void startRoaming(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                Map<String, String> passwords = new HashMap<>();
+                Set<String> candidates = new HashSet<>();
+                ReadableArray networks = options != null && options.hasKey("networks") && !options.isNull("networks")
+                        ? options.getArray("networks") : null;
+                if (networks != null) {
+                    for (int i = 0; i < networks.size(); i++) {
+                        ReadableMap network = networks.getType(i) == ReadableType.Map ? networks.getMap(i) : null;
+                        String ssid = getStringOption(network, "ssid");
+                        if (ssid == null || ssid.isEmpty()) {
+                            promise.reject("INVALID_OPTIONS", "networks[" + i + "].ssid must not be empty");
+                            return;
+                        }
+                        candidates.add(ssid);
+                        String password = getStringOption(network, "password");
+                        if (password != null) {
+                            passwords.put(ssid, password);
+                        }
+                    }
+                }
+                try {
+                    if (getBooleanOption(options, "includeSuggestions", true)) {
+                        candidates.addAll(loadInstalledSuggestions().keySet());
+                    }
+                } catch (Exception e) {
+                    Log.w(TAG, "Could not read installed suggestions for roaming", e);
+                }
+
+                RoamingSelector selector;
+                try {
+                    selector = new RoamingSelector(clock, candidates,
+                            (int) getLongOption(options, "hysteresisDb", RoamingSelector.DEFAULT_HYSTERESIS_DB),
+                            getLongOption(options, "dwellMs", RoamingSelector.DEFAULT_DWELL_MS),
+                            (int) getLongOption(options, "minRssi", RoamingSelector.DEFAULT_MIN_RSSI),
+                            getLongOption(options, "failureWindowMs", RoamingSelector.DEFAULT_FAILURE_WINDOW_MS));
+                } catch (IllegalArgumentException e) {
+                    promise.reject("INVALID_OPTIONS", e.getMessage());
+                    return;
+                }
+                // Passive scans feed the selector, and the monitor tells it which access point is in use
+                if (roamingSelector == null) {
+                    if (!connectionMonitor.acquire()) {
+                        promise.reject("MONITOR_FAILED", "Failed to register the connection monitor");
+                        return;
+                    }
+                    // Roaming still follows the monitor if the receiver cannot register
+                    roamingHoldsReceiver = scanReceiver.acquire();
+                }
+                roamingSelector = selector;
+                roamingPasswords = passwords;
+                roamingAutoConnect = getBooleanOption(options, "autoConnect", false);
+                WritableMap result = Arguments.createMap();
+                result.putInt("networks", candidates.size());
+                promise.resolve(result);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void stopRoaming(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                stopRoaming();
+                promise.resolve(null);
+            }
+        });
+    }
+
+    private void stopRoaming() {
+        if (roamingSelector == null) {
+            return;
+        }
+        roamingSelector = null;
+        roamingPasswords = null;
+        roamingAutoConnect = false;
+        if (roamingHoldsReceiver) {
+            roamingHoldsReceiver = false;
+            scanReceiver.release();
+        }
+        connectionMonitor.release();
+    }
+
+    private void evaluateRoaming(ScanSnapshot snapshot) {
+        if (roamingSelector == null) {
+            return;
+        }
+        LinkSample link = connectionMonitor.getCurrent();
+        RoamingSelector.Recommendation recommendation = roamingSelector.evaluate(
+                snapshot.records, link.connected ? link.bssid : null, signalHistory);
+        if (recommendation == null) {
+            return;
+        }
+        ScanRecord network = recommendation.best.network;
+        // The OS picks the access point within an SSID, so only a different SSID is worth connecting to
+        String password = roamingPasswords.get(network.ssid);
+        boolean connecting = roamingAutoConnect && connectionAttempt == null && password != null
+                && !(link.connected && network.ssid.equals(link.ssid));
+        if (hasListener(EVENT_RECOMMENDED_NETWORK)) {
+            sendEvent(EVENT_RECOMMENDED_NETWORK, convertRecommendation(recommendation, connecting));
+        }
+        if (connecting) {
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Roaming to " + network.ssid);
+            }
+            try {
+                startConnection(network.ssid, password, null, new PromiseImpl(
+                        new Callback() {
+                            @Override
+                            public void invoke(Object... args) {
+                                if (BuildConfig.DEBUG) {
+                                    Log.d(TAG, "Roamed to " + network.ssid);
+                                }
+                            }
+                        },
+                        new Callback() {
+                            @Override
+                            public void invoke(Object... args) {
+                                Log.w(TAG, "Roaming to " + network.ssid + " failed");
+                            }
+                        }));
+            } catch (Exception e) {
+                Log.e(TAG, "Error starting roaming connection", e);
+                if (connectionAttempt != null) {
+                    connectionAttempt.abort();
+                }
+            }
+        }
+    }
+
+    private WritableMap convertRecommendation(RoamingSelector.Recommendation recommendation,
+                                              boolean connecting) {
+        ScanRecord network = recommendation.best.network;
+        WritableMap map = Arguments.createMap();
+        map.putString("ssid", network.ssid);
+        map.putString("bssid", network.bssid);
+        map.putInt("signalStrength", network.level);
+        map.putInt("frequency", network.frequency);
+        map.putInt("channel", network.channel);
+        map.putString("band", network.band != null ? network.band.label : null);
+        map.putDouble("score", recommendation.best.score);
+        if (recommendation.current != null) {
+            map.putString("currentBssid", recommendation.current.network.bssid);
+            map.putDouble("currentScore", recommendation.current.score);
+        } else {
+            map.putNull("currentBssid");
+            map.putNull("currentScore");
+        }
+        map.putBoolean("connecting", connecting);
+        map.putDouble("timestamp", wallClock.nowMillis());
+        return map;
+    }
+
+    /**
+     * Resolves a JS promise from a shared scan round. Each waiter gets its own array because
+     * a WritableArray can only be consumed once.
+     */
+    private class PromiseScanCallback implements ScanResultCache.Callback<ScanSnapshot> {
+        private final Promise promise;
+        private final ScanQuery query;
+        private final ScanPayloadEncoder.Format format;
+
+        PromiseScanCallback(Promise promise, ScanQuery query, ScanPayloadEncoder.Format format) {
+            this.promise = promise;
+            this.query = query;
+            this.format = format;
+        }
+
+        @Override
+        public void onResult(ScanSnapshot snapshot) {
+            promise.resolve(buildScanPayload(query.apply(snapshot.records), format));
+        }
+
+        @Override
+        public void onError(String code, String message) {
+            promise.reject(code, message);
+        }
+    }
+
+    @ReactMethod
+    public void connectToWifi(String ssid, String password, ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (!permissionState.canScan()) {
+                    promise.reject("PERMISSION_DENIED", "Location permission is required for WiFi connection");
+                    return;
+                }
+                if (ssid == null || ssid.isEmpty()) {
+                    promise.reject("INVALID_OPTIONS", "ssid must not be empty");
+                    return;
+                }
+
+                try {
+                    startConnection(ssid, password, options, promise);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error starting connection", e);
+                    if (connectionAttempt != null) {
+                        connectionAttempt.abort();
+                    }
+                    promise.reject("CONNECTION_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts an attempt that settles the promise once the network is connected, or with the
+     * reason it could not be. A newer attempt cancels the pending one.
+     */
+    private void startConnection(String ssid, String password, ReadableMap options, Promise promise) {
+        long timeoutMs = getLongOption(options, "timeoutMs", DEFAULT_CONNECT_TIMEOUT_MS);
+        if (timeoutMs <= 0) {
+            promise.reject("INVALID_OPTIONS", "timeoutMs must be positive");
+            return;
+        }
+        if (connectionAttempt != null) {
+            connectionAttempt.machine.cancel();
+        }
+        releaseConnection();
+
+        ConnectionEventSource source;
+        boolean requireValidation;
+        int networkId = -1;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            // addNetwork is a no-op for apps targeting API 29+
+            boolean wpa3 = options != null && options.hasKey("security") && !options.isNull("security")
+                    && "wpa3".equals(options.getString("security"));
+            source = new NetworkRequestConnectionEventSource(connectivityManager, wifiHandler, password, wpa3);
+            requireValidation = false;
+        } else {
+            WifiConfiguration wifiConfig = new WifiConfiguration();
+            wifiConfig.SSID = "\"" + ssid + "\"";
+            wifiConfig.preSharedKey = "\"" + password + "\"";
+
+            networkId = wifiManager.addNetwork(wifiConfig);
+            if (networkId == -1) {
+                promise.reject("CONNECTION_FAILED", "Failed to add network configuration");
+                return;
+            }
+            source = new LegacyConnectionEventSource(reactContext, wifiHandler, wifiManager, connectivityManager);
+            requireValidation = LegacyConnectionEventSource.supportsValidation()
+                    && (options == null || !options.hasKey("requireValidation")
+                    || options.isNull("requireValidation") || options.getBoolean("requireValidation"));
+        }
+
+        ConnectionAttempt attempt = new ConnectionAttempt(ssid, source, requireValidation, promise);
+        connectionAttempt = attempt;
+        // Listen before enabling so no state change is missed
+        source.start(attempt.machine);
+        attempt.machine.start();
+        wifiHandler.postDelayed(attempt.timeout, timeoutMs);
+
+        if (networkId != -1 && !wifiManager.enableNetwork(networkId, true)) {
+            attempt.abort();
+            promise.reject("CONNECTION_FAILED", "Failed to connect to WiFi network");
+        }
+    }
+
+    /** Drops the network held by the last successful attempt, if its source owns one. */
+    private void releaseConnection() {
+        if (connectedSource != null) {
+            connectedSource.release();
+            connectedSource = null;
+        }
+    }
+
+    /** One pending connectToWifi call. Only touched on the WiFi thread. */
+    private final class ConnectionAttempt implements ConnectionStateMachine.Listener {
+        final String ssid;
+        final ConnectionEventSource source;
+        final ConnectionStateMachine machine;
+        final Promise promise;
+        final long startedAt = clock.nowMillis();
+        final Runnable timeout = new Runnable() {
+            @Override
+            public void run() {
+                machine.onTimeout();
+            }
+        };
+
+        ConnectionAttempt(String ssid, ConnectionEventSource source, boolean requireValidation, Promise promise) {
+            this.ssid = ssid;
+            this.source = source;
+            this.promise = promise;
+            this.machine = new ConnectionStateMachine(ssid, requireValidation, this);
+        }
+
+        @Override
+        public void onStateChanged(ConnectionStateMachine.State state) {
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Connection to " + ssid + ": " + state);
+            }
+        }
+
+        @Override
+        public void onConnected() {
+            end();
+            metrics.connectsSucceeded.incrementAndGet();
+            metrics.connectLatencyMs.record(clock.nowMillis() - startedAt);
+            if (roamingSelector != null) {
+                roamingSelector.recordSuccess(ssid);
+            }
+            connectedSource = source;
+            promise.resolve(true);
+            // Subscribed listeners get this from the connection monitor
+            if (!listenersTracked) {
+                sendEvent(EVENT_CONNECTED, ssid);
+            }
+        }
+
+        @Override
+        public void onFailed(ConnectionStateMachine.Failure failure) {
+            abort();
+            if (failure != ConnectionStateMachine.Failure.CONNECTION_CANCELLED) {
+                metrics.connectsFailed.incrementAndGet();
+            }
+            if (roamingSelector != null && failure != ConnectionStateMachine.Failure.CONNECTION_CANCELLED) {
+                roamingSelector.recordFailure(ssid);
+            }
+            promise.reject(failure.name(), failure.message);
+        }
+
+        /** Stops listening and releases the source without settling the promise. */
+        void abort() {
+            end();
+            source.release();
+        }
+
+        private void end() {
+            wifiHandler.removeCallbacks(timeout);
+            source.stop();
+            if (connectionAttempt == this) {
+                connectionAttempt = null;
+            }
+        }
+    }
+
+    @ReactMethod
+    public void disconnectFromWifi(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (connectionAttempt != null) {
+                        connectionAttempt.machine.cancel();
+                    }
+                    // On API 29+ our network exists only while its request is held
+                    if (connectedSource != null) {
+                        releaseConnection();
+                        promise.resolve(true);
+                        if (!listenersTracked) {
+                            sendEvent(EVENT_DISCONNECTED, null);
+                        }
+                        return;
+                    }
+                    boolean disconnected = wifiManager.disconnect();
+                    if (disconnected) {
+                        promise.resolve(true);
+                        if (!listenersTracked) {
+                            sendEvent(EVENT_DISCONNECTED, null);
+                        }
+                    } else {
+                        promise.reject("DISCONNECTION_FAILED", "Failed to disconnect from WiFi");
+                    }
+                } catch (Exception e) {
+                    promise.reject("DISCONNECTION_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void addNetworkSuggestions(ReadableArray networks, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (networks == null) {
+                    promise.reject("INVALID_OPTIONS", "networks must be an array");
+                    return;
+                }
+                try {
+                    List<NetworkSuggestion> requested = new ArrayList<>(networks.size());
+                    for (int i = 0; i < networks.size(); i++) {
+                        requested.add(parseNetworkSuggestion(networks, i));
+                    }
+                    List<SuggestionPlanner.Entry> entries = SuggestionPlanner.planAdd(requested,
+                            loadInstalledSuggestions(), suggestionStore.newFingerprintMac());
+                    applySuggestionChanges(SuggestionPlanner.pending(entries));
+                    promise.resolve(convertSuggestionResults(entries));
+                } catch (SecurityException e) {
+                    promise.reject("PERMISSION_DENIED", e.getMessage());
+                } catch (Exception e) {
+                    Log.e(TAG, "Error adding network suggestions", e);
+                    promise.reject("SUGGESTION_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void removeNetworkSuggestions(ReadableArray ssids, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (ssids == null) {
+                    promise.reject("INVALID_OPTIONS", "ssids must be an array");
+                    return;
+                }
+                try {
+                    List<String> requested = new ArrayList<>(ssids.size());
+                    for (int i = 0; i < ssids.size(); i++) {
+                        requested.add(ssids.getType(i) == ReadableType.String ? ssids.getString(i) : null);
+                    }
+                    List<SuggestionPlanner.Entry> entries =
+                            SuggestionPlanner.planRemove(requested, loadInstalledSuggestions());
+                    applySuggestionChanges(SuggestionPlanner.pending(entries));
+                    promise.resolve(convertSuggestionResults(entries));
+                } catch (SecurityException e) {
+                    promise.reject("PERMISSION_DENIED", e.getMessage());
+                } catch (Exception e) {
+                    Log.e(TAG, "Error removing network suggestions", e);
+                    promise.reject("SUGGESTION_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static NetworkSuggestion parseNetworkSuggestion(ReadableArray networks, int index) {
+        if (networks.getType(index) != ReadableType.Map) {
+            return new NetworkSuggestion(null, null, null, false);
+        }
+        ReadableMap map = networks.getMap(index);
+        String ssid = getStringOption(map, "ssid");
+        String password = getStringOption(map, "password");
+        boolean hidden = map.hasKey("hidden") && !map.isNull("hidden") && map.getBoolean("hidden");
+        return new NetworkSuggestion(ssid, password,
+                NetworkSuggestion.parseSecurity(getStringOption(map, "security"), password), hidden);
+    }
+
+    /**
+     * Loads what this module installed. From API 30 the platform can list our suggestions, so
+     * records of suggestions it no longer has are dropped.
+     */
+    private Map<String, SuggestionPlanner.Installed> loadInstalledSuggestions() {
+        Map<String, SuggestionPlanner.Installed> installed = suggestionStore.load();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R && !installed.isEmpty()) {
+            Set<String> platformSsids = new HashSet<>();
+            for (WifiNetworkSuggestion suggestion : wifiManager.getNetworkSuggestions()) {
+                platformSsids.add(WifiSsid.unquote(suggestion.getSsid()));
+            }
+            List<String> stale = new ArrayList<>();
+            for (String ssid : installed.keySet()) {
+                if (!platformSsids.contains(ssid)) {
+                    stale.add(ssid);
+                }
+            }
+            if (!stale.isEmpty()) {
+                installed.keySet().removeAll(stale);
+                suggestionStore.update(Collections.<String, SuggestionPlanner.Installed>emptyMap(), stale);
+            }
+        }
+        return installed;
+    }
+
+    /** Applies pending entries, marking the ones the platform refused, and records the rest. */
+    private void applySuggestionChanges(List<SuggestionPlanner.Entry> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, SuggestionPlanner.Installed> stored = new HashMap<>();
+        List<String> removed = new ArrayList<>();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            applyPlatformSuggestions(pending);
+            for (SuggestionPlanner.Entry entry : pending) {
+                if (entry.getStatus() == SuggestionPlanner.Status.REMOVED) {
+                    removed.add(entry.ssid);
+                } else if (entry.isPending()) {
+                    stored.put(entry.ssid, new SuggestionPlanner.Installed(entry.ssid,
+                            entry.suggestion.security, entry.fingerprint, -1));
+                }
+            }
+        } else {
+            applyLegacyConfigurations(pending, stored, removed);
+        }
+        suggestionStore.update(stored, removed);
+    }
+
+    /** One removal call and one addition call for the whole batch. */
+    private void applyPlatformSuggestions(List<SuggestionPlanner.Entry> pending) {
+        List<WifiNetworkSuggestion> additions = new ArrayList<>();
+        List<SuggestionPlanner.Entry> addEntries = new ArrayList<>();
+        List<WifiNetworkSuggestion> removals = new ArrayList<>();
+        List<SuggestionPlanner.Entry> removeEntries = new ArrayList<>();
+        for (SuggestionPlanner.Entry entry : pending) {
+            if (entry.getStatus() == SuggestionPlanner.Status.REMOVED) {
+                removals.add(buildSuggestionForRemoval(entry.installed));
+                removeEntries.add(entry);
+                continue;
+            }
+            // API 30+ replaces a suggestion with the same SSID and security; API 29 reports a
+            // duplicate, and no release replaces one installed under another security type
+            if (entry.getStatus() == SuggestionPlanner.Status.UPDATED
+                    && (Build.VERSION.SDK_INT < Build.VERSION_CODES.R || entry.changesSecurity())) {
+                removals.add(buildSuggestionForRemoval(entry.installed));
+            }
+            additions.add(buildSuggestion(entry.suggestion));
+            addEntries.add(entry);
+        }
+        if (!removals.isEmpty()) {
+            int status = wifiManager.removeNetworkSuggestions(removals);
+            if (status != WifiManager.STATUS_NETWORK_SUGGESTIONS_SUCCESS) {
+                failSuggestions(removeEntries, status);
+            }
+        }
+        if (!additions.isEmpty()) {
+            int status = wifiManager.addNetworkSuggestions(additions);
+            if (status != WifiManager.STATUS_NETWORK_SUGGESTIONS_SUCCESS) {
+                failSuggestions(addEntries, status);
+            }
+        }
+    }
+
+    private static WifiNetworkSuggestion buildSuggestion(NetworkSuggestion network) {
+        WifiNetworkSuggestion.Builder builder = new WifiNetworkSuggestion.Builder()
+                .setSsid(network.ssid)
+                .setIsHiddenSsid(network.hidden);
+        if (network.security == NetworkSuggestion.Security.WPA2) {
+            builder.setWpa2Passphrase(network.password);
+        } else if (network.security == NetworkSuggestion.Security.WPA3) {
+            builder.setWpa3Passphrase(network.password);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Suggestions are matched by SSID and security type, not passphrase, so a placeholder
+     * passphrase identifies an installed suggestion whose password was never stored.
+     */
+    private static WifiNetworkSuggestion buildSuggestionForRemoval(SuggestionPlanner.Installed installed) {
+        String placeholder = installed.security == NetworkSuggestion.Security.OPEN ? null : "00000000";
+        return buildSuggestion(new NetworkSuggestion(installed.ssid, placeholder, installed.security, false));
+    }
+
+    private static void failSuggestions(List<SuggestionPlanner.Entry> entries, int status) {
+        String code;
+        String message;
+        switch (status) {
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_APP_DISALLOWED:
+                code = "APP_DISALLOWED";
+                message = "The user has disallowed suggestions from this app";
+                break;
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_ADD_DUPLICATE:
+                code = "DUPLICATE";
+                message = "The suggestion is already installed";
+                break;
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_ADD_EXCEEDS_MAX_PER_APP:
+                code = "EXCEEDS_MAX_PER_APP";
+                message = "The app would exceed its suggestion limit";
+                break;
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_REMOVE_INVALID:
+                code = "NOT_INSTALLED";
+                message = "The suggestion is not installed";
+                break;
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_ADD_NOT_ALLOWED:
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_ADD_INVALID:
+                code = "REJECTED";
+                message = "The platform rejected the suggestion";
+                break;
+            default:
+                code = "SUGGESTION_ERROR";
+                message = "Network suggestion request failed with status " + status;
+                break;
+        }
+        for (SuggestionPlanner.Entry entry : entries) {
+            entry.fail(code, message);
+        }
+    }
+
+    /** Before API 29 each network becomes a saved configuration. */
+    private void applyLegacyConfigurations(List<SuggestionPlanner.Entry> pending,
+                                           Map<String, SuggestionPlanner.Installed> stored,
+                                           List<String> removed) {
+        for (SuggestionPlanner.Entry entry : pending) {
+            NetworkSuggestion network = entry.suggestion;
+            // Checked first, so an update to WPA3 keeps the configuration it would replace
+            if (network != null && network.security == NetworkSuggestion.Security.WPA3) {
+                entry.fail("UNSUPPORTED_SECURITY", "WPA3 requires Android 10 or later");
+                continue;
+            }
+            if (entry.installed != null) {
+                if (!wifiManager.removeNetwork(entry.installed.networkId)) {
+                    // Adding anyway would leave two configurations for the SSID
+                    entry.fail("REMOVE_FAILED", "Failed to remove network configuration");
+                    continue;
+                }
+                removed.add(entry.ssid);
+                if (entry.getStatus() == SuggestionPlanner.Status.REMOVED) {
+                    continue;
+                }
+            }
+            int networkId = wifiManager.addNetwork(toWifiConfiguration(network));
+            if (networkId == -1) {
+                entry.fail("ADD_FAILED", "Failed to add network configuration");
+                continue;
+            }
+            stored.put(entry.ssid, new SuggestionPlanner.Installed(entry.ssid, network.security,
+                    entry.fingerprint, networkId));
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            wifiManager.saveConfiguration();
+        }
+    }
+
+    private static WifiConfiguration toWifiConfiguration(NetworkSuggestion network) {
+        WifiConfiguration config = new WifiConfiguration();
+        config.SSID = "\"" + network.ssid + "\"";
+        config.hiddenSSID = network.hidden;
+        if (network.security == NetworkSuggestion.Security.OPEN) {
+            config.allowedKeyManagement.set(WifiConfiguration.KeyMgmt.NONE);
+        } else if (network.password.length() == 64) {
+            // 64 hex digits is a raw PSK and must not be quoted
+            config.preSharedKey = network.password;
+        } else {
+            config.preSharedKey = "\"" + network.password + "\"";
+        }
+        return config;
+    }
+
+    private static WritableArray convertSuggestionResults(List<SuggestionPlanner.Entry> entries) {
+        WritableArray results = Arguments.createArray();
+        for (SuggestionPlanner.Entry entry : entries) {
+            WritableMap result = Arguments.createMap();
+            result.putInt("index", entry.index);
+            result.putString("ssid", entry.ssid);
+            result.putString("status", entry.getStatus().label());
+            if (entry.getErrorCode() != null) {
+                result.putString("code", entry.getErrorCode());
+                result.putString("message", entry.getMessage());
+            }
+            results.pushMap(result);
+        }
+        return results;
+    }
+
+    @ReactMethod
+    public void getCurrentWifiInfo(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                Set<WifiInfoField> fields;
+                try {
+                    fields = parseWifiInfoFields(options);
+                } catch (IllegalArgumentException e) {
+                    promise.reject("INVALID_OPTIONS", e.getMessage());
+                    return;
+                }
+                try {
+                    // Polling reads share the monitor's snapshot, which its callbacks refresh on
+                    // every network, capability or RSSI change; the hold lapses once reads stop
+                    if (!wifiInfoHoldsMonitor) {
+                        wifiInfoHoldsMonitor = connectionMonitor.acquire();
+                    }
+                    if (wifiInfoHoldsMonitor) {
+                        wifiHandler.removeCallbacks(wifiInfoRelease);
+                        wifiHandler.postDelayed(wifiInfoRelease, WIFI_INFO_IDLE_RELEASE_MS);
+                    }
+                    WifiInfo wifiInfo;
+                    String ssid;
+                    if (connectionMonitor.isRegistered()) {
+                        wifiInfo = connectionMonitor.getWifiInfo();
+                        ssid = connectionMonitor.getCurrent().ssid;
+                    } else {
+                        wifiInfo = wifiManager.getConnectionInfo();
+                        if (wifiInfo != null && wifiInfo.getNetworkId() == -1) {
+                            wifiInfo = null;
+                        }
+                        ssid = wifiInfo != null ? WifiSsid.unquote(wifiInfo.getSSID()) : null;
+                    }
+                    promise.resolve(wifiInfo != null ? convertWifiInfo(wifiInfo, ssid, fields) : null);
+                } catch (Exception e) {
+                    promise.reject("INFO_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static Set<WifiInfoField> parseWifiInfoFields(ReadableMap options) {
+        if (options == null || !options.hasKey("fields") || options.isNull("fields")) {
+            return WifiInfoField.DEFAULTS;
+        }
+        ReadableArray values = options.getArray("fields");
+        if (values.size() == 0) {
+            throw new IllegalArgumentException("fields must not be empty");
+        }
+        Set<WifiInfoField> fields = EnumSet.noneOf(WifiInfoField.class);
+        for (int i = 0; i < values.size(); i++) {
+            fields.add(WifiInfoField.fromLabel(values.getString(i)));
+        }
+        return fields;
+    }
+
+    /** Builds the info map, gathering only what the requested fields need. */
+    private WritableMap convertWifiInfo(WifiInfo wifiInfo, String ssid, Set<WifiInfoField> fields) {
+        WritableMap info = Arguments.createMap();
+        LinkProperties linkProperties = null;
+        for (WifiInfoField field : fields) {
+            if (field.needsLinkProperties()) {
+                linkProperties = getWifiLinkProperties();
+                break;
+            }
+        }
+        boolean hasLinkSpeeds = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
+        for (WifiInfoField field : fields) {
+            switch (field) {
+                case SSID:
+                    info.putString(field.label, ssid);
+                    break;
+                case BSSID:
+                    info.putString(field.label, wifiInfo.getBSSID());
+                    break;
+                case SIGNAL_STRENGTH:
+                    info.putInt(field.label, wifiInfo.getRssi());
+                    break;
+                case NETWORK_ID:
+                    info.putInt(field.label, wifiInfo.getNetworkId());
+                    break;
+                case LINK_SPEED:
+                    info.putInt(field.label, wifiInfo.getLinkSpeed());
+                    break;
+                case TX_LINK_SPEED:
+                    putIntOrNull(info, field.label, hasLinkSpeeds ? wifiInfo.getTxLinkSpeedMbps() : -1);
+                    break;
+                case RX_LINK_SPEED:
+                    putIntOrNull(info, field.label, hasLinkSpeeds ? wifiInfo.getRxLinkSpeedMbps() : -1);
+                    break;
+                case FREQUENCY:
+                    info.putInt(field.label, wifiInfo.getFrequency());
+                    break;
+                case BAND:
+                    ChannelResolver.Band band = ChannelResolver.bandOf(wifiInfo.getFrequency());
+                    info.putString(field.label, band != null ? band.label : null);
+                    break;
+                case CHANNEL:
+                    info.putInt(field.label, ChannelResolver.channelOf(wifiInfo.getFrequency()));
+                    break;
+                case WIFI_STANDARD:
+                    info.putString(field.label, Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                            ? wifiStandardLabel(wifiInfo.getWifiStandard()) : null);
+                    break;
+                case IP_ADDRESS:
+                    info.putString(field.label, ipAddressOf(linkProperties, wifiInfo));
+                    break;
+                case DNS_SERVERS:
+                    WritableArray dnsServers = Arguments.createArray();
+                    if (linkProperties != null) {
+                        for (InetAddress address : linkProperties.getDnsServers()) {
+                            dnsServers.pushString(address.getHostAddress());
+                        }
+                    }
+                    info.putArray(field.label, dnsServers);
+                    break;
+                case THROUGHPUT_ESTIMATE:
+                    info.putDouble(field.label, estimateThroughputMbps(wifiInfo));
+                    break;
+            }
+        }
+        return info;
+    }
+
+    private static void putIntOrNull(WritableMap map, String key, int value) {
+        if (value >= 0) {
+            map.putInt(key, value);
+        } else {
+            map.putNull(key);
+        }
+    }
+
+    private final Runnable wifiInfoRelease = new Runnable() {
+        @Override
+        public void run() {
+            releaseWifiInfoMonitor();
+        }
+    };
+
+    private void releaseWifiInfoMonitor() {
+        wifiHandler.removeCallbacks(wifiInfoRelease);
+        if (wifiInfoHoldsMonitor) {
+            wifiInfoHoldsMonitor = false;
+            connectionMonitor.release();
+        }
+    }
+
+    /** Cached link properties, or a direct read if the monitor has not delivered any. */
+    private LinkProperties getWifiLinkProperties() {
+        LinkProperties linkProperties = connectionMonitor.getLinkProperties();
+        if (linkProperties != null) {
+            return linkProperties;
+        }
+        Network network = getActiveWifiNetwork();
+        return network != null ? connectivityManager.getLinkProperties(network) : null;
+    }
+
+    /** Cached capabilities, or a direct read if the monitor has not delivered any. */
+    private NetworkCapabilities getWifiCapabilities() {
+        NetworkCapabilities capabilities = connectionMonitor.getCapabilities();
+        if (capabilities != null) {
+            return capabilities;
+        }
+        Network network = getActiveWifiNetwork();
+        return network != null ? connectivityManager.getNetworkCapabilities(network) : null;
+    }
+
+    private Network getActiveWifiNetwork() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return null;
+        }
+        Network network = connectivityManager.getActiveNetwork();
+        NetworkCapabilities capabilities = network != null ? connectivityManager.getNetworkCapabilities(network) : null;
+        if (capabilities == null || !capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+            return null;
+        }
+        return network;
+    }
+
+    private static String ipAddressOf(LinkProperties linkProperties, WifiInfo wifiInfo) {
+        if (linkProperties != null) {
+            String fallback = null;
+            for (LinkAddress linkAddress : linkProperties.getLinkAddresses()) {
+                InetAddress address = linkAddress.getAddress();
+                if (address instanceof Inet4Address) {
+                    return address.getHostAddress();
+                }
+                if (fallback == null) {
+                    fallback = address.getHostAddress();
+                }
+            }
+            if (fallback != null) {
+                return fallback;
+            }
+        }
+        // WifiInfo reports IPv4 as a little-endian int
+        int ip = wifiInfo.getIpAddress();
+        if (ip == 0) {
+            return null;
+        }
+        return (ip & 0xff) + "." + ((ip >> 8) & 0xff) + "." + ((ip >> 16) & 0xff) + "." + ((ip >>> 24) & 0xff);
+    }
+
+    /**
+     * Rough TCP throughput in Mbps: about 60% of the receive PHY rate is left after MAC and
+     * protocol overhead, capped by the platform's downstream bandwidth estimate when it has one.
+     */
+    private double estimateThroughputMbps(WifiInfo wifiInfo) {
+        int phyRate = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q ? wifiInfo.getRxLinkSpeedMbps() : -1;
+        if (phyRate <= 0) {
+            phyRate = wifiInfo.getLinkSpeed();
+        }
+        double estimate = Math.max(0, phyRate) * THROUGHPUT_EFFICIENCY;
+        NetworkCapabilities capabilities = getWifiCapabilities();
+        if (capabilities != null && capabilities.getLinkDownstreamBandwidthKbps() > 0) {
+            estimate = Math.min(estimate, capabilities.getLinkDownstreamBandwidthKbps() / 1000.0);
+        }
+        return Math.round(estimate * 10) / 10.0;
+    }
+
+    private static String wifiStandardLabel(int standard) {
+        switch (standard) {
+            case ScanResult.WIFI_STANDARD_LEGACY:
+                return "legacy";
+            case ScanResult.WIFI_STANDARD_11N:
+                return "11n";
+            case ScanResult.WIFI_STANDARD_11AC:
+                return "11ac";
+            case ScanResult.WIFI_STANDARD_11AX:
+                return "11ax";
+            case ScanResult.WIFI_STANDARD_11AD:
+                return "11ad";
+            case ScanResult.WIFI_STANDARD_11BE:
+                return "11be";
+            default:
+                return null;
+        }
+    }
+
+    @ReactMethod
+    public void isWifiEnabled(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    boolean enabled = backend.isWifiEnabled();
+                    promise.resolve(enabled);
+                } catch (Exception e) {
+                    promise.reject("ENABLED_CHECK_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    // Synchronous reads run on the JS thread, so they only touch volatile or thread-safe state
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean isWifiEnabledSync() {
+        // One short binder call; the service answers from its cached adapter state
+        return backend.isWifiEnabled();
+    }
+
+    /** The monitored link, or null while no monitor, listener or getCurrentWifiInfo() holds it. */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getCachedLinkState() {
+        LinkSample sample = connectionMonitor.getPublished();
+        return sample != null ? convertLinkSample(sample) : null;
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getPermissionStatusSync() {
+        return buildPermissionStatus();
+    }
+
+    /** The last delivered scan in the binary format, so no per-network maps cross into JS. */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getLastScanResultsSync() {
+        ScanSnapshot snapshot = lastScan;
+        if (snapshot == null) {
+            return null;
+        }
+        WritableMap payload = convertScanResultsToBinary(snapshot.records);
+        payload.putDouble("timestamp", snapshot.timestampMillis);
+        return payload;
+    }
+
+    @ReactMethod
+    public void setWifiEnabled(boolean enabled, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    boolean success = backend.setWifiEnabled(enabled);
+                    promise.resolve(success);
+                } catch (Exception e) {
+                    promise.reject("ENABLE_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void checkPermissions(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    promise.resolve(buildPermissionStatus());
+                } catch (Exception e) {
+                    promise.reject("PERMISSION_CHECK_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    /** Reads only the cached permission state and the adapter state; safe on any thread. */
+    private WritableMap buildPermissionStatus() {
+        WritableMap permissionStatus = Arguments.createMap();
+        permissionStatus.putBoolean("hasWifiState",
+                permissionState.isGranted(Manifest.permission.ACCESS_WIFI_STATE));
+        permissionStatus.putBoolean("hasChangeWifiState",
+                permissionState.isGranted(Manifest.permission.CHANGE_WIFI_STATE));
+        permissionStatus.putBoolean("hasFineLocation",
+                permissionState.isGranted(Manifest.permission.ACCESS_FINE_LOCATION));
+        permissionStatus.putBoolean("hasCoarseLocation",
+                permissionState.isGranted(Manifest.permission.ACCESS_COARSE_LOCATION));
+        permissionStatus.putBoolean("hasNetworkState",
+                permissionState.isGranted(Manifest.permission.ACCESS_NETWORK_STATE));
+        permissionStatus.putBoolean("hasChangeNetworkState",
+                permissionState.isGranted(Manifest.permission.CHANGE_NETWORK_STATE));
+        // NEARBY_WIFI_DEVICES only exists on Android 13+ (API 33+)
+        permissionStatus.putBoolean("hasNearbyWifiDevices",
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                        && permissionState.isGranted(Manifest.permission.NEARBY_WIFI_DEVICES));
+        permissionStatus.putBoolean("isWifiEnabled", backend.isWifiEnabled());
+        permissionStatus.putBoolean("canScan", permissionState.canScan());
+        return permissionStatus;
+    }
+
+    @ReactMethod
+    public void requestPermissions(Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (permissionState.canScan()) {
+                        promise.resolve(true);
+                        return;
+                    }
+                    // false means a dialog is showing; the result is picked up on resume
+                    permissionState.startRequest(reactContext.getCurrentActivity());
+                    promise.resolve(false);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error requesting permissions", e);
+                    promise.reject("PERMISSION_REQUEST_ERROR", e.getMessage());
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void scanWifiNetworksWithPermissionRequest(ReadableMap options, Promise promise) {
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (BuildConfig.DEBUG) {
+                    Log.d(TAG, "Starting WiFi scan with permission request...");
+                }
+
+                // Check if WiFi is enabled first
+                if (!backend.isWifiEnabled()) {
+                    Log.e(TAG, "WiFi is not enabled");
+                    promise.reject("WIFI_DISABLED", "WiFi is not enabled. Please enable WiFi first.");
+                    return;
+                }
+
+                long timeoutMs = getLongOption(options, "timeoutMs", DEFAULT_PERMISSION_TIMEOUT_MS);
+                if (timeoutMs <= 0) {
+                    promise.reject("INVALID_OPTIONS", "timeoutMs must be positive");
+                    return;
+                }
+                PermissionScanWaiter waiter = new PermissionScanWaiter(promise);
+                try {
+                    permissionState.request(reactContext.getCurrentActivity(), waiter);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error requesting permissions", e);
+                    promise.reject("PERMISSION_REQUEST_ERROR", e.getMessage());
+                    return;
+                }
+                if (!waiter.done) {
+                    if (BuildConfig.DEBUG) {
+                        Log.d(TAG, "Waiting for permission result...");
+                    }
+                    wifiHandler.postDelayed(waiter.timeout, timeoutMs);
+                }
+            }
+        });
+    }
+
+    /** Starts the scan as soon as the permission request completes, or rejects at the deadline. */
+    private final class PermissionScanWaiter implements PermissionState.RequestCallback {
+        final Promise promise;
+        boolean done = false;
+        final Runnable timeout = new Runnable() {
+            @Override
+            public void run() {
+                done = true;
+                permissionState.cancel(PermissionScanWaiter.this);
+                promise.reject("PERMISSION_TIMEOUT", "Timed out waiting for the permission request to complete");
+            }
+        };
+
+        PermissionScanWaiter(Promise promise) {
+            this.promise = promise;
+        }
+
+        @Override
+        public void onPermissionResult(boolean canScan) {
+            done = true;
+            wifiHandler.removeCallbacks(timeout);
+            if (canScan) {
+                if (BuildConfig.DEBUG) {
+                    Log.d(TAG, "Permissions granted, proceeding with scan...");
+                }
+                scanWifiNetworks(null, promise);
+            } else {
+                Log.e(TAG, "Permissions not granted after request");
+                promise.reject("PERMISSION_DENIED", "Required permissions not granted after request. Please grant location permissions manually.");
+            }
+        }
+    }
+
+    private Object buildScanPayload(List<ScanRecord> records, ScanPayloadEncoder.Format format) {
+        switch (format) {
+            case COLUMNAR:
+                return convertScanResultsToColumns(records);
+            case BINARY:
+                return convertScanResultsToBinary(records);
+            case MAPS:
+            default:
+                return convertScanResultsToArray(records);
+        }
+    }
+
+    private WritableMap convertScanResultsToBinary(List<ScanRecord> records) {
+        long startedAt = System.nanoTime();
+        String data = Base64.encodeToString(ScanPayloadEncoder.encodeBinary(records), Base64.NO_WRAP);
+        WritableMap payload = Arguments.createMap();
+        payload.putString("format", "binary");
+        payload.putInt("count", records.size());
+        payload.putString("data", data);
+        metrics.conversionMicros.record((System.nanoTime() - startedAt) / 1000);
+        metrics.payloadBytes.record(data.length());
+        return payload;
+    }
+
+    private WritableMap convertScanResultsToColumns(List<ScanRecord> records) {
+        long startedAt = System.nanoTime();
+        ScanPayloadEncoder.Columns columns = ScanPayloadEncoder.encodeColumns(records);
+        WritableMap payload = Arguments.createMap();
+        payload.putString("format", "columnar");
+        payload.putInt("count", columns.count);
+        WritableArray strings = Arguments.createArray();
+        for (String value : columns.strings) {
+            strings.pushString(value);
+        }
+        payload.putArray("strings", strings);
+        payload.putArray("ssid", toIntArray(columns.ssid));
+        payload.putArray("bssid", toIntArray(columns.bssid));
+        payload.putArray("capabilities", toIntArray(columns.capabilities));
+        payload.putArray("signalStrength", toIntArray(columns.signalStrength));
+        payload.putArray("frequency", toIntArray(columns.frequency));
+        payload.putArray("channel", toIntArray(columns.channel));
+        payload.putArray("band", toIntArray(columns.band));
+        payload.putArray("centerChannel", toIntArray(columns.centerChannel));
+        payload.putArray("channelWidth", toIntArray(columns.channelWidth));
+        payload.putArray("security", toIntArray(columns.security));
+        payload.putArray("securityFlags", toIntArray(columns.securityFlags));
+        metrics.conversionMicros.record((System.nanoTime() - startedAt) / 1000);
+        metrics.payloadBytes.record(ScanPayloadEncoder.estimateColumnBytes(columns));
+        return payload;
+    }
+
+    private static WritableArray toIntArray(int[] values) {
+        WritableArray array = Arguments.createArray();
+        for (int value : values) {
+            array.pushInt(value);
+        }
+        return array;
+    }
+
+    private WritableArray convertScanResultsToArray(List<ScanRecord> records) {
+        long startedAt = System.nanoTime();
+        WritableArray networks = Arguments.createArray();
+        for (ScanRecord record : records) {
+            WritableMap network = Arguments.createMap();
+            network.putString("ssid", record.ssid);
+            network.putString("bssid", record.bssid);
+            network.putInt("signalStrength", record.level);
+            network.putString("capabilities", record.capabilities);
+            network.putString("security", record.security.label);
+            network.putInt("securityFlags", record.security.flags);
+            network.putInt("frequency", record.frequency);
+            network.putInt("channel", record.channel);
+            if (record.band != null) {
+                network.putString("band", record.band.label);
+            } else {
+                network.putNull("band");
+            }
+            network.putInt("centerChannel", record.centerChannel);
+            network.putInt("channelWidth", record.channelWidth);
+            networks.pushMap(network);
+        }
+        metrics.conversionMicros.record((System.nanoTime() - startedAt) / 1000);
+        metrics.payloadBytes.record(ScanPayloadEncoder.estimateMapBytes(records));
+        return networks;
+    }
+
+    /** @throws IllegalArgumentException for unknown values or an invalid SSID pattern */
+    private static ScanQuery parseScanQuery(ReadableMap options) {
+        if (options == null) {
+            return ScanQuery.ALL;
+        }
+        ScanQuery.Builder builder = new ScanQuery.Builder();
+        if (options.hasKey("minRssi") && !options.isNull("minRssi")) {
+            builder.minRssi(options.getInt("minRssi"));
+        }
+        if (options.hasKey("bands") && !options.isNull("bands")) {
+            ReadableArray bands = options.getArray("bands");
+            for (int i = 0; i < bands.size(); i++) {
+                builder.band(ChannelResolver.Band.fromLabel(bands.getString(i)));
+            }
+        }
+        if (options.hasKey("security") && !options.isNull("security")) {
+            ReadableArray security = options.getArray("security");
+            for (int i = 0; i < security.size(); i++) {
+                builder.security(ScanQuery.parseSecurity(security.getString(i)));
+            }
+        }
+        if (options.hasKey("ssidPrefix") && !options.isNull("ssidPrefix")) {
+            builder.ssidPrefix(options.getString("ssidPrefix"));
+        }
+        if (options.hasKey("ssidPattern") && !options.isNull("ssidPattern")) {
+            builder.ssidPattern(options.getString("ssidPattern"));
+        }
+        if (options.hasKey("excludeHidden") && !options.isNull("excludeHidden")) {
+            builder.excludeHidden(options.getBoolean("excludeHidden"));
+        }
+        if (options.hasKey("dedupeBySsid") && !options.isNull("dedupeBySsid")) {
+            builder.dedupeBySsid(options.getBoolean("dedupeBySsid"));
+        }
+        if (options.hasKey("sortBy") && !options.isNull("sortBy")) {
+            builder.sortBy(ScanQuery.parseSortKey(options.getString("sortBy")));
+        }
+        if (options.hasKey("sortOrder") && !options.isNull("sortOrder")) {
+            builder.descending(ScanQuery.parseSortOrder(options.getString("sortOrder")));
+        }
+        builder.limit((int) getLongOption(options, "limit", 0));
+        return builder.build();
+    }
+
+    private static String getStringOption(ReadableMap options, String key) {
+        if (options == null || !options.hasKey(key) || options.isNull(key)) {
+            return null;
+        }
+        return options.getString(key);
+    }
+
+    private static boolean getBooleanOption(ReadableMap options, String key, boolean defaultValue) {
+        if (options == null || !options.hasKey(key) || options.isNull(key)) {
+            return defaultValue;
+        }
+        return options.getBoolean(key);
+    }
+
+    private static long getLongOption(ReadableMap options, String key, long defaultValue) {
+        if (options == null || !options.hasKey(key) || options.isNull(key)) {
+            return defaultValue;
+        }
+        return (long) options.getDouble(key);
+    }
+
+    private void sendEvent(String eventName, Object data) {
+        reactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(eventName, data);
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        super.onCatalystInstanceDestroy();
+        reactContext.removeLifecycleEventListener(this);
+        analysisExecutor.shutdownNow();
+        // Tear down on the WiFi thread so it cannot race with a task already queued there
+        runOnWifiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    stopStream();
+                    stopConnectionMonitor();
+                    stopRoaming();
+                    releaseWifiInfoMonitor();
+                    connectionMonitor.releaseAll();
+                    if (connectionAttempt != null) {
+                        connectionAttempt.machine.cancel();
+                    }
+                    releaseConnection();
+                    closeScanLog();
+
+                    // Clean up any ongoing scan
+                    if (scanCache.isInFlight()) {
+                        Log.w(TAG, "Module destroyed while scan was in progress");
+                        failScan("SCAN_CANCELLED", "WiFi manager was destroyed while scanning");
+                    }
+
+                    // Unregister receiver if still registered
+                    scanReceiver.releaseAll();
+                    jsListeners.clear();
+                    listenersHoldReceiver = false;
+                    listenersHoldMonitor = false;
+                    roamingHoldsReceiver = false;
+                } catch (Exception e) {
+                    Log.e(TAG, "Error during module destruction", e);
+                }
+            }
+        });
+        wifiThread.quitSafely();
+    }
+
+    /** Flushes and closes the log, then lets its executor finish. Runs on the WiFi thread. */
+    private void closeScanLog() {
+        final ScanLog log = scanLog;
+        scanLog = null;
+        if (log != null) {
+            try {
+                scanLogExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            log.close();
+                        } catch (IOException e) {
+                            Log.e(TAG, "Failed to close scan log", e);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                Log.w(TAG, "Scan log executor is shut down");
             }
-            
-            // Unregister receiver if still registered
-            unregisterScanReceiver();
-        } catch (Exception e) {
-            Log.e(TAG, "Error during module destruction", e);
         }
+        // Queued appends and the close still run; nothing new is accepted
+        scanLogExecutor.shutdown();
     }
-} 
\ No newline at end of file
+}
@@ -1,28 +1,44 @@
 package com.wifimanager;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import com.facebook.react.ReactPackage;
+import com.facebook.react.TurboReactPackage;
 import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.uimanager.ViewManager;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
-public class WifiManagerPackage implements ReactPackage {
-    @NonNull
+/** Registers the module as a TurboModule on the New Architecture and as a bridge module otherwise. */
+public class WifiManagerPackage extends TurboReactPackage {
+    @Nullable
     @Override
-    public List<NativeModule> createNativeModules(@NonNull ReactApplicationContext reactContext) {
-        List<NativeModule> modules = new ArrayList<>();
-        modules.add(new WifiManagerModule(reactContext));
-        return modules;
+    public NativeModule getModule(@NonNull String name, @NonNull ReactApplicationContext reactContext) {
+        if (WifiManagerModule.NAME.equals(name)) {
+            return new WifiManagerModule(reactContext);
+        }
+        return null;
     }
 
-    @NonNull
     @Override
-    public List<ViewManager> createViewManagers(@NonNull ReactApplicationContext reactContext) {
-        return Collections.emptyList();
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        return new ReactModuleInfoProvider() {
+            @Override
+            public Map<String, ReactModuleInfo> getReactModuleInfos() {
+                Map<String, ReactModuleInfo> moduleInfos = new HashMap<>();
+                moduleInfos.put(WifiManagerModule.NAME, new ReactModuleInfo(
+                        WifiManagerModule.NAME,
+                        WifiManagerModule.class.getName(),
+                        false, // canOverrideExistingModule
+                        false, // needsEagerInit
+                        false, // hasConstants
+                        false, // isCxxModule
+                        BuildConfig.IS_NEW_ARCHITECTURE_ENABLED));
+                return moduleInfos;
+            }
+        };
     }
-} 
\ No newline at end of file
+}
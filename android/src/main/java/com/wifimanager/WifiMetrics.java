@@ -0,0 +1,174 @@
+package com.wifimanager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counters and histograms describing how the module behaves in production.
+ *
+ * Recording is a handful of atomic increments with no allocation or locking, so it can sit on
+ * the scan and connection paths of release builds. Snapshots and {@link #reset()} read or clear
+ * each value atomically but not all of them together; a scan recorded concurrently with a
+ * snapshot may be counted in some values and not yet in others.
+ */
+final class WifiMetrics {
+    final AtomicLong scansStarted = new AtomicLong();
+    /** Scans answered from the last results because the local scan budget was used up */
+    final AtomicLong scanBudgetExhausted = new AtomicLong();
+    /** Scans the OS refused or answered without updating the results */
+    final AtomicLong scansThrottled = new AtomicLong();
+    final AtomicLong scanTimeouts = new AtomicLong();
+    final AtomicLong connectsSucceeded = new AtomicLong();
+    final AtomicLong connectsFailed = new AtomicLong();
+    /** startScan() to the results broadcast, in ms */
+    final Histogram scanLatencyMs = new Histogram();
+    /** Networks per delivered scan */
+    final Histogram scanResults = new Histogram();
+    /** Time to convert scan records to bridge payloads, in microseconds */
+    final Histogram conversionMicros = new Histogram();
+    /** Estimated serialized size of scan payloads sent over the bridge, in bytes */
+    final Histogram payloadBytes = new Histogram();
+    /** connectToWifi() to connected (validated where required), in ms */
+    final Histogram connectLatencyMs = new Histogram();
+    private final Clock wallClock;
+    private final AtomicLong resetAt;
+
+    WifiMetrics(Clock wallClock) {
+        this.wallClock = wallClock;
+        this.resetAt = new AtomicLong(wallClock.nowMillis());
+    }
+
+    /** Epoch time in milliseconds of construction or the last reset. */
+    long getResetAt() {
+        return resetAt.get();
+    }
+
+    void reset() {
+        scansStarted.set(0);
+        scanBudgetExhausted.set(0);
+        scansThrottled.set(0);
+        scanTimeouts.set(0);
+        connectsSucceeded.set(0);
+        connectsFailed.set(0);
+        scanLatencyMs.reset();
+        scanResults.reset();
+        conversionMicros.reset();
+        payloadBytes.reset();
+        connectLatencyMs.reset();
+        resetAt.set(wallClock.nowMillis());
+    }
+
+    /**
+     * Log-linear histogram of non-negative longs in the style of HdrHistogram.
+     *
+     * Values below 16 get a bucket each; above that every power of two is split into 16
+     * buckets, so a bucket is at most 1/16 (6.25%) of its values wide. 608 buckets cover the
+     * whole long range up to 2^41; larger values share the last bucket.
+     */
+    static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAX_MAGNITUDE = 40;
+        private static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            counts.incrementAndGet(indexOf(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            long current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // Retry until we either raised the maximum or someone else raised it past us
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+            count.set(0);
+            sum.set(0);
+            max.set(0);
+        }
+
+        Snapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+                total += copy[i];
+            }
+            long maxValue = max.get();
+            return new Snapshot(total, total == 0 ? 0 : (double) sum.get() / total, maxValue,
+                    percentile(copy, total, 0.5, maxValue), percentile(copy, total, 0.9, maxValue),
+                    percentile(copy, total, 0.99, maxValue));
+        }
+
+        private static long percentile(long[] copy, long total, double quantile, long maxValue) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < copy.length; i++) {
+                seen += copy[i];
+                if (seen >= rank) {
+                    // Report the bucket's midpoint, but never more than the largest value recorded
+                    return Math.min(maxValue, (lowestOf(i) + highestOf(i)) / 2);
+                }
+            }
+            return maxValue;
+        }
+
+        static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros(value);
+            if (magnitude > MAX_MAGNITUDE) {
+                return BUCKETS - 1;
+            }
+            int shift = magnitude - SUB_BUCKET_BITS;
+            int sub = (int) (value >>> shift) - SUB_BUCKETS;
+            return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+        }
+
+        static long lowestOf(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+            int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + sub) << shift;
+        }
+
+        static long highestOf(int index) {
+            return index < SUB_BUCKETS ? index : lowestOf(index) + (1L << ((index - SUB_BUCKETS) / SUB_BUCKETS)) - 1;
+        }
+    }
+
+    static final class Snapshot {
+        final long count;
+        final double mean;
+        final long max;
+        final long p50;
+        final long p90;
+        final long p99;
+
+        Snapshot(long count, double mean, long max, long p50, long p90, long p99) {
+            this.count = count;
+            this.mean = mean;
+            this.max = max;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.wifimanager;
+
+/** SSID helpers for values reported by {@code WifiInfo}. */
+final class WifiSsid {
+    /** Reported by {@code WifiInfo.getSSID()} when there is no connection or no location access. */
+    static final String UNKNOWN = "<unknown ssid>";
+
+    private WifiSsid() {
+    }
+
+    /**
+     * Strips the surrounding quotes Android adds to UTF-8 SSIDs.
+     *
+     * @return the bare SSID, or null for a missing or unknown SSID
+     */
+    static String unquote(String ssid) {
+        if (ssid == null || UNKNOWN.equals(ssid)) {
+            return null;
+        }
+        if (ssid.length() >= 2 && ssid.charAt(0) == '"' && ssid.charAt(ssid.length() - 1) == '"') {
+            return ssid.substring(1, ssid.length() - 1);
+        }
+        return ssid;
+    }
+}
@@ -0,0 +1,13 @@
+package com.wifimanager;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+
+/**
+ * Base of {@link WifiManagerModule} on the New Architecture: the TurboModule spec that codegen
+ * generates from {@code src/NativeWifiManager.ts}.
+ */
+abstract class WifiManagerSpec extends NativeWifiManagerSpec {
+    WifiManagerSpec(ReactApplicationContext context) {
+        super(context);
+    }
+}
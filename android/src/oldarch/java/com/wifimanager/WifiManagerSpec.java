@@ -0,0 +1,89 @@
+package com.wifimanager;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Base of {@link WifiManagerModule} on the old architecture. Mirrors the codegen spec of
+ * {@code src/NativeWifiManager.ts}, so a method missing from either side fails to compile in
+ * both builds rather than only in the New Architecture one.
+ */
+abstract class WifiManagerSpec extends ReactContextBaseJavaModule {
+    WifiManagerSpec(ReactApplicationContext context) {
+        super(context);
+    }
+
+    public abstract void scanWifiNetworks(ReadableMap options, Promise promise);
+
+    public abstract void scanWifiNetworksWithPermissionRequest(ReadableMap options, Promise promise);
+
+    public abstract void startScanStream(ReadableMap options, Promise promise);
+
+    public abstract void stopScanStream(Promise promise);
+
+    public abstract void configureScanEvents(ReadableMap options, Promise promise);
+
+    public abstract void analyzeChannels(ReadableMap options, Promise promise);
+
+    public abstract void getScanBudget(Promise promise);
+
+    public abstract void configureSignalHistory(ReadableMap options, Promise promise);
+
+    public abstract void getSignalHistory(String bssid, Promise promise);
+
+    public abstract void startScanLog(ReadableMap options, Promise promise);
+
+    public abstract void stopScanLog(Promise promise);
+
+    public abstract void exportScanLog(ReadableMap options, Promise promise);
+
+    public abstract void clearScanLog(Promise promise);
+
+    public abstract void connectToWifi(String ssid, String password, ReadableMap options, Promise promise);
+
+    public abstract void disconnectFromWifi(Promise promise);
+
+    public abstract void addNetworkSuggestions(ReadableArray networks, Promise promise);
+
+    public abstract void removeNetworkSuggestions(ReadableArray ssids, Promise promise);
+
+    public abstract void getCurrentWifiInfo(ReadableMap options, Promise promise);
+
+    public abstract void startConnectionMonitor(ReadableMap options, Promise promise);
+
+    public abstract void stopConnectionMonitor(Promise promise);
+
+    public abstract void startRoaming(ReadableMap options, Promise promise);
+
+    public abstract void stopRoaming(Promise promise);
+
+    public abstract void isWifiEnabled(Promise promise);
+
+    public abstract void setWifiEnabled(boolean enabled, Promise promise);
+
+    public abstract void checkPermissions(Promise promise);
+
+    public abstract void requestPermissions(Promise promise);
+
+    public abstract void getWifiMetrics(Promise promise);
+
+    public abstract void resetWifiMetrics(Promise promise);
+
+    public abstract boolean isWifiEnabledSync();
+
+    public abstract WritableMap getCachedLinkState();
+
+    public abstract WritableMap getPermissionStatusSync();
+
+    public abstract WritableMap getLastScanResultsSync();
+
+    public abstract void addListener(String eventName);
+
+    public abstract void removeListeners(double count);
+
+    public abstract void removeEventListeners(String eventName, double count);
+}
@@ -0,0 +1,65 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class AdaptiveScanIntervalTest {
+    private final AdaptiveScanInterval interval = new AdaptiveScanInterval(10_000, 5_000, 60_000);
+
+    @Test
+    public void firstResultCountsAsChanged() {
+        assertEquals(5_000, interval.onScanResults(42));
+    }
+
+    @Test
+    public void unchangedResultsBackOffToMaximum() {
+        interval.onScanResults(42);
+        assertEquals(7_500, interval.onScanResults(42));
+        assertEquals(11_250, interval.onScanResults(42));
+        assertEquals(16_875, interval.onScanResults(42));
+        for (int i = 0; i < 10; i++) {
+            interval.onScanResults(42);
+        }
+        assertEquals(60_000, interval.getCurrentIntervalMs());
+        assertEquals(60_000, interval.onScanResults(42));
+    }
+
+    @Test
+    public void changedResultHalvesAfterBackoff() {
+        interval.onScanResults(42);
+        for (int i = 0; i < 10; i++) {
+            interval.onScanResults(42);
+        }
+        assertEquals(30_000, interval.onScanResults(7));
+        assertEquals(15_000, interval.onScanResults(42));
+        assertEquals(7_500, interval.onScanResults(7));
+        assertEquals(5_000, interval.onScanResults(42));
+        assertEquals(5_000, interval.onScanResults(7));
+    }
+
+    @Test
+    public void failuresBackOffWithoutTouchingFingerprint() {
+        interval.onScanResults(42);
+        assertEquals(7_500, interval.onScanFailed());
+        assertEquals(11_250, interval.onScanFailed());
+        // Same environment as before the failures, so still unchanged
+        assertEquals(16_875, interval.onScanResults(42));
+    }
+
+    @Test
+    public void initialIntervalIsClamped() {
+        assertEquals(5_000, new AdaptiveScanInterval(1_000, 5_000, 60_000).getCurrentIntervalMs());
+        assertEquals(60_000, new AdaptiveScanInterval(600_000, 5_000, 60_000).getCurrentIntervalMs());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMinAboveMax() {
+        new AdaptiveScanInterval(10_000, 60_000, 5_000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveMin() {
+        new AdaptiveScanInterval(10_000, 0, 5_000);
+    }
+}
@@ -0,0 +1,137 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ChannelAnalyzerTest {
+    private static final double EPSILON = 1e-12;
+
+    private static ScanRecord ap(String bssid, int level, int frequency, int channelWidth, int centerFreq0) {
+        return ScanRecord.create("net", bssid, level, "[ESS]", frequency, channelWidth, centerFreq0);
+    }
+
+    private static ScanRecord ap20(String bssid, int level, int frequency) {
+        return ap(bssid, level, frequency, ChannelResolver.CHANNEL_WIDTH_20MHZ, 0);
+    }
+
+    private static ChannelAnalyzer.ChannelStats channel(ChannelAnalyzer.BandStats band, int channel) {
+        for (ChannelAnalyzer.ChannelStats stats : band.channels) {
+            if (stats.channel == channel) {
+                return stats;
+            }
+        }
+        fail("channel " + channel + " not reported");
+        return null;
+    }
+
+    @Test
+    public void emptyScanHasNoBands() {
+        assertTrue(ChannelAnalyzer.analyze(Collections.<ScanRecord>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void bandsInBandOrderSkippingUnresolved() {
+        List<ChannelAnalyzer.BandStats> bands = ChannelAnalyzer.analyze(Arrays.asList(
+                ap20("a", -50, 5180),
+                ap20("b", -50, 2412),
+                ap20("c", -50, 9999)));
+        assertEquals(2, bands.size());
+        assertEquals(ChannelResolver.Band.GHZ_2_4, bands.get(0).band);
+        assertEquals(ChannelResolver.Band.GHZ_5, bands.get(1).band);
+        assertEquals(1, bands.get(0).apCount);
+    }
+
+    @Test
+    public void recommendsTheClearNonOverlappingChannel() {
+        ChannelAnalyzer.BandStats band = ChannelAnalyzer.analyze(Arrays.asList(
+                ap20("a", -40, 2412),
+                ap20("b", -50, 2437),
+                ap20("c", -60, 2437))).get(0);
+        assertEquals(11, band.recommendedChannel);
+
+        ChannelAnalyzer.ChannelStats one = channel(band, 1);
+        assertEquals(1, one.apCount);
+        assertEquals(1, one.overlappingCount);
+        assertEquals(-40, one.interferenceDbm(), 1e-9);
+        ChannelAnalyzer.ChannelStats six = channel(band, 6);
+        assertEquals(2, six.apCount);
+        assertEquals(1e-5 + 1e-6, six.interferenceMw, EPSILON);
+        ChannelAnalyzer.ChannelStats eleven = channel(band, 11);
+        assertEquals(0, eleven.overlappingCount);
+        assertEquals(Double.NEGATIVE_INFINITY, eleven.interferenceDbm(), 0);
+    }
+
+    @Test
+    public void partialOverlapIsWeightedAndOffGridChannelsAreReported() {
+        // Channel 3 spans 2411-2433 MHz with the 2.4 GHz spread: 12 MHz of channel 1, 7 of channel 6
+        ChannelAnalyzer.BandStats band = ChannelAnalyzer.analyze(Arrays.asList(ap20("a", -30, 2422))).get(0);
+        assertEquals(Arrays.asList(1, 3, 6, 11), channelNumbers(band));
+        assertEquals(1e-3 * 12 / 22, channel(band, 1).interferenceMw, EPSILON);
+        assertEquals(1e-3 * 7 / 22, channel(band, 6).interferenceMw, EPSILON);
+        assertEquals(0, channel(band, 1).apCount);
+        assertEquals(1, channel(band, 3).apCount);
+        assertFalse(channel(band, 3).candidate);
+        assertTrue(channel(band, 11).candidate);
+        assertEquals(11, band.recommendedChannel);
+    }
+
+    @Test
+    public void wideChannelCoversEverySubChannel() {
+        // 80 MHz on 36-48, center channel 42
+        ChannelAnalyzer.BandStats band = ChannelAnalyzer.analyze(Arrays.asList(
+                ap("a", -50, 5180, ChannelResolver.CHANNEL_WIDTH_80MHZ, 5210))).get(0);
+        for (int sub : new int[] {36, 40, 44, 48}) {
+            assertEquals("channel " + sub, 1, channel(band, sub).overlappingCount);
+            assertEquals("channel " + sub, 1e-5, channel(band, sub).interferenceMw, EPSILON);
+        }
+        assertEquals(0, channel(band, 52).overlappingCount);
+        // Ties on interference keep the lowest clear candidate
+        assertEquals(52, band.recommendedChannel);
+    }
+
+    @Test
+    public void sixGigahertzWideChannelSpansFromItsCenter() {
+        // 160 MHz on primary 37 with center channel 47 occupies 6105-6265 MHz
+        ChannelAnalyzer.BandStats band = ChannelAnalyzer.analyze(Arrays.asList(
+                ap("a", -50, 5950 + 5 * 37, ChannelResolver.CHANNEL_WIDTH_160MHZ, 5950 + 5 * 47))).get(0);
+        assertEquals(ChannelResolver.Band.GHZ_6, band.band);
+        assertEquals(0, channel(band, 21).overlappingCount);
+        assertEquals(1, channel(band, 37).overlappingCount);
+        assertEquals(1, channel(band, 53).overlappingCount);
+        assertEquals(0, channel(band, 69).overlappingCount);
+        assertEquals(5, band.recommendedChannel);
+    }
+
+    @Test
+    public void fewerAccessPointsBreakInterferenceTies() {
+        // A 40 MHz access point on 36 puts the same power on 36 and 40, but only 36 is its primary
+        List<ScanRecord> records = new ArrayList<>();
+        records.add(ap("wide", -60, 5180, ChannelResolver.CHANNEL_WIDTH_40MHZ, 5190));
+        int[] busy = {44, 48, 52, 56, 60, 64, 100, 104, 108, 112, 116, 120, 124, 128, 132, 136,
+                140, 144, 149, 153, 157, 161, 165};
+        for (int channel : busy) {
+            records.add(ap20("ap" + channel, -40, 5000 + 5 * channel));
+        }
+        ChannelAnalyzer.BandStats band = ChannelAnalyzer.analyze(records).get(0);
+        assertEquals(channel(band, 36).interferenceMw, channel(band, 40).interferenceMw, 0);
+        assertEquals(1, channel(band, 36).apCount);
+        assertEquals(40, band.recommendedChannel);
+    }
+
+    private static List<Integer> channelNumbers(ChannelAnalyzer.BandStats band) {
+        List<Integer> channels = new ArrayList<>();
+        for (ChannelAnalyzer.ChannelStats stats : band.channels) {
+            channels.add(stats.channel);
+        }
+        return channels;
+    }
+}
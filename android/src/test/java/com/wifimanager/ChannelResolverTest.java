@@ -0,0 +1,148 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ChannelResolverTest {
+
+    /** Every valid primary channel in every band, keyed by center frequency. */
+    private static Map<Integer, int[]> primaries() {
+        Map<Integer, int[]> table = new LinkedHashMap<>();
+        for (int channel = 1; channel <= 13; channel++) {
+            put(table, 2407 + 5 * channel, ChannelResolver.Band.GHZ_2_4, channel);
+        }
+        put(table, 2484, ChannelResolver.Band.GHZ_2_4, 14);
+        for (int channel = 182; channel <= 196; channel++) {
+            put(table, 4000 + 5 * channel, ChannelResolver.Band.GHZ_5, channel);
+        }
+        for (int channel = 1; channel <= 177; channel++) {
+            put(table, 5000 + 5 * channel, ChannelResolver.Band.GHZ_5, channel);
+        }
+        put(table, 5935, ChannelResolver.Band.GHZ_6, 2);
+        for (int channel = 1; channel <= 233; channel += 4) {
+            put(table, 5950 + 5 * channel, ChannelResolver.Band.GHZ_6, channel);
+        }
+        for (int channel = 1; channel <= 6; channel++) {
+            put(table, 58320 + 2160 * (channel - 1), ChannelResolver.Band.GHZ_60, channel);
+        }
+        return table;
+    }
+
+    private static void put(Map<Integer, int[]> table, int frequency, ChannelResolver.Band band,
+                            int channel) {
+        table.put(frequency, new int[] {band.ordinal(), channel});
+    }
+
+    @Test
+    public void everyFrequencyResolvesToItsPrimaryOrNothing() {
+        Map<Integer, int[]> primaries = primaries();
+        for (int frequency = 2300; frequency <= 7200; frequency++) {
+            assertResolves(primaries, frequency);
+        }
+        for (int frequency = 58000; frequency <= 72000; frequency++) {
+            assertResolves(primaries, frequency);
+        }
+    }
+
+    private static void assertResolves(Map<Integer, int[]> primaries, int frequency) {
+        int[] expected = primaries.get(frequency);
+        if (expected == null) {
+            assertEquals("channel at " + frequency, 0, ChannelResolver.channelOf(frequency));
+            assertNull("band at " + frequency, ChannelResolver.bandOf(frequency));
+        } else {
+            assertEquals("channel at " + frequency, expected[1],
+                    ChannelResolver.channelOf(frequency));
+            assertEquals("band at " + frequency, ChannelResolver.Band.values()[expected[0]],
+                    ChannelResolver.bandOf(frequency));
+        }
+    }
+
+    @Test
+    public void frequencyOfInvertsEveryPrimary() {
+        for (Map.Entry<Integer, int[]> entry : primaries().entrySet()) {
+            ChannelResolver.Band band = ChannelResolver.Band.values()[entry.getValue()[0]];
+            assertEquals(band + " channel " + entry.getValue()[1], (int) entry.getKey(),
+                    ChannelResolver.frequencyOf(band, entry.getValue()[1]));
+        }
+    }
+
+    @Test
+    public void frequencyOfRejectsNonPrimaryChannels() {
+        for (int channel = -1; channel <= 240; channel++) {
+            int expected = 0;
+            if (channel == 2) {
+                expected = 5935;
+            } else if (channel >= 1 && channel <= 233 && channel % 4 == 1) {
+                expected = 5950 + 5 * channel;
+            }
+            assertEquals("6 GHz channel " + channel, expected,
+                    ChannelResolver.frequencyOf(ChannelResolver.Band.GHZ_6, channel));
+        }
+        assertEquals(0, ChannelResolver.frequencyOf(ChannelResolver.Band.GHZ_2_4, 0));
+        assertEquals(0, ChannelResolver.frequencyOf(ChannelResolver.Band.GHZ_2_4, 15));
+        assertEquals(0, ChannelResolver.frequencyOf(ChannelResolver.Band.GHZ_5, 178));
+        assertEquals(0, ChannelResolver.frequencyOf(ChannelResolver.Band.GHZ_60, 7));
+    }
+
+    @Test
+    public void wideSixGigahertzChannelsKeepTheirCenter() {
+        // 40, 80, 160 and 320 MHz channels around primary 37
+        int primary = 5950 + 5 * 37;
+        assertEquals(35, ChannelResolver.centerChannel(primary, 5950 + 5 * 35, 40));
+        assertEquals(39, ChannelResolver.centerChannel(primary, 5950 + 5 * 39, 80));
+        assertEquals(47, ChannelResolver.centerChannel(primary, 5950 + 5 * 47, 160));
+        assertEquals(63, ChannelResolver.centerChannel(primary, 5950 + 5 * 63, 320));
+        assertEquals(5950 + 5 * 47,
+                ChannelResolver.centerFrequencyOf(ChannelResolver.Band.GHZ_6, 47));
+        assertEquals(0, ChannelResolver.centerFrequencyOf(ChannelResolver.Band.GHZ_6, 48));
+        // Centers are not primaries themselves
+        assertEquals(0, ChannelResolver.channelOf(5950 + 5 * 47));
+    }
+
+    @Test
+    public void centerFallsBackToPrimary() {
+        // 20 MHz ignores centerFreq0, and a center in another band is ignored
+        assertEquals(36, ChannelResolver.centerChannel(5180, 5210, 20));
+        assertEquals(42, ChannelResolver.centerChannel(5180, 5210, 80));
+        assertEquals(36, ChannelResolver.centerChannel(5180, 0, 80));
+        assertEquals(36, ChannelResolver.centerChannel(5180, 5950 + 5 * 7, 80));
+        assertEquals(1, ChannelResolver.centerChannel(5955, 5210, 80));
+        // 5 MHz off any channel
+        assertEquals(36, ChannelResolver.centerChannel(5180, 5212, 80));
+    }
+
+    @Test
+    public void widths() {
+        assertEquals(20, ChannelResolver.widthMhz(ChannelResolver.Band.GHZ_5,
+                ChannelResolver.CHANNEL_WIDTH_20MHZ));
+        assertEquals(40, ChannelResolver.widthMhz(ChannelResolver.Band.GHZ_5,
+                ChannelResolver.CHANNEL_WIDTH_40MHZ));
+        assertEquals(80, ChannelResolver.widthMhz(ChannelResolver.Band.GHZ_5,
+                ChannelResolver.CHANNEL_WIDTH_80MHZ));
+        assertEquals(160, ChannelResolver.widthMhz(ChannelResolver.Band.GHZ_5,
+                ChannelResolver.CHANNEL_WIDTH_160MHZ));
+        assertEquals(160, ChannelResolver.widthMhz(ChannelResolver.Band.GHZ_5,
+                ChannelResolver.CHANNEL_WIDTH_80MHZ_PLUS_MHZ));
+        assertEquals(320, ChannelResolver.widthMhz(ChannelResolver.Band.GHZ_6,
+                ChannelResolver.CHANNEL_WIDTH_320MHZ));
+        assertEquals(2160, ChannelResolver.widthMhz(ChannelResolver.Band.GHZ_60,
+                ChannelResolver.CHANNEL_WIDTH_20MHZ));
+    }
+
+    @Test
+    public void bandLabels() {
+        for (ChannelResolver.Band band : ChannelResolver.Band.values()) {
+            assertEquals(band, ChannelResolver.Band.fromLabel(band.label));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownBandLabel() {
+        ChannelResolver.Band.fromLabel("900MHz");
+    }
+}
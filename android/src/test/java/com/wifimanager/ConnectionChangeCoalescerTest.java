@@ -0,0 +1,110 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ConnectionChangeCoalescerTest {
+    private final FakeClock clock = new FakeClock(1_000_000);
+    private final ConnectionChangeCoalescer coalescer = new ConnectionChangeCoalescer(clock, 5, 1_000);
+
+    private static LinkSample link(String bssid, int rssi) {
+        return link(bssid, rssi, 866, 5180);
+    }
+
+    private static LinkSample link(String bssid, int rssi, int linkSpeedMbps, int frequency) {
+        return new LinkSample(true, "home", bssid, rssi, linkSpeedMbps, frequency);
+    }
+
+    /** Reports the first sample so later offers compare against it. */
+    private LinkSample report(LinkSample sample) {
+        assertEquals(0, coalescer.offer(sample));
+        assertSame(sample, coalescer.takePending());
+        return sample;
+    }
+
+    @Test
+    public void firstSampleIsDueAtOnce() {
+        LinkSample first = link("aa", -50);
+        assertEquals(0, coalescer.offer(first));
+        assertSame(first, coalescer.takePending());
+        assertNull(coalescer.takePending());
+    }
+
+    @Test
+    public void connectionChangesBypassTheInterval() {
+        report(link("aa", -50));
+        clock.advance(10);
+        // Roam to another access point
+        assertEquals(0, coalescer.offer(link("bb", -50)));
+        coalescer.takePending();
+        clock.advance(10);
+        assertEquals(0, coalescer.offer(LinkSample.DISCONNECTED));
+        assertSame(LinkSample.DISCONNECTED, coalescer.takePending());
+    }
+
+    @Test
+    public void smallRssiMovesAreIgnored() {
+        report(link("aa", -50));
+        clock.advance(5_000);
+        assertEquals(ConnectionChangeCoalescer.NOTHING_PENDING, coalescer.offer(link("aa", -54)));
+        assertEquals(ConnectionChangeCoalescer.NOTHING_PENDING, coalescer.offer(link("aa", -46)));
+        assertNull(coalescer.takePending());
+        // Measured against the last reported sample, so slow drift is caught eventually
+        assertEquals(0, coalescer.offer(link("aa", -55)));
+    }
+
+    @Test
+    public void metricChangesAreRateLimitedWithTrailingEmit() {
+        report(link("aa", -50));
+        clock.advance(200);
+        assertEquals(800, coalescer.offer(link("aa", -60)));
+        clock.advance(300);
+        LinkSample newest = link("aa", -70);
+        assertEquals(500, coalescer.offer(newest));
+
+        clock.advance(500);
+        assertSame(newest, coalescer.takePending());
+        // The interval restarts from the trailing emit
+        clock.advance(100);
+        assertEquals(900, coalescer.offer(link("aa", -70, 433, 5180)));
+    }
+
+    @Test
+    public void linkSpeedAndFrequencyCount() {
+        report(link("aa", -50));
+        clock.advance(1_000);
+        assertEquals(0, coalescer.offer(link("aa", -50, 433, 5180)));
+        assertEquals(0, coalescer.offer(link("aa", -50, 866, 5200)));
+    }
+
+    @Test
+    public void returningToTheReportedStateDropsThePendingSample() {
+        LinkSample reported = report(link("aa", -50));
+        clock.advance(100);
+        coalescer.offer(link("aa", -60));
+        assertEquals(ConnectionChangeCoalescer.NOTHING_PENDING, coalescer.offer(link("aa", -51)));
+        assertNull(coalescer.takePending());
+        assertEquals(ConnectionChangeCoalescer.NOTHING_PENDING, coalescer.offer(reported));
+    }
+
+    @Test
+    public void zeroIntervalReportsEveryMeaningfulChange() {
+        ConnectionChangeCoalescer unthrottled = new ConnectionChangeCoalescer(clock, 1, 0);
+        unthrottled.offer(link("aa", -50));
+        unthrottled.takePending();
+        assertEquals(0, unthrottled.offer(link("aa", -51)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroThreshold() {
+        new ConnectionChangeCoalescer(clock, 0, 1_000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeInterval() {
+        new ConnectionChangeCoalescer(clock, 5, -1);
+    }
+}
@@ -0,0 +1,189 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import com.wifimanager.ConnectionStateMachine.Failure;
+import com.wifimanager.ConnectionStateMachine.State;
+
+public class ConnectionStateMachineTest {
+
+    /** Event source driven by the test instead of platform callbacks. */
+    private static final class FakeEventSource implements ConnectionEventSource {
+        ConnectionStateMachine machine;
+        boolean stopped;
+        boolean released;
+
+        @Override
+        public void start(ConnectionStateMachine machine) {
+            this.machine = machine;
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+        }
+
+        @Override
+        public void release() {
+            released = true;
+        }
+    }
+
+    /** Settles the attempt the way the module does: stop on success, stop and release on failure. */
+    private static final class Recorder implements ConnectionStateMachine.Listener {
+        final FakeEventSource source;
+        final List<State> states = new ArrayList<>();
+        final List<Failure> failures = new ArrayList<>();
+        int connected;
+
+        Recorder(FakeEventSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public void onStateChanged(State state) {
+            states.add(state);
+        }
+
+        @Override
+        public void onConnected() {
+            connected++;
+            source.stop();
+        }
+
+        @Override
+        public void onFailed(Failure failure) {
+            failures.add(failure);
+            source.stop();
+            source.release();
+        }
+    }
+
+    private final FakeEventSource source = new FakeEventSource();
+    private final Recorder recorder = new Recorder(source);
+
+    private ConnectionStateMachine start(boolean requireValidation) {
+        ConnectionStateMachine machine = new ConnectionStateMachine("home", requireValidation, recorder);
+        source.start(machine);
+        machine.start();
+        return machine;
+    }
+
+    @Test
+    public void validatedConnectionWalksEveryState() {
+        ConnectionStateMachine machine = start(true);
+        source.machine.onAuthenticating();
+        source.machine.onObtainingIp();
+        source.machine.onLinkUp("home");
+        assertEquals(State.LINK_UP, machine.getState());
+        assertEquals(0, recorder.connected);
+
+        source.machine.onValidated();
+        assertEquals(Arrays.asList(State.CONNECTING, State.AUTHENTICATING, State.OBTAINING_IP,
+                State.LINK_UP, State.CONNECTED), recorder.states);
+        assertEquals(1, recorder.connected);
+        assertTrue(source.stopped);
+        assertFalse(source.released);
+    }
+
+    @Test
+    public void linkUpIsEnoughWithoutValidation() {
+        ConnectionStateMachine machine = start(false);
+        source.machine.onLinkUp("home");
+        assertEquals(State.CONNECTED, machine.getState());
+        assertEquals(1, recorder.connected);
+    }
+
+    @Test
+    public void validationBeforeLinkUpCompletesOnLinkUp() {
+        ConnectionStateMachine machine = start(true);
+        source.machine.onValidated();
+        assertEquals(State.CONNECTING, machine.getState());
+        source.machine.onLinkUp(null);
+        assertEquals(State.CONNECTED, machine.getState());
+    }
+
+    @Test
+    public void linkToAnotherNetworkIsIgnored() {
+        ConnectionStateMachine machine = start(false);
+        source.machine.onLinkUp("neighbour");
+        assertEquals(State.CONNECTING, machine.getState());
+        // Nothing of ours associated, so the deadline reports the network as missing
+        source.machine.onTimeout();
+        assertEquals(Arrays.asList(Failure.NETWORK_NOT_FOUND), recorder.failures);
+    }
+
+    @Test
+    public void timeoutAfterAssociatingIsATimeout() {
+        start(true);
+        source.machine.onAuthenticating();
+        source.machine.onTimeout();
+        assertEquals(Arrays.asList(Failure.CONNECTION_TIMEOUT), recorder.failures);
+        assertTrue(source.released);
+    }
+
+    @Test
+    public void authenticationFailureIsFinal() {
+        ConnectionStateMachine machine = start(false);
+        source.machine.onAuthenticating();
+        source.machine.onAuthenticationFailed();
+        source.machine.onLinkUp("home");
+        source.machine.onTimeout();
+        assertEquals(State.FAILED, machine.getState());
+        assertEquals(Arrays.asList(Failure.AUTH_FAILED), recorder.failures);
+        assertEquals(0, recorder.connected);
+    }
+
+    @Test
+    public void unavailableAndCancelReportOnce() {
+        start(false);
+        source.machine.onUnavailable();
+        source.machine.cancel();
+        assertEquals(Arrays.asList(Failure.NETWORK_UNAVAILABLE), recorder.failures);
+
+        FakeEventSource other = new FakeEventSource();
+        Recorder cancelled = new Recorder(other);
+        ConnectionStateMachine machine = new ConnectionStateMachine("home", false, cancelled);
+        other.start(machine);
+        machine.start();
+        machine.cancel();
+        assertEquals(Arrays.asList(Failure.CONNECTION_CANCELLED), cancelled.failures);
+        assertTrue(other.released);
+    }
+
+    @Test
+    public void statesOnlyMoveForward() {
+        ConnectionStateMachine machine = start(true);
+        source.machine.onObtainingIp();
+        source.machine.onAuthenticating();
+        assertEquals(State.OBTAINING_IP, machine.getState());
+        assertEquals(Arrays.asList(State.CONNECTING, State.OBTAINING_IP), recorder.states);
+    }
+
+    @Test
+    public void successIgnoresLaterEvents() {
+        ConnectionStateMachine machine = start(false);
+        source.machine.onLinkUp("home");
+        source.machine.onAuthenticationFailed();
+        source.machine.onTimeout();
+        source.machine.onLinkUp("home");
+        assertTrue(machine.isFinished());
+        assertEquals(State.CONNECTED, machine.getState());
+        assertEquals(1, recorder.connected);
+        assertTrue(recorder.failures.isEmpty());
+    }
+
+    @Test
+    public void startIsIdempotent() {
+        ConnectionStateMachine machine = start(false);
+        machine.start();
+        assertEquals(Arrays.asList(State.CONNECTING), recorder.states);
+    }
+}
@@ -0,0 +1,19 @@
+package com.wifimanager;
+
+/** Manually advanced {@link Clock} for driving time-based classes in tests. */
+final class FakeClock implements Clock {
+    private long now;
+
+    FakeClock(long start) {
+        this.now = start;
+    }
+
+    @Override
+    public long nowMillis() {
+        return now;
+    }
+
+    void advance(long millis) {
+        now += millis;
+    }
+}
@@ -0,0 +1,91 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import javax.crypto.Mac;
+import org.junit.Test;
+
+import com.wifimanager.NetworkSuggestion.Security;
+
+public class NetworkSuggestionTest {
+    private static final String HEX_PSK = "0123456789abcdef0123456789ABCDEF0123456789abcdef0123456789abcdef";
+
+    private static String validate(String ssid, String password, Security security) {
+        return new NetworkSuggestion(ssid, password, security, false).validate();
+    }
+
+    @Test
+    public void securityDefaultsFromPassword() {
+        assertEquals(Security.OPEN, NetworkSuggestion.parseSecurity(null, null));
+        assertEquals(Security.OPEN, NetworkSuggestion.parseSecurity(null, ""));
+        assertEquals(Security.WPA2, NetworkSuggestion.parseSecurity(null, "password"));
+        assertEquals(Security.WPA3, NetworkSuggestion.parseSecurity("wpa3", "password"));
+        assertNull(NetworkSuggestion.parseSecurity("wep", "password"));
+    }
+
+    @Test
+    public void acceptsValidNetworks() {
+        assertNull(validate("cafe", null, Security.OPEN));
+        assertNull(validate("home", "password", Security.WPA2));
+        assertNull(validate("home", "password", Security.WPA3));
+        assertNull(validate("home", HEX_PSK, Security.WPA2));
+        assertNull(validate("12345678901234567890123456789012", "password", Security.WPA2));
+    }
+
+    @Test
+    public void rejectsBadSsids() {
+        assertEquals("ssid is required", validate(null, null, Security.OPEN));
+        assertEquals("ssid is required", validate("", null, Security.OPEN));
+        assertEquals("ssid must be at most 32 bytes",
+                validate("123456789012345678901234567890123", null, Security.OPEN));
+        // 11 three-byte characters fit in 32 characters but not in 32 bytes
+        assertEquals("ssid must be at most 32 bytes",
+                validate("\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac", null, Security.OPEN));
+    }
+
+    @Test
+    public void rejectsPasswordsThatDoNotFitTheSecurity() {
+        assertEquals("security must be one of open, wpa2, wpa3", validate("home", "password", null));
+        assertEquals("open networks take no password", validate("cafe", "password", Security.OPEN));
+        assertEquals("password is required for wpa2", validate("home", "", Security.WPA2));
+        assertEquals("password must be 8 to 63 characters", validate("home", "short", Security.WPA2));
+        // Raw PSKs are a WPA2 feature; WPA3 needs a passphrase
+        assertEquals("password must be 8 to 63 characters", validate("home", HEX_PSK, Security.WPA3));
+        assertEquals("password must be printable ASCII", validate("home", "pass\u00e9word", Security.WPA2));
+    }
+
+    @Test
+    public void fingerprintCoversEveryField() {
+        Mac mac = SuggestionPlannerTest.hmac("install-secret");
+        String base = new NetworkSuggestion("home", "password", Security.WPA2, false).fingerprint(mac);
+        assertEquals(64, base.length());
+        assertEquals(base, new NetworkSuggestion("home", "password", Security.WPA2, false).fingerprint(mac));
+        assertNotEquals(base, new NetworkSuggestion("home2", "password", Security.WPA2, false).fingerprint(mac));
+        assertNotEquals(base, new NetworkSuggestion("home", "password2", Security.WPA2, false).fingerprint(mac));
+        assertNotEquals(base, new NetworkSuggestion("home", "password", Security.WPA3, false).fingerprint(mac));
+        assertNotEquals(base, new NetworkSuggestion("home", "password", Security.WPA2, true).fingerprint(mac));
+        // The separator keeps field boundaries apart
+        assertNotEquals(new NetworkSuggestion("ab", null, Security.OPEN, false).fingerprint(mac),
+                new NetworkSuggestion("a", "b", Security.OPEN, false).fingerprint(mac));
+    }
+
+    @Test
+    public void fingerprintDependsOnTheInstallKey() throws Exception {
+        NetworkSuggestion network = new NetworkSuggestion("home", "password", Security.WPA2, false);
+        String keyed = network.fingerprint(SuggestionPlannerTest.hmac("install-secret"));
+        assertNotEquals(keyed, network.fingerprint(SuggestionPlannerTest.hmac("other-install")));
+
+        // Not the unkeyed digest that could be checked against a password dictionary
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update("home\0WPA2\0password\0".getBytes(StandardCharsets.UTF_8));
+        StringBuilder plain = new StringBuilder();
+        for (byte b : digest.digest()) {
+            plain.append(String.format("%02x", b));
+        }
+        assertNotEquals(plain.toString(), keyed);
+    }
+}
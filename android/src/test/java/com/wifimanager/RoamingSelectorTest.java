@@ -0,0 +1,202 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+
+public class RoamingSelectorTest {
+    private static final double EPSILON = 1e-9;
+    private static final String WPA2 = "[WPA2-PSK-CCMP][ESS]";
+
+    private final FakeClock clock = new FakeClock(1_000_000);
+    private final RoamingSelector selector = selector("home", "office");
+
+    private RoamingSelector selector(String... ssids) {
+        return new RoamingSelector(clock, new HashSet<>(Arrays.asList(ssids)), 8, 15_000, -80, 60_000);
+    }
+
+    private static ScanRecord ap(String ssid, String bssid, int level, int frequency) {
+        return ap(ssid, bssid, level, frequency, WPA2);
+    }
+
+    private static ScanRecord ap(String ssid, String bssid, int level, int frequency, String capabilities) {
+        return ScanRecord.create(ssid, bssid, level, capabilities, frequency, ChannelResolver.CHANNEL_WIDTH_20MHZ, 0);
+    }
+
+    /** Two 5 GHz access points of the same network on separate channels. */
+    private static List<ScanRecord> scan(int aaLevel, int bbLevel) {
+        return Arrays.asList(ap("home", "aa", aaLevel, 5180), ap("home", "bb", bbLevel, 5200));
+    }
+
+    private RoamingSelector.Recommendation evaluateAfter(long millis, List<ScanRecord> records, String current) {
+        clock.advance(millis);
+        return selector.evaluate(records, current, null);
+    }
+
+    @Test
+    public void marginBelowHysteresisNeverRoams() {
+        assertNull(evaluateAfter(0, scan(-60, -53), "aa"));
+        assertNull(evaluateAfter(60_000, scan(-60, -53), "aa"));
+    }
+
+    @Test
+    public void connectedRoamsOnceTheLeaderHoldsForTheDwell() {
+        assertNull(evaluateAfter(0, scan(-70, -55), "aa"));
+        assertNull(evaluateAfter(14_999, scan(-70, -55), "aa"));
+        RoamingSelector.Recommendation recommendation = evaluateAfter(1, scan(-70, -55), "aa");
+        assertNotNull(recommendation);
+        assertEquals("bb", recommendation.best.network.bssid);
+        assertEquals("aa", recommendation.current.network.bssid);
+        assertEquals(15, recommendation.best.score - recommendation.current.score, EPSILON);
+        // Reported once until something changes
+        assertNull(evaluateAfter(5_000, scan(-70, -55), "aa"));
+    }
+
+    @Test
+    public void fadeBelowTheMarginRestartsTheDwell() {
+        assertNull(evaluateAfter(0, scan(-70, -55), "aa"));
+        // One noisy scan where the candidate only leads by 5 dB
+        assertNull(evaluateAfter(10_000, scan(-70, -65), "aa"));
+        assertNull(evaluateAfter(5_000, scan(-70, -55), "aa"));
+        assertNull(evaluateAfter(14_999, scan(-70, -55), "aa"));
+        assertNotNull(evaluateAfter(1, scan(-70, -55), "aa"));
+    }
+
+    @Test
+    public void newLeaderRestartsTheDwell() {
+        assertNull(evaluateAfter(0, scan(-70, -55), "aa"));
+        List<ScanRecord> withCc = Arrays.asList(
+                ap("home", "aa", -70, 5180), ap("home", "bb", -55, 5200), ap("home", "cc", -50, 5220));
+        assertNull(evaluateAfter(10_000, withCc, "aa"));
+        assertNull(evaluateAfter(10_000, withCc, "aa"));
+        RoamingSelector.Recommendation recommendation = evaluateAfter(5_000, withCc, "aa");
+        assertEquals("cc", recommendation.best.network.bssid);
+    }
+
+    @Test
+    public void currentAccessPointMissingFromTheScanStillDwells() {
+        List<ScanRecord> onlyBb = Arrays.asList(ap("home", "bb", -70, 5200));
+        assertNull(evaluateAfter(0, onlyBb, "aa"));
+        RoamingSelector.Recommendation recommendation = evaluateAfter(15_000, onlyBb, "aa");
+        assertEquals("bb", recommendation.best.network.bssid);
+        assertNull(recommendation.current);
+    }
+
+    @Test
+    public void disconnectedRecommendsAtOnceAndHoldsTheChoice() {
+        RoamingSelector.Recommendation first = evaluateAfter(0, scan(-60, -70), null);
+        assertEquals("aa", first.best.network.bssid);
+        assertNull(first.current);
+        assertNull(evaluateAfter(1_000, scan(-60, -70), null));
+        // bb edges ahead, but not by the hysteresis margin over the earlier recommendation
+        assertNull(evaluateAfter(1_000, scan(-60, -55), null));
+        assertEquals("bb", evaluateAfter(1_000, scan(-60, -50), null).best.network.bssid);
+    }
+
+    @Test
+    public void changingAccessPointStartsOver() {
+        assertNull(evaluateAfter(0, scan(-70, -55), "aa"));
+        assertNotNull(evaluateAfter(15_000, scan(-70, -55), "aa"));
+        // Roamed to the recommendation
+        assertNull(evaluateAfter(1_000, scan(-70, -55), "bb"));
+        // Back on aa, the earlier recommendation no longer counts and the dwell starts again
+        assertNull(evaluateAfter(1_000, scan(-70, -55), "aa"));
+        assertNull(evaluateAfter(14_999, scan(-70, -55), "aa"));
+        assertNotNull(evaluateAfter(1, scan(-70, -55), "aa"));
+    }
+
+    @Test
+    public void recentFailuresPenaliseTheNetwork() {
+        List<ScanRecord> records = Arrays.asList(ap("home", "aa", -55, 5180), ap("office", "bb", -60, 5200));
+        assertEquals("aa", selector.score(records, null).get(0).network.bssid);
+        selector.recordFailure("home");
+        assertEquals("bb", selector.score(records, null).get(0).network.bssid);
+        assertEquals(-55 + RoamingSelector.BAND_5_GHZ_BONUS_DB - RoamingSelector.FAILURE_PENALTY_DB,
+                selector.score(records, null).get(1).score, EPSILON);
+
+        clock.advance(60_000);
+        assertEquals("aa", selector.score(records, null).get(0).network.bssid);
+
+        selector.recordFailure("home");
+        selector.recordSuccess("home");
+        assertEquals("aa", selector.score(records, null).get(0).network.bssid);
+    }
+
+    @Test
+    public void bandSecurityAndCongestionAdjustTheSignal() {
+        List<ScanRecord> records = Arrays.asList(
+                ap("home", "open", -50, 5180, "[ESS]"),
+                ap("home", "wpa3", -50, 5200, "[RSN-SAE-CCMP][ESS]"),
+                ap("home", "twofour", -50, 2437),
+                ap("home", "six", -50, 5975),
+                ap("home", "busy", -50, 2412),
+                ap("neighbour", "n1", -90, 2412),
+                ap("neighbour", "n2", -90, 2412));
+        List<RoamingSelector.Score> scores = selector.score(records, null);
+        assertEquals(5, scores.size());
+        assertEquals("six", scores.get(0).network.bssid);
+        assertEquals(-40, scores.get(0).score, EPSILON);
+        assertEquals("wpa3", scores.get(1).network.bssid);
+        assertEquals(-41, scores.get(1).score, EPSILON);
+        assertEquals("open", scores.get(2).network.bssid);
+        assertEquals(-49, scores.get(2).score, EPSILON);
+        assertEquals("twofour", scores.get(3).network.bssid);
+        assertEquals(-50, scores.get(3).score, EPSILON);
+        // Two other networks share its channel
+        assertEquals("busy", scores.get(4).network.bssid);
+        assertEquals(-52, scores.get(4).score, EPSILON);
+    }
+
+    @Test
+    public void weakAndUnknownAccessPointsAreSkipped() {
+        List<ScanRecord> records = Arrays.asList(
+                ap("home", "aa", -81, 5180), ap("neighbour", "bb", -40, 5200), ap("home", null, -40, 5220));
+        assertTrue(selector.score(records, null).isEmpty());
+        assertNull(selector.evaluate(records, null, null));
+        assertNull(selector.evaluate(Collections.<ScanRecord>emptyList(), "aa", null));
+    }
+
+    @Test
+    public void tiesGoToTheLowerBssid() {
+        List<ScanRecord> records = Arrays.asList(ap("home", "bb", -60, 5200), ap("home", "aa", -60, 5180));
+        assertEquals("aa", selector.score(records, null).get(0).network.bssid);
+    }
+
+    @Test
+    public void historySmoothsTheSignal() {
+        SignalHistory history = new SignalHistory(4, SignalHistory.bytesPerSeries(4) * 4, 60_000, 0.5);
+        history.ingest(Arrays.asList(ap("home", "aa", -80, 5180)), 0);
+        history.ingest(Arrays.asList(ap("home", "aa", -40, 5180)), 1000);
+        RoamingSelector.Score score = selector.score(Arrays.asList(ap("home", "aa", -40, 5180)), history).get(0);
+        assertEquals(-60, score.signal, EPSILON);
+        // Unknown to the history, so the scan's RSSI is used as is
+        score = selector.score(Arrays.asList(ap("home", "bb", -40, 5200)), history).get(0);
+        assertEquals(-40, score.signal, EPSILON);
+    }
+
+    @Test
+    public void recommendationReportsTheScannedRecord() {
+        ScanRecord best = ap("home", "bb", -50, 5200);
+        RoamingSelector.Recommendation recommendation =
+                selector.evaluate(Arrays.asList(ap("home", "aa", -75, 5180), best), null, null);
+        assertSame(best, recommendation.best.network);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNoNetworks() {
+        new RoamingSelector(clock, Collections.<String>emptySet(), 8, 15_000, -80, 60_000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeHysteresis() {
+        new RoamingSelector(clock, Collections.singleton("home"), -1, 15_000, -80, 60_000);
+    }
+}
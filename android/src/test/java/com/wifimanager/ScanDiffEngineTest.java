@@ -0,0 +1,145 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ScanDiffEngineTest {
+
+    private static ScanRecord ap(String bssid, int level) {
+        return ScanRecord.create("net", bssid, level, "[WPA2-PSK-CCMP][ESS]", 2437,
+                ChannelResolver.CHANNEL_WIDTH_20MHZ, 0);
+    }
+
+    @Test
+    public void firstScanIsKeyframe() {
+        ScanDiffEngine engine = new ScanDiffEngine(3, 10);
+        ScanDiffEngine.Diff diff = engine.diff(Arrays.asList(ap("a", -50), ap("b", -60)));
+        assertTrue(diff.keyframe);
+        assertEquals(2, diff.added.size());
+        assertEquals(1, diff.sequence);
+    }
+
+    @Test
+    public void reportsAddedChangedAndRemoved() {
+        ScanDiffEngine engine = new ScanDiffEngine(3, 10);
+        engine.diff(Arrays.asList(ap("a", -50), ap("b", -60)));
+        ScanDiffEngine.Diff diff = engine.diff(Arrays.asList(ap("a", -55), ap("c", -70)));
+        assertFalse(diff.keyframe);
+        assertEquals(Arrays.asList("c"), bssids(diff.added));
+        assertEquals(Arrays.asList("a"), bssids(diff.changed));
+        assertEquals(Arrays.asList("b"), diff.removed);
+        assertEquals(2, diff.sequence);
+    }
+
+    @Test
+    public void hysteresisComparesAgainstEmittedLevel() {
+        ScanDiffEngine engine = new ScanDiffEngine(3, 100);
+        engine.diff(Arrays.asList(ap("a", -50)));
+        // Two 2 dB steps: the first is below the threshold, the second crosses it
+        ScanDiffEngine.Diff first = engine.diff(Arrays.asList(ap("a", -52)));
+        assertTrue(first.isEmpty());
+        assertEquals(1, first.sequence);
+        ScanDiffEngine.Diff second = engine.diff(Arrays.asList(ap("a", -54)));
+        assertEquals(1, second.changed.size());
+        assertEquals(2, second.sequence);
+    }
+
+    @Test
+    public void keyframeEveryInterval() {
+        ScanDiffEngine engine = new ScanDiffEngine(3, 3);
+        List<ScanRecord> scan = Arrays.asList(ap("a", -50));
+        assertTrue(engine.diff(scan).keyframe);
+        assertFalse(engine.diff(scan).keyframe);
+        assertFalse(engine.diff(scan).keyframe);
+        assertTrue(engine.diff(scan).keyframe);
+        engine.reset();
+        assertTrue(engine.diff(scan).keyframe);
+    }
+
+    @Test
+    public void duplicateBssidsCountOnce() {
+        ScanDiffEngine engine = new ScanDiffEngine(3, 10);
+        ScanDiffEngine.Diff diff = engine.diff(Arrays.asList(ap("a", -50), ap("a", -40)));
+        assertEquals(1, diff.added.size());
+    }
+
+    /**
+     * Payload saved by diff events over full scans for a stable environment: 300 access points
+     * with 2% of them appearing or disappearing per scan, default hysteresis and keyframe
+     * interval. Bytes are a serialized-size estimate of the network maps sent over the bridge.
+     * Keyframes alone are 10% of the full volume; the rest is churn and RSSI noise that crosses
+     * the hysteresis.
+     */
+    @Test
+    public void diffEventsSaveMostOfThePayloadWithLowNoise() {
+        double ratio = diffToFullPayloadRatio(1.0);
+        assertTrue("diff/full payload ratio " + ratio, ratio < 0.25);
+    }
+
+    @Test
+    public void diffEventsSaveHalfThePayloadWithNoiseNearTheHysteresis() {
+        double ratio = diffToFullPayloadRatio(2.0);
+        assertTrue("diff/full payload ratio " + ratio, ratio < 0.5);
+    }
+
+    private static double diffToFullPayloadRatio(double rssiNoiseDb) {
+        Random random = new Random(7);
+        int count = 300;
+        int[] base = new int[count];
+        boolean[] visible = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            base[i] = -40 - random.nextInt(50);
+            visible[i] = true;
+        }
+        ScanDiffEngine engine = new ScanDiffEngine(ScanDiffEngine.DEFAULT_RSSI_HYSTERESIS_DB,
+                ScanDiffEngine.DEFAULT_KEYFRAME_INTERVAL);
+        long fullBytes = 0;
+        long diffBytes = 0;
+        for (int scanIndex = 0; scanIndex < 100; scanIndex++) {
+            List<ScanRecord> scan = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (random.nextDouble() < 0.02) {
+                    visible[i] = !visible[i];
+                }
+                if (visible[i]) {
+                    int level = base[i] + (int) Math.round(random.nextGaussian() * rssiNoiseDb);
+                    scan.add(ap(String.format("02:00:00:00:%02x:%02x", i >> 8, i & 0xFF), level));
+                }
+            }
+            ScanDiffEngine.Diff diff = engine.diff(scan);
+            fullBytes += estimateMapBytes(scan);
+            diffBytes += estimateMapBytes(diff.added)
+                    + estimateMapBytes(diff.changed);
+            for (String bssid : diff.removed) {
+                diffBytes += bssid.length() + 3;
+            }
+        }
+        return (double) diffBytes / fullBytes;
+    }
+
+    /** Approximate JSON size of the records sent as one map per network. */
+    private static long estimateMapBytes(List<ScanRecord> records) {
+        long bytes = 2;
+        for (ScanRecord record : records) {
+            // Keys, punctuation and numbers, then the strings
+            bytes += 110 + record.ssid.length() + record.bssid.length() + record.capabilities.length();
+        }
+        return bytes;
+    }
+
+    private static List<String> bssids(List<ScanRecord> records) {
+        List<String> bssids = new ArrayList<>();
+        for (ScanRecord record : records) {
+            bssids.add(record.bssid);
+        }
+        return bssids;
+    }
+}
@@ -0,0 +1,177 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class ScanLogCodecTest {
+    private final ScanLogCodec.Encoder encoder = new ScanLogCodec.Encoder();
+    private final ByteArrayOutputStream file = new ByteArrayOutputStream();
+
+    private static ScanRecord ap(String ssid, String bssid, int level, String capabilities) {
+        return ScanRecord.create(ssid, bssid, level, capabilities, 5180, ChannelResolver.CHANNEL_WIDTH_80MHZ, 5210);
+    }
+
+    private void startFile() {
+        encoder.startFile();
+        file.write(encoder.buffer(), 0, encoder.size());
+    }
+
+    private void write(List<ScanRecord> records, long timestampMillis) {
+        encoder.encode(records, timestampMillis);
+        file.write(encoder.buffer(), 0, encoder.size());
+    }
+
+    private List<ScanSnapshot> decode(byte[] bytes) throws IOException {
+        ScanLogCodec.Decoder decoder = new ScanLogCodec.Decoder(new ByteArrayInputStream(bytes));
+        List<ScanSnapshot> scans = new ArrayList<>();
+        for (ScanSnapshot scan = decoder.next(); scan != null; scan = decoder.next()) {
+            scans.add(scan);
+        }
+        return scans;
+    }
+
+    static void assertSameRecords(List<ScanRecord> expected, List<ScanRecord> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            ScanRecord a = expected.get(i);
+            ScanRecord b = actual.get(i);
+            assertEquals(a.ssid, b.ssid);
+            assertEquals(a.bssid, b.bssid);
+            assertEquals(a.level, b.level);
+            assertEquals(a.capabilities, b.capabilities);
+            assertEquals(a.frequency, b.frequency);
+            assertEquals(a.channel, b.channel);
+            assertEquals(a.band, b.band);
+            assertEquals(a.centerChannel, b.centerChannel);
+            assertEquals(a.channelWidth, b.channelWidth);
+        }
+    }
+
+    @Test
+    public void roundTripsEveryField() throws IOException {
+        List<ScanRecord> first = Arrays.asList(
+                ap("home", "aa:aa", -40, "[WPA2-PSK-CCMP][ESS]"),
+                ap(null, "bb:bb", -95, null),
+                ap("caf\u00e9", "cc:cc", 0, "[ESS]"));
+        List<ScanRecord> second = Arrays.asList(
+                ap("home", "aa:aa", -80, "[WPA2-PSK-CCMP][ESS]"),
+                ap("home", "dd:dd", -60, "[WPA2-PSK-CCMP][ESS]"));
+        startFile();
+        write(first, 1_700_000_000_000L);
+        write(second, 1_700_000_005_000L);
+
+        List<ScanSnapshot> scans = decode(file.toByteArray());
+        assertEquals(2, scans.size());
+        assertSameRecords(first, scans.get(0).records);
+        assertEquals(1_700_000_000_000L, scans.get(0).timestampMillis);
+        assertSameRecords(second, scans.get(1).records);
+        assertEquals(1_700_000_005_000L, scans.get(1).timestampMillis);
+    }
+
+    @Test
+    public void stringsAreWrittenOncePerFile() {
+        List<ScanRecord> scan = Arrays.asList(ap("a-long-network-name", "aa:aa", -40, "[WPA2-PSK-CCMP][ESS]"));
+        startFile();
+        write(scan, 0);
+        int first = encoder.size();
+        write(scan, 1000);
+        // Tag, time delta, count and the network's seven fields, all ids; only the time delta
+        // and the frequency need two bytes
+        assertEquals(12, encoder.size());
+        assertTrue(first > 40);
+
+        // A new file repeats the definitions
+        encoder.startFile();
+        write(scan, 0);
+        assertEquals(first, encoder.size());
+    }
+
+    @Test
+    public void recordsWithoutBssidAreDropped() throws IOException {
+        startFile();
+        write(Arrays.asList(ap("x", null, -40, null), ap("y", "aa:aa", -50, null)), 0);
+        List<ScanRecord> records = decode(file.toByteArray()).get(0).records;
+        assertEquals(1, records.size());
+        assertEquals("aa:aa", records.get(0).bssid);
+    }
+
+    @Test
+    public void timestampsMayGoBackwards() throws IOException {
+        startFile();
+        write(Collections.<ScanRecord>emptyList(), 10_000);
+        write(Collections.<ScanRecord>emptyList(), 4_000);
+        List<ScanSnapshot> scans = decode(file.toByteArray());
+        assertEquals(10_000, scans.get(0).timestampMillis);
+        assertEquals(4_000, scans.get(1).timestampMillis);
+        assertTrue(scans.get(1).records.isEmpty());
+    }
+
+    @Test
+    public void dictionaryGrowsPastItsInitialSize() throws IOException {
+        List<ScanRecord> scan = new SyntheticEnvironment(7, 600).scan();
+        startFile();
+        write(scan, 0);
+        write(scan, 1000);
+        List<ScanSnapshot> scans = decode(file.toByteArray());
+        assertSameRecords(scan, scans.get(0).records);
+        assertSameRecords(scan, scans.get(1).records);
+    }
+
+    @Test
+    public void truncatedRecordEndsTheFile() throws IOException {
+        List<ScanRecord> scan = Arrays.asList(ap("home", "aa:aa", -40, "[ESS]"));
+        startFile();
+        write(scan, 0);
+        int complete = file.size();
+        write(scan, 1000);
+        byte[] bytes = file.toByteArray();
+        for (int cut = complete + 1; cut < bytes.length; cut++) {
+            List<ScanSnapshot> scans = decode(Arrays.copyOf(bytes, cut));
+            assertEquals("cut at " + cut, 1, scans.size());
+        }
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        expectHeaderError(new byte[] {'P', 'K', 3});
+        expectHeaderError(new byte[] {'W', 'L', ScanLogCodec.VERSION + 1});
+        expectHeaderError(new byte[0]);
+    }
+
+    @Test
+    public void rejectsUnknownRecords() throws IOException {
+        ScanLogCodec.Decoder decoder = new ScanLogCodec.Decoder(
+                new ByteArrayInputStream(new byte[] {'W', 'L', ScanLogCodec.VERSION, 9}));
+        try {
+            decoder.next();
+            fail("unknown tag accepted");
+        } catch (IOException e) {
+            assertEquals("Corrupt scan log: unknown record tag 9", e.getMessage());
+        }
+    }
+
+    @Test
+    public void emptyFileHasNoScans() throws IOException {
+        startFile();
+        assertNull(new ScanLogCodec.Decoder(new ByteArrayInputStream(file.toByteArray())).next());
+    }
+
+    private void expectHeaderError(byte[] bytes) {
+        try {
+            new ScanLogCodec.Decoder(new ByteArrayInputStream(bytes));
+            fail("header accepted");
+        } catch (IOException expected) {
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ScanLogTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final FakeClock clock = new FakeClock(1_000_000);
+    private final SyntheticEnvironment environment = new SyntheticEnvironment(11, 20);
+
+    private File directory() {
+        return new File(folder.getRoot(), "scan-log");
+    }
+
+    private ScanLog log(long maxFileBytes, long maxTotalBytes, long flushIntervalMs) {
+        return new ScanLog(clock, directory(), maxFileBytes, maxTotalBytes, flushIntervalMs);
+    }
+
+    /** Decodes every file on its own, oldest first. */
+    private List<List<ScanSnapshot>> readFiles() throws IOException {
+        List<List<ScanSnapshot>> files = new ArrayList<>();
+        for (File file : ScanLog.listFiles(directory())) {
+            List<ScanSnapshot> scans = new ArrayList<>();
+            try (InputStream in = ScanLog.openForReading(file)) {
+                ScanLogCodec.Decoder decoder = new ScanLogCodec.Decoder(in);
+                for (ScanSnapshot scan = decoder.next(); scan != null; scan = decoder.next()) {
+                    scans.add(scan);
+                }
+            }
+            files.add(scans);
+        }
+        return files;
+    }
+
+    private List<ScanSnapshot> appendScans(ScanLog log, int count) throws IOException {
+        List<ScanSnapshot> written = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            clock.advance(1000);
+            ScanSnapshot scan = new ScanSnapshot(environment.scan(), clock.nowMillis());
+            log.append(scan.records, scan.timestampMillis);
+            written.add(scan);
+        }
+        return written;
+    }
+
+    private static void assertSameScans(List<ScanSnapshot> expected, List<ScanSnapshot> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).timestampMillis, actual.get(i).timestampMillis);
+            ScanLogCodecTest.assertSameRecords(expected.get(i).records, actual.get(i).records);
+        }
+    }
+
+    @Test
+    public void scansRoundTripThroughAFile() throws IOException {
+        ScanLog log = log(ScanLog.DEFAULT_MAX_FILE_BYTES, ScanLog.DEFAULT_MAX_TOTAL_BYTES, 10_000);
+        log.open();
+        List<ScanSnapshot> written = appendScans(log, 5);
+        log.close();
+        assertFalse(log.isOpen());
+        assertEquals(5, log.getScansWritten());
+
+        List<List<ScanSnapshot>> files = readFiles();
+        assertEquals(1, files.size());
+        assertSameScans(written, files.get(0));
+    }
+
+    @Test
+    public void rotatedFilesDecodeOnTheirOwn() throws IOException {
+        ScanLog log = log(1024, 1024 * 1024, 10_000);
+        log.open();
+        List<ScanSnapshot> written = appendScans(log, 40);
+        log.close();
+
+        List<List<ScanSnapshot>> files = readFiles();
+        assertTrue(files.size() > 2);
+        List<ScanSnapshot> read = new ArrayList<>();
+        for (List<ScanSnapshot> file : files) {
+            assertFalse(file.isEmpty());
+            read.addAll(file);
+        }
+        assertSameScans(written, read);
+        for (File file : ScanLog.listFiles(directory())) {
+            assertTrue(file.length() <= 1024);
+        }
+    }
+
+    @Test
+    public void oldestFilesAreDeletedOverTheTotal() throws IOException {
+        ScanLog log = log(1024, 4096, 10_000);
+        log.open();
+        appendScans(log, 200);
+        log.close();
+        assertTrue(ScanLog.sizeOf(directory()) <= 4096);
+        assertFalse(ScanLog.listFiles(directory()).get(0).getName().equals("scans-0.wl"));
+    }
+
+    @Test
+    public void reopeningContinuesInANewFile() throws IOException {
+        ScanLog first = log(ScanLog.DEFAULT_MAX_FILE_BYTES, ScanLog.DEFAULT_MAX_TOTAL_BYTES, 10_000);
+        first.open();
+        List<ScanSnapshot> before = appendScans(first, 2);
+        first.close();
+        ScanLog second = log(ScanLog.DEFAULT_MAX_FILE_BYTES, ScanLog.DEFAULT_MAX_TOTAL_BYTES, 10_000);
+        second.open();
+        List<ScanSnapshot> after = appendScans(second, 2);
+        second.close();
+
+        List<File> files = ScanLog.listFiles(directory());
+        assertEquals("scans-0.wl", files.get(0).getName());
+        assertEquals("scans-1.wl", files.get(1).getName());
+        assertSameScans(before, readFiles().get(0));
+        assertSameScans(after, readFiles().get(1));
+    }
+
+    @Test
+    public void writesAreBufferedUntilTheFlushInterval() throws IOException {
+        ScanLog log = log(ScanLog.DEFAULT_MAX_FILE_BYTES, ScanLog.DEFAULT_MAX_TOTAL_BYTES, 10_000);
+        log.open();
+        File file = ScanLog.listFiles(directory()).get(0);
+        appendScans(log, 3);
+        assertEquals(0, file.length());
+
+        clock.advance(7_000);
+        appendScans(log, 1);
+        assertTrue(file.length() > ScanLogCodec.HEADER_BYTES);
+        assertEquals(4, readFiles().get(0).size());
+        log.close();
+    }
+
+    @Test
+    public void failedWriteContinuesInAFreshFile() throws Exception {
+        ScanLog log = log(ScanLog.DEFAULT_MAX_FILE_BYTES, ScanLog.DEFAULT_MAX_TOTAL_BYTES, 0);
+        log.open();
+        List<ScanSnapshot> before = appendScans(log, 1);
+
+        // Simulate the disk failing under the open file
+        Field channel = ScanLog.class.getDeclaredField("channel");
+        channel.setAccessible(true);
+        ((FileChannel) channel.get(log)).close();
+        SyntheticEnvironment other = new SyntheticEnvironment(12, 20);
+        try {
+            log.append(other.scan(), clock.nowMillis() + 1000);
+            fail("append to a closed channel succeeded");
+        } catch (IOException expected) {
+        }
+        assertTrue(log.isOpen());
+
+        // Strings of the failed scan were never written, so the new file has to define them again
+        clock.advance(2000);
+        ScanSnapshot after = new ScanSnapshot(other.scan(), clock.nowMillis());
+        log.append(after.records, after.timestampMillis);
+        log.close();
+
+        List<List<ScanSnapshot>> files = readFiles();
+        assertEquals(2, files.size());
+        assertSameScans(before, files.get(0));
+        assertEquals(1, files.get(1).size());
+        ScanLogCodecTest.assertSameRecords(after.records, files.get(1).get(0).records);
+    }
+
+    @Test
+    public void clearKeepsRecordingIntoANewFile() throws IOException {
+        ScanLog log = log(ScanLog.DEFAULT_MAX_FILE_BYTES, ScanLog.DEFAULT_MAX_TOTAL_BYTES, 10_000);
+        log.open();
+        appendScans(log, 3);
+        log.clear();
+        assertEquals(0, log.getScansWritten());
+        List<ScanSnapshot> after = appendScans(log, 1);
+        log.close();
+
+        List<List<ScanSnapshot>> files = readFiles();
+        assertEquals(1, files.size());
+        assertSameScans(after, files.get(0));
+    }
+
+    @Test
+    public void appendBeforeOpenIsIgnored() throws IOException {
+        ScanLog log = log(ScanLog.DEFAULT_MAX_FILE_BYTES, ScanLog.DEFAULT_MAX_TOTAL_BYTES, 10_000);
+        appendScans(log, 1);
+        assertEquals(0, log.getScansWritten());
+        assertFalse(directory().exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTinyFiles() {
+        log(512, 4096, 10_000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTotalBelowFileSize() {
+        log(4096, 2048, 10_000);
+    }
+}
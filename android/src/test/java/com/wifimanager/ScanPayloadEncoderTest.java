@@ -0,0 +1,165 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ScanPayloadEncoderTest {
+
+    @Test
+    public void columnsShareTheStringTable() {
+        List<ScanRecord> records = Arrays.asList(
+                ScanRecord.create("home", "aa", -40, "[WPA2-PSK-CCMP][ESS]", 2412, 0, 0),
+                ScanRecord.create("home", "bb", -60, "[WPA2-PSK-CCMP][ESS]", 5180, 0, 0),
+                ScanRecord.create(null, null, -80, null, 9999, 0, 0));
+        ScanPayloadEncoder.Columns columns = ScanPayloadEncoder.encodeColumns(records);
+        assertEquals(3, columns.count);
+        assertEquals(columns.ssid[0], columns.ssid[1]);
+        assertEquals(columns.capabilities[0], columns.capabilities[1]);
+        assertEquals(-1, columns.ssid[2]);
+        assertEquals(-1, columns.bssid[2]);
+        assertEquals(-1, columns.band[2]);
+        assertArrayEquals(new int[] {-40, -60, -80}, columns.signalStrength);
+    }
+
+    /** Decodes the binary layout the way decodeScanPayload.ts does and compares with the columns. */
+    @Test
+    public void binaryMatchesColumns() {
+        List<ScanRecord> scan = new SyntheticEnvironment(3, 300).scan();
+        ScanPayloadEncoder.Columns columns = ScanPayloadEncoder.encodeColumns(scan);
+        Reader reader = new Reader(ScanPayloadEncoder.encodeBinary(scan));
+
+        assertEquals('W', reader.bytes[0]);
+        assertEquals('S', reader.bytes[1]);
+        assertEquals(ScanPayloadEncoder.BINARY_VERSION, reader.bytes[2]);
+        reader.offset = 3;
+        int count = reader.varint();
+        assertEquals(columns.count, count);
+        String[] strings = new String[reader.varint()];
+        for (int i = 0; i < strings.length; i++) {
+            int length = reader.varint();
+            strings[i] = new String(reader.bytes, reader.offset, length, StandardCharsets.UTF_8);
+            reader.offset += length;
+        }
+        assertArrayEquals(columns.strings, strings);
+        assertArrayEquals(columns.ssid, reader.indexColumn(count));
+        assertArrayEquals(columns.bssid, reader.indexColumn(count));
+        assertArrayEquals(columns.capabilities, reader.indexColumn(count));
+        int[] signal = new int[count];
+        for (int i = 0; i < count; i++) {
+            int value = reader.varint();
+            signal[i] = (value >>> 1) ^ -(value & 1);
+        }
+        assertArrayEquals(columns.signalStrength, signal);
+        assertArrayEquals(columns.frequency, reader.column(count));
+        assertArrayEquals(columns.channel, reader.column(count));
+        assertArrayEquals(columns.band, reader.indexColumn(count));
+        assertArrayEquals(columns.centerChannel, reader.column(count));
+        assertArrayEquals(columns.channelWidth, reader.column(count));
+        assertArrayEquals(columns.security, reader.indexColumn(count));
+        assertArrayEquals(columns.securityFlags, reader.column(count));
+        assertEquals(reader.bytes.length, reader.offset);
+    }
+
+    @Test
+    public void packedFormatsAreSmallerThanMaps() {
+        List<ScanRecord> scan = new SyntheticEnvironment(5, 500).scan();
+        long maps = estimateMapBytes(scan);
+        long columnar = estimateColumnBytes(ScanPayloadEncoder.encodeColumns(scan));
+        long binary = Base64.getEncoder().encodeToString(ScanPayloadEncoder.encodeBinary(scan)).length();
+        assertTrue("columnar " + columnar + " vs maps " + maps, columnar * 2 < maps);
+        assertTrue("binary " + binary + " vs columnar " + columnar, binary < columnar);
+    }
+
+    @Test
+    public void parseFormat() {
+        assertEquals(ScanPayloadEncoder.Format.BINARY, ScanPayloadEncoder.parseFormat("binary"));
+        assertEquals(ScanPayloadEncoder.Format.COLUMNAR, ScanPayloadEncoder.parseFormat("columnar"));
+        assertEquals(ScanPayloadEncoder.Format.MAPS, ScanPayloadEncoder.parseFormat("maps"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownFormat() {
+        ScanPayloadEncoder.parseFormat("xml");
+    }
+
+    @Test
+    public void emptyScan() {
+        ScanPayloadEncoder.Columns columns = ScanPayloadEncoder.encodeColumns(Arrays.<ScanRecord>asList());
+        assertEquals(0, columns.count);
+        Reader reader = new Reader(ScanPayloadEncoder.encodeBinary(Arrays.<ScanRecord>asList()));
+        reader.offset = 3;
+        assertEquals(0, reader.varint());
+        assertEquals(0, reader.varint());
+        assertEquals(reader.bytes.length, reader.offset);
+    }
+
+    /** Approximate JSON size of the records sent as one map per network. */
+    private static long estimateMapBytes(List<ScanRecord> records) {
+        long bytes = 2;
+        for (ScanRecord record : records) {
+            // Keys, punctuation and numbers, then the strings
+            bytes += 180 + lengthOf(record.ssid) + lengthOf(record.bssid) + lengthOf(record.capabilities)
+                    + record.security.label.length();
+        }
+        return bytes;
+    }
+
+    /** Approximate JSON size of the columns sent as a map of arrays. */
+    private static long estimateColumnBytes(ScanPayloadEncoder.Columns columns) {
+        long bytes = 100;
+        for (String value : columns.strings) {
+            bytes += value.length() + 3;
+        }
+        // One number and a separator per cell, eleven columns
+        return bytes + (long) columns.count * 11 * 4;
+    }
+
+    private static int lengthOf(String value) {
+        return value != null ? value.length() : 4;
+    }
+
+    private static final class Reader {
+        final byte[] bytes;
+        int offset;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int varint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        int[] column(int count) {
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = varint();
+            }
+            return values;
+        }
+
+        int[] indexColumn(int count) {
+            int[] values = column(count);
+            for (int i = 0; i < count; i++) {
+                values[i]--;
+            }
+            return values;
+        }
+    }
+}
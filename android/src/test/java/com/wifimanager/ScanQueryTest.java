@@ -0,0 +1,225 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.PatternSyntaxException;
+import org.junit.Test;
+
+import com.wifimanager.ScanQuery.Security;
+import com.wifimanager.ScanQuery.SortKey;
+
+public class ScanQueryTest {
+    private static final String WPA2 = "[WPA2-PSK-CCMP][ESS]";
+
+    private static ScanRecord ap(String ssid, String bssid, int level, int frequency) {
+        return ap(ssid, bssid, level, frequency, WPA2);
+    }
+
+    private static ScanRecord ap(String ssid, String bssid, int level, int frequency, String capabilities) {
+        return ScanRecord.create(ssid, bssid, level, capabilities, frequency, ChannelResolver.CHANNEL_WIDTH_20MHZ, 0);
+    }
+
+    private static List<String> bssids(List<ScanRecord> records) {
+        List<String> bssids = new ArrayList<>();
+        for (ScanRecord record : records) {
+            bssids.add(record.bssid);
+        }
+        return bssids;
+    }
+
+    private static List<String> apply(ScanQuery.Builder builder, ScanRecord... records) {
+        return bssids(builder.build().apply(Arrays.asList(records)));
+    }
+
+    @Test
+    public void emptyQueryPassesTheScanThrough() {
+        List<ScanRecord> scan = Arrays.asList(ap("a", "aa", -50, 2412), ap("b", "bb", -70, 5180));
+        assertTrue(ScanQuery.ALL.isPassThrough());
+        assertSame(scan, ScanQuery.ALL.apply(scan));
+        assertFalse(new ScanQuery.Builder().limit(1).build().isPassThrough());
+        assertFalse(new ScanQuery.Builder().sortBy(SortKey.SSID).build().isPassThrough());
+        assertFalse(new ScanQuery.Builder().excludeHidden(true).build().isPassThrough());
+        // A sort order alone has nothing to order by
+        assertTrue(new ScanQuery.Builder().descending(true).build().isPassThrough());
+    }
+
+    @Test
+    public void minRssiKeepsNetworksAtTheThreshold() {
+        assertEquals(Arrays.asList("aa", "bb"), apply(new ScanQuery.Builder().minRssi(-70),
+                ap("a", "aa", -50, 2412), ap("b", "bb", -70, 2437), ap("c", "cc", -71, 2462)));
+    }
+
+    @Test
+    public void bandFilterMatchesAnyRequestedBand() {
+        ScanRecord twoFour = ap("a", "aa", -50, 2412);
+        ScanRecord five = ap("b", "bb", -50, 5180);
+        ScanRecord six = ap("c", "cc", -50, 5975);
+        assertEquals(Collections.singletonList("bb"),
+                apply(new ScanQuery.Builder().band(ChannelResolver.Band.GHZ_5), twoFour, five, six));
+        assertEquals(Arrays.asList("aa", "cc"), apply(new ScanQuery.Builder()
+                .band(ChannelResolver.Band.GHZ_2_4).band(ChannelResolver.Band.GHZ_6), twoFour, five, six));
+    }
+
+    @Test
+    public void securityFilterUsesTheStrongestAdvertisedType() {
+        ScanRecord open = ap("a", "aa", -50, 2412, "[ESS]");
+        ScanRecord wpa2 = ap("b", "bb", -50, 2412);
+        ScanRecord transition = ap("c", "cc", -50, 2412, "[WPA2-PSK-CCMP][RSN-PSK+SAE-CCMP][ESS][MFPC]");
+        ScanRecord enterprise = ap("d", "dd", -50, 2412, "[WPA2-EAP/SHA1-CCMP][RSN-EAP/SHA1-CCMP][ESS]");
+        assertEquals(Collections.singletonList("bb"),
+                apply(new ScanQuery.Builder().security(Security.WPA2), open, wpa2, transition, enterprise));
+        assertEquals(Arrays.asList("aa", "cc", "dd"), apply(new ScanQuery.Builder()
+                .security(Security.OPEN).security(Security.WPA3).security(Security.ENTERPRISE),
+                open, wpa2, transition, enterprise));
+    }
+
+    @Test
+    public void ssidPrefixIsAnchoredAndPatternIsNot() {
+        ScanRecord[] scan = {
+                ap("Office-1", "aa", -50, 2412), ap("My Office", "bb", -50, 2412),
+                ap("office-2", "cc", -50, 2412), ap(null, "dd", -50, 2412)
+        };
+        assertEquals(Collections.singletonList("aa"), apply(new ScanQuery.Builder().ssidPrefix("Office"), scan));
+        // find() semantics: the pattern may match anywhere unless it anchors itself
+        assertEquals(Arrays.asList("aa", "bb"), apply(new ScanQuery.Builder().ssidPattern("Office"), scan));
+        assertEquals(Arrays.asList("aa", "bb", "cc"), apply(new ScanQuery.Builder().ssidPattern("(?i)office"), scan));
+        assertEquals(Collections.singletonList("cc"), apply(new ScanQuery.Builder().ssidPattern("^office-\\d$"), scan));
+    }
+
+    @Test
+    public void excludeHiddenDropsEmptyAndMissingSsids() {
+        assertEquals(Collections.singletonList("aa"), apply(new ScanQuery.Builder().excludeHidden(true),
+                ap("a", "aa", -50, 2412), ap("", "bb", -40, 2412), ap(null, "cc", -30, 2412)));
+    }
+
+    @Test
+    public void dedupeKeepsTheStrongestAccessPointInScanPosition() {
+        assertEquals(Arrays.asList("a2", "b1"), apply(new ScanQuery.Builder().dedupeBySsid(true),
+                ap("a", "a1", -70, 2412), ap("b", "b1", -60, 2412),
+                ap("a", "a2", -50, 5180), ap("a", "a3", -55, 5200)));
+    }
+
+    @Test
+    public void dedupeLeavesHiddenNetworksAlone() {
+        assertEquals(Arrays.asList("aa", "bb", "cc", "dd"), apply(new ScanQuery.Builder().dedupeBySsid(true),
+                ap("", "aa", -50, 2412), ap("", "bb", -60, 2412), ap(null, "cc", -70, 2412),
+                ap(null, "dd", -80, 2412)));
+    }
+
+    @Test
+    public void limitWithoutSortKeepsTheStrongest() {
+        assertEquals(Arrays.asList("cc", "aa"), apply(new ScanQuery.Builder().limit(2),
+                ap("a", "aa", -60, 2412), ap("b", "bb", -80, 2412), ap("c", "cc", -40, 2412),
+                ap("d", "dd", -70, 2412)));
+        // An explicit ascending order still applies to the implied key
+        assertEquals(Arrays.asList("bb", "dd"), apply(new ScanQuery.Builder().limit(2).descending(false),
+                ap("a", "aa", -60, 2412), ap("b", "bb", -80, 2412), ap("c", "cc", -40, 2412),
+                ap("d", "dd", -70, 2412)));
+    }
+
+    @Test
+    public void sortWithoutLimitKeepsEveryNetwork() {
+        ScanRecord[] scan = {
+                ap("beta", "aa", -60, 5180), ap("Alpha", "bb", -80, 2437), ap("gamma", "cc", -40, 2412)
+        };
+        assertEquals(Arrays.asList("cc", "aa", "bb"), apply(new ScanQuery.Builder().sortBy(SortKey.SIGNAL_STRENGTH), scan));
+        assertEquals(Arrays.asList("bb", "aa", "cc"), apply(new ScanQuery.Builder().sortBy(SortKey.SSID), scan));
+        assertEquals(Arrays.asList("cc", "bb", "aa"), apply(new ScanQuery.Builder().sortBy(SortKey.FREQUENCY), scan));
+        assertEquals(Arrays.asList("aa", "bb", "cc"),
+                apply(new ScanQuery.Builder().sortBy(SortKey.CHANNEL).descending(true), scan));
+    }
+
+    @Test
+    public void boundedLimitMatchesSortingEverything() {
+        List<ScanRecord> scan = new SyntheticEnvironment(7, 300).scan();
+        for (SortKey key : SortKey.values()) {
+            for (boolean descending : new boolean[] {false, true}) {
+                List<ScanRecord> sorted = new ScanQuery.Builder().sortBy(key).descending(descending).build().apply(scan);
+                List<ScanRecord> top = new ScanQuery.Builder().sortBy(key).descending(descending).limit(25)
+                        .build().apply(scan);
+                assertEquals(key + " " + descending, 25, top.size());
+                // Ties at the cut may keep either record, so compare the sort key only
+                for (int i = 0; i < top.size(); i++) {
+                    assertEquals(key + " " + descending + " #" + i, keyOf(key, sorted.get(i)), keyOf(key, top.get(i)));
+                }
+            }
+        }
+    }
+
+    private static Object keyOf(SortKey key, ScanRecord record) {
+        switch (key) {
+            case SSID:
+                return record.ssid != null ? record.ssid.toLowerCase(Locale.US) : "";
+            case FREQUENCY:
+                return record.frequency;
+            case CHANNEL:
+                return record.channel;
+            case SIGNAL_STRENGTH:
+            default:
+                return record.level;
+        }
+    }
+
+    @Test
+    public void tiesAtTheLimitKeepEveryStrongerNetwork() {
+        List<String> top = apply(new ScanQuery.Builder().limit(3),
+                ap("a", "aa", -60, 2412), ap("b", "bb", -50, 2412), ap("c", "cc", -60, 2412),
+                ap("d", "dd", -60, 2412), ap("e", "ee", -70, 2412));
+        assertEquals(3, top.size());
+        assertEquals("bb", top.get(0));
+        assertFalse(top.contains("ee"));
+    }
+
+    @Test
+    public void limitAtOrAboveTheResultCountKeepsEverything() {
+        assertEquals(Arrays.asList("bb", "aa"), apply(new ScanQuery.Builder().limit(2),
+                ap("a", "aa", -60, 2412), ap("b", "bb", -50, 2412)));
+        assertEquals(Arrays.asList("bb", "aa"), apply(new ScanQuery.Builder().limit(10),
+                ap("a", "aa", -60, 2412), ap("b", "bb", -50, 2412)));
+    }
+
+    @Test
+    public void filtersApplyBeforeTheLimit() {
+        assertEquals(Arrays.asList("cc", "dd"), apply(new ScanQuery.Builder().band(ChannelResolver.Band.GHZ_5).limit(2),
+                ap("a", "aa", -30, 2412), ap("b", "bb", -35, 2437), ap("c", "cc", -50, 5180),
+                ap("d", "dd", -60, 5200), ap("e", "ee", -70, 5220)));
+    }
+
+    @Test
+    public void parsesSecuritySortKeyAndOrder() {
+        assertEquals(Security.WPA3, ScanQuery.parseSecurity("wpa3"));
+        assertEquals(Security.ENTERPRISE, ScanQuery.parseSecurity("Enterprise"));
+        assertEquals(SortKey.SIGNAL_STRENGTH, ScanQuery.parseSortKey("signalStrength"));
+        assertEquals(SortKey.CHANNEL, ScanQuery.parseSortKey("channel"));
+        assertTrue(ScanQuery.parseSortOrder("desc"));
+        assertFalse(ScanQuery.parseSortOrder("asc"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownSecurity() {
+        ScanQuery.parseSecurity("wpa4");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownSortKey() {
+        ScanQuery.parseSortKey("rssi");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownSortOrder() {
+        ScanQuery.parseSortOrder("descending");
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void rejectsInvalidPattern() {
+        new ScanQuery.Builder().ssidPattern("office[");
+    }
+}
@@ -0,0 +1,151 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class ScanResultCacheTest {
+    private final FakeClock clock = new FakeClock(1_000_000);
+    private final ScanResultCache<String> cache = new ScanResultCache<>(clock);
+
+    /** Records what one waiter was told. */
+    private static final class Recorder implements ScanResultCache.Callback<String> {
+        final List<String> results = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+
+        @Override
+        public void onResult(String result) {
+            results.add(result);
+        }
+
+        @Override
+        public void onError(String code, String message) {
+            errors.add(code);
+        }
+    }
+
+    @Test
+    public void firstCallerStartsTheScanOthersJoinIt() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        Recorder third = new Recorder();
+        assertTrue(cache.enqueue(first));
+        assertTrue(cache.isInFlight());
+        assertFalse(cache.enqueue(second));
+        assertFalse(cache.enqueue(third));
+
+        cache.complete("scan-1");
+        assertFalse(cache.isInFlight());
+        assertEquals(1, first.results.size());
+        assertSame("scan-1", second.results.get(0));
+        assertSame("scan-1", third.results.get(0));
+    }
+
+    @Test
+    public void waitersAreNotifiedOncePerRound() {
+        Recorder first = new Recorder();
+        cache.enqueue(first);
+        cache.complete("scan-1");
+
+        Recorder next = new Recorder();
+        assertTrue(cache.enqueue(next));
+        cache.complete("scan-2");
+        assertEquals(1, first.results.size());
+        assertEquals("scan-2", next.results.get(0));
+    }
+
+    @Test
+    public void failureReachesEveryWaiterAndKeepsPreviousSnapshot() {
+        cache.enqueue(new Recorder());
+        cache.complete("scan-1");
+
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        cache.enqueue(first);
+        cache.enqueue(second);
+        cache.fail("SCAN_FAILED", "busy");
+        assertEquals(1, first.errors.size());
+        assertEquals(1, second.errors.size());
+        assertTrue(first.results.isEmpty());
+        assertFalse(cache.isInFlight());
+        assertEquals("scan-1", cache.getIfFresh(1000));
+    }
+
+    @Test
+    public void freshWithinMaxAgeOnly() {
+        assertNull(cache.getIfFresh(10_000));
+        cache.enqueue(new Recorder());
+        cache.complete("scan-1");
+        assertEquals("scan-1", cache.getIfFresh(10_000));
+
+        clock.advance(10_000);
+        assertEquals("scan-1", cache.getIfFresh(10_000));
+        assertEquals(10_000, cache.getAgeMillis());
+        clock.advance(1);
+        assertNull(cache.getIfFresh(10_000));
+        assertEquals("scan-1", cache.getIfFresh(20_000));
+    }
+
+    @Test
+    public void servedResultsReachWaitersWithoutRefreshingTheCache() {
+        cache.enqueue(new Recorder());
+        cache.complete("scan-1");
+        clock.advance(60_000);
+
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        assertTrue(cache.enqueue(first));
+        cache.enqueue(second);
+        cache.serve("served");
+        assertEquals("served", first.results.get(0));
+        assertEquals("served", second.results.get(0));
+        assertFalse(cache.isInFlight());
+        assertNull(cache.getIfFresh(10_000));
+        assertEquals("scan-1", cache.getIfFresh(60_000));
+        assertEquals(60_000, cache.getAgeMillis());
+    }
+
+    @Test
+    public void nonPositiveMaxAgeNeverMatches() {
+        cache.enqueue(new Recorder());
+        cache.complete("scan-1");
+        assertNull(cache.getIfFresh(0));
+        assertNull(cache.getIfFresh(-1));
+    }
+
+    @Test
+    public void clearDropsSnapshot() {
+        cache.enqueue(new Recorder());
+        cache.complete("scan-1");
+        cache.clear();
+        assertNull(cache.getIfFresh(Long.MAX_VALUE));
+        assertEquals(-1, cache.getAgeMillis());
+    }
+
+    @Test
+    public void waiterEnqueuedDuringCallbackStartsNextRound() {
+        final Recorder late = new Recorder();
+        final boolean[] started = new boolean[1];
+        cache.enqueue(new ScanResultCache.Callback<String>() {
+            @Override
+            public void onResult(String result) {
+                // Callbacks run after the round is drained, so this caller owns a new scan
+                started[0] = cache.enqueue(late);
+            }
+
+            @Override
+            public void onError(String code, String message) {
+            }
+        });
+        cache.complete("scan-1");
+        assertTrue(started[0]);
+        assertTrue(cache.isInFlight());
+        assertTrue(late.results.isEmpty());
+    }
+}
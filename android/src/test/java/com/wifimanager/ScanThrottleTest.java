@@ -0,0 +1,97 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ScanThrottleTest {
+    private final FakeClock clock = new FakeClock(1_000_000);
+    private final ScanThrottle throttle = new ScanThrottle(clock);
+
+    @Test
+    public void allowsFourScansPerWindow() {
+        for (int i = 0; i < ScanThrottle.DEFAULT_MAX_SCANS; i++) {
+            assertTrue(throttle.tryAcquire());
+            clock.advance(1000);
+        }
+        assertFalse(throttle.tryAcquire());
+        assertEquals(0, throttle.getRemaining());
+    }
+
+    @Test
+    public void windowSlidesFromOldestScan() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(throttle.tryAcquire());
+            clock.advance(10_000);
+        }
+        // First scan was at t0, now is t0 + 40 s; it frees up at t0 + 120 s
+        assertEquals(clock.nowMillis() + 80_000, throttle.getNextAllowedAt());
+        clock.advance(79_999);
+        assertFalse(throttle.tryAcquire());
+        clock.advance(1);
+        assertTrue(throttle.tryAcquire());
+        assertFalse(throttle.tryAcquire());
+        // Second scan (t0 + 10 s) frees the next slot
+        clock.advance(10_000);
+        assertEquals(1, throttle.getRemaining());
+    }
+
+    @Test
+    public void remainingRecoversAfterFullWindow() {
+        for (int i = 0; i < 4; i++) {
+            throttle.tryAcquire();
+        }
+        clock.advance(ScanThrottle.DEFAULT_WINDOW_MS);
+        assertEquals(4, throttle.getRemaining());
+        assertEquals(clock.nowMillis(), throttle.getNextAllowedAt());
+    }
+
+    @Test
+    public void onThrottledBlocksUntilOldestScanExpires() {
+        assertTrue(throttle.tryAcquire());
+        clock.advance(30_000);
+        throttle.onThrottled();
+        assertEquals(0, throttle.getRemaining());
+        assertFalse(throttle.tryAcquire());
+        assertEquals(clock.nowMillis() + 90_000, throttle.getNextAllowedAt());
+        clock.advance(90_000);
+        assertTrue(throttle.tryAcquire());
+    }
+
+    @Test
+    public void onThrottledWithoutOwnScansBlocksForWholeWindow() {
+        throttle.onThrottled();
+        assertEquals(clock.nowMillis() + ScanThrottle.DEFAULT_WINDOW_MS, throttle.getNextAllowedAt());
+        clock.advance(ScanThrottle.DEFAULT_WINDOW_MS - 1);
+        assertFalse(throttle.tryAcquire());
+        clock.advance(1);
+        assertTrue(throttle.tryAcquire());
+    }
+
+    @Test
+    public void disabledThrottleNeverBlocks() {
+        throttle.setEnabled(false);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(throttle.tryAcquire());
+        }
+        assertEquals(4, throttle.getRemaining());
+        assertEquals(clock.nowMillis(), throttle.getNextAllowedAt());
+    }
+
+    @Test
+    public void customBudget() {
+        ScanThrottle custom = new ScanThrottle(clock, 2, 1000);
+        assertTrue(custom.tryAcquire());
+        assertTrue(custom.tryAcquire());
+        assertFalse(custom.tryAcquire());
+        clock.advance(1000);
+        assertTrue(custom.tryAcquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyBudget() {
+        new ScanThrottle(clock, 0, 1000);
+    }
+}
@@ -0,0 +1,173 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Locale;
+import org.junit.Test;
+
+import com.wifimanager.ScanQuery.Security;
+
+public class SecurityCapabilitiesTest {
+    private static final int RSN_PSK_CCMP = SecurityCapabilities.RSN | SecurityCapabilities.PSK
+            | SecurityCapabilities.CCMP;
+
+    /** A capabilities string as reported by ScanResult, with the label and flags it must parse to. */
+    private static final class Case {
+        final String capabilities;
+        final Security security;
+        final int flags;
+
+        Case(String capabilities, Security security, int flags) {
+            this.capabilities = capabilities;
+            this.security = security;
+            this.flags = flags;
+        }
+    }
+
+    // Strings seen from Android 8 to 15 scans across vendors
+    private static final Case[] CORPUS = {
+            new Case("[ESS]", Security.OPEN, SecurityCapabilities.ESS),
+            new Case("[IBSS]", Security.OPEN, SecurityCapabilities.IBSS),
+            new Case("[WPS][ESS]", Security.OPEN, SecurityCapabilities.WPS | SecurityCapabilities.ESS),
+            new Case("[WEP][ESS]", Security.WEP, SecurityCapabilities.WEP | SecurityCapabilities.ESS),
+            new Case("[WEP]", Security.WEP, SecurityCapabilities.WEP),
+            new Case("[WPA-PSK-TKIP][ESS]", Security.WPA, SecurityCapabilities.WPA | SecurityCapabilities.PSK
+                    | SecurityCapabilities.TKIP | SecurityCapabilities.ESS),
+            new Case("[WPA-PSK-CCMP+TKIP][WPA2-PSK-CCMP+TKIP][ESS][WPS]", Security.WPA2,
+                    SecurityCapabilities.WPA | RSN_PSK_CCMP | SecurityCapabilities.TKIP
+                            | SecurityCapabilities.ESS | SecurityCapabilities.WPS),
+            new Case("[WPA2-PSK-CCMP][ESS]", Security.WPA2, RSN_PSK_CCMP | SecurityCapabilities.ESS),
+            new Case("[RSN-PSK-CCMP][ESS]", Security.WPA2, RSN_PSK_CCMP | SecurityCapabilities.ESS),
+            new Case("[WPA2-PSK-CCMP][RSN-PSK-CCMP][ESS][WPS]", Security.WPA2,
+                    RSN_PSK_CCMP | SecurityCapabilities.ESS | SecurityCapabilities.WPS),
+            new Case("[WPA2-FT/PSK-CCMP][ESS]", Security.WPA2,
+                    RSN_PSK_CCMP | SecurityCapabilities.FT | SecurityCapabilities.ESS),
+            new Case("[WPA2-PSK+FT/PSK-CCMP][RSN-PSK+FT/PSK-CCMP][ESS]", Security.WPA2,
+                    RSN_PSK_CCMP | SecurityCapabilities.FT | SecurityCapabilities.ESS),
+            new Case("[WPA2][ESS]", Security.WPA2, SecurityCapabilities.RSN | SecurityCapabilities.ESS),
+            new Case("[WPA2-PSK-CCMP][RSN-PSK+SAE-CCMP][ESS][MFPC]", Security.WPA3,
+                    RSN_PSK_CCMP | SecurityCapabilities.SAE | SecurityCapabilities.ESS | SecurityCapabilities.MFPC),
+            new Case("[RSN-SAE-CCMP][ESS][MFPR][MFPC]", Security.WPA3, SecurityCapabilities.RSN
+                    | SecurityCapabilities.SAE | SecurityCapabilities.CCMP | SecurityCapabilities.ESS
+                    | SecurityCapabilities.MFPR | SecurityCapabilities.MFPC),
+            new Case("[RSN-SAE+FT/SAE-GCMP-256][ESS][MFPR][MFPC]", Security.WPA3, SecurityCapabilities.RSN
+                    | SecurityCapabilities.SAE | SecurityCapabilities.FT | SecurityCapabilities.GCMP
+                    | SecurityCapabilities.ESS | SecurityCapabilities.MFPR | SecurityCapabilities.MFPC),
+            new Case("[RSN-OWE-CCMP][ESS][MFPR][MFPC]", Security.OWE, SecurityCapabilities.RSN
+                    | SecurityCapabilities.OWE | SecurityCapabilities.CCMP | SecurityCapabilities.ESS
+                    | SecurityCapabilities.MFPR | SecurityCapabilities.MFPC),
+            new Case("[RSN-OWE_TRANSITION-CCMP][ESS]", Security.OWE, SecurityCapabilities.RSN
+                    | SecurityCapabilities.OWE | SecurityCapabilities.CCMP | SecurityCapabilities.ESS),
+            new Case("[WPA2-EAP/SHA1-CCMP][RSN-EAP/SHA1-CCMP][ESS]", Security.ENTERPRISE,
+                    SecurityCapabilities.RSN | SecurityCapabilities.EAP | SecurityCapabilities.CCMP
+                            | SecurityCapabilities.ESS),
+            new Case("[WPA-EAP-TKIP][WPA2-EAP-CCMP][ESS]", Security.ENTERPRISE, SecurityCapabilities.WPA
+                    | SecurityCapabilities.RSN | SecurityCapabilities.EAP | SecurityCapabilities.TKIP
+                    | SecurityCapabilities.CCMP | SecurityCapabilities.ESS),
+            new Case("[WPA2-EAP/SHA1+FT/EAP-CCMP][ESS]", Security.ENTERPRISE, SecurityCapabilities.RSN
+                    | SecurityCapabilities.EAP | SecurityCapabilities.FT | SecurityCapabilities.CCMP
+                    | SecurityCapabilities.ESS),
+            new Case("[RSN-EAP_SUITE_B_192-GCMP-256][ESS][MFPR][MFPC]", Security.ENTERPRISE,
+                    SecurityCapabilities.RSN | SecurityCapabilities.EAP | SecurityCapabilities.EAP_SUITE_B
+                            | SecurityCapabilities.GCMP | SecurityCapabilities.ESS | SecurityCapabilities.MFPR
+                            | SecurityCapabilities.MFPC),
+            new Case("[RSN-EAP/SHA256+SAE-CCMP][ESS][MFPC]", Security.ENTERPRISE, SecurityCapabilities.RSN
+                    | SecurityCapabilities.EAP | SecurityCapabilities.SAE | SecurityCapabilities.CCMP
+                    | SecurityCapabilities.ESS | SecurityCapabilities.MFPC),
+            new Case("[WAPI-PSK-SMS4][ESS]", Security.OPEN, SecurityCapabilities.WAPI | SecurityCapabilities.PSK
+                    | SecurityCapabilities.ESS),
+            new Case("[WAPI-CERT-SMS4][ESS]", Security.OPEN, SecurityCapabilities.WAPI | SecurityCapabilities.ESS),
+            new Case("[ESS][P2P]", Security.OPEN, SecurityCapabilities.ESS),
+            new Case("WPA2-PSK-CCMP", Security.WPA2, RSN_PSK_CCMP),
+            new Case("[WPA2-PSK-CCMP", Security.WPA2, RSN_PSK_CCMP),
+            new Case("[]", Security.OPEN, 0),
+    };
+
+    /** The substring checks the security filter used before capabilities were parsed. */
+    private static Security substringSecurityOf(String capabilities) {
+        if (capabilities == null) {
+            return Security.OPEN;
+        }
+        if (capabilities.contains("EAP")) {
+            return Security.ENTERPRISE;
+        }
+        if (capabilities.contains("SAE")) {
+            return Security.WPA3;
+        }
+        if (capabilities.contains("OWE")) {
+            return Security.OWE;
+        }
+        if (capabilities.contains("RSN") || capabilities.contains("WPA2")) {
+            return Security.WPA2;
+        }
+        if (capabilities.contains("WPA")) {
+            return Security.WPA;
+        }
+        if (capabilities.contains("WEP")) {
+            return Security.WEP;
+        }
+        return Security.OPEN;
+    }
+
+    @Test
+    public void corpusParsesToExpectedFlagsAndLabel() {
+        for (Case c : CORPUS) {
+            SecurityCapabilities parsed = SecurityCapabilities.of(c.capabilities);
+            assertEquals(c.capabilities, Integer.toBinaryString(c.flags), Integer.toBinaryString(parsed.flags));
+            assertEquals(c.capabilities, c.security, parsed.security);
+            assertEquals(c.capabilities, c.security.name().toLowerCase(Locale.US), parsed.label);
+        }
+    }
+
+    @Test
+    public void labelsMatchTheEarlierSubstringFilter() {
+        for (Case c : CORPUS) {
+            assertEquals(c.capabilities, substringSecurityOf(c.capabilities),
+                    SecurityCapabilities.of(c.capabilities).security);
+        }
+        for (ScanRecord record : new SyntheticEnvironment(9, 200).scan()) {
+            assertEquals(record.capabilities, substringSecurityOf(record.capabilities), record.security.security);
+        }
+    }
+
+    @Test
+    public void missingCapabilitiesAreOpen() {
+        assertSame(SecurityCapabilities.NONE, SecurityCapabilities.of(null));
+        assertSame(SecurityCapabilities.NONE, SecurityCapabilities.of(""));
+        assertEquals(0, SecurityCapabilities.NONE.flags);
+        assertEquals("open", SecurityCapabilities.NONE.label);
+    }
+
+    @Test
+    public void repeatedStringsShareOneInstance() {
+        SecurityCapabilities first = SecurityCapabilities.of("[WPA2-PSK-CCMP][ESS][WPS]");
+        assertSame(first, SecurityCapabilities.of(new String("[WPA2-PSK-CCMP][ESS][WPS]")));
+        ScanRecord a = ScanRecord.create("a", "aa", -50, "[WPA2-PSK-CCMP][ESS][WPS]", 2412, 0, 0);
+        ScanRecord b = ScanRecord.create("b", "bb", -60, "[WPA2-PSK-CCMP][ESS][WPS]", 5180, 0, 0);
+        assertSame(a.security, b.security);
+    }
+
+    @Test
+    public void cacheEvictsTheLeastRecentlyUsed() {
+        SecurityCapabilities kept = SecurityCapabilities.of("[WPA2-PSK-CCMP][ESS][kept]");
+        SecurityCapabilities evicted = SecurityCapabilities.of("[WPA2-PSK-CCMP][ESS][evicted]");
+        for (int i = 0; i < 100; i++) {
+            SecurityCapabilities.of("[WPA2-PSK-CCMP][ESS][filler-" + i + "]");
+            // Touching it keeps it at the recent end
+            assertSame(kept, SecurityCapabilities.of("[WPA2-PSK-CCMP][ESS][kept]"));
+        }
+        SecurityCapabilities reparsed = SecurityCapabilities.of("[WPA2-PSK-CCMP][ESS][evicted]");
+        assertNotSame(evicted, reparsed);
+        assertEquals(evicted.flags, reparsed.flags);
+    }
+
+    @Test
+    public void parseMatchesTheInternedValue() {
+        for (Case c : CORPUS) {
+            assertEquals(c.capabilities, SecurityCapabilities.of(c.capabilities).flags,
+                    SecurityCapabilities.parse(c.capabilities));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class SignalHistoryTest {
+    private static final double EPSILON = 1e-9;
+
+    private static ScanRecord ap(String bssid, int level) {
+        return ScanRecord.create("net", bssid, level, "[ESS]", 2437, ChannelResolver.CHANNEL_WIDTH_20MHZ, 0);
+    }
+
+    private static List<ScanRecord> scan(ScanRecord... records) {
+        return Arrays.asList(records);
+    }
+
+    private static SignalHistory history(int depth, int maxAccessPoints) {
+        return new SignalHistory(depth, maxAccessPoints * SignalHistory.bytesPerSeries(depth), 60_000, 0.5);
+    }
+
+    private static int[] levels(SignalHistory.Series series) {
+        int[] levels = new int[series.size()];
+        series.copySamples(levels, new long[series.size()]);
+        return levels;
+    }
+
+    @Test
+    public void keepsTheLastDepthSamplesOldestFirst() {
+        SignalHistory history = history(3, 10);
+        for (int i = 1; i <= 5; i++) {
+            history.ingest(scan(ap("aa", -40 - i)), i * 1000L);
+        }
+        SignalHistory.Series series = history.get("aa");
+        assertEquals(3, series.size());
+        int[] levels = new int[3];
+        long[] times = new long[3];
+        series.copySamples(levels, times);
+        assertArrayEquals(new int[] {-43, -44, -45}, levels);
+        assertArrayEquals(new long[] {3000, 4000, 5000}, times);
+        assertEquals(5000, series.getLastSeen());
+    }
+
+    @Test
+    public void statsCoverRetainedSamplesOnly() {
+        SignalHistory history = history(4, 10);
+        int[] levels = {-90, -50, -60, -70, -80};
+        for (int i = 0; i < levels.length; i++) {
+            history.ingest(scan(ap("aa", levels[i])), i * 1000L);
+        }
+        SignalHistory.Stats stats = history.get("aa").stats();
+        assertEquals(4, stats.samples);
+        assertEquals(-80, stats.min);
+        assertEquals(-50, stats.max);
+        assertEquals(-65, stats.mean, EPSILON);
+        assertEquals(125, stats.variance, EPSILON);
+        assertEquals(4000, stats.lastSeen);
+    }
+
+    @Test
+    public void ewmaStartsAtTheFirstSample() {
+        SignalHistory history = history(4, 10);
+        history.ingest(scan(ap("aa", -60)), 0);
+        assertEquals(-60, history.get("aa").getEwma(), EPSILON);
+        history.ingest(scan(ap("aa", -40)), 1000);
+        assertEquals(-50, history.get("aa").getEwma(), EPSILON);
+        history.ingest(scan(ap("aa", -40)), 2000);
+        assertEquals(-45, history.get("aa").getEwma(), EPSILON);
+    }
+
+    @Test
+    public void levelsOutsideByteRangeAreClamped() {
+        SignalHistory history = history(2, 10);
+        history.ingest(scan(ap("aa", -200), ap("bb", 200)), 0);
+        assertArrayEquals(new int[] {-128}, levels(history.get("aa")));
+        assertArrayEquals(new int[] {127}, levels(history.get("bb")));
+    }
+
+    @Test
+    public void recordsWithoutBssidAreSkipped() {
+        SignalHistory history = history(2, 10);
+        history.ingest(scan(ap(null, -50), ap("aa", -50)), 0);
+        assertEquals(1, history.size());
+    }
+
+    @Test
+    public void knownAccessPointsReuseTheirSeries() {
+        SignalHistory history = history(2, 10);
+        history.ingest(scan(ap("aa", -50)), 0);
+        SignalHistory.Series series = history.get("aa");
+        history.ingest(scan(ap(new String("aa"), -51)), 1000);
+        assertSame(series, history.get("aa"));
+        assertEquals(SignalHistory.bytesPerSeries(2), history.estimatedBytes());
+    }
+
+    @Test
+    public void staleAccessPointsAreSwept() {
+        SignalHistory history = history(2, 10);
+        history.ingest(scan(ap("aa", -50), ap("bb", -50)), 0);
+        history.ingest(scan(ap("bb", -50)), 50_000);
+        // Sweeps run every quarter of staleAfterMs, so the one at 50 s keeps aa
+        history.ingest(scan(ap("bb", -50)), 60_001);
+        assertNotNull(history.get("aa"));
+        history.ingest(scan(ap("bb", -50)), 65_000);
+        assertNull(history.get("aa"));
+        assertNotNull(history.get("bb"));
+    }
+
+    @Test
+    public void capEvictsTheLeastRecentlySeen() {
+        SignalHistory history = history(2, 2);
+        assertEquals(2, history.getMaxAccessPoints());
+        history.ingest(scan(ap("aa", -50)), 0);
+        history.ingest(scan(ap("bb", -50)), 1000);
+        history.ingest(scan(ap("aa", -50)), 2000);
+        history.ingest(scan(ap("cc", -50)), 3000);
+        assertEquals(2, history.size());
+        assertNull(history.get("bb"));
+        assertNotNull(history.get("aa"));
+        assertNotNull(history.get("cc"));
+    }
+
+    @Test
+    public void clearDropsEverything() {
+        SignalHistory history = history(2, 10);
+        history.ingest(scan(ap("aa", -50)), 0);
+        history.clear();
+        assertEquals(0, history.size());
+        history.ingest(Collections.<ScanRecord>emptyList(), 1000);
+        assertEquals(0, history.estimatedBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroDepth() {
+        new SignalHistory(0, 1 << 20, 60_000, 0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMemoryBelowOneAccessPoint() {
+        new SignalHistory(32, SignalHistory.bytesPerSeries(32) - 1, 60_000, 0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAlphaAboveOne() {
+        new SignalHistory(32, 1 << 20, 60_000, 1.5);
+    }
+}
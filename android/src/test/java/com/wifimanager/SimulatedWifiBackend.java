@@ -0,0 +1,166 @@
+package com.wifimanager;
+
+import android.os.Handler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic {@link WifiBackend} over a {@link SyntheticEnvironment}, for exercising the
+ * module's scan pipeline off-device.
+ *
+ * Every completed scan takes the environment's next {@link SyntheticEnvironment#scan()}. Scan
+ * broadcasts arrive after a configurable delay on the registered handler, can be dropped to
+ * provoke timeouts, and foreground scans are throttled like Android 9+ (four per two minutes)
+ * unless throttling is disabled.
+ *
+ * The same seed, settings and sequence of calls always produce the same results. Time comes
+ * from the given clock, which should be the one driving the handler under test. Not
+ * thread-safe; like every backend it is only called on the module's WiFi thread.
+ */
+final class SimulatedWifiBackend implements WifiBackend {
+    static final long DEFAULT_BROADCAST_DELAY_MS = 3000;
+    static final int THROTTLE_MAX_SCANS = 4;
+    static final long THROTTLE_WINDOW_MS = 2 * 60 * 1000;
+
+    private final Clock clock;
+    private final SyntheticEnvironment environment;
+    private final ArrayDeque<Long> recentScans = new ArrayDeque<>();
+    private boolean wifiEnabled = true;
+    private boolean throttleEnabled = true;
+    private long broadcastDelayMs = DEFAULT_BROADCAST_DELAY_MS;
+    private boolean dropBroadcasts = false;
+    private List<ScanRecord> results = new ArrayList<>();
+    private ScanResultsReceiver.Listener listener;
+    private Handler handler;
+    private int scansStarted = 0;
+    private int scansThrottled = 0;
+
+    SimulatedWifiBackend(Clock clock, long seed, int accessPoints) {
+        this.clock = clock;
+        this.environment = new SyntheticEnvironment(seed, accessPoints);
+    }
+
+    void setThrottleEnabled(boolean enabled) {
+        this.throttleEnabled = enabled;
+    }
+
+    /** @see SyntheticEnvironment#setRssiDriftDb(double) */
+    void setRssiDriftDb(double driftDb) {
+        environment.setRssiDriftDb(driftDb);
+    }
+
+    void setBroadcastDelayMs(long delayMs) {
+        if (delayMs < 0) {
+            throw new IllegalArgumentException("delayMs must not be negative");
+        }
+        this.broadcastDelayMs = delayMs;
+    }
+
+    /** While set, started scans never broadcast, so the module's scan timeout fires. */
+    void setDropBroadcasts(boolean drop) {
+        this.dropBroadcasts = drop;
+    }
+
+    int getScansStarted() {
+        return scansStarted;
+    }
+
+    int getScansThrottled() {
+        return scansThrottled;
+    }
+
+    boolean isListenerRegistered() {
+        return listener != null;
+    }
+
+    /** Completes a scan started by another app or the system, as a passive broadcast. */
+    void triggerExternalScan() {
+        scheduleBroadcast(true);
+    }
+
+    @Override
+    public boolean isWifiEnabled() {
+        return wifiEnabled;
+    }
+
+    @Override
+    public boolean setWifiEnabled(boolean enabled) {
+        wifiEnabled = enabled;
+        if (!enabled) {
+            results = new ArrayList<>();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isScanThrottleActive() {
+        return throttleEnabled;
+    }
+
+    @Override
+    public boolean startScan() {
+        if (!wifiEnabled) {
+            return false;
+        }
+        long now = clock.nowMillis();
+        while (!recentScans.isEmpty() && now - recentScans.peekFirst() >= THROTTLE_WINDOW_MS) {
+            recentScans.pollFirst();
+        }
+        if (throttleEnabled && recentScans.size() >= THROTTLE_MAX_SCANS) {
+            scansThrottled++;
+            // Android still broadcasts, with the previous results marked as not updated
+            scheduleBroadcast(false);
+            return false;
+        }
+        recentScans.addLast(now);
+        scansStarted++;
+        if (!dropBroadcasts) {
+            scheduleBroadcast(true);
+        }
+        return true;
+    }
+
+    @Override
+    public List<ScanRecord> getScanResults() {
+        return new ArrayList<>(results);
+    }
+
+    @Override
+    public boolean registerScanListener(ScanResultsReceiver.Listener listener, Handler handler) {
+        this.listener = listener;
+        this.handler = handler;
+        return true;
+    }
+
+    @Override
+    public void unregisterScanListener() {
+        listener = null;
+        handler = null;
+    }
+
+    private void scheduleBroadcast(final boolean updated) {
+        Handler target = handler;
+        if (target == null) {
+            // Nobody listens; a completed scan still updates the results
+            if (updated && wifiEnabled) {
+                results = environment.scan();
+            }
+            return;
+        }
+        target.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                if (updated && wifiEnabled) {
+                    results = environment.scan();
+                }
+                // Unregistered while the broadcast was in flight
+                ScanResultsReceiver.Listener current = listener;
+                if (current != null) {
+                    current.onScanResultsAvailable(updated);
+                }
+            }
+        }, updated ? broadcastDelayMs : 0);
+    }
+}
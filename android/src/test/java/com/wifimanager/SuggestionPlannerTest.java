@@ -0,0 +1,137 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.Test;
+
+import com.wifimanager.NetworkSuggestion.Security;
+import com.wifimanager.SuggestionPlanner.Entry;
+import com.wifimanager.SuggestionPlanner.Installed;
+import com.wifimanager.SuggestionPlanner.Status;
+
+public class SuggestionPlannerTest {
+    private final Map<String, Installed> installed = new HashMap<>();
+    private final Mac mac = hmac("install-secret");
+
+    static Mac hmac(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static NetworkSuggestion wpa2(String ssid, String password) {
+        return new NetworkSuggestion(ssid, password, Security.WPA2, false);
+    }
+
+    private void install(NetworkSuggestion suggestion) {
+        installed.put(suggestion.ssid,
+                new Installed(suggestion.ssid, suggestion.security, suggestion.fingerprint(mac), -1));
+    }
+
+    private static List<Status> statuses(List<Entry> entries) {
+        Status[] statuses = new Status[entries.size()];
+        for (int i = 0; i < statuses.length; i++) {
+            assertEquals(i, entries.get(i).index);
+            statuses[i] = entries.get(i).getStatus();
+        }
+        return Arrays.asList(statuses);
+    }
+
+    @Test
+    public void addClassifiesAgainstInstalledState() {
+        install(wpa2("same", "password"));
+        install(wpa2("changed", "password"));
+        List<Entry> entries = SuggestionPlanner.planAdd(Arrays.asList(
+                wpa2("new", "password"),
+                wpa2("same", "password"),
+                wpa2("changed", "password2")), installed, mac);
+
+        assertEquals(Arrays.asList(Status.ADDED, Status.UNCHANGED, Status.UPDATED), statuses(entries));
+        assertNull(entries.get(0).installed);
+        assertSame(installed.get("changed"), entries.get(2).installed);
+        assertEquals(wpa2("changed", "password2").fingerprint(mac), entries.get(2).fingerprint);
+        assertEquals(Arrays.asList(entries.get(0), entries.get(2)), SuggestionPlanner.pending(entries));
+    }
+
+    @Test
+    public void securityChangeNeedsTheOldSuggestionRemoved() {
+        install(wpa2("upgraded", "password"));
+        install(wpa2("rekeyed", "password"));
+        install(new NetworkSuggestion("opened", "password", Security.WPA2, false));
+        List<Entry> entries = SuggestionPlanner.planAdd(Arrays.asList(
+                new NetworkSuggestion("upgraded", "password", Security.WPA3, false),
+                wpa2("rekeyed", "password2"),
+                new NetworkSuggestion("opened", null, Security.OPEN, false),
+                wpa2("new", "password")), installed, mac);
+
+        assertEquals(Arrays.asList(Status.UPDATED, Status.UPDATED, Status.UPDATED, Status.ADDED), statuses(entries));
+        assertTrue(entries.get(0).changesSecurity());
+        assertEquals(Security.WPA2, entries.get(0).installed.security);
+        // Same SSID and security, so the platform replaces it in place
+        assertFalse(entries.get(1).changesSecurity());
+        assertTrue(entries.get(2).changesSecurity());
+        assertFalse(entries.get(3).changesSecurity());
+    }
+
+    @Test
+    public void invalidAndDuplicateEntriesFailAlone() {
+        List<Entry> entries = SuggestionPlanner.planAdd(Arrays.asList(
+                wpa2("home", "short"),
+                wpa2("home", "password"),
+                wpa2("home", "password2")), installed, mac);
+
+        assertEquals(Arrays.asList(Status.INVALID, Status.ADDED, Status.DUPLICATE), statuses(entries));
+        assertEquals("INVALID", entries.get(0).getErrorCode());
+        assertEquals("password must be 8 to 63 characters", entries.get(0).getMessage());
+        assertEquals("DUPLICATE", entries.get(2).getErrorCode());
+        // An invalid entry does not claim its SSID, so the valid one after it is kept
+        assertSame(entries.get(1), SuggestionPlanner.pending(entries).get(0));
+    }
+
+    @Test
+    public void removeClassifiesAgainstInstalledState() {
+        install(wpa2("home", "password"));
+        List<Entry> entries = SuggestionPlanner.planRemove(
+                Arrays.asList("home", "other", "", null, "home"), installed);
+
+        assertEquals(Arrays.asList(Status.REMOVED, Status.NOT_INSTALLED, Status.INVALID, Status.INVALID,
+                Status.DUPLICATE), statuses(entries));
+        assertSame(installed.get("home"), entries.get(0).installed);
+        assertEquals(Arrays.asList(entries.get(0)), SuggestionPlanner.pending(entries));
+    }
+
+    @Test
+    public void failedEntriesAreNoLongerPending() {
+        List<Entry> entries = SuggestionPlanner.planAdd(Arrays.asList(wpa2("home", "password")), installed, mac);
+        Entry entry = entries.get(0);
+        assertTrue(entry.isPending());
+        entry.fail("ERROR_WIFI_SUGGESTIONS_ADD_EXCEEDS_MAX_PER_APP", "too many suggestions");
+        assertFalse(entry.isPending());
+        assertEquals(Status.FAILED, entry.getStatus());
+        assertEquals("ERROR_WIFI_SUGGESTIONS_ADD_EXCEEDS_MAX_PER_APP", entry.getErrorCode());
+        assertTrue(SuggestionPlanner.pending(entries).isEmpty());
+    }
+
+    @Test
+    public void labelsAreCamelCase() {
+        assertEquals("added", Status.ADDED.label());
+        assertEquals("notInstalled", Status.NOT_INSTALLED.label());
+        assertEquals("duplicate", Status.DUPLICATE.label());
+    }
+}
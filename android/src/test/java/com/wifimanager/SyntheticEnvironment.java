@@ -0,0 +1,143 @@
+package com.wifimanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Seeded synthetic radio environment for tests and benchmarks.
+ *
+ * {@code accessPoints} BSSIDs are spread over the 2.4, 5 and 6 GHz bands, share a smaller pool
+ * of SSIDs (some hidden) and carry a realistic mix of capability strings. Each {@link #scan()}
+ * drifts every access point's RSSI around its base level with a mean-reverting random walk
+ * and leaves out those below the noise floor. The same seed and sequence of calls always
+ * produce the same scans. Not thread-safe.
+ */
+final class SyntheticEnvironment {
+    static final int MIN_ACCESS_POINTS = 1;
+    static final int MAX_ACCESS_POINTS = 4096;
+    static final double DEFAULT_RSSI_DRIFT_DB = 2.0;
+
+    private static final int NOISE_FLOOR_DBM = -92;
+    private static final int MIN_BASE_RSSI = -90;
+    private static final int MAX_BASE_RSSI = -30;
+    // Share of each access point's offset kept per scan; the rest decays back to its base level
+    private static final double DRIFT_RETENTION = 0.8;
+    private static final int[] CHANNELS_5_GHZ = {
+            36, 40, 44, 48, 52, 56, 60, 64, 100, 104, 108, 112, 116, 120, 124, 128,
+            132, 136, 140, 144, 149, 153, 157, 161, 165
+    };
+    private static final String[] CAPABILITIES = {
+            "[WPA2-PSK-CCMP][ESS]",
+            "[WPA2-PSK-CCMP][ESS]",
+            "[WPA2-PSK-CCMP][ESS]",
+            "[WPA2-PSK-CCMP][RSN-PSK+SAE-CCMP][ESS][MFPC]",
+            "[RSN-SAE-CCMP][ESS][MFPR][MFPC]",
+            "[WPA2-EAP/SHA1-CCMP][RSN-EAP/SHA1-CCMP][ESS]",
+            "[WPA-PSK-CCMP+TKIP][WPA2-PSK-CCMP+TKIP][ESS][WPS]",
+            "[RSN-OWE-CCMP][ESS][MFPR][MFPC]",
+            "[ESS]",
+            "[WEP][ESS]"
+    };
+
+    private final Random random;
+    private final AccessPoint[] accessPoints;
+    private double rssiDriftDb = DEFAULT_RSSI_DRIFT_DB;
+
+    private static final class AccessPoint {
+        final String ssid;
+        final String bssid;
+        final String capabilities;
+        final int frequency;
+        final int channelWidth;
+        final int centerFreq0;
+        final int baseRssi;
+        double offset;
+
+        AccessPoint(String ssid, String bssid, String capabilities, int frequency, int channelWidth,
+                    int centerFreq0, int baseRssi) {
+            this.ssid = ssid;
+            this.bssid = bssid;
+            this.capabilities = capabilities;
+            this.frequency = frequency;
+            this.channelWidth = channelWidth;
+            this.centerFreq0 = centerFreq0;
+            this.baseRssi = baseRssi;
+        }
+    }
+
+    SyntheticEnvironment(long seed, int accessPoints) {
+        if (accessPoints < MIN_ACCESS_POINTS || accessPoints > MAX_ACCESS_POINTS) {
+            throw new IllegalArgumentException("accessPoints must be between " + MIN_ACCESS_POINTS
+                    + " and " + MAX_ACCESS_POINTS);
+        }
+        this.random = new Random(seed);
+        this.accessPoints = new AccessPoint[accessPoints];
+        // Several BSSIDs per SSID, as in a managed network with many access points
+        int ssidCount = Math.max(1, accessPoints / 4);
+        for (int i = 0; i < accessPoints; i++) {
+            this.accessPoints[i] = generate(i, ssidCount);
+        }
+    }
+
+    private AccessPoint generate(int index, int ssidCount) {
+        int network = random.nextInt(ssidCount);
+        String ssid = network % 10 == 9 ? "" : "sim-" + network;
+        String capabilities = CAPABILITIES[(network * 7) % CAPABILITIES.length];
+        // Locally administered MAC addresses derived from the index
+        String bssid = String.format(Locale.US, "02:00:00:%02x:%02x:%02x",
+                (index >> 16) & 0xFF, (index >> 8) & 0xFF, index & 0xFF);
+        int baseRssi = MIN_BASE_RSSI + random.nextInt(MAX_BASE_RSSI - MIN_BASE_RSSI + 1);
+
+        int band = random.nextInt(10);
+        if (band < 5) {
+            int channel = 1 + random.nextInt(13);
+            return new AccessPoint(ssid, bssid, capabilities, 2407 + channel * 5,
+                    ChannelResolver.CHANNEL_WIDTH_20MHZ, 0, baseRssi);
+        } else if (band < 9) {
+            int channel = CHANNELS_5_GHZ[random.nextInt(CHANNELS_5_GHZ.length)];
+            if (channel == 165) {
+                return new AccessPoint(ssid, bssid, capabilities, 5000 + channel * 5,
+                        ChannelResolver.CHANNEL_WIDTH_20MHZ, 0, baseRssi);
+            }
+            // 80 MHz blocks start at 36, 52, 100, 116, 132 and 149
+            int center = channel >= 149 ? 155 : ((channel - 36) / 16) * 16 + 42;
+            return new AccessPoint(ssid, bssid, capabilities, 5000 + channel * 5,
+                    ChannelResolver.CHANNEL_WIDTH_80MHZ, 5000 + center * 5, baseRssi);
+        } else {
+            int channel = 1 + 4 * random.nextInt(56);
+            // 160 MHz blocks span channels 1-29, 33-61 and so on
+            int center = ((channel - 1) / 32) * 32 + 15;
+            return new AccessPoint(ssid, bssid, "[RSN-SAE-CCMP][ESS][MFPR][MFPC]", 5950 + channel * 5,
+                    ChannelResolver.CHANNEL_WIDTH_160MHZ, 5950 + center * 5, baseRssi);
+        }
+    }
+
+    int size() {
+        return accessPoints.length;
+    }
+
+    /** Standard deviation of the per-scan RSSI step in dB; 0 keeps every level at its base. */
+    void setRssiDriftDb(double driftDb) {
+        if (driftDb < 0) {
+            throw new IllegalArgumentException("driftDb must not be negative");
+        }
+        this.rssiDriftDb = driftDb;
+    }
+
+    /** Drifts every access point one step and returns those above the noise floor. */
+    List<ScanRecord> scan() {
+        List<ScanRecord> records = new ArrayList<>(accessPoints.length);
+        for (AccessPoint ap : accessPoints) {
+            ap.offset = ap.offset * DRIFT_RETENTION + random.nextGaussian() * rssiDriftDb;
+            int level = (int) Math.round(ap.baseRssi + ap.offset);
+            if (level < NOISE_FLOOR_DBM) {
+                continue;
+            }
+            records.add(ScanRecord.create(ap.ssid, ap.bssid, Math.min(level, -20), ap.capabilities,
+                    ap.frequency, ap.channelWidth, ap.centerFreq0));
+        }
+        return records;
+    }
+}
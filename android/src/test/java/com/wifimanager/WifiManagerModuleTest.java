@@ -0,0 +1,397 @@
+package com.wifimanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.Manifest;
+import android.app.Application;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+/**
+ * Runs the module's scan paths against a {@link SimulatedWifiBackend}. Robolectric drives the
+ * WiFi thread's looper, and the module's clock follows it, so broadcast delays, timeouts and
+ * the scan budget play out in simulated time.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, manifest = Config.NONE, shadows = WifiManagerModuleTest.ShadowArguments.class,
+        instrumentedPackages = "com.facebook.react.bridge")
+public class WifiManagerModuleTest {
+    private static final long SEED = 24;
+    private static final int ACCESS_POINTS = 60;
+    private static final long BROADCAST_DELAY_MS = 3000;
+
+    /** Builds payloads from the pure-Java containers instead of the native ones. */
+    @Implements(Arguments.class)
+    public static class ShadowArguments {
+        @Implementation
+        protected static WritableMap createMap() {
+            return new JavaOnlyMap();
+        }
+
+        @Implementation
+        protected static WritableArray createArray() {
+            return new JavaOnlyArray();
+        }
+    }
+
+    private static final Clock LOOPER_CLOCK = new Clock() {
+        @Override
+        public long nowMillis() {
+            return SystemClock.uptimeMillis();
+        }
+    };
+
+    // Epoch time that advances with the looper, so reported timestamps are predictable
+    private static final Clock WALL_CLOCK = new Clock() {
+        @Override
+        public long nowMillis() {
+            return 1_700_000_000_000L + SystemClock.uptimeMillis();
+        }
+    };
+
+    private Application application;
+    private DeviceEventManagerModule.RCTDeviceEventEmitter emitter;
+    private SimulatedWifiBackend backend;
+    private WifiManagerModule module;
+    private Looper wifiLooper;
+
+    @Before
+    public void setUp() throws Exception {
+        application = RuntimeEnvironment.getApplication();
+        shadowOf(application).grantPermissions(Manifest.permission.ACCESS_FINE_LOCATION,
+                Manifest.permission.NEARBY_WIFI_DEVICES);
+        // Abstract, so the bridge-specific methods fall back to defaults; the Context ones are real
+        ReactApplicationContext reactContext = mock(ReactApplicationContext.class,
+                withSettings().useConstructor(application).defaultAnswer(CALLS_REAL_METHODS));
+        emitter = mock(DeviceEventManagerModule.RCTDeviceEventEmitter.class);
+        doReturn(emitter).when(reactContext).getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class);
+
+        backend = new SimulatedWifiBackend(LOOPER_CLOCK, SEED, ACCESS_POINTS);
+        backend.setBroadcastDelayMs(BROADCAST_DELAY_MS);
+        module = new WifiManagerModule(reactContext, backend, LOOPER_CLOCK, WALL_CLOCK);
+        Field thread = WifiManagerModule.class.getDeclaredField("wifiThread");
+        thread.setAccessible(true);
+        wifiLooper = ((HandlerThread) thread.get(module)).getLooper();
+        // Background loopers run freely; paused, posted work only runs when a test advances time
+        shadowOf(wifiLooper).pause();
+    }
+
+    @After
+    public void tearDown() {
+        module.onCatalystInstanceDestroy();
+    }
+
+    private void advance(long millis) {
+        shadowOf(wifiLooper).idleFor(Duration.ofMillis(millis));
+    }
+
+    private static ReadableArray resolvedArray(Promise promise) {
+        ArgumentCaptor<Object> result = ArgumentCaptor.forClass(Object.class);
+        verify(promise).resolve(result.capture());
+        return (ReadableArray) result.getValue();
+    }
+
+    private static List<String> bssids(ReadableArray networks) {
+        List<String> bssids = new ArrayList<>();
+        for (int i = 0; i < networks.size(); i++) {
+            bssids.add(networks.getMap(i).getString("bssid"));
+        }
+        return bssids;
+    }
+
+    private static List<String> bssidsOf(List<ScanRecord> records) {
+        List<String> bssids = new ArrayList<>();
+        for (ScanRecord record : records) {
+            bssids.add(record.bssid);
+        }
+        return bssids;
+    }
+
+    /** Scan events sent so far, by name. */
+    private List<Object> events(String eventName) {
+        ArgumentCaptor<Object> data = ArgumentCaptor.forClass(Object.class);
+        verify(emitter, atLeastOnce()).emit(eq(eventName), data.capture());
+        return data.getAllValues();
+    }
+
+    @Test
+    public void scanResolvesOnceTheBroadcastArrives() {
+        Promise promise = mock(Promise.class);
+        module.scanWifiNetworks(null, promise);
+        advance(BROADCAST_DELAY_MS - 1);
+        verify(promise, never()).resolve(any());
+
+        advance(1);
+        ReadableArray networks = resolvedArray(promise);
+        // The backend serves the shared generator's first scan
+        List<ScanRecord> expected = new SyntheticEnvironment(SEED, ACCESS_POINTS).scan();
+        assertEquals(bssidsOf(expected), bssids(networks));
+        ReadableMap first = networks.getMap(0);
+        assertEquals(expected.get(0).level, first.getInt("signalStrength"));
+        assertEquals(expected.get(0).security.label, first.getString("security"));
+        assertEquals(1, backend.getScansStarted());
+        // The scan's reference on the receiver is dropped with the results
+        assertFalse(backend.isListenerRegistered());
+    }
+
+    @Test
+    public void concurrentScansShareOneBackendScan() {
+        Promise first = mock(Promise.class);
+        Promise second = mock(Promise.class);
+        module.scanWifiNetworks(null, first);
+        module.scanWifiNetworks(null, second);
+        advance(BROADCAST_DELAY_MS);
+        assertEquals(1, backend.getScansStarted());
+        assertEquals(bssids(resolvedArray(first)), bssids(resolvedArray(second)));
+    }
+
+    @Test
+    public void freshCachedResultsSkipTheScan() {
+        module.scanWifiNetworks(null, mock(Promise.class));
+        advance(BROADCAST_DELAY_MS);
+        advance(5_000);
+
+        Promise cached = mock(Promise.class);
+        module.scanWifiNetworks(JavaOnlyMap.of("maxAgeMs", 10_000.0), cached);
+        advance(0);
+        resolvedArray(cached);
+        assertEquals(1, backend.getScansStarted());
+
+        Promise stale = mock(Promise.class);
+        module.scanWifiNetworks(JavaOnlyMap.of("maxAgeMs", 1_000.0), stale);
+        advance(BROADCAST_DELAY_MS);
+        resolvedArray(stale);
+        assertEquals(2, backend.getScansStarted());
+    }
+
+    @Test
+    public void queryOptionsFilterTheResults() {
+        Promise promise = mock(Promise.class);
+        module.scanWifiNetworks(JavaOnlyMap.of("limit", 5.0, "sortBy", "signalStrength"), promise);
+        advance(BROADCAST_DELAY_MS);
+        ReadableArray networks = resolvedArray(promise);
+        assertEquals(5, networks.size());
+        for (int i = 1; i < networks.size(); i++) {
+            assertTrue(networks.getMap(i - 1).getInt("signalStrength") >= networks.getMap(i).getInt("signalStrength"));
+        }
+    }
+
+    @Test
+    public void droppedBroadcastTimesOut() {
+        backend.setDropBroadcasts(true);
+        Promise promise = mock(Promise.class);
+        module.scanWifiNetworks(null, promise);
+        advance(9_999);
+        verify(promise, never()).reject(anyString(), anyString());
+        advance(1);
+        verify(promise).reject(eq("SCAN_FAILED"), anyString());
+        assertFalse(backend.isListenerRegistered());
+    }
+
+    @Test
+    public void exhaustedBudgetServesTheLastResults() {
+        List<String> last = null;
+        for (int i = 0; i < SimulatedWifiBackend.THROTTLE_MAX_SCANS; i++) {
+            Promise promise = mock(Promise.class);
+            module.scanWifiNetworks(null, promise);
+            advance(BROADCAST_DELAY_MS);
+            last = bssids(resolvedArray(promise));
+        }
+        Promise throttled = mock(Promise.class);
+        module.scanWifiNetworks(null, throttled);
+        advance(0);
+        assertEquals(last, bssids(resolvedArray(throttled)));
+        assertEquals(SimulatedWifiBackend.THROTTLE_MAX_SCANS, backend.getScansStarted());
+        assertEquals(0, backend.getScansThrottled());
+    }
+
+    @Test
+    public void servedResultsKeepTheAgeOfTheirScan() {
+        for (int i = 0; i < SimulatedWifiBackend.THROTTLE_MAX_SCANS; i++) {
+            module.scanWifiNetworks(null, mock(Promise.class));
+            advance(BROADCAST_DELAY_MS);
+        }
+        long scannedAt = WALL_CLOCK.nowMillis();
+        assertEquals(scannedAt, module.getLastScanResultsSync().getDouble("timestamp"), 0);
+        module.addListener("wifiScanResults");
+        advance(5_000);
+        int emitted = events("wifiScanResults").size();
+        Promise throttled = mock(Promise.class);
+        module.scanWifiNetworks(null, throttled);
+        advance(0);
+        List<String> last = bssids(resolvedArray(throttled));
+        assertEquals(emitted + 1, events("wifiScanResults").size());
+        // Served results keep the wall time of the scan that produced them
+        assertEquals(scannedAt, module.getLastScanResultsSync().getDouble("timestamp"), 0);
+
+        // The served results are 5 s old, so they are not a cache hit; the request goes to the
+        // throttle again, which serves and emits them once more
+        Promise recent = mock(Promise.class);
+        module.scanWifiNetworks(JavaOnlyMap.of("maxAgeMs", 2_000.0), recent);
+        advance(0);
+        assertEquals(last, bssids(resolvedArray(recent)));
+        assertEquals(emitted + 2, events("wifiScanResults").size());
+    }
+
+    @Test
+    public void disabledWifiRejects() {
+        backend.setWifiEnabled(false);
+        Promise promise = mock(Promise.class);
+        module.scanWifiNetworks(null, promise);
+        advance(0);
+        verify(promise).reject(eq("WIFI_DISABLED"), anyString());
+        assertEquals(0, backend.getScansStarted());
+    }
+
+    @Test
+    public void missingPermissionRejects() {
+        shadowOf(application).denyPermissions(Manifest.permission.ACCESS_FINE_LOCATION,
+                Manifest.permission.NEARBY_WIFI_DEVICES);
+        Promise promise = mock(Promise.class);
+        module.scanWifiNetworks(null, promise);
+        advance(0);
+        verify(promise).reject(eq("PERMISSION_DENIED"), anyString());
+    }
+
+    @Test
+    public void streamEmitsAScanEventPerInterval() {
+        backend.setThrottleEnabled(false);
+        module.addListener("wifiScanResults");
+        Promise started = mock(Promise.class);
+        module.startScanStream(JavaOnlyMap.of("minIntervalMs", 10_000.0, "maxIntervalMs", 60_000.0), started);
+        advance(BROADCAST_DELAY_MS);
+        verify(started).resolve(true);
+        assertEquals(1, events("wifiScanResults").size());
+
+        advance(10_000 + BROADCAST_DELAY_MS);
+        assertEquals(2, events("wifiScanResults").size());
+        assertEquals(2, backend.getScansStarted());
+
+        module.stopScanStream(mock(Promise.class));
+        advance(120_000);
+        assertEquals(2, backend.getScansStarted());
+    }
+
+    @Test
+    public void passiveScansReachSubscribedListenersOnly() {
+        module.addListener("wifiScanResults");
+        advance(0);
+        assertTrue(backend.isListenerRegistered());
+        backend.triggerExternalScan();
+        advance(BROADCAST_DELAY_MS);
+        List<Object> events = events("wifiScanResults");
+        assertEquals(1, events.size());
+        assertEquals(bssidsOf(new SyntheticEnvironment(SEED, ACCESS_POINTS).scan()),
+                bssids((ReadableArray) events.get(0)));
+
+        module.removeEventListeners("wifiScanResults", 1);
+        advance(0);
+        assertFalse(backend.isListenerRegistered());
+        backend.triggerExternalScan();
+        advance(BROADCAST_DELAY_MS);
+        assertEquals(1, events("wifiScanResults").size());
+    }
+
+    @Test
+    public void trackedListenersWithoutScanSubscriptionsGetNoScanEvents() {
+        module.addListener("wifiConnectionChanged");
+        Promise promise = mock(Promise.class);
+        module.scanWifiNetworks(null, promise);
+        advance(BROADCAST_DELAY_MS);
+        resolvedArray(promise);
+        verify(emitter, never()).emit(eq("wifiScanResults"), any());
+    }
+
+    @Test
+    public void diffEventsStartWithAKeyframe() {
+        module.configureScanEvents(JavaOnlyMap.of("mode", "diff"), mock(Promise.class));
+        module.addListener("wifiScanDiff");
+        advance(0);
+        backend.triggerExternalScan();
+        advance(BROADCAST_DELAY_MS);
+        // Enough drift that some levels move past the diff hysteresis
+        backend.setRssiDriftDb(10);
+        backend.triggerExternalScan();
+        advance(BROADCAST_DELAY_MS);
+
+        List<Object> diffs = events("wifiScanDiff");
+        assertEquals(2, diffs.size());
+        ReadableMap keyframe = (ReadableMap) diffs.get(0);
+        assertTrue(keyframe.getBoolean("keyframe"));
+        assertEquals(bssidsOf(new SyntheticEnvironment(SEED, ACCESS_POINTS).scan()),
+                bssids(keyframe.getArray("added")));
+        ReadableMap delta = (ReadableMap) diffs.get(1);
+        assertFalse(delta.getBoolean("keyframe"));
+        assertEquals(2, delta.getDouble("sequence"), 0);
+        assertTrue(delta.getArray("changed").size() > 0);
+        verify(emitter, times(0)).emit(eq("wifiScanResults"), any());
+    }
+
+    @Test
+    public void wifiInfoReadsHoldTheMonitorUntilTheyGoIdle() {
+        ConnectivityManager connectivity = (ConnectivityManager) application.getSystemService(Context.CONNECTIVITY_SERVICE);
+        Promise first = mock(Promise.class);
+        module.getCurrentWifiInfo(null, first);
+        advance(0);
+        verify(first).resolve(isNull());
+        assertEquals(1, shadowOf(connectivity).getNetworkCallbacks().size());
+
+        // Each read restarts the idle timeout
+        advance(50_000);
+        module.getCurrentWifiInfo(null, mock(Promise.class));
+        advance(50_000);
+        assertEquals(1, shadowOf(connectivity).getNetworkCallbacks().size());
+        advance(10_000);
+        assertTrue(shadowOf(connectivity).getNetworkCallbacks().isEmpty());
+
+        // The monitor's own holders keep it past the idle timeout
+        module.startConnectionMonitor(null, mock(Promise.class));
+        module.getCurrentWifiInfo(null, mock(Promise.class));
+        advance(120_000);
+        assertEquals(1, shadowOf(connectivity).getNetworkCallbacks().size());
+    }
+}
@@ -4,15 +4,403 @@ export interface WifiNetwork {
   signalStrength: number;
   capabilities: string;
   frequency: number;
+  /** Primary channel number (0 if the frequency is not a known 802.11 channel) */
   channel: number;
+  /** '2.4GHz', '5GHz', '6GHz' or '60GHz'; null for unknown frequencies */
+  band: '2.4GHz' | '5GHz' | '6GHz' | '60GHz' | null;
+  /** Channel number at the center of the occupied channel (differs from channel for 40 MHz and wider) */
+  centerChannel: number;
+  /** Channel width in MHz (20, 40, 80, 160 or 320; 2160 on 60 GHz) */
+  channelWidth: number;
+  /** Strongest advertised security, parsed natively from capabilities */
+  security: 'open' | 'wep' | 'wpa' | 'wpa2' | 'wpa3' | 'owe' | 'enterprise';
+  /** Bitmask of SecurityFlags parsed from capabilities */
+  securityFlags: number;
 }
 
+/** Bits of WifiNetwork.securityFlags */
+export declare const SecurityFlags: {
+  readonly WEP: number;
+  readonly WPA: number;
+  /** WPA2 / RSN */
+  readonly RSN: number;
+  readonly WAPI: number;
+  readonly PSK: number;
+  readonly SAE: number;
+  readonly OWE: number;
+  readonly EAP: number;
+  /** WPA3-Enterprise 192-bit */
+  readonly EAP_SUITE_B: number;
+  /** Fast transition (802.11r) */
+  readonly FT: number;
+  readonly TKIP: number;
+  readonly CCMP: number;
+  readonly GCMP: number;
+  /** Management frame protection required */
+  readonly MFPR: number;
+  /** Management frame protection capable */
+  readonly MFPC: number;
+  readonly WPS: number;
+  readonly ESS: number;
+  readonly IBSS: number;
+};
+
 export interface WifiInfo {
   ssid: string;
   signalStrength: number;
   networkId: number;
 }
 
+/** Every field getCurrentWifiInfo can return when selected with `fields` (Android) */
+export interface WifiInfoDetails extends WifiInfo {
+  bssid: string | null;
+  /** Mbps */
+  linkSpeed: number;
+  /** Mbps, null before API 29 or when unknown */
+  txLinkSpeed: number | null;
+  /** Mbps, null before API 29 or when unknown */
+  rxLinkSpeed: number | null;
+  frequency: number;
+  band: '2.4GHz' | '5GHz' | '6GHz' | '60GHz' | null;
+  channel: number;
+  /** null before API 30 or when unknown */
+  wifiStandard: 'legacy' | '11n' | '11ac' | '11ax' | '11ad' | '11be' | null;
+  /** IPv4 address if there is one, otherwise the first IPv6 address */
+  ipAddress: string | null;
+  dnsServers: string[];
+  /** Rough achievable TCP throughput in Mbps derived from the PHY rate */
+  throughputEstimate: number;
+}
+
+export type WifiInfoField = keyof WifiInfoDetails;
+
+export interface ScanOptions {
+  /**
+   * Accept a cached scan snapshot up to this age (in milliseconds) instead of starting a new scan.
+   * Defaults to 0, which always requests a fresh scan. Concurrent callers share one in-flight scan.
+   */
+  maxAgeMs?: number;
+  /** Drop networks weaker than this RSSI in dBm */
+  minRssi?: number;
+  /** Only keep networks on these bands */
+  bands?: Array<'2.4GHz' | '5GHz' | '6GHz' | '60GHz'>;
+  /** Only keep networks whose strongest advertised security is one of these */
+  security?: Array<'open' | 'wep' | 'wpa' | 'wpa2' | 'wpa3' | 'owe' | 'enterprise'>;
+  /** Only keep SSIDs starting with this prefix */
+  ssidPrefix?: string;
+  /** Only keep SSIDs matching this Java regular expression */
+  ssidPattern?: string;
+  /** Drop networks with an empty or hidden SSID */
+  excludeHidden?: boolean;
+  /** Keep only the strongest BSSID per SSID */
+  dedupeBySsid?: boolean;
+  /** Sort key; defaults to signalStrength when a limit is given */
+  sortBy?: 'signalStrength' | 'ssid' | 'frequency' | 'channel';
+  /** Defaults to 'desc' for signalStrength and 'asc' otherwise */
+  sortOrder?: 'asc' | 'desc';
+  /** Return at most this many networks, selected natively */
+  limit?: number;
+  /**
+   * Result encoding (default 'maps'). 'columnar' and 'binary' avoid one map per network;
+   * decode them with decodeScanPayload from src/decodeScanPayload
+   */
+  format?: 'maps' | 'columnar' | 'binary';
+}
+
+export interface ColumnarScanPayload {
+  format: 'columnar';
+  count: number;
+  /** String table; the ssid, bssid, capabilities and security columns index into it (-1 for null) */
+  strings: string[];
+  ssid: number[];
+  bssid: number[];
+  capabilities: number[];
+  signalStrength: number[];
+  frequency: number[];
+  channel: number[];
+  /** Indexes into strings (-1 for unknown band) */
+  band: number[];
+  centerChannel: number[];
+  channelWidth: number[];
+  security: number[];
+  securityFlags: number[];
+}
+
+export interface BinaryScanPayload {
+  format: 'binary';
+  count: number;
+  /** Base64 encoded packed columns */
+  data: string;
+}
+
+export interface ScanStreamOptions {
+  /** Initial interval between scans in milliseconds (defaults to minIntervalMs) */
+  intervalMs?: number;
+  /** Shortest interval used when the environment keeps changing (default 30000) */
+  minIntervalMs?: number;
+  /** Longest interval used when results stay the same (default 240000) */
+  maxIntervalMs?: number;
+}
+
+export interface ScanEventOptions {
+  /** 'full' emits wifiScanResults with every network, 'diff' emits wifiScanDiff deltas (default 'full') */
+  mode?: 'full' | 'diff';
+  /** Minimum RSSI movement in dB before a network counts as changed (default 3) */
+  rssiHysteresisDb?: number;
+  /** Emit a full keyframe every N diffs so listeners can resync (default 10) */
+  keyframeInterval?: number;
+}
+
+export interface ScanDiff {
+  /** Increases by one for every emitted diff; a gap means a diff was missed */
+  sequence: number;
+  /** When true, added holds the full list and replaces any previous state */
+  keyframe: boolean;
+  added: WifiNetwork[];
+  changed: WifiNetwork[];
+  /** BSSIDs that are no longer visible */
+  removed: string[];
+}
+
+export interface ChannelStats {
+  channel: number;
+  /** Access points using this as their primary channel */
+  apCount: number;
+  /** Access points whose occupied spectrum (including 40/80/160 MHz widths) overlaps this channel */
+  overlappingCount: number;
+  /** Overlap-weighted total received power in dBm, null when the channel is clear */
+  interferenceDbm: number | null;
+  /** Whether the channel is considered for the recommendation (1/6/11, 5 GHz 20 MHz channels, 6 GHz PSCs) */
+  candidate: boolean;
+}
+
+export interface BandAnalysis {
+  band: '2.4GHz' | '5GHz' | '6GHz' | '60GHz';
+  apCount: number;
+  /** Least congested candidate channel */
+  recommendedChannel: number;
+  channels: ChannelStats[];
+}
+
+export interface ChannelAnalysis {
+  /** Epoch time in milliseconds of the scan the analysis is based on */
+  timestamp: number;
+  bands: BandAnalysis[];
+}
+
+/** Distribution summary; percentiles are accurate to about 6% */
+export interface MetricHistogram {
+  count: number;
+  mean: number;
+  p50: number;
+  p90: number;
+  p99: number;
+  max: number;
+}
+
+export interface WifiMetrics {
+  scans: {
+    started: number;
+    /** Scans answered from the last results because the local scan budget was used up */
+    budgetExhausted: number;
+    /** Scans the OS refused or answered without new results */
+    throttled: number;
+    timeouts: number;
+    /** startScan() to the results broadcast */
+    latencyMs: MetricHistogram;
+    /** Networks per delivered scan */
+    results: MetricHistogram;
+  };
+  bridge: {
+    /** Time to build scan payloads */
+    conversionMicros: MetricHistogram;
+    /** Estimated serialized size of scan payloads and events */
+    payloadBytes: MetricHistogram;
+  };
+  connects: {
+    succeeded: number;
+    /** Failed attempts, excluding cancelled ones */
+    failed: number;
+    /** connectToWifi() until connected (and validated where required) */
+    latencyMs: MetricHistogram;
+  };
+  /** Epoch time in milliseconds since which metrics were collected */
+  since: number;
+}
+
+export interface ScanBudget {
+  /** Whether the OS scan throttle applies on this device */
+  throttled: boolean;
+  /** Scans left in the current window */
+  remaining: number;
+  maxScans: number;
+  windowMs: number;
+  /** Milliseconds until the next scan fits in the budget (0 if one is available) */
+  nextScanAllowedInMs: number;
+  /** Epoch time in milliseconds of the next allowed scan */
+  nextScanAllowedAt: number;
+}
+
+export interface ConnectOptions {
+  /** Milliseconds to wait for the connection before failing (default 30000) */
+  timeoutMs?: number;
+  /**
+   * Before API 29, wait until the network is validated rather than just associated with an IP
+   * (default true, API 23+). Turn off for networks without internet access.
+   */
+  requireValidation?: boolean;
+  /** Passphrase type for the API 29+ network request (default 'wpa2') */
+  security?: 'wpa2' | 'wpa3';
+}
+
+export interface SignalHistoryOptions {
+  /** Samples kept per access point (default 32) */
+  depth?: number;
+  /** Upper bound on the estimated history size; caps the number of tracked access points (default 262144) */
+  maxMemoryBytes?: number;
+  /** Access points not seen for this long are dropped (default 600000) */
+  staleAfterMs?: number;
+  /** EWMA smoothing factor in (0, 1]; higher follows new samples faster (default 0.3) */
+  ewmaAlpha?: number;
+}
+
+/** Retained RSSI samples and statistics of one access point */
+export interface SignalHistory {
+  bssid: string;
+  /** dBm, oldest first */
+  signalStrength: number[];
+  /** Epoch time in milliseconds of each sample */
+  timestamps: number[];
+  samples: number;
+  ewma: number;
+  min: number;
+  max: number;
+  mean: number;
+  variance: number;
+  /** Epoch time in milliseconds of the latest sample */
+  lastSeen: number;
+}
+
+export interface ScanLogOptions {
+  /** A new file is started once the current one would exceed this size (default 1048576) */
+  maxFileBytes?: number;
+  /** The oldest files are deleted to keep the log under this size (default 16777216) */
+  maxTotalBytes?: number;
+  /** Longest time buffered scans may wait before being written to disk (default 10000) */
+  flushIntervalMs?: number;
+}
+
+export interface ScanLogExportResult {
+  /** Absolute path of the exported file in the app's cache directory */
+  path: string;
+  files: number;
+  scans: number;
+  /** Network sightings across all scans */
+  rows: number;
+  bytes: number;
+}
+
+export interface ConnectionMonitorOptions {
+  /** Minimum RSSI change in dB since the last event that is worth reporting (default 5) */
+  rssiDeltaThreshold?: number;
+  /** Minimum milliseconds between signal, link speed and frequency updates (default 1000) */
+  minIntervalMs?: number;
+}
+
+/** Payload of wifiConnectionChanged and result of startConnectionMonitor */
+export interface LinkState {
+  connected: boolean;
+  ssid: string | null;
+  bssid: string | null;
+  /** The remaining link fields are only present while connected */
+  signalStrength?: number;
+  /** Mbps */
+  linkSpeed?: number;
+  frequency?: number;
+  band?: '2.4GHz' | '5GHz' | '6GHz' | '60GHz' | null;
+  channel?: number;
+  /** Epoch time in milliseconds */
+  timestamp: number;
+}
+
+export interface RoamingOptions {
+  /** Networks to choose from. A password lets autoConnect join the network */
+  networks?: { ssid: string; password?: string }[];
+  /** Also consider networks installed with addNetworkSuggestions() (default true) */
+  includeSuggestions?: boolean;
+  /** Connect to a recommended network with a different SSID (default false) */
+  autoConnect?: boolean;
+  /** Score margin in dB a candidate needs over the current access point (default 8) */
+  hysteresisDb?: number;
+  /** How long a candidate must keep that margin before it is recommended (default 15000) */
+  dwellMs?: number;
+  /** Access points weaker than this are ignored (default -80) */
+  minRssi?: number;
+  /** How long a failed connection lowers the score of its SSID (default 300000) */
+  failureWindowMs?: number;
+}
+
+/** Payload of recommendedNetwork */
+export interface NetworkRecommendation {
+  ssid: string;
+  bssid: string;
+  signalStrength: number;
+  frequency: number;
+  channel: number;
+  band: '2.4GHz' | '5GHz' | '6GHz' | '60GHz' | null;
+  /** Signal in dBm adjusted for band, security, congestion and recent failures */
+  score: number;
+  /** Access point in use, null while disconnected or if it was not in the scan */
+  currentBssid: string | null;
+  currentScore: number | null;
+  /** Whether autoConnect started connecting to this network */
+  connecting: boolean;
+  /** Epoch time in milliseconds */
+  timestamp: number;
+}
+
+export interface NetworkSuggestionEntry {
+  ssid: string;
+  /** Omit for open networks */
+  password?: string;
+  /** Defaults to 'open' without a password and 'wpa2' with one */
+  security?: 'open' | 'wpa2' | 'wpa3';
+  hidden?: boolean;
+}
+
+export type NetworkSuggestionStatus =
+  | 'added'
+  | 'updated'
+  | 'unchanged'
+  | 'removed'
+  | 'notInstalled'
+  | 'invalid'
+  | 'duplicate'
+  | 'failed';
+
+/** Outcome of one entry of an add/removeNetworkSuggestions batch */
+export interface NetworkSuggestionResult {
+  /** Position of the entry in the request */
+  index: number;
+  ssid: string | null;
+  status: NetworkSuggestionStatus;
+  /** Set for invalid, duplicate and failed entries */
+  code?: string;
+  message?: string;
+}
+
+/** Rejection codes of connectToWifi */
+export type ConnectErrorCode =
+  | 'AUTH_FAILED'
+  | 'NETWORK_NOT_FOUND'
+  | 'NETWORK_UNAVAILABLE'
+  | 'CONNECTION_TIMEOUT'
+  | 'CONNECTION_CANCELLED'
+  | 'CONNECTION_FAILED'
+  | 'CONNECTION_ERROR'
+  | 'PERMISSION_DENIED'
+  | 'INVALID_OPTIONS';
+
 export interface PermissionStatus {
   hasWifiState: boolean;
   hasChangeWifiState: boolean;
@@ -28,15 +416,123 @@ export interface PermissionStatus {
 export interface WifiManagerInterface {
   /**
    * Scan for available WiFi networks
+   * @param options Optional cache settings and a query (filters, sort, limit) applied natively
    * @returns Promise<WifiNetwork[]> Array of available networks
    */
-  scanWifiNetworks(): Promise<WifiNetwork[]>;
+  scanWifiNetworks(options?: ScanOptions & { format?: 'maps' }): Promise<WifiNetwork[]>;
+  scanWifiNetworks(options: ScanOptions & { format: 'columnar' }): Promise<ColumnarScanPayload>;
+  scanWifiNetworks(options: ScanOptions & { format: 'binary' }): Promise<BinaryScanPayload>;
 
   /**
-   * Scan for available WiFi networks with automatic permission request
+   * Start scanning continuously in the background. Results are emitted as wifiScanResults events.
+   * The interval backs off while results are unchanged and tightens when they change,
+   * never exceeding the OS scan throttle (Android only).
+   * @param options Interval bounds
+   * @returns Promise<boolean> True once the stream is running
+   */
+  startScanStream(options?: ScanStreamOptions): Promise<boolean>;
+
+  /**
+   * Stop the continuous scan stream
+   * @returns Promise<boolean> True once the stream is stopped
+   */
+  stopScanStream(): Promise<boolean>;
+
+  /**
+   * Start pushing wifiConnectionChanged events from OS connectivity callbacks (Android only).
+   * Connects, disconnects and roams are emitted at once; signal, link speed and frequency
+   * changes are coalesced to at most one event per minIntervalMs.
+   * @returns Promise<LinkState> The current link
+   */
+  startConnectionMonitor(options?: ConnectionMonitorOptions): Promise<LinkState>;
+
+  /** Stop the connection monitor (Android only) */
+  stopConnectionMonitor(): Promise<null>;
+
+  /**
+   * Score known networks on every scan and emit recommendedNetwork when switching is worth it
+   * (Android only). Calling it again replaces the options.
+   * @returns Promise with the number of candidate networks
+   */
+  startRoaming(options?: RoamingOptions): Promise<{ networks: number }>;
+
+  /** Stop roaming recommendations (Android only) */
+  stopRoaming(): Promise<null>;
+
+  /**
+   * Analyze channel congestion natively from a scan (Android only)
+   * @param options maxAgeMs accepts a cached scan up to that age
+   * @returns Promise<ChannelAnalysis> Per-band channel statistics and recommendations
+   */
+  analyzeChannels(options?: { maxAgeMs?: number }): Promise<ChannelAnalysis>;
+
+  /**
+   * Choose how scan results are emitted to event listeners (Android only)
+   * @param options Event mode and diff settings
+   * @returns Promise<boolean> True once applied
+   */
+  configureScanEvents(options?: ScanEventOptions): Promise<boolean>;
+
+  /**
+   * Get the recorded RSSI history of an access point (Android only). Every completed scan
+   * adds one sample per access point.
+   * @returns Promise<SignalHistory | null> null if the BSSID is not tracked
+   */
+  getSignalHistory(bssid: string): Promise<SignalHistory | null>;
+
+  /**
+   * Resize the signal history (Android only). Clears the recorded history.
+   * @returns Promise with the depth and the resulting maximum number of tracked access points
+   */
+  configureSignalHistory(options?: SignalHistoryOptions): Promise<{ depth: number; maxAccessPoints: number }>;
+
+  /**
+   * Start recording every fresh scan to a compact log in app-private storage (Android only).
+   * Calling it again while recording applies the new options to a new file.
+   * @returns Promise with the log directory and its current size in bytes
+   */
+  startScanLog(options?: ScanLogOptions): Promise<{ directory: string; bytes: number }>;
+
+  /**
+   * Stop recording. The log stays on disk until clearScanLog().
+   * @returns Promise with the number of scans recorded in this session and the log size in bytes
+   */
+  stopScanLog(): Promise<{ scans: number; bytes: number }>;
+
+  /**
+   * Write the whole scan log to a CSV (one row per network per scan) or JSON file
+   * @returns Promise<ScanLogExportResult> Location and size of the export
+   */
+  exportScanLog(options?: { format?: 'csv' | 'json' }): Promise<ScanLogExportResult>;
+
+  /**
+   * Delete all recorded scans. Recording continues into a new file if it was started.
+   * @returns Promise<boolean> True once deleted
+   */
+  clearScanLog(): Promise<boolean>;
+
+  /**
+   * Get the remaining OS scan budget (Android 9+ allows 4 scans per 2 minutes)
+   * @returns Promise<ScanBudget> Budget state
+   */
+  getScanBudget(): Promise<ScanBudget>;
+
+  /**
+   * Get counters and latency histograms collected since startup or the last reset (Android only)
+   * @returns Promise<WifiMetrics> Metrics snapshot
+   */
+  getWifiMetrics(): Promise<WifiMetrics>;
+
+  /** Clear all metrics (Android only) */
+  resetWifiMetrics(): Promise<null>;
+
+  /**
+   * Scan for available WiFi networks with automatic permission request. The scan starts as
+   * soon as the permission result arrives; concurrent calls share one permission dialog.
+   * @param options timeoutMs bounds the wait for the user's answer (default 60000)
    * @returns Promise<WifiNetwork[]> Array of available networks
    */
-  scanWifiNetworksWithPermissionRequest(): Promise<WifiNetwork[]>;
+  scanWifiNetworksWithPermissionRequest(options?: { timeoutMs?: number }): Promise<WifiNetwork[]>;
 
   /**
    * Request required permissions for WiFi scanning
@@ -54,9 +550,23 @@ export interface WifiManagerInterface {
    * Connect to a WiFi network
    * @param ssid Network SSID
    * @param password Network password
-   * @returns Promise<boolean> True if connection successful
+   * @param options Connection options (Android only)
+   * @returns Promise<boolean> Resolves true once connected; rejects with a ConnectErrorCode
+   */
+  connectToWifi(ssid: string, password: string, options?: ConnectOptions): Promise<boolean>;
+
+  /**
+   * Install networks in one call (Android only). Uses network suggestions on API 29+ and saved
+   * configurations before that. Entries already installed with the same settings are skipped.
+   * @returns One result per entry, in request order
+   */
+  addNetworkSuggestions(networks: NetworkSuggestionEntry[]): Promise<NetworkSuggestionResult[]>;
+
+  /**
+   * Remove networks installed with addNetworkSuggestions (Android only)
+   * @returns One result per SSID, in request order
    */
-  connectToWifi(ssid: string, password: string): Promise<boolean>;
+  removeNetworkSuggestions(ssids: string[]): Promise<NetworkSuggestionResult[]>;
 
   /**
    * Disconnect from current WiFi network
@@ -70,6 +580,14 @@ export interface WifiManagerInterface {
    */
   getCurrentWifiInfo(): Promise<WifiInfo | null>;
 
+  /**
+   * Get only the selected fields of the current connection (Android only). Values come from the
+   * connection monitor's snapshot, so repeated reads don't query the system; the monitor is
+   * released a minute after the last read.
+   * @returns Promise with the selected fields, or null if not connected
+   */
+  getCurrentWifiInfo<F extends WifiInfoField>(options: { fields: F[] }): Promise<Pick<WifiInfoDetails, F> | null>;
+
   /**
    * Check if WiFi is enabled
    * @returns Promise<boolean> True if WiFi is enabled
@@ -82,11 +600,58 @@ export interface WifiManagerInterface {
    * @returns Promise<boolean> True if operation successful
    */
   setWifiEnabled(enabled: boolean): Promise<boolean>;
+
+  /** Whether WiFi is enabled, answered synchronously (Android only) */
+  isWifiEnabledSync(): boolean;
+
+  /**
+   * The latest link state known to the connection monitor, answered synchronously (Android
+   * only). null unless startConnectionMonitor(), an event listener or a getCurrentWifiInfo()
+   * call in the last minute keeps the monitor running.
+   */
+  getCachedLinkState(): LinkState | null;
+
+  /** Cached permission state, answered synchronously (Android only) */
+  getPermissionStatusSync(): PermissionStatus;
+
+  /**
+   * The last delivered scan in the binary format, answered synchronously (Android only).
+   * Decode it with decodeScanPayload from src/decodeScanPayload.
+   */
+  getLastScanResultsSync(): (BinaryScanPayload & { timestamp: number }) | null;
 }
 
 declare const WifiManager: WifiManagerInterface;
 export default WifiManager;
 
+export type WifiManagerEventName =
+  | 'wifiScanResults'
+  | 'wifiScanDiff'
+  | 'wifiConnected'
+  | 'wifiDisconnected'
+  | 'wifiConnectionChanged'
+  | 'recommendedNetwork';
+
+export interface WifiManagerEventSubscription {
+  remove(): void;
+}
+
+export interface WifiManagerEventEmitter {
+  addListener(eventType: 'wifiScanResults', listener: (networks: WifiNetwork[]) => void): WifiManagerEventSubscription;
+  addListener(eventType: 'wifiScanDiff', listener: (diff: ScanDiff) => void): WifiManagerEventSubscription;
+  addListener(eventType: 'wifiConnected', listener: (ssid: string | null) => void): WifiManagerEventSubscription;
+  addListener(eventType: 'wifiDisconnected', listener: () => void): WifiManagerEventSubscription;
+  addListener(eventType: 'wifiConnectionChanged', listener: (link: LinkState) => void): WifiManagerEventSubscription;
+  addListener(eventType: 'recommendedNetwork', listener: (recommendation: NetworkRecommendation) => void): WifiManagerEventSubscription;
+  removeAllListeners(eventType: WifiManagerEventName): void;
+}
+
+/**
+ * Native event emitter. While a wifiScanResults or wifiScanDiff listener is subscribed, results
+ * of scans started by other apps or the system are emitted too (Android only).
+ */
+export declare const WifiManagerEvents: WifiManagerEventEmitter;
+
 // React Component types
 export interface WifiManagerProps {
   /** Controls modal visibility */
@@ -108,9 +673,9 @@ export interface UseWifiManagerReturn {
   /** Error message */
   error: string | null;
   /** Function to scan networks */
-  scanNetworks: () => Promise<WifiNetwork[]>;
+  scanNetworks: (options?: ScanOptions) => Promise<WifiNetwork[]>;
   /** Function to connect to WiFi */
-  connectToWifi: (ssid: string, password: string) => Promise<boolean>;
+  connectToWifi: (ssid: string, password: string, options?: ConnectOptions) => Promise<boolean>;
   /** Function to disconnect from WiFi */
   disconnectFromWifi: () => Promise<boolean>;
   /** Function to get current WiFi info */
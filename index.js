@@ -1,9 +1,113 @@
-import { NativeModules, Platform } from 'react-native';
+import { NativeEventEmitter, Platform } from 'react-native';
+import NativeWifiManager from './src/NativeWifiManager';
 
-const { WifiManager } = NativeModules;
-
-if (!WifiManager) {
+if (!NativeWifiManager) {
   throw new Error('WifiManager native module is not available. Make sure to link the library properly.');
 }
 
-export default WifiManager; 
\ No newline at end of file
+// Methods are listed explicitly because a TurboModule is a JSI host object and cannot be spread
+const WifiManager = {
+  // Native methods take a required options map; default it here so existing callers keep working
+  scanWifiNetworks: (options = {}) => NativeWifiManager.scanWifiNetworks(options),
+  startScanStream: (options = {}) => NativeWifiManager.startScanStream(options),
+  stopScanStream: () => NativeWifiManager.stopScanStream(),
+  analyzeChannels: (options = {}) => NativeWifiManager.analyzeChannels(options),
+  configureScanEvents: (options = {}) => NativeWifiManager.configureScanEvents(options),
+  getScanBudget: () => NativeWifiManager.getScanBudget(),
+  scanWifiNetworksWithPermissionRequest: (options = {}) =>
+    NativeWifiManager.scanWifiNetworksWithPermissionRequest(options),
+  configureSignalHistory: (options = {}) => NativeWifiManager.configureSignalHistory(options),
+  getSignalHistory: (bssid) => NativeWifiManager.getSignalHistory(bssid),
+  startScanLog: (options = {}) => NativeWifiManager.startScanLog(options),
+  stopScanLog: () => NativeWifiManager.stopScanLog(),
+  exportScanLog: (options = {}) => NativeWifiManager.exportScanLog(options),
+  clearScanLog: () => NativeWifiManager.clearScanLog(),
+  startConnectionMonitor: (options = {}) => NativeWifiManager.startConnectionMonitor(options),
+  stopConnectionMonitor: () => NativeWifiManager.stopConnectionMonitor(),
+  startRoaming: (options = {}) => NativeWifiManager.startRoaming(options),
+  stopRoaming: () => NativeWifiManager.stopRoaming(),
+  disconnectFromWifi: () => NativeWifiManager.disconnectFromWifi(),
+  addNetworkSuggestions: (networks) => NativeWifiManager.addNetworkSuggestions(networks),
+  removeNetworkSuggestions: (ssids) => NativeWifiManager.removeNetworkSuggestions(ssids),
+  isWifiEnabled: () => NativeWifiManager.isWifiEnabled(),
+  setWifiEnabled: (enabled) => NativeWifiManager.setWifiEnabled(enabled),
+  checkPermissions: () => NativeWifiManager.checkPermissions(),
+  requestPermissions: () => NativeWifiManager.requestPermissions(),
+  getWifiMetrics: () => NativeWifiManager.getWifiMetrics(),
+  resetWifiMetrics: () => NativeWifiManager.resetWifiMetrics(),
+  // Synchronous reads of cached state (Android)
+  isWifiEnabledSync: () => NativeWifiManager.isWifiEnabledSync(),
+  getCachedLinkState: () => NativeWifiManager.getCachedLinkState(),
+  getPermissionStatusSync: () => NativeWifiManager.getPermissionStatusSync(),
+  getLastScanResultsSync: () => NativeWifiManager.getLastScanResultsSync(),
+  // The iOS module has no options argument for these
+  getCurrentWifiInfo: (options = {}) =>
+    Platform.OS === 'android'
+      ? NativeWifiManager.getCurrentWifiInfo(options)
+      : NativeWifiManager.getCurrentWifiInfo(),
+  connectToWifi: (ssid, password, options = {}) =>
+    Platform.OS === 'android'
+      ? NativeWifiManager.connectToWifi(ssid, password, options)
+      : NativeWifiManager.connectToWifi(ssid, password),
+};
+
+// Bits of WifiNetwork.securityFlags; mirrors SecurityCapabilities on Android
+export const SecurityFlags = Object.freeze({
+  WEP: 1,
+  WPA: 1 << 1,
+  RSN: 1 << 2,
+  WAPI: 1 << 3,
+  PSK: 1 << 4,
+  SAE: 1 << 5,
+  OWE: 1 << 6,
+  EAP: 1 << 7,
+  EAP_SUITE_B: 1 << 8,
+  FT: 1 << 9,
+  TKIP: 1 << 10,
+  CCMP: 1 << 11,
+  GCMP: 1 << 12,
+  MFPR: 1 << 13,
+  MFPC: 1 << 14,
+  WPS: 1 << 15,
+  ESS: 1 << 16,
+  IBSS: 1 << 17,
+});
+
+// Emits wifiScanResults, wifiScanDiff, wifiConnected, wifiDisconnected, wifiConnectionChanged
+// and recommendedNetwork
+// On Android subscriptions are reported to native with their event name, so scan payloads are
+// only built when a scan listener exists. NativeEventEmitter would only report an anonymous
+// count on removal.
+const nativeEmitter = new NativeEventEmitter(Platform.OS === 'android' ? undefined : NativeWifiManager);
+const androidSubscriptions = {};
+
+export const WifiManagerEvents = {
+  addListener: (eventType, listener) => {
+    const subscription = nativeEmitter.addListener(eventType, listener);
+    if (Platform.OS !== 'android') {
+      return subscription;
+    }
+    const active = androidSubscriptions[eventType] || (androidSubscriptions[eventType] = new Set());
+    const wrapper = {
+      remove: () => {
+        if (active.delete(wrapper)) {
+          subscription.remove();
+          NativeWifiManager.removeEventListeners(eventType, 1);
+        }
+      },
+    };
+    active.add(wrapper);
+    NativeWifiManager.addListener(eventType);
+    return wrapper;
+  },
+  removeAllListeners: (eventType) => {
+    nativeEmitter.removeAllListeners(eventType);
+    const active = androidSubscriptions[eventType];
+    if (active && active.size > 0) {
+      NativeWifiManager.removeEventListeners(eventType, active.size);
+      active.clear();
+    }
+  },
+};
+
+export default WifiManager;
@@ -2,7 +2,8 @@
 
 @interface RCT_EXTERN_MODULE(WifiManagerModule, NSObject)
 
-RCT_EXTERN_METHOD(scanWifiNetworks:(RCTPromiseResolveBlock)resolve
+RCT_EXTERN_METHOD(scanWifiNetworks:(NSDictionary *)options
+                  resolver:(RCTPromiseResolveBlock)resolve
                   rejecter:(RCTPromiseRejectBlock)reject)
 
 RCT_EXTERN_METHOD(connectToWifi:(NSString *)ssid
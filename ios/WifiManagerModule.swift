@@ -11,7 +11,7 @@ class WifiManagerModule: NSObject {
     }
     
     @objc
-    func scanWifiNetworks(_ resolve: @escaping RCTPromiseResolveBlock, rejecter reject: @escaping RCTPromiseRejectBlock) {
+    func scanWifiNetworks(_ options: NSDictionary, resolver resolve: @escaping RCTPromiseResolveBlock, rejecter reject: @escaping RCTPromiseRejectBlock) {
         // Note: iOS doesn't allow direct WiFi scanning like Android
         // This is a limitation of iOS security model
         reject("NOT_SUPPORTED", "WiFi scanning is not supported on iOS due to platform restrictions", nil)
@@ -0,0 +1,58 @@
+import type { TurboModule } from 'react-native';
+import { TurboModuleRegistry } from 'react-native';
+
+// Codegen spec of the Android module. Options and results stay untyped Objects here because
+// codegen maps them to ReadableMap / WritableMap; the public types live in index.d.ts.
+// On the old architecture, and on iOS, TurboModuleRegistry falls back to the bridge module.
+export interface Spec extends TurboModule {
+  // Scanning
+  scanWifiNetworks(options: Object): Promise<Object>;
+  scanWifiNetworksWithPermissionRequest(options: Object): Promise<Object>;
+  startScanStream(options: Object): Promise<Object>;
+  stopScanStream(): Promise<boolean>;
+  configureScanEvents(options: Object): Promise<boolean>;
+  analyzeChannels(options: Object): Promise<Object>;
+  getScanBudget(): Promise<Object>;
+
+  // Signal history and scan log
+  configureSignalHistory(options: Object): Promise<Object>;
+  getSignalHistory(bssid: string): Promise<Object | null>;
+  startScanLog(options: Object): Promise<Object>;
+  stopScanLog(): Promise<Object>;
+  exportScanLog(options: Object): Promise<Object>;
+  clearScanLog(): Promise<boolean>;
+
+  // Connections
+  connectToWifi(ssid: string, password: string, options: Object): Promise<boolean>;
+  disconnectFromWifi(): Promise<boolean>;
+  addNetworkSuggestions(networks: Array<Object>): Promise<Array<Object>>;
+  removeNetworkSuggestions(ssids: Array<string>): Promise<Array<Object>>;
+  getCurrentWifiInfo(options: Object): Promise<Object | null>;
+  startConnectionMonitor(options: Object): Promise<Object>;
+  stopConnectionMonitor(): Promise<null>;
+  startRoaming(options: Object): Promise<Object>;
+  stopRoaming(): Promise<null>;
+
+  // Adapter and permissions
+  isWifiEnabled(): Promise<boolean>;
+  setWifiEnabled(enabled: boolean): Promise<boolean>;
+  checkPermissions(): Promise<Object>;
+  requestPermissions(): Promise<boolean>;
+
+  // Metrics
+  getWifiMetrics(): Promise<Object>;
+  resetWifiMetrics(): Promise<null>;
+
+  // Synchronous reads of cached state; each is a field read on the native side
+  isWifiEnabledSync(): boolean;
+  getCachedLinkState(): Object | null;
+  getPermissionStatusSync(): Object;
+  getLastScanResultsSync(): Object | null;
+
+  // NativeEventEmitter
+  addListener(eventName: string): void;
+  removeListeners(count: number): void;
+  removeEventListeners(eventName: string, count: number): void;
+}
+
+export default TurboModuleRegistry.get<Spec>('WifiManager');
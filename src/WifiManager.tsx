@@ -21,6 +21,11 @@ interface WifiNetwork {
   capabilities: string;
   frequency: number;
   channel: number;
+  band: string | null;
+  centerChannel: number;
+  channelWidth: number;
+  security: string;
+  securityFlags: number;
 }
 
 interface WifiManagerProps {
@@ -129,14 +134,18 @@ const WifiManagerComponent: React.FC<WifiManagerProps> = ({
     return '📶';
   };
 
-  const getSecurityType = (capabilities: string) => {
-    if (capabilities.includes('WPA3')) return 'WPA3';
-    if (capabilities.includes('WPA2')) return 'WPA2';
-    if (capabilities.includes('WPA')) return 'WPA';
-    if (capabilities.includes('WEP')) return 'WEP';
-    return 'Open';
+  const SECURITY_LABELS: Record<string, string> = {
+    open: 'Open',
+    wep: 'WEP',
+    wpa: 'WPA',
+    wpa2: 'WPA2',
+    wpa3: 'WPA3',
+    owe: 'Enhanced Open',
+    enterprise: 'Enterprise',
   };
 
+  const getSecurityType = (security: string) => SECURITY_LABELS[security] || 'Open';
+
   const renderNetworkItem = ({ item }: { item: WifiNetwork }) => (
     <TouchableOpacity
       style={styles.networkItem}
@@ -145,7 +154,7 @@ const WifiManagerComponent: React.FC<WifiManagerProps> = ({
       <View style={styles.networkInfo}>
         <Text style={styles.networkName}>{item.ssid}</Text>
         <Text style={styles.networkDetails}>
-          {getSecurityType(item.capabilities)} • Channel {item.channel}
+          {getSecurityType(item.security)} • Channel {item.channel}
         </Text>
       </View>
       <View style={styles.networkSignal}>
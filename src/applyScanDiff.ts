@@ -0,0 +1,38 @@
+interface WifiNetwork {
+  ssid: string;
+  bssid: string;
+  signalStrength: number;
+  capabilities: string;
+  frequency: number;
+  channel: number;
+  band: string | null;
+  centerChannel: number;
+  channelWidth: number;
+  security: string;
+  securityFlags: number;
+}
+
+interface ScanDiff {
+  sequence: number;
+  keyframe: boolean;
+  added: WifiNetwork[];
+  changed: WifiNetwork[];
+  removed: string[];
+}
+
+/**
+ * Applies a wifiScanDiff event to a BSSID-keyed map of networks and returns a new map.
+ * Keyframes replace the whole state.
+ */
+export const applyScanDiff = (
+  networks: Map<string, WifiNetwork>,
+  diff: ScanDiff
+): Map<string, WifiNetwork> => {
+  const next = diff.keyframe ? new Map<string, WifiNetwork>() : new Map(networks);
+  diff.added.forEach((network) => next.set(network.bssid, network));
+  diff.changed.forEach((network) => next.set(network.bssid, network));
+  diff.removed.forEach((bssid) => next.delete(bssid));
+  return next;
+};
+
+export default applyScanDiff;
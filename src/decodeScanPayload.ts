@@ -0,0 +1,176 @@
+// Strings are null where the maps format has null, e.g. a missing BSSID, or where a column holds -1
+interface WifiNetwork {
+  ssid: string | null;
+  bssid: string | null;
+  signalStrength: number;
+  capabilities: string | null;
+  frequency: number;
+  channel: number;
+  band: string | null;
+  centerChannel: number;
+  channelWidth: number;
+  security: string | null;
+  securityFlags: number;
+}
+
+interface ColumnarScanPayload {
+  format: 'columnar';
+  count: number;
+  strings: string[];
+  ssid: number[];
+  bssid: number[];
+  capabilities: number[];
+  signalStrength: number[];
+  frequency: number[];
+  channel: number[];
+  band: number[];
+  centerChannel: number[];
+  channelWidth: number[];
+  security: number[];
+  securityFlags: number[];
+}
+
+interface BinaryScanPayload {
+  format: 'binary';
+  count: number;
+  data: string;
+}
+
+type ScanPayload = WifiNetwork[] | ColumnarScanPayload | BinaryScanPayload;
+
+const BASE64_ALPHABET = 'ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/';
+const BASE64_LOOKUP = new Uint8Array(128);
+for (let i = 0; i < BASE64_ALPHABET.length; i++) {
+  BASE64_LOOKUP[BASE64_ALPHABET.charCodeAt(i)] = i;
+}
+
+const decodeBase64 = (data: string): Uint8Array => {
+  const padding = data.endsWith('==') ? 2 : data.endsWith('=') ? 1 : 0;
+  const bytes = new Uint8Array((data.length * 3) / 4 - padding);
+  let offset = 0;
+  for (let i = 0; i < data.length; i += 4) {
+    const chunk =
+      (BASE64_LOOKUP[data.charCodeAt(i)] << 18) |
+      (BASE64_LOOKUP[data.charCodeAt(i + 1)] << 12) |
+      (BASE64_LOOKUP[data.charCodeAt(i + 2)] << 6) |
+      BASE64_LOOKUP[data.charCodeAt(i + 3)];
+    if (offset < bytes.length) bytes[offset++] = (chunk >> 16) & 0xff;
+    if (offset < bytes.length) bytes[offset++] = (chunk >> 8) & 0xff;
+    if (offset < bytes.length) bytes[offset++] = chunk & 0xff;
+  }
+  return bytes;
+};
+
+// TextDecoder is not available on every Hermes version
+const decodeUtf8 = (bytes: Uint8Array, start: number, end: number): string => {
+  let result = '';
+  let i = start;
+  while (i < end) {
+    const byte = bytes[i++];
+    let codePoint: number;
+    if (byte < 0x80) {
+      codePoint = byte;
+    } else if (byte < 0xe0) {
+      codePoint = ((byte & 0x1f) << 6) | (bytes[i++] & 0x3f);
+    } else if (byte < 0xf0) {
+      codePoint = ((byte & 0x0f) << 12) | ((bytes[i++] & 0x3f) << 6) | (bytes[i++] & 0x3f);
+    } else {
+      codePoint =
+        ((byte & 0x07) << 18) |
+        ((bytes[i++] & 0x3f) << 12) |
+        ((bytes[i++] & 0x3f) << 6) |
+        (bytes[i++] & 0x3f);
+    }
+    result += String.fromCodePoint(codePoint);
+  }
+  return result;
+};
+
+const decodeBinary = (payload: BinaryScanPayload): ColumnarScanPayload => {
+  const bytes = decodeBase64(payload.data);
+  let offset = 0;
+  const readVarint = (): number => {
+    let value = 0;
+    let shift = 0;
+    let byte: number;
+    do {
+      byte = bytes[offset++];
+      value |= (byte & 0x7f) << shift;
+      shift += 7;
+    } while (byte & 0x80);
+    return value;
+  };
+
+  if (bytes[0] !== 0x57 || bytes[1] !== 0x53) {
+    throw new Error('Invalid binary scan payload');
+  }
+  if (bytes[2] !== 3) {
+    throw new Error(`Unsupported binary scan payload version ${bytes[2]}`);
+  }
+  offset = 3;
+  const count = readVarint();
+  const strings: string[] = new Array(readVarint());
+  for (let i = 0; i < strings.length; i++) {
+    const length = readVarint();
+    strings[i] = decodeUtf8(bytes, offset, offset + length);
+    offset += length;
+  }
+  const readColumn = (map: (value: number) => number): number[] => {
+    const column: number[] = new Array(count);
+    for (let i = 0; i < count; i++) {
+      column[i] = map(readVarint());
+    }
+    return column;
+  };
+  const toIndex = (value: number) => value - 1;
+  const fromZigZag = (value: number) => (value >>> 1) ^ -(value & 1);
+  const identity = (value: number) => value;
+
+  return {
+    format: 'columnar',
+    count,
+    strings,
+    ssid: readColumn(toIndex),
+    bssid: readColumn(toIndex),
+    capabilities: readColumn(toIndex),
+    signalStrength: readColumn(fromZigZag),
+    frequency: readColumn(identity),
+    channel: readColumn(identity),
+    band: readColumn(toIndex),
+    centerChannel: readColumn(identity),
+    channelWidth: readColumn(identity),
+    security: readColumn(toIndex),
+    securityFlags: readColumn(identity),
+  };
+};
+
+/**
+ * Converts a scanWifiNetworks result in any format ('maps', 'columnar' or 'binary')
+ * into the regular array of network objects.
+ */
+export const decodeScanPayload = (payload: ScanPayload): WifiNetwork[] => {
+  if (Array.isArray(payload)) {
+    return payload;
+  }
+  const columns = payload.format === 'binary' ? decodeBinary(payload) : payload;
+  const lookup = (index: number) => (index >= 0 ? columns.strings[index] : null);
+  const networks: WifiNetwork[] = new Array(columns.count);
+  for (let i = 0; i < columns.count; i++) {
+    networks[i] = {
+      ssid: lookup(columns.ssid[i]),
+      bssid: lookup(columns.bssid[i]),
+      signalStrength: columns.signalStrength[i],
+      capabilities: lookup(columns.capabilities[i]),
+      frequency: columns.frequency[i],
+      channel: columns.channel[i],
+      band: columns.band[i] >= 0 ? columns.strings[columns.band[i]] : null,
+      centerChannel: columns.centerChannel[i],
+      channelWidth: columns.channelWidth[i],
+      security: lookup(columns.security[i]),
+      securityFlags: columns.securityFlags[i],
+    };
+  }
+  return networks;
+};
+
+export default decodeScanPayload;
@@ -8,6 +8,11 @@ interface WifiNetwork {
   capabilities: string;
   frequency: number;
   channel: number;
+  band: string | null;
+  centerChannel: number;
+  channelWidth: number;
+  security: string;
+  securityFlags: number;
 }
 
 interface WifiInfo {
@@ -16,6 +21,26 @@ interface WifiInfo {
   networkId: number;
 }
 
+interface ScanOptions {
+  maxAgeMs?: number;
+  minRssi?: number;
+  bands?: Array<'2.4GHz' | '5GHz' | '6GHz' | '60GHz'>;
+  security?: Array<'open' | 'wep' | 'wpa' | 'wpa2' | 'wpa3' | 'owe' | 'enterprise'>;
+  ssidPrefix?: string;
+  ssidPattern?: string;
+  excludeHidden?: boolean;
+  dedupeBySsid?: boolean;
+  sortBy?: 'signalStrength' | 'ssid' | 'frequency' | 'channel';
+  sortOrder?: 'asc' | 'desc';
+  limit?: number;
+}
+
+interface ConnectOptions {
+  timeoutMs?: number;
+  requireValidation?: boolean;
+  security?: 'wpa2' | 'wpa3';
+}
+
 interface PermissionStatus {
   hasWifiState: boolean;
   hasChangeWifiState: boolean;
@@ -34,11 +59,11 @@ export const useWifiManager = () => {
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string | null>(null);
 
-  const scanNetworks = useCallback(async () => {
+  const scanNetworks = useCallback(async (options?: ScanOptions) => {
     setLoading(true);
     setError(null);
     try {
-      const results = await WifiManager.scanWifiNetworks();
+      const results = await WifiManager.scanWifiNetworks(options);
       setNetworks(results);
       return results;
     } catch (err) {
@@ -88,11 +113,11 @@ export const useWifiManager = () => {
     }
   }, []);
 
-  const connectToWifi = useCallback(async (ssid: string, password: string) => {
+  const connectToWifi = useCallback(async (ssid: string, password: string, options?: ConnectOptions) => {
     setLoading(true);
     setError(null);
     try {
-      await WifiManager.connectToWifi(ssid, password);
+      await WifiManager.connectToWifi(ssid, password, options);
       // Refresh current WiFi info after connection
       await getCurrentWifiInfo();
       return true;